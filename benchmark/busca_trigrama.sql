@@ -0,0 +1,95 @@
+-- Benchmark das buscas por substring com índices de trigramas (V4__indices_trigrama.sql).
+--
+-- Uso (banco descartável, NUNCA o de produção):
+--   createdb petshop_bench
+--   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/petshop_bench mvn spring-boot:run   # aplica as migrações e encerra com Ctrl+C
+--   psql -d petshop_bench -v ON_ERROR_STOP=1 -f benchmark/busca_trigrama.sql
+--
+-- Gera alguns milhões de linhas, mostra EXPLAIN ANALYZE de cada busca e falha
+-- (RAISE EXCEPTION) se alguma delas não usar o índice de trigramas correspondente.
+
+\timing on
+
+TRUNCATE atendimento, pets, contato, endereco, cliente, raca RESTART IDENTITY CASCADE;
+
+-- Palavras usadas para montar textos com distribuição parecida com a real
+CREATE TEMP TABLE palavras (i INT, nome TEXT, sobrenome TEXT, cidade TEXT, bairro TEXT, rua TEXT, servico TEXT);
+INSERT INTO palavras
+SELECT i,
+       (ARRAY['Ana','Bruno','Carla','Daniel','Eduarda','Felipe','Gabriela','Henrique','Isabela','João','Larissa','Marcos','Natália','Otávio','Paula','Rafael','Sofia','Thiago','Vitória','William'])[1 + i % 20],
+       (ARRAY['Silva','Santos','Oliveira','Souza','Rodrigues','Ferreira','Alves','Pereira','Lima','Gomes','Costa','Ribeiro','Martins','Carvalho','Almeida','Lopes','Soares','Fernandes','Vieira','Barbosa'])[1 + (i / 20) % 20],
+       (ARRAY['São Paulo','Rio de Janeiro','Belo Horizonte','Curitiba','Porto Alegre','Salvador','Recife','Fortaleza','Goiânia','Florianópolis'])[1 + i % 10],
+       (ARRAY['Centro','Jardim América','Vila Nova','Boa Vista','Santa Cruz','Bela Vista','Liberdade','Moema','Savassi','Batel'])[1 + (i / 10) % 10],
+       (ARRAY['Rua das Flores','Avenida Brasil','Rua XV de Novembro','Rua da Paz','Avenida Paulista','Rua Sete de Setembro','Rua Augusta','Avenida Atlântica'])[1 + i % 8],
+       (ARRAY['Consulta veterinária','Banho e tosa','Vacinação antirrábica','Vermifugação','Castração','Exame de sangue','Limpeza dentária','Aplicação de antipulgas'])[1 + i % 8]
+FROM generate_series(0, 999) i;
+
+-- Pais com ids explícitos (1..N), referenciados abaixo por aritmética; as sequências andam em blocos
+-- de 50 (V9) e são ajustadas depois da carga
+INSERT INTO raca (id, descricao)
+SELECT i, 'Raça ' || md5(i::text) FROM generate_series(1, 50000) i;
+
+INSERT INTO cliente (id, nome, cpf, data_cadastro)
+SELECT g, p.nome || ' ' || p.sobrenome || ' ' || substr(md5(g::text), 1, 6), NULL, DATE '2015-01-01' + (g % 3650)
+FROM generate_series(1, 2000000) g
+JOIN palavras p ON p.i = g % 1000;
+
+INSERT INTO pets (id, id_cliente, id_raca, data_nascimento, nome)
+SELECT g, 1 + (g % 2000000), 1 + (g % 50000), DATE '2010-01-01' + (g % 5000), 'Pet ' || substr(md5(g::text), 1, 10)
+FROM generate_series(1, 3000000) g;
+
+INSERT INTO contato (id_cliente, tag, tipo, valor)
+SELECT 1 + (g % 2000000),
+       CASE WHEN g % 2 = 0 THEN 'Principal' ELSE 'Trabalho ' || (g % 97) END,
+       CASE WHEN g % 2 = 0 THEN 'email' ELSE 'telefone' END,
+       CASE WHEN g % 2 = 0 THEN substr(md5(g::text), 1, 12) || '@exemplo.com.br' ELSE '(11) 9' || lpad((g % 100000000)::text, 8, '0') END
+FROM generate_series(1, 2000000) g;
+
+INSERT INTO endereco (id_cliente, logradouro, cidade, bairro, tag)
+SELECT 1 + (g % 2000000), p.rua || ', ' || (g % 5000), p.cidade, p.bairro || ' ' || (g % 300), 'Residencial ' || (g % 50)
+FROM generate_series(1, 2000000) g
+JOIN palavras p ON p.i = g % 1000;
+
+INSERT INTO atendimento (id_pet, id_cliente, descricao, valor, data)
+SELECT 1 + (g % 3000000), 1 + (g % 2000000), p.servico || ' - ' || md5(g::text), 50 + (g % 450), DATE '2015-01-01' + (g % 3650)
+FROM generate_series(1, 5000000) g
+JOIN palavras p ON p.i = g % 1000;
+
+SELECT setval('raca_id_seq', (SELECT max(id) FROM raca) + 50, false);
+SELECT setval('cliente_id_seq', (SELECT max(id) FROM cliente) + 50, false);
+SELECT setval('pets_id_seq', (SELECT max(id) FROM pets) + 50, false);
+
+ANALYZE;
+
+-- Cada busca da aplicação, com o índice que ela deve usar
+CREATE TEMP TABLE buscas (consulta TEXT, indice TEXT);
+INSERT INTO buscas VALUES
+    ($q$SELECT * FROM cliente WHERE nome LIKE '%Ferreira 3a%'$q$,                'idx_cliente_nome_trgm'),
+    ($q$SELECT * FROM pets WHERE nome LIKE '%c4ca42%'$q$,                        'idx_pets_nome_trgm'),
+    ($q$SELECT * FROM contato WHERE valor LIKE '%a87ff6%'$q$,                    'idx_contato_valor_trgm'),
+    ($q$SELECT * FROM contato WHERE tag LIKE '%Trabalho 42%'$q$,                 'idx_contato_tag_trgm'),
+    ($q$SELECT * FROM endereco WHERE cidade LIKE '%Florianó%'$q$,                'idx_endereco_cidade_trgm'),
+    ($q$SELECT * FROM endereco WHERE bairro LIKE '%Liberdade 17%'$q$,            'idx_endereco_bairro_trgm'),
+    ($q$SELECT * FROM endereco WHERE logradouro LIKE '%Augusta, 123%'$q$,        'idx_endereco_logradouro_trgm'),
+    ($q$SELECT * FROM endereco WHERE tag LIKE '%Residencial 4%'$q$,              'idx_endereco_tag_trgm'),
+    ($q$SELECT * FROM raca WHERE descricao ILIKE '%RAÇA E4DA3B%'$q$,             'idx_raca_descricao_trgm'),
+    ($q$SELECT * FROM atendimento WHERE descricao LIKE '%1679091c%'$q$,          'idx_atendimento_descricao_trgm');
+
+DO $$
+DECLARE
+    busca RECORD;
+    plano TEXT;
+    linha TEXT;
+BEGIN
+    FOR busca IN SELECT * FROM buscas LOOP
+        plano := '';
+        FOR linha IN EXECUTE 'EXPLAIN (ANALYZE, BUFFERS) ' || busca.consulta LOOP
+            plano := plano || linha || E'\n';
+        END LOOP;
+        RAISE NOTICE E'%\n%', busca.consulta, plano;
+        IF position(busca.indice IN plano) = 0 THEN
+            RAISE EXCEPTION 'Busca sem índice de trigramas (%): %', busca.indice, busca.consulta;
+        END IF;
+    END LOOP;
+END
+$$;
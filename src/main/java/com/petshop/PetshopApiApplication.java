@@ -1,14 +1,21 @@
 package com.petshop;
 
+import com.petshop.config.CopiaEmMassaRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Arrays;
+import java.util.stream.Stream;
+
 @SpringBootApplication
 public class PetshopApiApplication {
 
     public static void main(String[] args) {
+        // Carga/exportação em massa (ver CopiaEmMassaRunner): sem servidor web nem tarefas agendadas
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + CopiaEmMassaRunner.OPERACAO + "="))) {
+            args = Stream.concat(Stream.of("--spring.main.web-application-type=none"), Arrays.stream(args)).toArray(String[]::new);
+        }
         SpringApplication.run(PetshopApiApplication.class, args);
     }
 
 }
-
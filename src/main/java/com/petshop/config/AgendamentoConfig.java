@@ -0,0 +1,14 @@
+package com.petshop.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tarefas @Scheduled só na aplicação web: o modo de cópia em massa (CopiaEmMassaRunner) roda sem elas
+ */
+@Configuration
+@ConditionalOnWebApplication
+@EnableScheduling
+public class AgendamentoConfig {
+}
@@ -0,0 +1,70 @@
+package com.petshop.config;
+
+import com.petshop.service.CopiaEmMassaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Modo de linha de comando para carga e exportação em massa:
+ * --copia.operacao=importar|exportar [--copia.diretorio=copia].
+ * A aplicação sobe sem servidor web (spring.main.web-application-type=none, ver PetshopApiApplication),
+ * então não abre porta nem carrega a segurança HTTP e as tarefas agendadas. Executa a operação,
+ * registra linhas/s por tabela e encerra a JVM antes dos ouvintes de ApplicationReadyEvent
+ * (carga do autocomplete, LISTEN de revogação de tokens).
+ */
+@Component
+@ConditionalOnProperty(CopiaEmMassaRunner.OPERACAO)
+public class CopiaEmMassaRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopiaEmMassaRunner.class);
+
+    public static final String OPERACAO = "copia.operacao";
+
+    @Autowired
+    private CopiaEmMassaService copiaEmMassaService;
+
+    @Autowired
+    private ConfigurableApplicationContext contexto;
+
+    @Value("${copia.operacao}")
+    private String operacao;
+
+    @Value("${copia.diretorio:copia}")
+    private String diretorio;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int codigo = 0;
+        long inicio = System.nanoTime();
+        try {
+            Path caminho = Path.of(diretorio);
+            List<CopiaEmMassaService.Resultado> resultados = switch (operacao) {
+                case "importar" -> copiaEmMassaService.importar(caminho);
+                case "exportar" -> copiaEmMassaService.exportar(caminho);
+                default -> throw new IllegalArgumentException("Operação inválida: " + operacao + " (use importar ou exportar)");
+            };
+            long linhas = resultados.stream().mapToLong(CopiaEmMassaService.Resultado::linhas).sum();
+            long descartadas = resultados.stream().mapToLong(CopiaEmMassaService.Resultado::descartadas).sum();
+            CopiaEmMassaService.Resultado total = new CopiaEmMassaService.Resultado("total", linhas, descartadas, System.nanoTime() - inicio);
+            logger.info("Operação '{}' em {} concluída: {} linhas em {} s ({} linhas/s), {} descartadas",
+                    operacao, caminho.toAbsolutePath(), linhas, total.nanos() / 1_000_000_000L, total.linhasPorSegundo(), descartadas);
+        } catch (Exception e) {
+            logger.error("Operação '{}' falhou, nada foi gravado pela importação: {}", operacao, e.getMessage(), e);
+            codigo = 1;
+        }
+
+        int saida = codigo;
+        System.exit(SpringApplication.exit(contexto, () -> saida));
+    }
+}
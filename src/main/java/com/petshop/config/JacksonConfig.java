@@ -16,9 +16,10 @@ public class JacksonConfig {
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         
+        // As leituras devolvem DTOs montados pelas consultas; se uma entidade chegar à serialização,
+        // associações ainda não carregadas saem como null em vez de disparar uma consulta por proxy
         Hibernate5JakartaModule hibernateModule = new Hibernate5JakartaModule();
-        hibernateModule.enable(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING);
-        hibernateModule.disable(Hibernate5JakartaModule.Feature.REQUIRE_EXPLICIT_LAZY_LOADING_MARKER);
+        hibernateModule.disable(Hibernate5JakartaModule.Feature.FORCE_LAZY_LOADING);
         
         mapper.registerModule(hibernateModule);
         mapper.registerModule(new JavaTimeModule());
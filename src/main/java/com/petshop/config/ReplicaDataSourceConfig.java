@@ -0,0 +1,95 @@
+package com.petshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réplicas de leitura: ativa só com datasource.replicas.urls (URLs JDBC separadas por vírgula).
+ * Sem ela o DataSource continua sendo o do Spring Boot, só com o primário.
+ * O pool do primário usa spring.datasource.*; as réplicas copiam a mesma configuração, trocando
+ * URL e, se informados, usuário e senha.
+ */
+@Configuration
+@ConditionalOnProperty(ReplicaDataSourceConfig.URLS)
+public class ReplicaDataSourceConfig {
+
+    public static final String URLS = "datasource.replicas.urls";
+
+    @Value("${" + URLS + "}")
+    private List<String> urls;
+
+    @Value("${datasource.replicas.username:}")
+    private String username;
+
+    @Value("${datasource.replicas.password:}")
+    private String password;
+
+    /** Espera máxima por uma conexão da réplica antes de cair para o primário */
+    @Value("${datasource.replicas.timeout-conexao-ms:2000}")
+    private long timeoutConexaoMs;
+
+    @Value("${datasource.replicas.atraso-maximo-ms:5000}")
+    private long atrasoMaximoMs;
+
+    @Value("${datasource.replicas.janela-escrita-ms:10000}")
+    private long janelaEscritaMs;
+
+    @Bean
+    public RoteamentoDataSource roteamentoDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+        primario.setPoolName("primario");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primario.copyStateTo(replica);
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i).trim());
+            if (!username.isBlank()) {
+                replica.setUsername(username);
+                replica.setPassword(password);
+            }
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(timeoutConexaoMs);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new RoteamentoDataSource(primario, replicas, atrasoMaximoMs, janelaEscritaMs);
+    }
+
+    /**
+     * O DataSource usado por JPA, JdbcTemplate e Flyway: adia a escolha do pool até o primeiro comando
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource roteamentoDataSource) {
+        return new LazyConnectionDataSourceProxy(roteamentoDataSource);
+    }
+
+    /**
+     * Com open-in-view o Hibernate seguraria a mesma conexão pela requisição inteira;
+     * devolvendo-a ao fim de cada transação, cada transação escolhe o próprio pool
+     */
+    @Bean
+    public HibernatePropertiesCustomizer liberarConexaoAposTransacao() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,201 @@
+package com.petshop.config;
+
+import com.petshop.service.LeituraNoPrimario;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as transações somente leitura (@Transactional(readOnly = true), o que inclui as consultas
+ * dos repositórios) para uma das réplicas disponíveis, em rodízio, e todo o resto para o primário.
+ * Usa o primário também:
+ * - em requisições HTTP que gravam (POST, PUT, DELETE...), que costumam ler e depois gravar em
+ *   transações separadas;
+ * - durante janelaEscritaMs depois de uma gravação do mesmo usuário, para que ele veja o que acabou
+ *   de gravar mesmo com a réplica atrasada;
+ * - nas leituras que preenchem caches em memória (LeituraNoPrimario), que não podem guardar
+ *   um valor anterior à última escrita;
+ * - quando nenhuma réplica está disponível.
+ * A verificação periódica tira de uso as réplicas fora do ar ou com atraso de replicação acima de
+ * atrasoMaximoMs e as devolve quando voltam. Deve ficar atrás de um LazyConnectionDataSourceProxy:
+ * a conexão só é pedida no primeiro comando, quando a transação já está marcada como somente leitura.
+ */
+public class RoteamentoDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+    /** Métodos HTTP que não gravam */
+    private static final Set<String> METODOS_LEITURA = Set.of("GET", "HEAD", "OPTIONS");
+
+    /**
+     * Atraso da réplica em ms: zero se já aplicou tudo o que recebeu (réplica parada sem escritas
+     * no primário não está atrasada) e também no primário, onde as funções devolvem null
+     */
+    static final String ATRASO_REPLICACAO = "SELECT COALESCE(CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000 END, 0)";
+
+    private static class Replica {
+        final String nome;
+        final DataSource dataSource;
+        volatile boolean disponivel = true;
+
+        Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primario;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long atrasoMaximoMs;
+    private final long janelaEscritaMs;
+
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    /** Momento da última gravação de cada usuário, limpo a cada verificação */
+    private final Map<String, Long> ultimaEscrita = new ConcurrentHashMap<>();
+
+    /**
+     * @param replicas pools das réplicas por nome (usado nos logs)
+     */
+    public RoteamentoDataSource(DataSource primario, Map<String, DataSource> replicas, long atrasoMaximoMs, long janelaEscritaMs) {
+        this.primario = primario;
+        replicas.forEach((nome, dataSource) -> this.replicas.add(new Replica(nome, dataSource)));
+        this.atrasoMaximoMs = atrasoMaximoMs;
+        this.janelaEscritaMs = janelaEscritaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = escolherReplica();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                marcarIndisponivel(replica, e.getMessage());
+            }
+        }
+        return primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    /**
+     * Réplica para a conexão pedida agora, ou null para o primário
+     */
+    private Replica escolherReplica() {
+        String usuario = usuarioAtual();
+        boolean requisicaoDeEscrita = requisicaoDeEscrita();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || requisicaoDeEscrita) {
+            // Conexões fora de transação (lazy loading, JdbcTemplate) não contam como gravação
+            if (usuario != null && (requisicaoDeEscrita || TransactionSynchronizationManager.isActualTransactionActive())) {
+                ultimaEscrita.put(usuario, System.currentTimeMillis());
+            }
+            return null;
+        }
+        if (LeituraNoPrimario.ativa()) {
+            return null;
+        }
+
+        if (usuario != null) {
+            Long escrita = ultimaEscrita.get(usuario);
+            if (escrita != null && System.currentTimeMillis() - escrita < janelaEscritaMs) {
+                return null;
+            }
+        }
+
+        List<Replica> disponiveis = replicas.stream().filter(replica -> replica.disponivel).toList();
+        if (disponiveis.isEmpty()) {
+            return null;
+        }
+        return disponiveis.get(Math.floorMod(proxima.getAndIncrement(), disponiveis.size()));
+    }
+
+    private static boolean requisicaoDeEscrita() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        return atributos instanceof ServletRequestAttributes servlet
+                && !METODOS_LEITURA.contains(servlet.getRequest().getMethod());
+    }
+
+    private static String usuarioAtual() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    /**
+     * Confere cada réplica (conexão e atraso de replicação) e descarta as janelas de escrita vencidas
+     */
+    @Scheduled(initialDelayString = "${datasource.replicas.verificacao-ms:5000}",
+               fixedDelayString = "${datasource.replicas.verificacao-ms:5000}")
+    public void verificarReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.dataSource.getConnection();
+                 Statement statement = conexao.createStatement();
+                 ResultSet rs = statement.executeQuery(ATRASO_REPLICACAO)) {
+                rs.next();
+                long atrasoMs = rs.getLong(1);
+                if (atrasoMs > atrasoMaximoMs) {
+                    marcarIndisponivel(replica, "atraso de replicação de " + atrasoMs + " ms");
+                } else if (!replica.disponivel) {
+                    replica.disponivel = true;
+                    logger.info("Réplica {} disponível novamente (atraso de {} ms)", replica.nome, atrasoMs);
+                }
+            } catch (SQLException e) {
+                marcarIndisponivel(replica, e.getMessage());
+            }
+        }
+
+        long limite = System.currentTimeMillis() - janelaEscritaMs;
+        ultimaEscrita.values().removeIf(momento -> momento < limite);
+    }
+
+    private void marcarIndisponivel(Replica replica, String motivo) {
+        if (replica.disponivel) {
+            replica.disponivel = false;
+            logger.warn("Réplica {} fora de uso, leituras vão para o primário: {}", replica.nome, motivo);
+        }
+    }
+
+    int replicasDisponiveis() {
+        return (int) replicas.stream().filter(replica -> replica.disponivel).count();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable pool) {
+                pool.close();
+            }
+        }
+        if (primario instanceof AutoCloseable pool) {
+            pool.close();
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.petshop.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -25,6 +27,7 @@ import java.io.IOException;
 import java.util.Arrays;
 
 @Configuration
+@ConditionalOnWebApplication
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
@@ -48,6 +51,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/enderecos/**").authenticated()
                 .requestMatchers("/api/racas/**").authenticated()
                 .requestMatchers("/api/atendimentos/**").authenticated()
+                .requestMatchers("/api/relatorios/**").authenticated()
 
                 .anyRequest().authenticated()
             )
@@ -91,6 +95,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // ETag exposto para o cliente web poder enviar If-None-Match e If-Match
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", HttpHeaders.ETAG));
         configuration.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,23 +1,45 @@
 package com.petshop.controller;
 
+import com.petshop.dto.AtendimentoBuscaResponse;
 import com.petshop.dto.AtendimentoCreateRequest;
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.dto.ErrorResponse;
+import com.petshop.dto.ImportacaoResponse;
+import com.petshop.dto.LoteResponse;
+import com.petshop.exception.FormatoInvalidoException;
 import com.petshop.model.Atendimento;
 import com.petshop.model.Cliente;
 import com.petshop.model.Pets;
 import com.petshop.repository.AtendimentoRepository;
 import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
+import com.petshop.repository.filtro.AtendimentoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.AtendimentoBuscaTextualService;
+import com.petshop.service.AtendimentoExportService;
+import com.petshop.service.AtendimentoImportService;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.CadastroLoteService;
+import com.petshop.service.ResumoDiarioService;
+import com.petshop.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +48,12 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class AtendimentoController {
     
+    /** Maior intervalo aceito em /periodo, que não é paginado, para um cliente ou pet */
+    static final long MAXIMO_DIAS_PERIODO = 366;
+
+    /** Maior intervalo em /periodo sem clienteId nem petId (todos os atendimentos da clínica) */
+    static final long MAXIMO_DIAS_PERIODO_TODOS = 31;
+    
     @Autowired
     private AtendimentoRepository atendimentoRepository;
     
@@ -35,114 +63,236 @@ public class AtendimentoController {
     @Autowired
     private PetsRepository petsRepository;
     
+    @Autowired
+    private AtendimentoExportService atendimentoExportService;
+    
+    @Autowired
+    private AtendimentoImportService atendimentoImportService;
+    
+    @Autowired
+    private ExecutorBusca executorBusca;
+    
+    @Autowired
+    private AtendimentoBuscaTextualService atendimentoBuscaTextualService;
+    
+    @Autowired
+    private RoleService roleService;
+    
+    @Autowired
+    private CadastroLoteService cadastroLoteService;
+    
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+    
+    @Autowired
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAllAtendimentos() {
-        List<Atendimento> atendimentos = atendimentoRepository.findAll();
-        return ResponseEntity.ok(atendimentos);
+    public ResponseEntity<List<AtendimentoResponse>> getAllAtendimentos(@RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer limite) {
+        Slice<AtendimentoResponse> atendimentos = atendimentoRepository.findAll(Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
+    }
+    
+    /**
+     * Exporta todos os atendimentos em streaming, sem paginação. O tipo de retorno precisa ser
+     * ResponseEntity<StreamingResponseBody> para o Spring escrever o corpo em uma requisição assíncrona
+     * @param formato "json" (array) ou "ndjson" (um objeto por linha)
+     */
+    @GetMapping("/exportar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarAtendimentos(@RequestParam(defaultValue = "json") String formato) {
+        boolean ndjson;
+        if ("ndjson".equalsIgnoreCase(formato)) {
+            ndjson = true;
+        } else if ("json".equalsIgnoreCase(formato)) {
+            ndjson = false;
+        } else {
+            throw new FormatoInvalidoException(formato);
+        }
+        
+        StreamingResponseBody body = out -> atendimentoExportService.exportarAtendimentos(out, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"atendimentos." + (ndjson ? "ndjson" : "json") + "\"")
+                .body(body);
+    }
+    
+    /**
+     * Importa atendimentos em NDJSON (um registro no formato do POST por linha), lendo o corpo em
+     * streaming e gravando em lotes; devolve quantas linhas foram importadas e os erros das rejeitadas
+     */
+    @PostMapping(value = "/importar", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportacaoResponse> importarAtendimentos(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(atendimentoImportService.importarAtendimentos(corpo));
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Atendimento> getAtendimentoById(@PathVariable Long id) {
-        Optional<Atendimento> atendimento = atendimentoRepository.findByIdWithDetails(id);
-        return atendimento.map(ResponseEntity::ok)
+    public ResponseEntity<AtendimentoResponse> getAtendimentoById(@PathVariable Long id,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<String> versao = atendimentoRepository.findVersaoById(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = Etags.de(versao.get());
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Optional<AtendimentoResponse> atendimento = atendimentoRepository.findResponseById(id);
+        return atendimento.map(a -> ResponseEntity.ok().eTag(etag).body(a))
                           .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/pet/{petId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAtendimentosByPet(@PathVariable Long petId) {
-        List<Atendimento> atendimentos = atendimentoRepository.findByPetId(petId);
-        return ResponseEntity.ok(atendimentos);
+    public ResponseEntity<List<AtendimentoResponse>> getAtendimentosByPet(@PathVariable Long petId,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(required = false) Integer limite) {
+        Slice<AtendimentoResponse> atendimentos = atendimentoRepository.findByPetId(petId, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
     }
     
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAtendimentosByCliente(@PathVariable Long clienteId) {
-        List<Atendimento> atendimentos = atendimentoRepository.findByClienteId(clienteId);
-        return ResponseEntity.ok(atendimentos);
+    public ResponseEntity<List<AtendimentoResponse>> getAtendimentosByCliente(@PathVariable Long clienteId,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(required = false) Integer limite) {
+        Slice<AtendimentoResponse> atendimentos = atendimentoRepository.findByClienteId(clienteId, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
     }
     
     @GetMapping("/cliente/{clienteId}/pet/{petId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAtendimentosByClienteAndPet(@PathVariable Long clienteId, @PathVariable Long petId) {
-        List<Atendimento> atendimentos = atendimentoRepository.findByClienteIdAndPetId(clienteId, petId);
-        return ResponseEntity.ok(atendimentos);
+    public ResponseEntity<List<AtendimentoResponse>> getAtendimentosByClienteAndPet(@PathVariable Long clienteId, @PathVariable Long petId,
+                                                                                    @RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(required = false) Integer limite) {
+        Slice<AtendimentoResponse> atendimentos = atendimentoRepository.findByClienteIdAndPetId(clienteId, petId, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
     }
     
     @GetMapping("/data/{data}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAtendimentosByData(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
-        List<Atendimento> atendimentos = atendimentoRepository.findByData(data);
-        return ResponseEntity.ok(atendimentos);
+    public ResponseEntity<List<AtendimentoResponse>> getAtendimentosByData(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer limite) {
+        Slice<AtendimentoResponse> atendimentos = atendimentoRepository.findByData(data, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
     }
     
-    @GetMapping("/buscar")
+    /**
+     * Todos os atendimentos do período (datas inclusivas), de um cliente, de um pet ou, para admin,
+     * de todos, em ordem de data. Dias passados saem do AtendimentoPeriodoCache. Sem filtro o
+     * intervalo vai até MAXIMO_DIAS_PERIODO_TODOS, para que a resposta (e o que ela põe no cache)
+     * fique no volume de um mês da clínica.
+     */
+    @GetMapping("/periodo")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Atendimento>> getAtendimentos(@RequestParam(required = false) Long petId,
-                                                             @RequestParam(required = false) Long clienteId,
-                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
-                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
-                                                             @RequestParam(required = false) BigDecimal valorMin,
-                                                             @RequestParam(required = false) BigDecimal valorMax,
-                                                             @RequestParam(required = false) String descricao) {
-        List<Atendimento> atendimentos;
-        
-        if (clienteId != null && petId != null && data != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndPetIdAndData(clienteId, petId, data);
-        }
-        else if (clienteId != null && petId != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndPetId(clienteId, petId);
-        }
-        else if (clienteId != null && data != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndData(clienteId, data);
+    public ResponseEntity<?> getAtendimentosByPeriodo(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                                      @RequestParam(required = false) Long clienteId,
+                                                      @RequestParam(required = false) Long petId) {
+        String erro = null;
+        if (clienteId != null && petId != null) {
+            erro = "Informe clienteId ou petId, não os dois";
+        } else if (dataInicio.isAfter(dataFim)) {
+            erro = "dataInicio deve ser anterior ou igual a dataFim";
+        } else if (clienteId == null && petId == null && ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_PERIODO_TODOS) {
+            erro = "Sem clienteId ou petId o período é limitado a " + MAXIMO_DIAS_PERIODO_TODOS + " dias";
+        } else if (ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_PERIODO) {
+            erro = "Período limitado a " + MAXIMO_DIAS_PERIODO + " dias";
         }
-        else if (clienteId != null && dataInicio != null && dataFim != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndDataBetween(clienteId, dataInicio, dataFim);
+        if (erro != null) {
+            ErrorResponse error = new ErrorResponse(
+                400,
+                "Período inválido",
+                erro,
+                "/api/atendimentos/periodo"
+            );
+            return ResponseEntity.badRequest().body(error);
         }
-        else if (clienteId != null && valorMin != null && valorMax != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndValorBetween(clienteId, valorMin, valorMax);
-        }
-        else if (clienteId != null && descricao != null) {
-            atendimentos = atendimentoRepository.findByClienteIdAndDescricaoContaining(clienteId, descricao);
-        }
-        else if (petId != null && data != null) {
-            atendimentos = atendimentoRepository.findByPetIdAndData(petId, data);
-        }
-        else if (petId != null && dataInicio != null && dataFim != null) {
-            atendimentos = atendimentoRepository.findByPetIdAndDataBetween(petId, dataInicio, dataFim);
-        }
-        else if (dataInicio != null && dataFim != null) {
-            atendimentos = atendimentoRepository.findByDataBetween(dataInicio, dataFim);
-        }
-        else if (valorMin != null && valorMax != null) {
-            atendimentos = atendimentoRepository.findByValorBetween(valorMin, valorMax);
-        }
-        else if (clienteId != null) {
-            atendimentos = atendimentoRepository.findByClienteId(clienteId);
+        
+        if (clienteId != null) {
+            if (!roleService.canAccessCliente(clienteId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            return ResponseEntity.ok(atendimentoPeriodoCache.porCliente(clienteId, dataInicio, dataFim));
         }
-        else if (petId != null) {
-            atendimentos = atendimentoRepository.findByPetId(petId);
+        if (petId != null) {
+            if (!roleService.canAccessPet(petId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+            }
+            return ResponseEntity.ok(atendimentoPeriodoCache.porPet(petId, dataInicio, dataFim));
         }
-        else if (data != null) {
-            atendimentos = atendimentoRepository.findByData(data);
+        if (!roleService.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        else if (descricao != null) {
-            atendimentos = atendimentoRepository.findByDescricaoContaining(descricao);
+        return ResponseEntity.ok(atendimentoPeriodoCache.porData(dataInicio, dataFim));
+    }
+    
+    @GetMapping("/buscar")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<AtendimentoResponse>> getAtendimentos(@RequestParam(required = false) Long petId,
+                                                                     @RequestParam(required = false) Long clienteId,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                                                     @RequestParam(required = false) BigDecimal valorMin,
+                                                                     @RequestParam(required = false) BigDecimal valorMax,
+                                                                     @RequestParam(required = false) String descricao,
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer limite) {
+        AtendimentoFiltro filtro = new AtendimentoFiltro(clienteId, petId, data, dataInicio, dataFim, valorMin, valorMax, descricao);
+        Slice<AtendimentoResponse> atendimentos = executorBusca.buscar(filtro, Paginacao.cursorId(cursor), Paginacao.pagina(limite),
+                atendimentoRepository::findResponsesByIds);
+        
+        return Paginacao.resposta(atendimentos, AtendimentoResponse::getId);
+    }
+    
+    /**
+     * Busca textual na descrição, do resultado mais relevante para o menos relevante.
+     * Usuários que não são admin só veem atendimentos dos próprios clientes.
+     * @param q termos da busca (aceita "frase exata", OR e -exclusão)
+     */
+    @GetMapping("/pesquisar")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<?> pesquisarAtendimentos(@RequestParam String q,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer limite) {
+        if (q.isBlank()) {
+            ErrorResponse error = new ErrorResponse(
+                400,
+                "Busca inválida",
+                "Informe os termos da busca",
+                "/api/atendimentos/pesquisar"
+            );
+            return ResponseEntity.badRequest().body(error);
         }
-        else {
-            atendimentos = atendimentoRepository.findAll();
+        
+        String clienteCpf = null;
+        if (!roleService.isAdmin()) {
+            clienteCpf = roleService.getCurrentUserCpf();
+            if (clienteCpf == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
-        return ResponseEntity.ok(atendimentos);
+        Paginacao.PosicaoRelevancia posicao = Paginacao.cursorRelevancia(cursor);
+        Slice<AtendimentoBuscaResponse> resultados = atendimentoBuscaTextualService.pesquisar(q, clienteCpf,
+                posicao != null ? posicao.relevancia() : null,
+                posicao != null ? posicao.id() : null,
+                Paginacao.pagina(limite).getPageSize());
+        return Paginacao.resposta(resultados, r -> r.getRelevancia() + "/" + r.getId());
     }
     
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Transactional(readOnly = false)
-    public ResponseEntity<Atendimento> createAtendimento(@Valid @RequestBody AtendimentoCreateRequest request) {
+    public ResponseEntity<AtendimentoResponse> createAtendimento(@Valid @RequestBody AtendimentoCreateRequest request) {
         Optional<Cliente> clienteOpt = clienteRepository.findById(request.getCliente().getId());
         Optional<Pets> petOpt = petsRepository.findById(request.getPet().getId());
         
@@ -161,33 +311,55 @@ public class AtendimentoController {
         atendimento.setValor(request.getValor());
         
         Atendimento savedAtendimento = atendimentoRepository.save(atendimento);
+        resumoDiarioService.incluir(List.of(savedAtendimento));
         
-        Optional<Atendimento> atendimentoCompleto = atendimentoRepository.findByIdWithDetails(savedAtendimento.getId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(atendimentoCompleto.orElse(savedAtendimento));
+        Optional<AtendimentoResponse> atendimentoCompleto = atendimentoRepository.findResponseById(savedAtendimento.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(atendimentoCompleto.orElseThrow());
+    }
+    
+    /**
+     * Cadastro de vários atendimentos de uma vez: 201 se todos foram criados, 207 com o status de cada item caso contrário
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LoteResponse<AtendimentoResponse>> createAtendimentos(@RequestBody List<AtendimentoCreateRequest> pedidos) {
+        LoteResponse<AtendimentoResponse> resultado = cadastroLoteService.criarAtendimentos(pedidos);
+        return ResponseEntity.status(resultado.getFalhas() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultado);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Transactional(readOnly = false)
-    public ResponseEntity<Atendimento> updateAtendimento(@PathVariable Long id, @Valid @RequestBody Atendimento atendimento) {
-        if (!atendimentoRepository.existsById(id)) {
+    public ResponseEntity<AtendimentoResponse> updateAtendimento(@PathVariable Long id, @Valid @RequestBody Atendimento atendimento,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Atendimento> existingAtendimento = atendimentoRepository.findById(id);
+        if (existingAtendimento.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
+        Etags.verificar(ifMatch, atendimentoRepository.findVersaoById(id));
+        // O merge sobrescreve a entidade carregada: a parte antiga no resumo diário é lida antes
+        ResumoDiarioService.Lancamento anterior = ResumoDiarioService.Lancamento.de(existingAtendimento.get());
         atendimento.setId(id);
+        atendimento.setVersao(existingAtendimento.get().getVersao());
         Atendimento updatedAtendimento = atendimentoRepository.save(atendimento);
-        Optional<Atendimento> atendimentoCompleto = atendimentoRepository.findByIdWithDetails(updatedAtendimento.getId());
-        return ResponseEntity.ok(atendimentoCompleto.orElse(updatedAtendimento));
+        resumoDiarioService.alterar(anterior, updatedAtendimento);
+        Optional<AtendimentoResponse> atendimentoCompleto = atendimentoRepository.findResponseById(updatedAtendimento.getId());
+        // A consulta da versão força o flush do UPDATE: o ETag já é o da versão nova
+        return Etags.ok(atendimentoRepository.findVersaoById(id)).body(atendimentoCompleto.orElseThrow());
     }
     
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = false)
     public ResponseEntity<Void> deleteAtendimento(@PathVariable Long id) {
-        if (!atendimentoRepository.existsById(id)) {
+        Optional<Atendimento> atendimento = atendimentoRepository.findById(id);
+        if (atendimento.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
-        atendimentoRepository.deleteById(id);
+        atendimentoRepository.delete(atendimento.get());
+        resumoDiarioService.excluir(ResumoDiarioService.Lancamento.de(atendimento.get()));
         return ResponseEntity.noContent().build();
     }
 }
@@ -9,7 +9,9 @@ import com.petshop.model.Usuario;
 import com.petshop.model.Cliente;
 import com.petshop.repository.UsuarioRepository;
 import com.petshop.repository.ClienteRepository;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.JwtService;
+import com.petshop.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.http.HttpStatus;
@@ -34,6 +36,12 @@ public class AuthController {
     
     @Autowired
     private JwtService jwtService;
+    
+    @Autowired
+    private ClienteOwnershipCache clienteOwnershipCache;
+    
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
@@ -73,6 +81,7 @@ public class AuthController {
             
             if (clienteOpt.isPresent()) {
                 Cliente cliente = clienteOpt.get();
+                clienteOwnershipCache.put(cliente.getCpf(), cliente.getId());
                 clienteResponse = new ClienteResponse(
                     cliente.getId(),
                     cliente.getNome(),
@@ -121,7 +130,7 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
             }
             
-            jwtService.invalidateToken(token);
+            tokenRevocationService.revogar(token);
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Logout realizado com sucesso");
@@ -1,11 +1,20 @@
 package com.petshop.controller;
 
+import com.petshop.dto.ClienteResponse;
+import com.petshop.dto.SugestaoResponse;
 import com.petshop.model.Cliente;
 import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.filtro.ClienteFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,29 +35,53 @@ public class ClienteController {
     @Autowired
     private RoleService roleService;
     
+    @Autowired
+    private ClienteOwnershipCache clienteOwnershipCache;
+    
+    @Autowired
+    private ExecutorBusca executorBusca;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Cliente>> getAllClientes() {
-        List<Cliente> clientes = clienteRepository.findAll();
-        return ResponseEntity.ok(clientes);
+    public ResponseEntity<List<ClienteResponse>> getAllClientes(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limite) {
+        Slice<ClienteResponse> clientes = clienteRepository.findAll(Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(clientes, ClienteResponse::getId);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Cliente> getClienteById(@PathVariable Long id) {
+    public ResponseEntity<ClienteResponse> getClienteById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (!roleService.canAccessCliente(id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        Optional<Cliente> cliente = clienteRepository.findById(id);
-        return cliente.map(ResponseEntity::ok)
+        Optional<String> versao = clienteRepository.findVersaoById(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = Etags.de(versao.get());
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Optional<ClienteResponse> cliente = clienteRepository.findResponseById(id);
+        return cliente.map(c -> ResponseEntity.ok().eTag(etag).body(c))
                      .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/cpf/{cpf}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Cliente> getClienteByCpf(@PathVariable String cpf) {
-        Optional<Cliente> cliente = clienteRepository.findByCpf(cpf);
+    public ResponseEntity<ClienteResponse> getClienteByCpf(@PathVariable String cpf) {
+        Optional<ClienteResponse> cliente = clienteRepository.findResponseByCpf(cpf);
         if (cliente.isPresent()) {
             if (!roleService.canAccessCliente(cliente.get().getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -60,29 +93,38 @@ public class ClienteController {
     
     @GetMapping("/buscar")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Cliente>> getClientesByNome(@RequestParam(required = false) String nome,
-                                                           @RequestParam(required = false) String cpf,
-                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        List<Cliente> clientes;
-        
-        if (nome != null && cpf != null) {
-            clientes = clienteRepository.findByNomeAndCpf(nome, cpf);
-        } else if (nome != null) {
-            clientes = clienteRepository.findByNomeContaining(nome);
-        } else if (dataInicio != null && dataFim != null) {
-            clientes = clienteRepository.findByDataCadastroBetween(dataInicio, dataFim);
-        } else {
-            clientes = clienteRepository.findAll();
+    public ResponseEntity<List<ClienteResponse>> getClientesByNome(@RequestParam(required = false) String nome,
+                                                                   @RequestParam(required = false) String cpf,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limite) {
+        if (!roleService.isAdmin()) {
+            String currentUserCpf = roleService.getCurrentUserCpf();
+            if (currentUserCpf == null || (cpf != null && !cpf.equals(currentUserCpf))) {
+                return ResponseEntity.ok(List.of());
+            }
+            cpf = currentUserCpf;
         }
         
+        ClienteFiltro filtro = new ClienteFiltro(nome, cpf, dataInicio, dataFim);
+        Slice<ClienteResponse> clientes = executorBusca.buscar(filtro, Paginacao.cursorId(cursor), Paginacao.pagina(limite), clienteRepository::findResponsesByIds);
+        return Paginacao.resposta(clientes, ClienteResponse::getId);
+    }
+    
+    @GetMapping("/autocompletar")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<SugestaoResponse>> autocompletarClientes(@RequestParam String q,
+                                                                        @RequestParam(required = false) Integer limite) {
+        Long clienteId = null;
         if (!roleService.isAdmin()) {
-            clientes = clientes.stream()
-                    .filter(cliente -> roleService.canAccessCliente(cliente.getId()))
-                    .toList();
+            clienteId = roleService.getCurrentClienteId();
+            if (clienteId == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
-        return ResponseEntity.ok(clientes);
+        return ResponseEntity.ok(autocompleteService.sugerirClientes(q, clienteId, limite));
     }
     
     @PostMapping
@@ -94,6 +136,8 @@ public class ClienteController {
         
         try {
             Cliente savedCliente = clienteRepository.save(cliente);
+            clienteOwnershipCache.invalidateCpf(savedCliente.getCpf());
+            autocompleteService.registrarCliente(savedCliente);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCliente);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Erro ao salvar cliente: " + e.getMessage());
@@ -102,7 +146,8 @@ public class ClienteController {
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Cliente> updateCliente(@PathVariable Long id, @Valid @RequestBody Cliente cliente) {
+    public ResponseEntity<Cliente> updateCliente(@PathVariable Long id, @Valid @RequestBody Cliente cliente,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         if (!roleService.canModifyCliente(id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -112,6 +157,7 @@ public class ClienteController {
             return ResponseEntity.notFound().build();
         }
         
+        Etags.verificar(ifMatch, clienteRepository.findVersaoById(id));
         Cliente existingCliente = existingClienteOpt.get();
         
         LocalDate originalDataCadastro = existingCliente.getDataCadastro();
@@ -122,7 +168,10 @@ public class ClienteController {
         existingCliente.setDataCadastro(originalDataCadastro);
         
         Cliente updatedCliente = clienteRepository.save(existingCliente);
-        return ResponseEntity.ok(updatedCliente);
+        clienteOwnershipCache.invalidateClienteId(id);
+        clienteOwnershipCache.invalidateCpf(updatedCliente.getCpf());
+        autocompleteService.registrarCliente(updatedCliente);
+        return Etags.ok(clienteRepository.findVersaoById(id)).body(updatedCliente);
     }
     
     @DeleteMapping("/{id}")
@@ -137,6 +186,9 @@ public class ClienteController {
         }
         
         clienteRepository.deleteById(id);
+        clienteOwnershipCache.invalidateClienteId(id);
+        autocompleteService.removerCliente(id);
+        atendimentoPeriodoCache.invalidarTudo();
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,10 +1,18 @@
 package com.petshop.controller;
 
+import com.petshop.dto.ContatoResponse;
+import com.petshop.dto.LoteResponse;
 import com.petshop.model.Contato;
 import com.petshop.repository.ContatoRepository;
+import com.petshop.repository.filtro.ContatoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,102 +32,125 @@ public class ContatoController {
     @Autowired
     private RoleService roleService;
     
+    @Autowired
+    private CadastroLoteService cadastroLoteService;
+    
+    @Autowired
+    private ExecutorBusca executorBusca;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Contato>> getAllContatos() {
-        List<Contato> contatos = contatoRepository.findAll();
-        return ResponseEntity.ok(contatos);
+    public ResponseEntity<List<ContatoResponse>> getAllContatos(@RequestParam(required = false) String cursor,
+                                                                @RequestParam(required = false) Integer limite) {
+        Slice<ContatoResponse> contatos = contatoRepository.findAll(Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(contatos, ContatoResponse::getId);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Contato> getContatoById(@PathVariable Long id) {
-        Optional<Contato> contato = contatoRepository.findById(id);
-        if (contato.isPresent()) {
+    public ResponseEntity<ContatoResponse> getContatoById(@PathVariable Long id,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<String> versao = contatoRepository.findVersaoById(id);
+        Optional<ContatoResponse> contato = contatoRepository.findResponseById(id);
+        if (versao.isPresent() && contato.isPresent()) {
             if (!roleService.canAccessCliente(contato.get().getCliente().getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            return ResponseEntity.ok(contato.get());
+            // A permissão depende do cliente do registro, então o corpo é lido mesmo quando o ETag confere
+            String etag = Etags.de(versao.get());
+            if (Etags.naoModificado(ifNoneMatch, etag)) {
+                return Etags.naoModificadoResposta(etag);
+            }
+            return ResponseEntity.ok().eTag(etag).body(contato.get());
         }
         return ResponseEntity.notFound().build();
     }
     
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Contato>> getContatosByCliente(@PathVariable Long clienteId) {
+    public ResponseEntity<List<ContatoResponse>> getContatosByCliente(@PathVariable Long clienteId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limite) {
         if (!roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Contato> contatos = contatoRepository.findByClienteId(clienteId);
-        return ResponseEntity.ok(contatos);
+        Slice<ContatoResponse> contatos = contatoRepository.findByClienteId(clienteId, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(contatos, ContatoResponse::getId);
     }
     
     @GetMapping("/tipo/{tipo}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Contato>> getContatosByTipo(@PathVariable String tipo) {
-        List<Contato> contatos = contatoRepository.findByTipo(Contato.TipoContato.valueOf(tipo));
+    public ResponseEntity<List<ContatoResponse>> getContatosByTipo(@PathVariable String tipo,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limite) {
+        Contato.TipoContato tipoContato = Contato.TipoContato.valueOf(tipo);
+        Long ultimoId = Paginacao.cursorId(cursor);
+        Pageable pagina = Paginacao.pagina(limite);
         
         if (!roleService.isAdmin()) {
-            contatos = contatos.stream()
-                    .filter(contato -> roleService.canAccessCliente(contato.getCliente().getId()))
-                    .toList();
+            String currentUserCpf = roleService.getCurrentUserCpf();
+            if (currentUserCpf == null) {
+                return ResponseEntity.ok(List.of());
+            }
+            return Paginacao.resposta(contatoRepository.findByTipoAndClienteCpf(tipoContato, currentUserCpf, ultimoId, pagina), ContatoResponse::getId);
         }
         
-        return ResponseEntity.ok(contatos);
+        Slice<ContatoResponse> contatos = contatoRepository.findByTipo(tipoContato, ultimoId, pagina);
+        return Paginacao.resposta(contatos, ContatoResponse::getId);
     }
     
     @GetMapping("/buscar")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Contato>> getContatos(@RequestParam(required = false) Long clienteId,
-                                                     @RequestParam(required = false) String tipo,
-                                                     @RequestParam(required = false) String valor,
-                                                     @RequestParam(required = false) String tag) {
+    public ResponseEntity<List<ContatoResponse>> getContatos(@RequestParam(required = false) Long clienteId,
+                                                             @RequestParam(required = false) String tipo,
+                                                             @RequestParam(required = false) String valor,
+                                                             @RequestParam(required = false) String tag,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limite) {
         if (clienteId != null && !roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Contato> contatos;
-        
-        if (clienteId != null && tipo != null) {
-            contatos = contatoRepository.findByClienteIdAndTipo(clienteId, Contato.TipoContato.valueOf(tipo));
-        } else if (clienteId != null && valor != null) {
-            contatos = contatoRepository.findByClienteIdAndValorContaining(clienteId, valor);
-        } else if (clienteId != null) {
-            contatos = contatoRepository.findByClienteId(clienteId);
-        } else if (tipo != null) {
-            contatos = contatoRepository.findByTipo(Contato.TipoContato.valueOf(tipo));
-        } else if (valor != null) {
-            contatos = contatoRepository.findByValorContaining(valor);
-        } else if (tag != null) {
-            contatos = contatoRepository.findByTagContaining(tag);
-        } else {
-            contatos = contatoRepository.findAll();
-        }
-        
-        if (!roleService.isAdmin()) {
-            contatos = contatos.stream()
-                    .filter(contato -> roleService.canAccessCliente(contato.getCliente().getId()))
-                    .toList();
+        String clienteCpf = null;
+        if (clienteId == null && !roleService.isAdmin()) {
+            clienteCpf = roleService.getCurrentUserCpf();
+            if (clienteCpf == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
-        return ResponseEntity.ok(contatos);
+        Contato.TipoContato tipoContato = tipo != null ? Contato.TipoContato.valueOf(tipo) : null;
+        ContatoFiltro filtro = new ContatoFiltro(clienteId, clienteCpf, tipoContato, valor, tag);
+        Slice<ContatoResponse> contatos = executorBusca.buscar(filtro, Paginacao.cursorId(cursor), Paginacao.pagina(limite), contatoRepository::findResponsesByIds);
+        return Paginacao.resposta(contatos, ContatoResponse::getId);
     }
     
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Contato> createContato(@Valid @RequestBody Contato contato) {
+    public ResponseEntity<ContatoResponse> createContato(@Valid @RequestBody Contato contato) {
         if (!roleService.canAccessCliente(contato.getCliente().getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
         Contato savedContato = contatoRepository.save(contato);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedContato);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ContatoResponse.de(savedContato));
+    }
+    
+    /**
+     * Cadastro de vários contatos de uma vez: 201 se todos foram criados, 207 com o status de cada item caso contrário
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LoteResponse<ContatoResponse>> createContatos(@RequestBody List<Contato> pedidos) {
+        LoteResponse<ContatoResponse> resultado = cadastroLoteService.criarContatos(pedidos);
+        return ResponseEntity.status(resultado.getFalhas() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultado);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Contato> updateContato(@PathVariable Long id, @Valid @RequestBody Contato contato) {
+    public ResponseEntity<ContatoResponse> updateContato(@PathVariable Long id, @Valid @RequestBody Contato contato,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Optional<Contato> existingContato = contatoRepository.findById(id);
         if (existingContato.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -129,9 +160,11 @@ public class ContatoController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
+        Etags.verificar(ifMatch, contatoRepository.findVersaoById(id));
         contato.setId(id);
+        contato.setVersao(existingContato.get().getVersao());
         Contato updatedContato = contatoRepository.save(contato);
-        return ResponseEntity.ok(updatedContato);
+        return Etags.ok(contatoRepository.findVersaoById(id)).body(ContatoResponse.de(updatedContato));
     }
     
     @DeleteMapping("/{id}")
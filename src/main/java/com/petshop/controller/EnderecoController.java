@@ -1,10 +1,17 @@
 package com.petshop.controller;
 
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.dto.LoteResponse;
 import com.petshop.model.Endereco;
 import com.petshop.repository.EnderecoRepository;
+import com.petshop.repository.filtro.EnderecoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,73 +31,104 @@ public class EnderecoController {
     @Autowired
     private RoleService roleService;
     
+    @Autowired
+    private CadastroLoteService cadastroLoteService;
+    
+    @Autowired
+    private ExecutorBusca executorBusca;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Endereco>> getAllEnderecos() {
-        List<Endereco> enderecos = enderecoRepository.findAll();
-        return ResponseEntity.ok(enderecos);
+    public ResponseEntity<List<EnderecoResponse>> getAllEnderecos(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limite) {
+        Slice<EnderecoResponse> enderecos = enderecoRepository.findAll(Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(enderecos, EnderecoResponse::getId);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Endereco> getEnderecoById(@PathVariable Long id) {
-        Optional<Endereco> endereco = enderecoRepository.findById(id);
-        if (endereco.isPresent()) {
+    public ResponseEntity<EnderecoResponse> getEnderecoById(@PathVariable Long id,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<String> versao = enderecoRepository.findVersaoById(id);
+        Optional<EnderecoResponse> endereco = enderecoRepository.findResponseById(id);
+        if (versao.isPresent() && endereco.isPresent()) {
             if (!roleService.canAccessCliente(endereco.get().getCliente().getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
-            return ResponseEntity.ok(endereco.get());
+            // A permissão depende do cliente do registro, então o corpo é lido mesmo quando o ETag confere
+            String etag = Etags.de(versao.get());
+            if (Etags.naoModificado(ifNoneMatch, etag)) {
+                return Etags.naoModificadoResposta(etag);
+            }
+            return ResponseEntity.ok().eTag(etag).body(endereco.get());
         }
         return ResponseEntity.notFound().build();
     }
     
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Endereco>> getEnderecosByCliente(@PathVariable Long clienteId) {
+    public ResponseEntity<List<EnderecoResponse>> getEnderecosByCliente(@PathVariable Long clienteId,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer limite) {
         if (!roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Endereco> enderecos = enderecoRepository.findByClienteId(clienteId);
-        return ResponseEntity.ok(enderecos);
+        Slice<EnderecoResponse> enderecos = enderecoRepository.findByClienteId(clienteId, Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(enderecos, EnderecoResponse::getId);
     }
     
     @GetMapping("/buscar")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Endereco>> getEnderecos(@RequestParam(required = false) Long clienteId,
-                                                       @RequestParam(required = false) String cidade,
-                                                       @RequestParam(required = false) String bairro,
-                                                       @RequestParam(required = false) String logradouro,
-                                                       @RequestParam(required = false) String tag) {
+    public ResponseEntity<List<EnderecoResponse>> getEnderecos(@RequestParam(required = false) Long clienteId,
+                                                               @RequestParam(required = false) String cidade,
+                                                               @RequestParam(required = false) String bairro,
+                                                               @RequestParam(required = false) String logradouro,
+                                                               @RequestParam(required = false) String tag,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer limite) {
         if (clienteId != null && !roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Endereco> enderecos = enderecoRepository.findByAllFilters(clienteId, cidade, bairro, logradouro, tag);
-        
-        if (!roleService.isAdmin()) {
-            enderecos = enderecos.stream()
-                    .filter(endereco -> roleService.canAccessCliente(endereco.getCliente().getId()))
-                    .toList();
+        String clienteCpf = null;
+        if (clienteId == null && !roleService.isAdmin()) {
+            clienteCpf = roleService.getCurrentUserCpf();
+            if (clienteCpf == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
-        return ResponseEntity.ok(enderecos);
+        EnderecoFiltro filtro = new EnderecoFiltro(clienteId, clienteCpf, cidade, bairro, logradouro, tag);
+        Slice<EnderecoResponse> enderecos = executorBusca.buscar(filtro, Paginacao.cursorId(cursor), Paginacao.pagina(limite), enderecoRepository::findResponsesByIds);
+        return Paginacao.resposta(enderecos, EnderecoResponse::getId);
     }
     
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Endereco> createEndereco(@Valid @RequestBody Endereco endereco) {
+    public ResponseEntity<EnderecoResponse> createEndereco(@Valid @RequestBody Endereco endereco) {
         if (!roleService.canAccessCliente(endereco.getCliente().getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
         Endereco savedEndereco = enderecoRepository.save(endereco);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedEndereco);
+        return ResponseEntity.status(HttpStatus.CREATED).body(EnderecoResponse.de(savedEndereco));
+    }
+    
+    /**
+     * Cadastro de vários enderecos de uma vez: 201 se todos foram criados, 207 com o status de cada item caso contrário
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LoteResponse<EnderecoResponse>> createEnderecos(@RequestBody List<Endereco> pedidos) {
+        LoteResponse<EnderecoResponse> resultado = cadastroLoteService.criarEnderecos(pedidos);
+        return ResponseEntity.status(resultado.getFalhas() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultado);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Endereco> updateEndereco(@PathVariable Long id, @Valid @RequestBody Endereco endereco) {
+    public ResponseEntity<EnderecoResponse> updateEndereco(@PathVariable Long id, @Valid @RequestBody Endereco endereco,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         Optional<Endereco> existingEndereco = enderecoRepository.findById(id);
         if (existingEndereco.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -100,9 +138,11 @@ public class EnderecoController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
+        Etags.verificar(ifMatch, enderecoRepository.findVersaoById(id));
         endereco.setId(id);
+        endereco.setVersao(existingEndereco.get().getVersao());
         Endereco updatedEndereco = enderecoRepository.save(endereco);
-        return ResponseEntity.ok(updatedEndereco);
+        return Etags.ok(enderecoRepository.findVersaoById(id)).body(EnderecoResponse.de(updatedEndereco));
     }
     
     @DeleteMapping("/{id}")
@@ -0,0 +1,76 @@
+package com.petshop.controller;
+
+import com.petshop.exception.VersaoDesatualizadaException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+/**
+ * ETags fortes a partir das colunas @Version.
+ * A versão de um registro junta as versões de tudo o que aparece no DTO (ex.: pet, cliente e raça);
+ * a de uma listagem, quantidade, maior id e soma das versões. Os repositórios montam esse texto
+ * (consultas VERSAO) sem carregar os registros, então um 304 não monta nem serializa o corpo.
+ * A versão é lida antes do corpo: se o registro mudar no meio, o cliente recebe um ETag antigo
+ * e apenas baixa o corpo de novo na próxima requisição.
+ */
+final class Etags {
+
+    private Etags() {}
+
+    static String de(String versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * If-None-Match contém o ETag atual (ou "*"): o cliente já tem esta representação
+     */
+    static boolean naoModificado(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")) {
+            String valor = candidato.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> naoModificadoResposta(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    /**
+     * 200 com o ETag da versão (sem o cabeçalho se o registro não existir mais)
+     */
+    static ResponseEntity.BodyBuilder ok(Optional<String> versao) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        versao.map(Etags::de).ifPresent(resposta::eTag);
+        return resposta;
+    }
+
+    /**
+     * Sem If-Match a escrita segue normalmente; com If-Match, só se a versão atual for a informada
+     * (comparação forte: ETags fracos nunca correspondem)
+     * @param versao versão atual do registro; vazia se ele deixou de existir
+     * @throws VersaoDesatualizadaException se o registro mudou depois da leitura do cliente
+     */
+    static void verificar(String ifMatch, Optional<String> versao) {
+        if (ifMatch == null) {
+            return;
+        }
+        String etag = versao.map(Etags::de).orElse(null);
+        for (String candidato : ifMatch.split(",")) {
+            String valor = candidato.trim();
+            if (etag != null && (valor.equals("*") || valor.equals(etag))) {
+                return;
+            }
+        }
+        throw new VersaoDesatualizadaException(ifMatch);
+    }
+}
@@ -0,0 +1,139 @@
+package com.petshop.controller;
+
+import com.petshop.exception.CursorInvalidoException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por chave (keyset) das listagens.
+ * As páginas são ordenadas pela chave primária e cada página continua a partir da
+ * última chave retornada (WHERE id > :cursor), sem OFFSET: a página N custa o mesmo que a primeira.
+ * O corpo continua sendo a lista; o cursor opaco da próxima página vai no cabeçalho X-Next-Cursor,
+ * ausente na última página.
+ * Sem limite a página tem LIMITE_PADRAO registros: quem chamava as listagens antes da paginação e
+ * não segue o cursor recebe só a primeira página (mudança incompatível, documentada no README).
+ */
+final class Paginacao {
+
+    static final String HEADER_PROXIMO_CURSOR = "X-Next-Cursor";
+    static final int LIMITE_PADRAO = 100;
+    static final int LIMITE_MAXIMO = 1000;
+
+    private static final String PREFIXO = "k:";
+
+    private Paginacao() {}
+
+    /**
+     * Página com o tamanho pedido, limitado a LIMITE_MAXIMO. A ordenação vem da própria consulta.
+     */
+    static Pageable pagina(Integer limite) {
+        int tamanho = limite == null ? LIMITE_PADRAO : Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+        return PageRequest.of(0, tamanho);
+    }
+
+    /**
+     * Última chave numérica vista; 0 na primeira página (ids começam em 1)
+     */
+    static Long cursorId(String cursor) {
+        String chave = decodificar(cursor);
+        if (chave == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(chave);
+        } catch (NumberFormatException e) {
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+
+    /**
+     * Última chave textual vista; "" na primeira página
+     */
+    static String cursorTexto(String cursor) {
+        String chave = decodificar(cursor);
+        return chave == null ? "" : chave;
+    }
+
+    /**
+     * Posição na busca ordenada por relevância: relevância e id do último resultado
+     */
+    record PosicaoRelevancia(float relevancia, long id) {}
+
+    /**
+     * Cursor composto "relevância/id"; null na primeira página
+     */
+    static PosicaoRelevancia cursorRelevancia(String cursor) {
+        String chave = decodificar(cursor);
+        if (chave == null) {
+            return null;
+        }
+        int separador = chave.indexOf('/');
+        if (separador <= 0) {
+            throw new CursorInvalidoException(cursor);
+        }
+        try {
+            return new PosicaoRelevancia(Float.parseFloat(chave.substring(0, separador)),
+                    Long.parseLong(chave.substring(separador + 1)));
+        } catch (NumberFormatException e) {
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+
+    static <T> Slice<T> vazia() {
+        return new SliceImpl<>(List.of());
+    }
+
+    /**
+     * Resposta com o conteúdo da página e, se houver mais registros, o cursor da próxima
+     * @param chave extrai a chave de ordenação do último elemento
+     */
+    static <T> ResponseEntity<List<T>> resposta(Slice<T> pagina, Function<T, ?> chave) {
+        return resposta(pagina, chave, null);
+    }
+
+    /**
+     * @param etag ETag da página (Etags), ou null para não enviar o cabeçalho
+     */
+    static <T> ResponseEntity<List<T>> resposta(Slice<T> pagina, Function<T, ?> chave, String etag) {
+        List<T> conteudo = pagina.getContent();
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (etag != null) {
+            resposta.eTag(etag);
+        }
+        if (!pagina.hasNext() || conteudo.isEmpty()) {
+            return resposta.body(conteudo);
+        }
+        String ultimaChave = String.valueOf(chave.apply(conteudo.get(conteudo.size() - 1)));
+        return resposta
+                .header(HEADER_PROXIMO_CURSOR, codificar(ultimaChave))
+                .body(conteudo);
+    }
+
+    static String codificar(String chave) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIXO + chave).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!valor.startsWith(PREFIXO)) {
+                throw new CursorInvalidoException(cursor);
+            }
+            return valor.substring(PREFIXO.length());
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException(cursor);
+        }
+    }
+}
@@ -1,27 +1,38 @@
 package com.petshop.controller;
 
+import com.petshop.dto.LoteResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.dto.SugestaoResponse;
+import com.petshop.exception.VersaoDesatualizadaException;
 import com.petshop.model.Cliente;
 import com.petshop.model.Pets;
 import com.petshop.model.Raca;
 import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
 import com.petshop.repository.RacaRepository;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.repository.filtro.PetsFiltro;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
-import org.hibernate.Hibernate;
 
 @RestController
 @RequestMapping("/api/pets")
@@ -42,118 +53,132 @@ public class PetsController {
     @Autowired
     private RoleService roleService;
     
-    private void initializeRelationships(Pets pet) {
-        if (pet != null) {
-            Hibernate.initialize(pet.getCliente());
-            Hibernate.initialize(pet.getRaca());
-        }
-    }
+    @Autowired
+    private ExecutorBusca executorBusca;
     
-    private void initializeRelationships(List<Pets> pets) {
-        if (pets != null) {
-            pets.forEach(this::initializeRelationships);
-        }
-    }
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+    
+    @Autowired
+    private CadastroLoteService cadastroLoteService;
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Pets>> getAllPets() {
-        List<Pets> pets = petsRepository.findAll();
-        initializeRelationships(pets);
-        return ResponseEntity.ok(pets);
+    public ResponseEntity<List<PetResponse>> getAllPets(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite) {
+        Slice<PetResponse> pets = petsRepository.findAll(Paginacao.cursorId(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(pets, PetResponse::getId);
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<Pets> getPetById(@PathVariable Long id) {
+    public ResponseEntity<PetResponse> getPetById(@PathVariable Long id,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (!roleService.canAccessPet(id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        Optional<Pets> pet = petsRepository.findById(id);
-        if (pet.isPresent()) {
-            initializeRelationships(pet.get());
-            return ResponseEntity.ok(pet.get());
+        Optional<String> versao = petsRepository.findVersaoById(id);
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.notFound().build();
+        
+        String etag = Etags.de(versao.get());
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Optional<PetResponse> pet = petsRepository.findResponseById(id);
+        return pet.map(p -> ResponseEntity.ok().eTag(etag).body(p))
+                  .orElse(ResponseEntity.notFound().build());
     }
     
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Pets>> getPetsByCliente(@PathVariable Long clienteId) {
+    public ResponseEntity<List<PetResponse>> getPetsByCliente(@PathVariable Long clienteId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limite,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         if (!roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Pets> pets = petsRepository.findByClienteId(clienteId);
-        initializeRelationships(pets);
-        return ResponseEntity.ok(pets);
+        Long ultimoId = Paginacao.cursorId(cursor);
+        String etag = Etags.de(petsRepository.findVersaoByClienteId(clienteId, ultimoId));
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Slice<PetResponse> pets = petsRepository.findByClienteId(clienteId, ultimoId, Paginacao.pagina(limite));
+        return Paginacao.resposta(pets, PetResponse::getId, etag);
     }
     
     @GetMapping("/raca/{racaId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Pets>> getPetsByRaca(@PathVariable Long racaId) {
-        List<Pets> pets = petsRepository.findByRacaId(racaId);
+    public ResponseEntity<List<PetResponse>> getPetsByRaca(@PathVariable Long racaId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer limite) {
+        Long ultimoId = Paginacao.cursorId(cursor);
+        Pageable pagina = Paginacao.pagina(limite);
+        Slice<PetResponse> pets;
         
-        if (!roleService.isAdmin()) {
-            pets = pets.stream()
-                    .filter(pet -> roleService.canAccessPet(pet.getId()))
-                    .toList();
+        if (roleService.isAdmin()) {
+            pets = petsRepository.findByRacaId(racaId, ultimoId, pagina);
+        } else {
+            String currentUserCpf = roleService.getCurrentUserCpf();
+            pets = currentUserCpf != null ? petsRepository.findByRacaIdAndClienteCpf(racaId, currentUserCpf, ultimoId, pagina) : Paginacao.vazia();
         }
         
-        initializeRelationships(pets);
-        return ResponseEntity.ok(pets);
+        return Paginacao.resposta(pets, PetResponse::getId);
     }
     
     @GetMapping("/buscar-avancado")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    @Transactional(readOnly = true)
-    public ResponseEntity<List<Pets>> getPets(@RequestParam(required = false) Long clienteId,
-                                              @RequestParam(required = false) String nome,
-                                              @RequestParam(required = false) Long racaId,
-                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+    public ResponseEntity<List<PetResponse>> getPets(@RequestParam(required = false) Long clienteId,
+                                                     @RequestParam(required = false) String nome,
+                                                     @RequestParam(required = false) Long racaId,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer limite) {
         if (clienteId != null && !roleService.canAccessCliente(clienteId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         
-        List<Pets> pets;
-        
-        if (clienteId != null && nome != null) {
-            pets = petsRepository.findByClienteIdAndNomeContaining(clienteId, nome);
-        } else if (clienteId != null && racaId != null) {
-            pets = petsRepository.findByClienteIdAndRacaId(clienteId, racaId);
-        } else if (nome != null && racaId != null) {
-            pets = petsRepository.findByNomeContainingAndRacaId(nome, racaId);
-        } else if (clienteId != null) {
-            pets = petsRepository.findByClienteId(clienteId);
-        } else if (nome != null) {
-            pets = petsRepository.findByNomeContaining(nome);
-        } else if (racaId != null) {
-            pets = petsRepository.findByRacaId(racaId);
-        } else if (dataInicio != null && dataFim != null) {
-            pets = petsRepository.findByDataNascimentoBetween(dataInicio, dataFim);
-        } else {
-            pets = petsRepository.findAll();
+        String clienteCpf = null;
+        if (clienteId == null && !roleService.isAdmin()) {
+            clienteCpf = roleService.getCurrentUserCpf();
+            if (clienteCpf == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
+        PetsFiltro filtro = new PetsFiltro(clienteId, clienteCpf, nome, racaId, dataInicio, dataFim);
+        Slice<PetResponse> pets = executorBusca.buscar(filtro, Paginacao.cursorId(cursor), Paginacao.pagina(limite), petsRepository::findResponsesByIds);
+        return Paginacao.resposta(pets, PetResponse::getId);
+    }
+    
+    @GetMapping("/autocompletar")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<SugestaoResponse>> autocompletarPets(@RequestParam String q,
+                                                                    @RequestParam(required = false) Integer limite) {
+        Long clienteId = null;
         if (!roleService.isAdmin()) {
-            pets = pets.stream()
-                    .filter(pet -> roleService.canAccessPet(pet.getId()))
-                    .toList();
+            clienteId = roleService.getCurrentClienteId();
+            if (clienteId == null) {
+                return ResponseEntity.ok(List.of());
+            }
         }
         
-        initializeRelationships(pets);
-        return ResponseEntity.ok(pets);
+        return ResponseEntity.ok(autocompleteService.sugerirPets(q, clienteId, limite));
     }
     
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Pets> createPet(@Valid @RequestBody Pets request) {
+    public ResponseEntity<PetResponse> createPet(@Valid @RequestBody Pets request) {
         try {
             logger.info("Tentando criar pet para cliente ID: {}", request.getCliente().getId());
             
@@ -186,8 +211,9 @@ public class PetsController {
             pet.setFoto(request.getFoto());
             
             Pets savedPet = petsRepository.save(pet);
+            autocompleteService.registrarPet(savedPet);
             logger.info("Pet criado com sucesso - ID: {}, Nome: {}", savedPet.getId(), savedPet.getNome());
-            return ResponseEntity.status(HttpStatus.CREATED).body(savedPet);
+            return ResponseEntity.status(HttpStatus.CREATED).body(PetResponse.de(savedPet));
             
         } catch (Exception e) {
             logger.error("Erro ao criar pet: {}", e.getMessage(), e);
@@ -195,9 +221,20 @@ public class PetsController {
         }
     }
     
+    /**
+     * Cadastro de vários pets de uma vez: 201 se todos foram criados, 207 com o status de cada item caso contrário
+     */
+    @PostMapping("/lote")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<LoteResponse<PetResponse>> createPets(@RequestBody List<Pets> pedidos) {
+        LoteResponse<PetResponse> resultado = cadastroLoteService.criarPets(pedidos);
+        return ResponseEntity.status(resultado.getFalhas() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(resultado);
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Pets> updatePet(@PathVariable Long id, @Valid @RequestBody Pets pet) {
+    public ResponseEntity<PetResponse> updatePet(@PathVariable Long id, @Valid @RequestBody Pets pet,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             logger.info("Tentando atualizar pet ID: {}", id);
             
@@ -206,16 +243,24 @@ public class PetsController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
             }
             
-            if (!petsRepository.existsById(id)) {
+            // Com cliente e raça já no contexto, o merge e o PetResponse da resposta não fazem novos SELECTs
+            Optional<Pets> existingPet = petsRepository.findWithClienteRacaById(id);
+            if (existingPet.isEmpty()) {
                 logger.error("Pet não encontrado com ID: {}", id);
                 return ResponseEntity.notFound().build();
             }
             
+            Etags.verificar(ifMatch, petsRepository.findVersaoById(id));
             pet.setId(id);
+            pet.setVersao(existingPet.get().getVersao());
             Pets updatedPet = petsRepository.save(pet);
+            autocompleteService.registrarPet(updatedPet);
             logger.info("Pet atualizado com sucesso - ID: {}, Nome: {}", updatedPet.getId(), updatedPet.getNome());
-            return ResponseEntity.ok(updatedPet);
+            return Etags.ok(petsRepository.findVersaoById(id)).body(PetResponse.de(updatedPet));
             
+        } catch (VersaoDesatualizadaException | ObjectOptimisticLockingFailureException e) {
+            logger.warn("Pet ID {} alterado depois da versão informada", id);
+            throw e;
         } catch (Exception e) {
             logger.error("Erro ao atualizar pet ID {}: {}", id, e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -239,6 +284,8 @@ public class PetsController {
             }
             
             petsRepository.deleteById(id);
+            autocompleteService.removerPet(id);
+            atendimentoPeriodoCache.invalidarTudo();
             logger.info("Pet deletado com sucesso - ID: {}", id);
             return ResponseEntity.noContent().build();
             
@@ -1,12 +1,21 @@
 package com.petshop.controller;
 
+import com.petshop.dto.RegiaoCacheResponse;
+import com.petshop.dto.SugestaoResponse;
 import com.petshop.model.Raca;
 import com.petshop.repository.RacaRepository;
 import com.petshop.repository.PetsRepository;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.LeituraNoPrimario;
+import com.petshop.service.RacaCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -25,18 +34,47 @@ public class RacaController {
     @Autowired
     private PetsRepository petsRepository;
     
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private RacaCache racaCache;
+    
+    /** As leituras de raças preenchem o cache de segundo nível, então vão ao primário */
+    @Autowired
+    private LeituraNoPrimario leituraNoPrimario;
+    
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<Raca>> getAllRacas() {
-        List<Raca> racas = racaRepository.findAll();
-        return ResponseEntity.ok(racas);
+    public ResponseEntity<List<Raca>> getAllRacas(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer limite,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long ultimoId = Paginacao.cursorId(cursor);
+        String etag = Etags.de(leituraNoPrimario.executar(() -> racaRepository.findVersaoColecao(ultimoId)));
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Slice<Raca> racas = leituraNoPrimario.executar(() -> racaRepository.findAll(ultimoId, Paginacao.pagina(limite)));
+        return Paginacao.resposta(racas, Raca::getId, etag);
     }
     
     @GetMapping("/{id}")    
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Raca> getRacaById(@PathVariable Long id) {
-        Optional<Raca> raca = racaRepository.findById(id);
-        return raca.map(ResponseEntity::ok)
+    public ResponseEntity<Raca> getRacaById(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<String> versao = leituraNoPrimario.executar(() -> racaRepository.findVersaoById(id));
+        if (versao.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        String etag = Etags.de(versao.get());
+        if (Etags.naoModificado(ifNoneMatch, etag)) {
+            return Etags.naoModificadoResposta(etag);
+        }
+        
+        Optional<Raca> raca = leituraNoPrimario.executar(() -> racaRepository.findById(id));
+        return raca.map(r -> ResponseEntity.ok().eTag(etag).body(r))
                    .orElse(ResponseEntity.notFound().build());
     }
     
@@ -44,20 +82,38 @@ public class RacaController {
     @GetMapping("/buscar")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<List<Raca>> getRacas(@RequestParam(required = false) String descricao,
-                                               @RequestParam(required = false) Boolean caseInsensitive) {
-        List<Raca> racas;
-        
-        if (descricao != null) {
+                                               @RequestParam(required = false) Boolean caseInsensitive,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limite) {
+        Long ultimoId = Paginacao.cursorId(cursor);
+        Pageable pagina = Paginacao.pagina(limite);
+        Slice<Raca> racas = leituraNoPrimario.executar(() -> {
+            if (descricao == null) {
+                return racaRepository.findAll(ultimoId, pagina);
+            }
             if (caseInsensitive != null && caseInsensitive) {
-                racas = racaRepository.findByDescricaoContainingIgnoreCase(descricao);
-            } else {
-                racas = racaRepository.findByDescricaoContaining(descricao);
+                return racaRepository.findByDescricaoContainingIgnoreCase(descricao, ultimoId, pagina);
             }
-        } else {
-            racas = racaRepository.findAll();
-        }
+            return racaRepository.findByDescricaoContaining(descricao, ultimoId, pagina);
+        });
         
-        return ResponseEntity.ok(racas);
+        return Paginacao.resposta(racas, Raca::getId);
+    }
+    
+    @GetMapping("/autocompletar")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<SugestaoResponse>> autocompletarRacas(@RequestParam String q,
+                                                                     @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(autocompleteService.sugerirRacas(q, limite));
+    }
+    
+    /**
+     * Acertos, falhas e escritas das regiões de cache das raças (entidades e consultas)
+     */
+    @GetMapping("/cache/estatisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<RegiaoCacheResponse>> getEstatisticasCache() {
+        return ResponseEntity.ok(racaCache.estatisticas());
     }
     
     @PostMapping
@@ -68,19 +124,34 @@ public class RacaController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(existingRaca.get());
         }
         Raca savedRaca = racaRepository.save(raca);
+        racaCache.invalidar();
+        autocompleteService.registrarRaca(savedRaca);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedRaca);
     }
     
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Raca> updateRaca(@PathVariable Long id, @Valid @RequestBody Raca raca) {
-        if (!racaRepository.existsById(id)) {
+    public ResponseEntity<Raca> updateRaca(@PathVariable Long id, @Valid @RequestBody Raca raca,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Optional<Raca> existingRaca = racaRepository.findById(id);
+        if (existingRaca.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         
+        Etags.verificar(ifMatch, racaRepository.findVersaoById(id));
         raca.setId(id);
-        Raca updatedRaca = racaRepository.save(raca);
-        return ResponseEntity.ok(updatedRaca);
+        raca.setVersao(existingRaca.get().getVersao());
+        Raca updatedRaca;
+        try {
+            updatedRaca = racaRepository.save(raca);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // A versão em cache era de antes de uma alteração feita por outra instância
+            racaCache.invalidar();
+            throw e;
+        }
+        racaCache.invalidar();
+        autocompleteService.registrarRaca(updatedRaca);
+        return Etags.ok(racaRepository.findVersaoById(id)).body(updatedRaca);
     }
     
     @DeleteMapping("/{id}")
@@ -94,6 +165,8 @@ public class RacaController {
         petsRepository.deleteByRacaId(id);
         
         racaRepository.deleteById(id);
+        racaCache.invalidar();
+        autocompleteService.removerRaca(id);
         return ResponseEntity.noContent().build();
     }
 }
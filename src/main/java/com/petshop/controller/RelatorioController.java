@@ -0,0 +1,166 @@
+package com.petshop.controller;
+
+import com.petshop.dto.DivergenciaResumoResponse;
+import com.petshop.dto.ErrorResponse;
+import com.petshop.dto.FaturamentoResponse;
+import com.petshop.dto.RankingResponse;
+import com.petshop.dto.ResumoAtendimentosResponse;
+import com.petshop.service.RelatorioAtendimentoService;
+import com.petshop.service.RelatorioAtendimentoService.Agrupamento;
+import com.petshop.service.RelatorioAtendimentoService.Periodo;
+import com.petshop.service.ResumoDiarioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Relatórios de faturamento e atendimentos por intervalo de datas (inclusivo), agregados no banco
+ */
+@RestController
+@RequestMapping("/api/relatorios")
+@CrossOrigin(origins = "*")
+public class RelatorioController {
+
+    /** Maior intervalo aceito com período por dia (uma linha por dia e grupo) */
+    static final long MAXIMO_DIAS_POR_DIA = 366;
+
+    static final int LIMITE_PADRAO_RANKING = 10;
+    static final int LIMITE_MAXIMO_RANKING = 100;
+
+    @Autowired
+    private RelatorioAtendimentoService relatorioAtendimentoService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    /**
+     * Faturamento por período
+     * @param periodo "dia" ou "mes"
+     * @param agrupamento "total", "cliente" ou "raca"
+     */
+    @GetMapping("/faturamento")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getFaturamento(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                            @RequestParam(defaultValue = "mes") String periodo,
+                                            @RequestParam(defaultValue = "total") String agrupamento) {
+        String path = "/api/relatorios/faturamento";
+        Periodo tipoPeriodo = Periodo.de(periodo);
+        if (tipoPeriodo == null) {
+            return requisicaoInvalida("Período inválido: " + periodo + ". Use dia ou mes", path);
+        }
+        Agrupamento tipoAgrupamento = Agrupamento.de(agrupamento);
+        if (tipoAgrupamento == null) {
+            return requisicaoInvalida("Agrupamento inválido: " + agrupamento + ". Use total, cliente ou raca", path);
+        }
+        if (dataInicio.isAfter(dataFim)) {
+            return requisicaoInvalida("dataInicio deve ser anterior ou igual a dataFim", path);
+        }
+        if (tipoPeriodo == Periodo.DIA && ChronoUnit.DAYS.between(dataInicio, dataFim) >= MAXIMO_DIAS_POR_DIA) {
+            return requisicaoInvalida("Faturamento por dia limitado a " + MAXIMO_DIAS_POR_DIA + " dias; use periodo=mes", path);
+        }
+
+        List<FaturamentoResponse> linhas = relatorioAtendimentoService.faturamento(dataInicio, dataFim, tipoPeriodo, tipoAgrupamento);
+        return ResponseEntity.ok(linhas);
+    }
+
+    @GetMapping("/resumo")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getResumo(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            return requisicaoInvalida("dataInicio deve ser anterior ou igual a dataFim", "/api/relatorios/resumo");
+        }
+
+        ResumoAtendimentosResponse resumo = relatorioAtendimentoService.resumo(dataInicio, dataFim);
+        return ResponseEntity.ok(resumo);
+    }
+
+    @GetMapping("/ranking/clientes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRankingClientes(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                                @RequestParam(required = false) Integer limite) {
+        String path = "/api/relatorios/ranking/clientes";
+        ResponseEntity<?> erro = validarRanking(dataInicio, dataFim, limite, path);
+        if (erro != null) {
+            return erro;
+        }
+
+        List<RankingResponse> ranking = relatorioAtendimentoService.rankingClientes(dataInicio, dataFim,
+                limite != null ? limite : LIMITE_PADRAO_RANKING);
+        return ResponseEntity.ok(ranking);
+    }
+
+    @GetMapping("/ranking/pets")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRankingPets(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+                                            @RequestParam(required = false) Integer limite) {
+        String path = "/api/relatorios/ranking/pets";
+        ResponseEntity<?> erro = validarRanking(dataInicio, dataFim, limite, path);
+        if (erro != null) {
+            return erro;
+        }
+
+        List<RankingResponse> ranking = relatorioAtendimentoService.rankingPets(dataInicio, dataFim,
+                limite != null ? limite : LIMITE_PADRAO_RANKING);
+        return ResponseEntity.ok(ranking);
+    }
+
+    /**
+     * Linhas em que o resumo diário difere dos atendimentos no intervalo
+     */
+    @GetMapping("/resumo-diario/divergencias")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDivergenciasResumoDiario(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            return requisicaoInvalida("dataInicio deve ser anterior ou igual a dataFim", "/api/relatorios/resumo-diario/divergencias");
+        }
+
+        List<DivergenciaResumoResponse> divergencias = resumoDiarioService.verificar(dataInicio, dataFim);
+        return ResponseEntity.ok(divergencias);
+    }
+
+    /**
+     * Refaz o resumo diário do intervalo a partir dos atendimentos (carga inicial, correções)
+     */
+    @PostMapping("/resumo-diario/reconstruir")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconstruirResumoDiario(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        if (dataInicio.isAfter(dataFim)) {
+            return requisicaoInvalida("dataInicio deve ser anterior ou igual a dataFim", "/api/relatorios/resumo-diario/reconstruir");
+        }
+
+        resumoDiarioService.reconstruir(dataInicio, dataFim);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<?> validarRanking(LocalDate dataInicio, LocalDate dataFim, Integer limite, String path) {
+        if (dataInicio.isAfter(dataFim)) {
+            return requisicaoInvalida("dataInicio deve ser anterior ou igual a dataFim", path);
+        }
+        if (limite != null && (limite < 1 || limite > LIMITE_MAXIMO_RANKING)) {
+            return requisicaoInvalida("limite deve estar entre 1 e " + LIMITE_MAXIMO_RANKING, path);
+        }
+        return null;
+    }
+
+    private ResponseEntity<ErrorResponse> requisicaoInvalida(String mensagem, String path) {
+        ErrorResponse error = new ErrorResponse(
+            400,
+            "Relatório inválido",
+            mensagem,
+            path
+        );
+        return ResponseEntity.badRequest().body(error);
+    }
+}
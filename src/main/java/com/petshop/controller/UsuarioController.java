@@ -9,10 +9,14 @@ import com.petshop.dto.UsuarioUpdateRequest;
 import com.petshop.model.PerfilUsuario;
 import com.petshop.repository.UsuarioRepository;
 import com.petshop.repository.ClienteRepository;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.JwtService;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -36,11 +40,18 @@ public class UsuarioController {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private ClienteOwnershipCache clienteOwnershipCache;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Usuario>> getAllUsuarios() {
-        List<Usuario> usuarios = usuarioRepository.findAll();
-        return ResponseEntity.ok(usuarios);
+    public ResponseEntity<List<Usuario>> getAllUsuarios(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limite) {
+        Slice<Usuario> usuarios = usuarioRepository.findAll(Paginacao.cursorTexto(cursor), Paginacao.pagina(limite));
+        return Paginacao.resposta(usuarios, Usuario::getCpf);
     }
     
     @GetMapping("/{cpf}")
@@ -74,20 +85,24 @@ public class UsuarioController {
     @GetMapping("/buscar")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<List<Usuario>> getUsuariosByNome(@RequestParam(required = false) String nome,
-                                                          @RequestParam(required = false) String perfil) {
-        List<Usuario> usuarios;
+                                                          @RequestParam(required = false) String perfil,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limite) {
+        String ultimoCpf = Paginacao.cursorTexto(cursor);
+        Pageable pagina = Paginacao.pagina(limite);
+        Slice<Usuario> usuarios;
         
         if (nome != null && perfil != null) {
-            usuarios = usuarioRepository.findByNomeAndPerfil(nome, PerfilUsuario.valueOf(perfil));
+            usuarios = usuarioRepository.findByNomeAndPerfil(nome, PerfilUsuario.valueOf(perfil), ultimoCpf, pagina);
         } else if (nome != null) {
-            usuarios = usuarioRepository.findByNomeContaining(nome);
+            usuarios = usuarioRepository.findByNomeContaining(nome, ultimoCpf, pagina);
         } else if (perfil != null) {
-            usuarios = usuarioRepository.findByPerfil(PerfilUsuario.valueOf(perfil));
+            usuarios = usuarioRepository.findByPerfil(PerfilUsuario.valueOf(perfil), ultimoCpf, pagina);
         } else {
-            usuarios = usuarioRepository.findAll();
+            usuarios = usuarioRepository.findAll(ultimoCpf, pagina);
         }
         
-        return ResponseEntity.ok(usuarios);
+        return Paginacao.resposta(usuarios, Usuario::getCpf);
     }
     
     @PostMapping
@@ -127,6 +142,8 @@ public class UsuarioController {
                 
                 try {
                     clienteCriado = clienteRepository.save(cliente);
+                    clienteOwnershipCache.invalidateCpf(clienteCriado.getCpf());
+                    autocompleteService.registrarCliente(clienteCriado);
                 } catch (Exception e) {
                     usuarioRepository.delete(savedUsuario);
                     ErrorResponse error = new ErrorResponse(
@@ -186,6 +203,7 @@ public class UsuarioController {
             }
 
             Usuario updatedUsuario = usuarioRepository.save(existingUsuario);
+            clienteOwnershipCache.invalidateCpf(cpf);
 
             return ResponseEntity.ok(updatedUsuario);
 
@@ -216,10 +234,15 @@ public class UsuarioController {
             }
             
             if (clienteRepository.existsByCpf(cpf)) {
+                Long clienteId = clienteOwnershipCache.getClienteId(cpf);
                 clienteRepository.deleteByCpf(cpf);
+                if (clienteId != null) {
+                    autocompleteService.removerCliente(clienteId);
+                }
             }
             
             usuarioRepository.deleteByCpf(cpf);
+            clienteOwnershipCache.invalidateCpf(cpf);
             return ResponseEntity.noContent().build();
             
         } catch (Exception e) {
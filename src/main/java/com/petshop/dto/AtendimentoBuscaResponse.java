@@ -0,0 +1,87 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resultado da busca textual de atendimentos: dados do atendimento, relevância
+ * e trecho da descrição com os termos encontrados entre &lt;mark&gt; e &lt;/mark&gt;
+ */
+public class AtendimentoBuscaResponse {
+    private Long id;
+    private Long petId;
+    private Long clienteId;
+    private LocalDate data;
+    private BigDecimal valor;
+    private float relevancia;
+    private String trecho;
+    
+    public AtendimentoBuscaResponse() {}
+    
+    public AtendimentoBuscaResponse(Long id, Long petId, Long clienteId, LocalDate data, BigDecimal valor,
+                                    float relevancia, String trecho) {
+        this.id = id;
+        this.petId = petId;
+        this.clienteId = clienteId;
+        this.data = data;
+        this.valor = valor;
+        this.relevancia = relevancia;
+        this.trecho = trecho;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getPetId() {
+        return petId;
+    }
+    
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+    
+    public Long getClienteId() {
+        return clienteId;
+    }
+    
+    public void setClienteId(Long clienteId) {
+        this.clienteId = clienteId;
+    }
+    
+    public LocalDate getData() {
+        return data;
+    }
+    
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public float getRelevancia() {
+        return relevancia;
+    }
+    
+    public void setRelevancia(float relevancia) {
+        this.relevancia = relevancia;
+    }
+    
+    public String getTrecho() {
+        return trecho;
+    }
+    
+    public void setTrecho(String trecho) {
+        this.trecho = trecho;
+    }
+}
@@ -0,0 +1,88 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Atendimento com pet, raça e cliente, montado direto pela consulta (AtendimentoRepository.PROJECAO)
+ */
+public class AtendimentoResponse {
+    private Long id;
+    private PetResumoResponse pet;
+    private ClienteResponse cliente;
+    private String descricao;
+    private BigDecimal valor;
+    private LocalDate data;
+    
+    public AtendimentoResponse() {}
+    
+    public AtendimentoResponse(Long id, PetResumoResponse pet, ClienteResponse cliente, String descricao, BigDecimal valor, LocalDate data) {
+        this.id = id;
+        this.pet = pet;
+        this.cliente = cliente;
+        this.descricao = descricao;
+        this.valor = valor;
+        this.data = data;
+    }
+    
+    /**
+     * Construtor da projeção JPQL: colunas do atendimento, do pet, da raça e do cliente
+     */
+    public AtendimentoResponse(Long id, String descricao, BigDecimal valor, LocalDate data,
+                               Long petId, String petNome, LocalDate petDataNascimento, String petFoto,
+                               Long racaId, String racaDescricao,
+                               Long clienteId, String clienteNome, String clienteCpf, LocalDate clienteDataCadastro, String clienteFoto) {
+        this(id,
+             new PetResumoResponse(petId, racaId != null ? new RacaResponse(racaId, racaDescricao) : null, petDataNascimento, petNome, petFoto),
+             new ClienteResponse(clienteId, clienteNome, clienteCpf, clienteDataCadastro, clienteFoto),
+             descricao, valor, data);
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public PetResumoResponse getPet() {
+        return pet;
+    }
+    
+    public void setPet(PetResumoResponse pet) {
+        this.pet = pet;
+    }
+    
+    public ClienteResponse getCliente() {
+        return cliente;
+    }
+    
+    public void setCliente(ClienteResponse cliente) {
+        this.cliente = cliente;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public LocalDate getData() {
+        return data;
+    }
+    
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+}
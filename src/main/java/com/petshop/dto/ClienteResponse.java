@@ -1,5 +1,7 @@
 package com.petshop.dto;
 
+import com.petshop.model.Cliente;
+
 import java.time.LocalDate;
 
 public class ClienteResponse {
@@ -19,6 +21,11 @@ public class ClienteResponse {
         this.foto = foto;
     }
     
+    public static ClienteResponse de(Cliente cliente) {
+        return cliente == null ? null : new ClienteResponse(cliente.getId(), cliente.getNome(), cliente.getCpf(),
+                cliente.getDataCadastro(), cliente.getFoto());
+    }
+    
     public Long getId() {
         return id;
     }
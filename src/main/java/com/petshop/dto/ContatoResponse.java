@@ -0,0 +1,79 @@
+package com.petshop.dto;
+
+import com.petshop.model.Contato;
+
+import java.time.LocalDate;
+
+/**
+ * Contato com o cliente, montado direto pela consulta (ContatoRepository.PROJECAO)
+ */
+public class ContatoResponse {
+    private Long id;
+    private ClienteResponse cliente;
+    private String tag;
+    private Contato.TipoContato tipo;
+    private String valor;
+    
+    public ContatoResponse() {}
+    
+    public ContatoResponse(Long id, ClienteResponse cliente, String tag, Contato.TipoContato tipo, String valor) {
+        this.id = id;
+        this.cliente = cliente;
+        this.tag = tag;
+        this.tipo = tipo;
+        this.valor = valor;
+    }
+    
+    /**
+     * Construtor da projeção JPQL: colunas do contato e do cliente
+     */
+    public ContatoResponse(Long id, String tag, Contato.TipoContato tipo, String valor,
+                           Long clienteId, String clienteNome, String clienteCpf, LocalDate clienteDataCadastro, String clienteFoto) {
+        this(id, new ClienteResponse(clienteId, clienteNome, clienteCpf, clienteDataCadastro, clienteFoto), tag, tipo, valor);
+    }
+    
+    public static ContatoResponse de(Contato contato) {
+        return new ContatoResponse(contato.getId(), ClienteResponse.de(contato.getCliente()), contato.getTag(),
+                contato.getTipo(), contato.getValor());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public ClienteResponse getCliente() {
+        return cliente;
+    }
+    
+    public void setCliente(ClienteResponse cliente) {
+        this.cliente = cliente;
+    }
+    
+    public String getTag() {
+        return tag;
+    }
+    
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+    
+    public Contato.TipoContato getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(Contato.TipoContato tipo) {
+        this.tipo = tipo;
+    }
+    
+    public String getValor() {
+        return valor;
+    }
+    
+    public void setValor(String valor) {
+        this.valor = valor;
+    }
+}
@@ -0,0 +1,86 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Linha em que o resumo diário difere dos atendimentos: valores calculados dos atendimentos
+ * (esperados) e os gravados no resumo (registrados)
+ */
+public class DivergenciaResumoResponse {
+    private LocalDate data;
+    private Long clienteId;
+    private Long petId;
+    private long atendimentosEsperados;
+    private long atendimentosRegistrados;
+    private BigDecimal totalEsperado;
+    private BigDecimal totalRegistrado;
+
+    public DivergenciaResumoResponse() {}
+
+    public DivergenciaResumoResponse(LocalDate data, Long clienteId, Long petId, long atendimentosEsperados, long atendimentosRegistrados, BigDecimal totalEsperado, BigDecimal totalRegistrado) {
+        this.data = data;
+        this.clienteId = clienteId;
+        this.petId = petId;
+        this.atendimentosEsperados = atendimentosEsperados;
+        this.atendimentosRegistrados = atendimentosRegistrados;
+        this.totalEsperado = totalEsperado;
+        this.totalRegistrado = totalRegistrado;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+
+    public Long getClienteId() {
+        return clienteId;
+    }
+
+    public void setClienteId(Long clienteId) {
+        this.clienteId = clienteId;
+    }
+
+    public Long getPetId() {
+        return petId;
+    }
+
+    public void setPetId(Long petId) {
+        this.petId = petId;
+    }
+
+    public long getAtendimentosEsperados() {
+        return atendimentosEsperados;
+    }
+
+    public void setAtendimentosEsperados(long atendimentosEsperados) {
+        this.atendimentosEsperados = atendimentosEsperados;
+    }
+
+    public long getAtendimentosRegistrados() {
+        return atendimentosRegistrados;
+    }
+
+    public void setAtendimentosRegistrados(long atendimentosRegistrados) {
+        this.atendimentosRegistrados = atendimentosRegistrados;
+    }
+
+    public BigDecimal getTotalEsperado() {
+        return totalEsperado;
+    }
+
+    public void setTotalEsperado(BigDecimal totalEsperado) {
+        this.totalEsperado = totalEsperado;
+    }
+
+    public BigDecimal getTotalRegistrado() {
+        return totalRegistrado;
+    }
+
+    public void setTotalRegistrado(BigDecimal totalRegistrado) {
+        this.totalRegistrado = totalRegistrado;
+    }
+}
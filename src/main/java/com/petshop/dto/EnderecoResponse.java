@@ -0,0 +1,100 @@
+package com.petshop.dto;
+
+import com.petshop.model.Endereco;
+
+import java.time.LocalDate;
+
+/**
+ * Endereço com o cliente, montado direto pela consulta (EnderecoRepository.PROJECAO)
+ */
+public class EnderecoResponse {
+    private Long id;
+    private ClienteResponse cliente;
+    private String logradouro;
+    private String cidade;
+    private String bairro;
+    private String complemento;
+    private String tag;
+    
+    public EnderecoResponse() {}
+    
+    public EnderecoResponse(Long id, ClienteResponse cliente, String logradouro, String cidade, String bairro, String complemento, String tag) {
+        this.id = id;
+        this.cliente = cliente;
+        this.logradouro = logradouro;
+        this.cidade = cidade;
+        this.bairro = bairro;
+        this.complemento = complemento;
+        this.tag = tag;
+    }
+    
+    /**
+     * Construtor da projeção JPQL: colunas do endereço e do cliente
+     */
+    public EnderecoResponse(Long id, String logradouro, String cidade, String bairro, String complemento, String tag,
+                            Long clienteId, String clienteNome, String clienteCpf, LocalDate clienteDataCadastro, String clienteFoto) {
+        this(id, new ClienteResponse(clienteId, clienteNome, clienteCpf, clienteDataCadastro, clienteFoto),
+             logradouro, cidade, bairro, complemento, tag);
+    }
+    
+    public static EnderecoResponse de(Endereco endereco) {
+        return new EnderecoResponse(endereco.getId(), ClienteResponse.de(endereco.getCliente()), endereco.getLogradouro(),
+                endereco.getCidade(), endereco.getBairro(), endereco.getComplemento(), endereco.getTag());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public ClienteResponse getCliente() {
+        return cliente;
+    }
+    
+    public void setCliente(ClienteResponse cliente) {
+        this.cliente = cliente;
+    }
+    
+    public String getLogradouro() {
+        return logradouro;
+    }
+    
+    public void setLogradouro(String logradouro) {
+        this.logradouro = logradouro;
+    }
+    
+    public String getCidade() {
+        return cidade;
+    }
+    
+    public void setCidade(String cidade) {
+        this.cidade = cidade;
+    }
+    
+    public String getBairro() {
+        return bairro;
+    }
+    
+    public void setBairro(String bairro) {
+        this.bairro = bairro;
+    }
+    
+    public String getComplemento() {
+        return complemento;
+    }
+    
+    public void setComplemento(String complemento) {
+        this.complemento = complemento;
+    }
+    
+    public String getTag() {
+        return tag;
+    }
+    
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+}
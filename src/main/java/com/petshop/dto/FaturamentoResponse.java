@@ -0,0 +1,76 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Faturamento de um período (dia ou mês, pela data inicial) e, conforme o agrupamento,
+ * de um cliente ou de uma raça; id e nome ficam nulos no total geral e para pets sem raça
+ */
+public class FaturamentoResponse {
+    private LocalDate periodo;
+    private Long id;
+    private String nome;
+    private long atendimentos;
+    private BigDecimal total;
+    private BigDecimal media;
+
+    public FaturamentoResponse() {}
+
+    public FaturamentoResponse(LocalDate periodo, Long id, String nome, long atendimentos, BigDecimal total, BigDecimal media) {
+        this.periodo = periodo;
+        this.id = id;
+        this.nome = nome;
+        this.atendimentos = atendimentos;
+        this.total = total;
+        this.media = media;
+    }
+
+    public LocalDate getPeriodo() {
+        return periodo;
+    }
+
+    public void setPeriodo(LocalDate periodo) {
+        this.periodo = periodo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public long getAtendimentos() {
+        return atendimentos;
+    }
+
+    public void setAtendimentos(long atendimentos) {
+        this.atendimentos = atendimentos;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public BigDecimal getMedia() {
+        return media;
+    }
+
+    public void setMedia(BigDecimal media) {
+        this.media = media;
+    }
+}
@@ -0,0 +1,83 @@
+package com.petshop.dto;
+
+import java.util.List;
+
+/**
+ * Relatório de uma importação NDJSON: totais e os erros de cada linha rejeitada
+ * (lista limitada; rejeitados traz o total)
+ */
+public class ImportacaoResponse {
+    private long lidos;
+    private long importados;
+    private long rejeitados;
+    private List<ErroLinha> erros;
+
+    public ImportacaoResponse() {}
+
+    public ImportacaoResponse(long lidos, long importados, long rejeitados, List<ErroLinha> erros) {
+        this.lidos = lidos;
+        this.importados = importados;
+        this.rejeitados = rejeitados;
+        this.erros = erros;
+    }
+
+    public long getLidos() {
+        return lidos;
+    }
+
+    public void setLidos(long lidos) {
+        this.lidos = lidos;
+    }
+
+    public long getImportados() {
+        return importados;
+    }
+
+    public void setImportados(long importados) {
+        this.importados = importados;
+    }
+
+    public long getRejeitados() {
+        return rejeitados;
+    }
+
+    public void setRejeitados(long rejeitados) {
+        this.rejeitados = rejeitados;
+    }
+
+    public List<ErroLinha> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<ErroLinha> erros) {
+        this.erros = erros;
+    }
+
+    public static class ErroLinha {
+        private long linha;
+        private List<String> erros;
+
+        public ErroLinha() {}
+
+        public ErroLinha(long linha, List<String> erros) {
+            this.linha = linha;
+            this.erros = erros;
+        }
+
+        public long getLinha() {
+            return linha;
+        }
+
+        public void setLinha(long linha) {
+            this.linha = linha;
+        }
+
+        public List<String> getErros() {
+            return erros;
+        }
+
+        public void setErros(List<String> erros) {
+            this.erros = erros;
+        }
+    }
+}
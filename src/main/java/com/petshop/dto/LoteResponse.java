@@ -0,0 +1,112 @@
+package com.petshop.dto;
+
+import java.util.List;
+
+/**
+ * Resultado de um cadastro em lote: um item por posição do pedido, na mesma ordem
+ */
+public class LoteResponse<T> {
+    private int criados;
+    private int falhas;
+    private List<Item<T>> itens;
+
+    public LoteResponse() {}
+
+    public LoteResponse(int criados, int falhas, List<Item<T>> itens) {
+        this.criados = criados;
+        this.falhas = falhas;
+        this.itens = itens;
+    }
+
+    public static <T> LoteResponse<T> de(List<Item<T>> itens) {
+        int criados = (int) itens.stream().filter(Item::isCriado).count();
+        return new LoteResponse<>(criados, itens.size() - criados, itens);
+    }
+
+    public int getCriados() {
+        return criados;
+    }
+
+    public void setCriados(int criados) {
+        this.criados = criados;
+    }
+
+    public int getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(int falhas) {
+        this.falhas = falhas;
+    }
+
+    public List<Item<T>> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<Item<T>> itens) {
+        this.itens = itens;
+    }
+
+    /**
+     * Status HTTP de um item (201 criado; 400, 403 falha) com o registro criado ou os erros
+     */
+    public static class Item<T> {
+        private int indice;
+        private int status;
+        private T registro;
+        private List<String> erros;
+
+        public Item() {}
+
+        public Item(int indice, int status, T registro, List<String> erros) {
+            this.indice = indice;
+            this.status = status;
+            this.registro = registro;
+            this.erros = erros;
+        }
+
+        public static <T> Item<T> criado(int indice, T registro) {
+            return new Item<>(indice, 201, registro, List.of());
+        }
+
+        public static <T> Item<T> falha(int indice, int status, List<String> erros) {
+            return new Item<>(indice, status, null, erros);
+        }
+
+        public boolean isCriado() {
+            return status == 201;
+        }
+
+        public int getIndice() {
+            return indice;
+        }
+
+        public void setIndice(int indice) {
+            this.indice = indice;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        public T getRegistro() {
+            return registro;
+        }
+
+        public void setRegistro(T registro) {
+            this.registro = registro;
+        }
+
+        public List<String> getErros() {
+            return erros;
+        }
+
+        public void setErros(List<String> erros) {
+            this.erros = erros;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.petshop.dto;
+
+import com.petshop.model.Pets;
+
+import java.time.LocalDate;
+
+/**
+ * Pet com cliente e raça, montado direto pela consulta (PetsRepository.PROJECAO)
+ */
+public class PetResponse {
+    private Long id;
+    private ClienteResponse cliente;
+    private RacaResponse raca;
+    private LocalDate dataNascimento;
+    private String nome;
+    private String foto;
+    
+    public PetResponse() {}
+    
+    public PetResponse(Long id, ClienteResponse cliente, RacaResponse raca, LocalDate dataNascimento, String nome, String foto) {
+        this.id = id;
+        this.cliente = cliente;
+        this.raca = raca;
+        this.dataNascimento = dataNascimento;
+        this.nome = nome;
+        this.foto = foto;
+    }
+    
+    /**
+     * Construtor da projeção JPQL: colunas do pet, do cliente e da raça (nulas se o pet não tem raça)
+     */
+    public PetResponse(Long id, String nome, LocalDate dataNascimento, String foto,
+                       Long clienteId, String clienteNome, String clienteCpf, LocalDate clienteDataCadastro, String clienteFoto,
+                       Long racaId, String racaDescricao) {
+        this(id, new ClienteResponse(clienteId, clienteNome, clienteCpf, clienteDataCadastro, clienteFoto),
+             racaId != null ? new RacaResponse(racaId, racaDescricao) : null,
+             dataNascimento, nome, foto);
+    }
+    
+    public static PetResponse de(Pets pet) {
+        return new PetResponse(pet.getId(), ClienteResponse.de(pet.getCliente()), RacaResponse.de(pet.getRaca()),
+                pet.getDataNascimento(), pet.getNome(), pet.getFoto());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public ClienteResponse getCliente() {
+        return cliente;
+    }
+    
+    public void setCliente(ClienteResponse cliente) {
+        this.cliente = cliente;
+    }
+    
+    public RacaResponse getRaca() {
+        return raca;
+    }
+    
+    public void setRaca(RacaResponse raca) {
+        this.raca = raca;
+    }
+    
+    public LocalDate getDataNascimento() {
+        return dataNascimento;
+    }
+    
+    public void setDataNascimento(LocalDate dataNascimento) {
+        this.dataNascimento = dataNascimento;
+    }
+    
+    public String getNome() {
+        return nome;
+    }
+    
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+    
+    public String getFoto() {
+        return foto;
+    }
+    
+    public void setFoto(String foto) {
+        this.foto = foto;
+    }
+}
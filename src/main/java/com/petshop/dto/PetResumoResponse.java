@@ -0,0 +1,64 @@
+package com.petshop.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Pet dentro de um atendimento (o cliente já vem no próprio atendimento)
+ */
+public class PetResumoResponse {
+    private Long id;
+    private RacaResponse raca;
+    private LocalDate dataNascimento;
+    private String nome;
+    private String foto;
+    
+    public PetResumoResponse() {}
+    
+    public PetResumoResponse(Long id, RacaResponse raca, LocalDate dataNascimento, String nome, String foto) {
+        this.id = id;
+        this.raca = raca;
+        this.dataNascimento = dataNascimento;
+        this.nome = nome;
+        this.foto = foto;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public RacaResponse getRaca() {
+        return raca;
+    }
+    
+    public void setRaca(RacaResponse raca) {
+        this.raca = raca;
+    }
+    
+    public LocalDate getDataNascimento() {
+        return dataNascimento;
+    }
+    
+    public void setDataNascimento(LocalDate dataNascimento) {
+        this.dataNascimento = dataNascimento;
+    }
+    
+    public String getNome() {
+        return nome;
+    }
+    
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+    
+    public String getFoto() {
+        return foto;
+    }
+    
+    public void setFoto(String foto) {
+        this.foto = foto;
+    }
+}
@@ -0,0 +1,35 @@
+package com.petshop.dto;
+
+import com.petshop.model.Raca;
+
+public class RacaResponse {
+    private Long id;
+    private String descricao;
+    
+    public RacaResponse() {}
+    
+    public RacaResponse(Long id, String descricao) {
+        this.id = id;
+        this.descricao = descricao;
+    }
+    
+    public static RacaResponse de(Raca raca) {
+        return raca == null ? null : new RacaResponse(raca.getId(), raca.getDescricao());
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+}
@@ -0,0 +1,75 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Posição de um cliente ou pet no ranking de faturamento de um intervalo;
+ * participacao é o percentual do faturamento total do intervalo
+ */
+public class RankingResponse {
+    private long posicao;
+    private Long id;
+    private String nome;
+    private long atendimentos;
+    private BigDecimal total;
+    private BigDecimal participacao;
+
+    public RankingResponse() {}
+
+    public RankingResponse(long posicao, Long id, String nome, long atendimentos, BigDecimal total, BigDecimal participacao) {
+        this.posicao = posicao;
+        this.id = id;
+        this.nome = nome;
+        this.atendimentos = atendimentos;
+        this.total = total;
+        this.participacao = participacao;
+    }
+
+    public long getPosicao() {
+        return posicao;
+    }
+
+    public void setPosicao(long posicao) {
+        this.posicao = posicao;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public long getAtendimentos() {
+        return atendimentos;
+    }
+
+    public void setAtendimentos(long atendimentos) {
+        this.atendimentos = atendimentos;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public BigDecimal getParticipacao() {
+        return participacao;
+    }
+
+    public void setParticipacao(BigDecimal participacao) {
+        this.participacao = participacao;
+    }
+}
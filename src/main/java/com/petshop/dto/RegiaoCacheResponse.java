@@ -0,0 +1,64 @@
+package com.petshop.dto;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+/**
+ * Contadores de uma região do cache de segundo nível desde a subida da aplicação
+ */
+public class RegiaoCacheResponse {
+    private String regiao;
+    private long acertos;
+    private long falhas;
+    private long escritas;
+
+    public RegiaoCacheResponse() {}
+
+    public RegiaoCacheResponse(String regiao, long acertos, long falhas, long escritas) {
+        this.regiao = regiao;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.escritas = escritas;
+    }
+
+    /**
+     * @param estatisticas null quando a região ainda não foi usada (contadores zerados)
+     */
+    public static RegiaoCacheResponse de(String regiao, CacheRegionStatistics estatisticas) {
+        if (estatisticas == null) {
+            return new RegiaoCacheResponse(regiao, 0, 0, 0);
+        }
+        return new RegiaoCacheResponse(regiao, estatisticas.getHitCount(), estatisticas.getMissCount(), estatisticas.getPutCount());
+    }
+
+    public String getRegiao() {
+        return regiao;
+    }
+
+    public void setRegiao(String regiao) {
+        this.regiao = regiao;
+    }
+
+    public long getAcertos() {
+        return acertos;
+    }
+
+    public void setAcertos(long acertos) {
+        this.acertos = acertos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(long falhas) {
+        this.falhas = falhas;
+    }
+
+    public long getEscritas() {
+        return escritas;
+    }
+
+    public void setEscritas(long escritas) {
+        this.escritas = escritas;
+    }
+}
@@ -0,0 +1,85 @@
+package com.petshop.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totais dos atendimentos de um intervalo de datas
+ */
+public class ResumoAtendimentosResponse {
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private long atendimentos;
+    private BigDecimal total;
+    private BigDecimal media;
+    private long clientes;
+    private long pets;
+
+    public ResumoAtendimentosResponse() {}
+
+    public ResumoAtendimentosResponse(LocalDate dataInicio, LocalDate dataFim, long atendimentos, BigDecimal total, BigDecimal media, long clientes, long pets) {
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+        this.atendimentos = atendimentos;
+        this.total = total;
+        this.media = media;
+        this.clientes = clientes;
+        this.pets = pets;
+    }
+
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+
+    public long getAtendimentos() {
+        return atendimentos;
+    }
+
+    public void setAtendimentos(long atendimentos) {
+        this.atendimentos = atendimentos;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public BigDecimal getMedia() {
+        return media;
+    }
+
+    public void setMedia(BigDecimal media) {
+        this.media = media;
+    }
+
+    public long getClientes() {
+        return clientes;
+    }
+
+    public void setClientes(long clientes) {
+        this.clientes = clientes;
+    }
+
+    public long getPets() {
+        return pets;
+    }
+
+    public void setPets(long pets) {
+        this.pets = pets;
+    }
+}
@@ -0,0 +1,29 @@
+package com.petshop.dto;
+
+public class SugestaoResponse {
+    private Long id;
+    private String nome;
+    
+    public SugestaoResponse() {}
+    
+    public SugestaoResponse(Long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+    
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getNome() {
+        return nome;
+    }
+    
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+}
@@ -0,0 +1,11 @@
+package com.petshop.exception;
+
+/**
+ * Cursor de paginação malformado ou adulterado pelo cliente
+ */
+public class CursorInvalidoException extends RuntimeException {
+
+    public CursorInvalidoException(String cursor) {
+        super("Cursor de paginação inválido: " + cursor);
+    }
+}
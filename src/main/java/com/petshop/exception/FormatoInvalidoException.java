@@ -0,0 +1,11 @@
+package com.petshop.exception;
+
+/**
+ * Formato de exportação não suportado
+ */
+public class FormatoInvalidoException extends RuntimeException {
+
+    public FormatoInvalidoException(String formato) {
+        super("Formato de exportação não suportado: " + formato + ". Use json ou ndjson");
+    }
+}
@@ -1,6 +1,7 @@
 package com.petshop.exception;
 
 import com.petshop.dto.ErrorResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -33,6 +34,53 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalidoException(CursorInvalidoException ex) {
+        ErrorResponse error = new ErrorResponse(
+            400,
+            "Cursor Inválido",
+            ex.getMessage(),
+            "Use o valor do cabeçalho X-Next-Cursor da página anterior"
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(FormatoInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleFormatoInvalidoException(FormatoInvalidoException ex) {
+        ErrorResponse error = new ErrorResponse(
+            400,
+            "Formato inválido",
+            ex.getMessage(),
+            "/api/atendimentos/exportar"
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(LoteInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleLoteInvalidoException(LoteInvalidoException ex) {
+        ErrorResponse error = new ErrorResponse(
+            400,
+            "Lote Inválido",
+            ex.getMessage(),
+            "Envie uma lista JSON e divida lotes grandes em várias requisições"
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    /**
+     * If-Match desatualizado ou registro alterado entre a leitura e o UPDATE (@Version)
+     */
+    @ExceptionHandler({VersaoDesatualizadaException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleVersaoDesatualizada(RuntimeException ex) {
+        ErrorResponse error = new ErrorResponse(
+            412,
+            "Versão Desatualizada",
+            "O registro foi alterado por outra requisição. Busque a versão atual (ETag) e tente novamente.",
+            "Envie no If-Match o ETag da última leitura"
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
         ErrorResponse error = new ErrorResponse(
@@ -0,0 +1,11 @@
+package com.petshop.exception;
+
+/**
+ * Corpo de um cadastro em lote ausente ou com itens demais
+ */
+public class LoteInvalidoException extends RuntimeException {
+
+    public LoteInvalidoException(String mensagem) {
+        super(mensagem);
+    }
+}
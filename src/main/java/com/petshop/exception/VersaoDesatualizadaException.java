@@ -0,0 +1,11 @@
+package com.petshop.exception;
+
+/**
+ * If-Match não corresponde à versão atual do registro: o cliente alteraria dados que já mudaram
+ */
+public class VersaoDesatualizadaException extends RuntimeException {
+
+    public VersaoDesatualizadaException(String ifMatch) {
+        super("O registro foi alterado depois da versão informada: " + ifMatch);
+    }
+}
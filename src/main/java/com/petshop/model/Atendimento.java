@@ -1,23 +1,47 @@
 package com.petshop.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "Atendimento")
+@Table(name = "Atendimento", indexes = {
+    @Index(name = "idx_atendimento_cliente_data", columnList = "id_cliente, data"),
+    @Index(name = "idx_atendimento_pet_data", columnList = "id_pet, data"),
+    @Index(name = "idx_atendimento_data", columnList = "data")
+})
+@NamedEntityGraph(name = Atendimento.GRAFO_DETALHES,
+    attributeNodes = {
+        @NamedAttributeNode(value = "pet", subgraph = "pet"),
+        @NamedAttributeNode(value = "cliente", subgraph = "cliente")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "pet", attributeNodes = @NamedAttributeNode("raca")),
+        @NamedSubgraph(name = "cliente", attributeNodes = @NamedAttributeNode("usuario"))
+    })
 public class Atendimento {
     
+    /**
+     * Plano de carga da exportação: pet com raça e cliente (com o usuário, ligado pelo cpf) no mesmo SELECT
+     */
+    public static final String GRAFO_DETALHES = "Atendimento.detalhes";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "atendimento_id_seq")
+    @SequenceGenerator(name = "atendimento_id_seq", sequenceName = "atendimento_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_pet", nullable = false)
     @NotNull(message = "Pet é obrigatório")
@@ -37,7 +61,6 @@ public class Atendimento {
     @Column(name = "valor", precision = 10, scale = 2)
     private BigDecimal valor;
     
-    @CreationTimestamp
     @Column(name = "data", nullable = false)
     private LocalDate data;
     
@@ -50,6 +73,17 @@ public class Atendimento {
         this.valor = valor;
     }
     
+    /**
+     * Sem data informada (cadastro pela API), o atendimento é do dia da gravação;
+     * importações trazem a data original
+     */
+    @PrePersist
+    void preencherData() {
+        if (data == null) {
+            data = LocalDate.now();
+        }
+    }
+    
     public Long getId() {
         return id;
     }
@@ -58,6 +92,14 @@ public class Atendimento {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public Pets getPet() {
         return pet;
     }
@@ -14,10 +14,16 @@ import java.util.List;
 public class Cliente {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cliente_id_seq")
+    @SequenceGenerator(name = "cliente_id_seq", sequenceName = "cliente_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @NotBlank(message = "Nome é obrigatório")
     @Column(name = "nome", length = 100, nullable = false)
     private String nome;
@@ -66,6 +72,14 @@ public class Cliente {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public String getNome() {
         return nome;
     }
@@ -1,19 +1,28 @@
 package com.petshop.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "Contato")
+@Table(name = "Contato", indexes = {
+    @Index(name = "idx_contato_cliente", columnList = "id_cliente, id")
+})
 public class Contato {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contato_id_seq")
+    @SequenceGenerator(name = "contato_id_seq", sequenceName = "contato_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente", nullable = false)
     @NotNull(message = "Cliente é obrigatório")
@@ -49,6 +58,14 @@ public class Contato {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public Cliente getCliente() {
         return cliente;
     }
@@ -1,19 +1,28 @@
 package com.petshop.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "Endereco")
+@Table(name = "Endereco", indexes = {
+    @Index(name = "idx_endereco_cliente", columnList = "id_cliente, id")
+})
 public class Endereco {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "endereco_id_seq")
+    @SequenceGenerator(name = "endereco_id_seq", sequenceName = "endereco_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "id_cliente", nullable = false)
     @NotNull(message = "Cliente é obrigatório")
@@ -56,6 +65,14 @@ public class Endereco {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public Cliente getCliente() {
         return cliente;
     }
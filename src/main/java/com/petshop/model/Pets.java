@@ -10,14 +10,34 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
-@Table(name = "Pets")
+@Table(name = "Pets", indexes = {
+    @Index(name = "idx_pets_cliente", columnList = "id_cliente, id"),
+    @Index(name = "idx_pets_raca", columnList = "id_raca")
+})
+@NamedEntityGraph(name = Pets.GRAFO_CLIENTE_RACA,
+    attributeNodes = {
+        @NamedAttributeNode(value = "cliente", subgraph = "cliente"),
+        @NamedAttributeNode("raca")
+    },
+    subgraphs = @NamedSubgraph(name = "cliente", attributeNodes = @NamedAttributeNode("usuario")))
 public class Pets {
     
+    /**
+     * Plano de carga da alteração de pet: cliente (com o usuário, ligado pelo cpf) e raça no mesmo SELECT
+     */
+    public static final String GRAFO_CLIENTE_RACA = "Pets.clienteRaca";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pets_id_seq")
+    @SequenceGenerator(name = "pets_id_seq", sequenceName = "pets_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cliente", nullable = false)
     @NotNull(message = "Cliente é obrigatório")
@@ -61,6 +81,14 @@ public class Pets {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public Cliente getCliente() {
         return cliente;
     }
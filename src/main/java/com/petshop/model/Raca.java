@@ -3,17 +3,33 @@ package com.petshop.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 
 @Entity
 @Table(name = "Raca")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Raca.REGIAO_CACHE)
 public class Raca {
     
+    /**
+     * Região do cache de segundo nível das raças (tamanho e expiração em application.conf)
+     */
+    public static final String REGIAO_CACHE = "racas";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "raca_id_seq")
+    @SequenceGenerator(name = "raca_id_seq", sequenceName = "raca_id_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
     
+    @Version
+    @Column(name = "versao", nullable = false)
+    @JsonIgnore
+    private Long versao;
+    
     @NotBlank(message = "Descrição é obrigatória")
     @Column(name = "descricao", length = 100, nullable = false)
     private String descricao;
@@ -36,6 +52,14 @@ public class Raca {
         this.id = id;
     }
     
+    public Long getVersao() {
+        return versao;
+    }
+    
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+    
     public String getDescricao() {
         return descricao;
     }
@@ -0,0 +1,45 @@
+package com.petshop.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Token invalidado por logout, compartilhado entre todas as instâncias da API.
+ * O token é identificado pelo resumo de 64 bits do seu SHA-256.
+ */
+@Entity
+@Table(name = "token_revogado", indexes = {
+    @Index(name = "idx_token_revogado_expira_em", columnList = "expira_em")
+})
+public class TokenRevogado {
+    
+    @Id
+    @Column(name = "digest")
+    private Long digest;
+    
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+    
+    public TokenRevogado() {}
+    
+    public TokenRevogado(Long digest, Instant expiraEm) {
+        this.digest = digest;
+        this.expiraEm = expiraEm;
+    }
+    
+    public Long getDigest() {
+        return digest;
+    }
+    
+    public void setDigest(Long digest) {
+        this.digest = digest;
+    }
+    
+    public Instant getExpiraEm() {
+        return expiraEm;
+    }
+    
+    public void setExpiraEm(Instant expiraEm) {
+        this.expiraEm = expiraEm;
+    }
+}
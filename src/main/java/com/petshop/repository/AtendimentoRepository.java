@@ -1,66 +1,93 @@
 package com.petshop.repository;
 
+import com.petshop.dto.AtendimentoResponse;
 import com.petshop.model.Atendimento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AtendimentoRepository extends JpaRepository<Atendimento, Long> {
     
-    List<Atendimento> findByPetId(Long petId);
+    /**
+     * Atendimento com pet, raça e cliente em uma única consulta, sem carregar entidades
+     */
+    String PROJECAO = "SELECT new com.petshop.dto.AtendimentoResponse(a.id, a.descricao, a.valor, a.data, "
+            + "p.id, p.nome, p.dataNascimento, p.foto, r.id, r.descricao, "
+            + "c.id, c.nome, c.cpf, c.dataCadastro, c.foto) "
+            + "FROM Atendimento a JOIN a.pet p LEFT JOIN p.raca r JOIN a.cliente c ";
     
-    List<Atendimento> findByData(LocalDate data);
+    /**
+     * Versão do AtendimentoResponse para o ETag: versões do atendimento, do pet, da raça e do cliente
+     */
+    String VERSAO = "SELECT CONCAT(str(a.versao), '.', str(p.versao), '.', str(COALESCE(r.versao, 0)), '.', str(c.versao)) "
+            + "FROM Atendimento a JOIN a.pet p LEFT JOIN p.raca r JOIN a.cliente c ";
     
-    @Query("SELECT a FROM Atendimento a WHERE a.data BETWEEN :dataInicio AND :dataFim")
-    List<Atendimento> findByDataBetween(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    boolean existsByIdAndPetClienteCpf(Long id, String cpf);
     
-    @Query("SELECT a FROM Atendimento a WHERE a.valor = :valor")
-    List<Atendimento> findByValor(@Param("valor") BigDecimal valor);
+    /**
+     * Todos os atendimentos com pet, raça e cliente, lidos do cursor JDBC em lotes de 500.
+     * Deve ser consumido dentro de uma transação e fechado ao final (try-with-resources).
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(Atendimento.GRAFO_DETALHES)
+    @Query("SELECT a FROM Atendimento a ORDER BY a.id")
+    Stream<Atendimento> streamAllWithDetails();
     
-    @Query("SELECT a FROM Atendimento a WHERE a.valor BETWEEN :valorMin AND :valorMax")
-    List<Atendimento> findByValorBetween(@Param("valorMin") BigDecimal valorMin, @Param("valorMax") BigDecimal valorMax);
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
     
-    @Query("SELECT a FROM Atendimento a WHERE a.descricao LIKE %:descricao%")
-    List<Atendimento> findByDescricaoContaining(@Param("descricao") String descricao);
+    @Query(PROJECAO + "WHERE a.id > :cursor ORDER BY a.id")
+    Slice<AtendimentoResponse> findAll(@Param("cursor") Long cursor, Pageable pageable);
     
-    List<Atendimento> findByPetIdAndData(Long petId, LocalDate data);
+    @Query(PROJECAO + "WHERE p.id = :petId AND a.id > :cursor ORDER BY a.id")
+    Slice<AtendimentoResponse> findByPetId(@Param("petId") Long petId, @Param("cursor") Long cursor, Pageable pageable);
     
-    @Query("SELECT a FROM Atendimento a WHERE a.pet.id = :petId AND a.data BETWEEN :dataInicio AND :dataFim")
-    List<Atendimento> findByPetIdAndDataBetween(@Param("petId") Long petId, @Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    @Query(PROJECAO + "WHERE a.data = :data AND a.id > :cursor ORDER BY a.id")
+    Slice<AtendimentoResponse> findByData(@Param("data") LocalDate data, @Param("cursor") Long cursor, Pageable pageable);
     
-    List<Atendimento> findByClienteId(Long clienteId);
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND a.id > :cursor ORDER BY a.id")
+    Slice<AtendimentoResponse> findByClienteId(@Param("clienteId") Long clienteId, @Param("cursor") Long cursor, Pageable pageable);
     
-    List<Atendimento> findByClienteIdAndData(Long clienteId, LocalDate data);
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND p.id = :petId AND a.id > :cursor ORDER BY a.id")
+    Slice<AtendimentoResponse> findByClienteIdAndPetId(@Param("clienteId") Long clienteId, @Param("petId") Long petId, @Param("cursor") Long cursor, Pageable pageable);
     
-    @Query("SELECT a FROM Atendimento a WHERE a.cliente.id = :clienteId AND a.data BETWEEN :dataInicio AND :dataFim")
-    List<Atendimento> findByClienteIdAndDataBetween(@Param("clienteId") Long clienteId, @Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    // Projeções por id: leitura de um registro e conteúdo das páginas do ExecutorBusca
     
-    @Query("SELECT a FROM Atendimento a WHERE a.cliente.id = :clienteId AND a.valor BETWEEN :valorMin AND :valorMax")
-    List<Atendimento> findByClienteIdAndValorBetween(@Param("clienteId") Long clienteId, @Param("valorMin") BigDecimal valorMin, @Param("valorMax") BigDecimal valorMax);
+    @Query(PROJECAO + "WHERE a.id = :id")
+    Optional<AtendimentoResponse> findResponseById(@Param("id") Long id);
     
-    @Query("SELECT a FROM Atendimento a WHERE a.cliente.id = :clienteId AND a.descricao LIKE %:descricao%")
-    List<Atendimento> findByClienteIdAndDescricaoContaining(@Param("clienteId") Long clienteId, @Param("descricao") String descricao);
+    @Query(PROJECAO + "WHERE a.id IN :ids ORDER BY a.id")
+    List<AtendimentoResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
     
-    List<Atendimento> findByClienteIdAndPetId(Long clienteId, Long petId);
+    // Projeções por período, em ordem de data e id: leituras do AtendimentoPeriodoCache
     
-    List<Atendimento> findByClienteIdAndPetIdAndData(Long clienteId, Long petId, LocalDate data);
+    @Query(PROJECAO + "WHERE a.data BETWEEN :dataInicio AND :dataFim ORDER BY a.data, a.id")
+    List<AtendimentoResponse> findResponsesByDataBetween(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
     
-    @Query("SELECT a FROM Atendimento a LEFT JOIN FETCH a.pet p LEFT JOIN FETCH p.raca LEFT JOIN FETCH a.cliente WHERE a.id = :id")
-    Optional<Atendimento> findByIdWithDetails(@Param("id") Long id);
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND a.data BETWEEN :dataInicio AND :dataFim ORDER BY a.data, a.id")
+    List<AtendimentoResponse> findResponsesByClienteIdAndDataBetween(@Param("clienteId") Long clienteId, @Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    
+    @Query(PROJECAO + "WHERE p.id = :petId AND a.data BETWEEN :dataInicio AND :dataFim ORDER BY a.data, a.id")
+    List<AtendimentoResponse> findResponsesByPetIdAndDataBetween(@Param("petId") Long petId, @Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @Query(VERSAO + "WHERE a.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
 }
-
-
-
-
-
-
-
-
-
@@ -1,24 +1,47 @@
 package com.petshop.repository;
 
+import com.petshop.dto.ClienteResponse;
 import com.petshop.model.Cliente;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     
+    /**
+     * Cliente sem carregar a entidade (nem o Usuario vinculado pelo CPF, que o Hibernate
+     * buscaria a cada Cliente por ser uma associação por coluna que não é a chave)
+     */
+    String PROJECAO = "SELECT new com.petshop.dto.ClienteResponse(c.id, c.nome, c.cpf, c.dataCadastro, c.foto) FROM Cliente c ";
+    
+    /**
+     * Versão do ClienteResponse para o ETag: a versão do próprio cliente
+     */
+    String VERSAO = "SELECT str(c.versao) FROM Cliente c ";
+    
     @Query("SELECT c FROM Cliente c WHERE c.nome LIKE %:nome%")
     List<Cliente> findByNomeContaining(@Param("nome") String nome);
     
-    @Query(value = "SELECT * FROM Cliente WHERE cpf = :cpf LIMIT 1", nativeQuery = true)
+    @Query(value = "SELECT * FROM Cliente WHERE cpf = :cpf ORDER BY id LIMIT 1", nativeQuery = true)
     Optional<Cliente> findByCpf(@Param("cpf") String cpf);
     
+    // cpf não é único no esquema: o mesmo cliente que findByCpf devolve
+    @Query(value = "SELECT id FROM Cliente WHERE cpf = :cpf ORDER BY id LIMIT 1", nativeQuery = true)
+    Optional<Long> findIdByCpf(@Param("cpf") String cpf);
+    
+    @Query("SELECT c.cpf FROM Cliente c WHERE c.id = :id")
+    Optional<String> findCpfById(@Param("id") Long id);
+    
     @Query("SELECT c FROM Cliente c WHERE c.nome LIKE %:nome% AND c.cpf = :cpf")
     List<Cliente> findByNomeAndCpf(@Param("nome") String nome, @Param("cpf") String cpf);
     
@@ -27,16 +50,43 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     @Query("SELECT c FROM Cliente c WHERE c.dataCadastro BETWEEN :dataInicio AND :dataFim")
     List<Cliente> findByDataCadastroBetween(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
     
+    @Query("SELECT c FROM Cliente c WHERE c.cpf = :cpf AND c.dataCadastro BETWEEN :dataInicio AND :dataFim")
+    List<Cliente> findByDataCadastroBetweenAndCpf(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim, @Param("cpf") String cpf);
+    
+    @Query("SELECT c FROM Cliente c WHERE c.cpf = :cpf")
+    List<Cliente> findAllByCpf(@Param("cpf") String cpf);
+    
+    /**
+     * Clientes com o Usuario vinculado pelo CPF no mesmo SELECT; o findAllById faria uma consulta
+     * do Usuario para cada Cliente (a associação não é pela chave e não pode ficar como proxy)
+     */
+    @EntityGraph(attributePaths = "usuario")
+    List<Cliente> findAllWithUsuarioByIdIn(Collection<Long> ids);
+    
     boolean existsByCpf(String cpf);
     
+    boolean existsByIdAndCpf(Long id, String cpf);
+    
     void deleteByCpf(String cpf);
+    
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
+    
+    @Query(PROJECAO + "WHERE c.id > :cursor ORDER BY c.id")
+    Slice<ClienteResponse> findAll(@Param("cursor") Long cursor, Pageable pageable);
+    
+    // Projeções: leitura de um registro e conteúdo das páginas do ExecutorBusca
+    
+    @Query(PROJECAO + "WHERE c.id = :id")
+    Optional<ClienteResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(PROJECAO + "WHERE c.cpf = :cpf")
+    Optional<ClienteResponse> findResponseByCpf(@Param("cpf") String cpf);
+    
+    @Query(PROJECAO + "WHERE c.id IN :ids ORDER BY c.id")
+    List<ClienteResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @Query(VERSAO + "WHERE c.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
 }
-
-
-
-
-
-
-
-
-
@@ -1,16 +1,33 @@
 package com.petshop.repository;
 
+import com.petshop.dto.ContatoResponse;
 import com.petshop.model.Contato;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ContatoRepository extends JpaRepository<Contato, Long> {
     
+    /**
+     * Contato com o cliente em uma única consulta, sem carregar entidades
+     */
+    String PROJECAO = "SELECT new com.petshop.dto.ContatoResponse(ct.id, ct.tag, ct.tipo, ct.valor, "
+            + "c.id, c.nome, c.cpf, c.dataCadastro, c.foto) "
+            + "FROM Contato ct JOIN ct.cliente c ";
+    
+    /**
+     * Versão do ContatoResponse para o ETag: versões do contato e do cliente
+     */
+    String VERSAO = "SELECT CONCAT(str(ct.versao), '.', str(c.versao)) FROM Contato ct JOIN ct.cliente c ";
+    
     List<Contato> findByClienteId(Long clienteId);
     
     List<Contato> findByTipo(Contato.TipoContato tipo);
@@ -25,13 +42,41 @@ public interface ContatoRepository extends JpaRepository<Contato, Long> {
     
     @Query("SELECT c FROM Contato c WHERE c.cliente.id = :clienteId AND c.valor LIKE %:valor%")
     List<Contato> findByClienteIdAndValorContaining(@Param("clienteId") Long clienteId, @Param("valor") String valor);
+    
+    List<Contato> findByClienteCpf(String cpf);
+    
+    List<Contato> findByTipoAndClienteCpf(Contato.TipoContato tipo, String cpf);
+    
+    @Query("SELECT c FROM Contato c WHERE c.cliente.cpf = :cpf AND c.valor LIKE %:valor%")
+    List<Contato> findByValorContainingAndClienteCpf(@Param("valor") String valor, @Param("cpf") String cpf);
+    
+    @Query("SELECT c FROM Contato c WHERE c.cliente.cpf = :cpf AND c.tag LIKE %:tag%")
+    List<Contato> findByTagContainingAndClienteCpf(@Param("tag") String tag, @Param("cpf") String cpf);
+    
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
+    
+    @Query(PROJECAO + "WHERE ct.id > :cursor ORDER BY ct.id")
+    Slice<ContatoResponse> findAll(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND ct.id > :cursor ORDER BY ct.id")
+    Slice<ContatoResponse> findByClienteId(@Param("clienteId") Long clienteId, @Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE ct.tipo = :tipo AND ct.id > :cursor ORDER BY ct.id")
+    Slice<ContatoResponse> findByTipo(@Param("tipo") Contato.TipoContato tipo, @Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE c.cpf = :cpf AND ct.tipo = :tipo AND ct.id > :cursor ORDER BY ct.id")
+    Slice<ContatoResponse> findByTipoAndClienteCpf(@Param("tipo") Contato.TipoContato tipo, @Param("cpf") String cpf, @Param("cursor") Long cursor, Pageable pageable);
+    
+    // Projeções por id: leitura de um registro e conteúdo das páginas do ExecutorBusca
+    
+    @Query(PROJECAO + "WHERE ct.id = :id")
+    Optional<ContatoResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(PROJECAO + "WHERE ct.id IN :ids ORDER BY ct.id")
+    List<ContatoResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @Query(VERSAO + "WHERE ct.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
 }
-
-
-
-
-
-
-
-
-
@@ -1,16 +1,33 @@
 package com.petshop.repository;
 
+import com.petshop.dto.EnderecoResponse;
 import com.petshop.model.Endereco;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
     
+    /**
+     * Endereço com o cliente em uma única consulta, sem carregar entidades
+     */
+    String PROJECAO = "SELECT new com.petshop.dto.EnderecoResponse(e.id, e.logradouro, e.cidade, e.bairro, e.complemento, e.tag, "
+            + "c.id, c.nome, c.cpf, c.dataCadastro, c.foto) "
+            + "FROM Endereco e JOIN e.cliente c ";
+    
+    /**
+     * Versão do EnderecoResponse para o ETag: versões do endereço e do cliente
+     */
+    String VERSAO = "SELECT CONCAT(str(e.versao), '.', str(c.versao)) FROM Endereco e JOIN e.cliente c ";
+    
     List<Endereco> findByClienteId(Long clienteId);
     
     @Query("SELECT e FROM Endereco e WHERE e.cidade LIKE %:cidade%")
@@ -31,24 +48,24 @@ public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
     @Query("SELECT e FROM Endereco e WHERE e.cidade LIKE %:cidade% AND e.bairro LIKE %:bairro%")
     List<Endereco> findByCidadeAndBairroContaining(@Param("cidade") String cidade, @Param("bairro") String bairro);
     
-    @Query("SELECT e FROM Endereco e JOIN FETCH e.cliente c WHERE " +
-           "(:clienteId IS NULL OR c.id = :clienteId) AND " +
-           "(:cidade IS NULL OR e.cidade LIKE %:cidade%) AND " +
-           "(:bairro IS NULL OR e.bairro LIKE %:bairro%) AND " +
-           "(:logradouro IS NULL OR e.logradouro LIKE %:logradouro%) AND " +
-           "(:tag IS NULL OR e.tag LIKE %:tag%)")
-    List<Endereco> findByAllFilters(@Param("clienteId") Long clienteId, 
-                                   @Param("cidade") String cidade, 
-                                   @Param("bairro") String bairro, 
-                                   @Param("logradouro") String logradouro, 
-                                   @Param("tag") String tag);
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
+    
+    @Query(PROJECAO + "WHERE e.id > :cursor ORDER BY e.id")
+    Slice<EnderecoResponse> findAll(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND e.id > :cursor ORDER BY e.id")
+    Slice<EnderecoResponse> findByClienteId(@Param("clienteId") Long clienteId, @Param("cursor") Long cursor, Pageable pageable);
+    
+    // Projeções por id: leitura de um registro e conteúdo das páginas do ExecutorBusca
+    
+    @Query(PROJECAO + "WHERE e.id = :id")
+    Optional<EnderecoResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(PROJECAO + "WHERE e.id IN :ids ORDER BY e.id")
+    List<EnderecoResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @Query(VERSAO + "WHERE e.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
 }
-
-
-
-
-
-
-
-
-
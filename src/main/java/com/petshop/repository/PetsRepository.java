@@ -1,45 +1,80 @@
 package com.petshop.repository;
 
+import com.petshop.dto.PetResponse;
 import com.petshop.model.Pets;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PetsRepository extends JpaRepository<Pets, Long> {
     
-    List<Pets> findByClienteId(Long clienteId);
+    /**
+     * Pet com cliente e raça em uma única consulta, sem carregar entidades
+     */
+    String PROJECAO = "SELECT new com.petshop.dto.PetResponse(p.id, p.nome, p.dataNascimento, p.foto, "
+            + "c.id, c.nome, c.cpf, c.dataCadastro, c.foto, r.id, r.descricao) "
+            + "FROM Pets p JOIN p.cliente c LEFT JOIN p.raca r ";
     
-    @Query("SELECT p FROM Pets p WHERE p.nome LIKE %:nome%")
-    List<Pets> findByNomeContaining(@Param("nome") String nome);
+    /**
+     * Versão do PetResponse para o ETag: versões do pet, do cliente e da raça
+     */
+    String VERSAO = "SELECT CONCAT(str(p.versao), '.', str(c.versao), '.', str(COALESCE(r.versao, 0))) "
+            + "FROM Pets p JOIN p.cliente c LEFT JOIN p.raca r ";
     
-    List<Pets> findByRacaId(Long racaId);
+    /**
+     * Versão de uma listagem de PetResponse: quantidade, maior id e soma das versões de pets, clientes
+     * e raças. Qualquer inclusão, exclusão ou alteração (inclusive do cliente ou da raça) muda o texto.
+     */
+    String VERSAO_COLECAO = "SELECT CONCAT(str(COUNT(p)), '.', str(COALESCE(MAX(p.id), 0)), '.', "
+            + "str(COALESCE(SUM(p.versao), 0)), '.', str(COALESCE(SUM(c.versao), 0)), '.', str(COALESCE(SUM(r.versao), 0))) "
+            + "FROM Pets p JOIN p.cliente c LEFT JOIN p.raca r ";
     
-    List<Pets> findByDataNascimento(LocalDate dataNascimento);
+    boolean existsByIdAndClienteCpf(Long id, String cpf);
     
-    @Query("SELECT p FROM Pets p WHERE p.dataNascimento BETWEEN :dataInicio AND :dataFim")
-    List<Pets> findByDataNascimentoBetween(@Param("dataInicio") LocalDate dataInicio, @Param("dataFim") LocalDate dataFim);
+    /**
+     * Pet para alteração, com cliente e raça no mesmo SELECT (grafo GRAFO_CLIENTE_RACA)
+     */
+    @EntityGraph(Pets.GRAFO_CLIENTE_RACA)
+    Optional<Pets> findWithClienteRacaById(Long id);
     
-    @Query("SELECT p FROM Pets p WHERE p.cliente.id = :clienteId AND p.nome LIKE %:nome%")
-    List<Pets> findByClienteIdAndNomeContaining(@Param("clienteId") Long clienteId, @Param("nome") String nome);
+    void deleteByRacaId(Long racaId);
     
-    List<Pets> findByClienteIdAndRacaId(Long clienteId, Long racaId);
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
     
-    @Query("SELECT p FROM Pets p WHERE p.nome LIKE %:nome% AND p.raca.id = :racaId")
-    List<Pets> findByNomeContainingAndRacaId(@Param("nome") String nome, @Param("racaId") Long racaId);
+    @Query(PROJECAO + "WHERE p.id > :cursor ORDER BY p.id")
+    Slice<PetResponse> findAll(@Param("cursor") Long cursor, Pageable pageable);
     
-    void deleteByRacaId(Long racaId);
+    @Query(PROJECAO + "WHERE c.id = :clienteId AND p.id > :cursor ORDER BY p.id")
+    Slice<PetResponse> findByClienteId(@Param("clienteId") Long clienteId, @Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE r.id = :racaId AND p.id > :cursor ORDER BY p.id")
+    Slice<PetResponse> findByRacaId(@Param("racaId") Long racaId, @Param("cursor") Long cursor, Pageable pageable);
+    
+    @Query(PROJECAO + "WHERE c.cpf = :cpf AND r.id = :racaId AND p.id > :cursor ORDER BY p.id")
+    Slice<PetResponse> findByRacaIdAndClienteCpf(@Param("racaId") Long racaId, @Param("cpf") String cpf, @Param("cursor") Long cursor, Pageable pageable);
+    
+    // Projeções por id: leitura de um registro e conteúdo das páginas do ExecutorBusca
+    
+    @Query(PROJECAO + "WHERE p.id = :id")
+    Optional<PetResponse> findResponseById(@Param("id") Long id);
+    
+    @Query(PROJECAO + "WHERE p.id IN :ids ORDER BY p.id")
+    List<PetResponse> findResponsesByIds(@Param("ids") Collection<Long> ids);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @Query(VERSAO + "WHERE p.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
+    
+    @Query(VERSAO_COLECAO + "WHERE c.id = :clienteId AND p.id > :cursor")
+    String findVersaoByClienteId(@Param("clienteId") Long clienteId, @Param("cursor") Long cursor);
 }
-
-
-
-
-
-
-
-
-
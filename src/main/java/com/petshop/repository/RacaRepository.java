@@ -1,8 +1,13 @@
 package com.petshop.repository;
 
 import com.petshop.model.Raca;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,20 +17,74 @@ import java.util.Optional;
 @Repository
 public interface RacaRepository extends JpaRepository<Raca, Long> {
     
+    /**
+     * Região do cache de consultas das raças. O Hibernate descarta os resultados quando a tabela
+     * Raca é alterada; as entidades vêm da região Raca.REGIAO_CACHE, então um acerto não vai ao banco.
+     */
+    String REGIAO_CONSULTAS = "racas-consultas";
+    
+    /**
+     * Versão de uma listagem de raças para o ETag: quantidade, maior id e soma das versões
+     */
+    String VERSAO_COLECAO = "SELECT CONCAT(str(COUNT(r)), '.', str(COALESCE(MAX(r.id), 0)), '.', str(COALESCE(SUM(r.versao), 0))) "
+            + "FROM Raca r ";
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
     @Query("SELECT r FROM Raca r WHERE r.descricao LIKE %:descricao%")
     List<Raca> findByDescricaoContaining(@Param("descricao") String descricao);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
     Optional<Raca> findByDescricao(String descricao);
     
-    @Query("SELECT r FROM Raca r WHERE LOWER(r.descricao) LIKE LOWER(CONCAT('%', :descricao, '%'))")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query("SELECT r FROM Raca r WHERE r.descricao ILIKE CONCAT('%', :descricao, '%')")
     List<Raca> findByDescricaoContainingIgnoreCase(@Param("descricao") String descricao);
+    
+    // Paginação por chave (keyset): registros com id > :cursor em ordem de id; o Pageable define só o tamanho
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query("SELECT r FROM Raca r WHERE r.id > :cursor ORDER BY r.id")
+    Slice<Raca> findAll(@Param("cursor") Long cursor, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query("SELECT r FROM Raca r WHERE r.descricao LIKE %:descricao% AND r.id > :cursor ORDER BY r.id")
+    Slice<Raca> findByDescricaoContaining(@Param("descricao") String descricao, @Param("cursor") Long cursor, Pageable pageable);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query("SELECT r FROM Raca r WHERE r.descricao ILIKE CONCAT('%', :descricao, '%') AND r.id > :cursor ORDER BY r.id")
+    Slice<Raca> findByDescricaoContainingIgnoreCase(@Param("descricao") String descricao, @Param("cursor") Long cursor, Pageable pageable);
+    
+    // Versões (ETags), sem carregar os registros
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query("SELECT str(r.versao) FROM Raca r WHERE r.id = :id")
+    Optional<String> findVersaoById(@Param("id") Long id);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = REGIAO_CONSULTAS)
+    })
+    @Query(VERSAO_COLECAO + "WHERE r.id > :cursor")
+    String findVersaoColecao(@Param("cursor") Long cursor);
 }
-
-
-
-
-
-
-
-
-
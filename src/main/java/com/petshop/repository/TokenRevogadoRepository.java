@@ -0,0 +1,21 @@
+package com.petshop.repository;
+
+import com.petshop.model.TokenRevogado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevogadoRepository extends JpaRepository<TokenRevogado, Long> {
+    
+    List<TokenRevogado> findByExpiraEmAfter(Instant instante);
+    
+    @Modifying
+    @Query("DELETE FROM TokenRevogado t WHERE t.expiraEm <= :instante")
+    int deleteExpirados(@Param("instante") Instant instante);
+}
@@ -2,6 +2,8 @@ package com.petshop.repository;
 
 import com.petshop.model.Usuario;
 import com.petshop.model.PerfilUsuario;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -26,6 +28,18 @@ public interface UsuarioRepository extends JpaRepository<Usuario, String> {
     boolean existsByCpf(String cpf);
     
     void deleteByCpf(String cpf);
+    
+    // Paginação por chave (keyset): registros com cpf > :cursor em ordem de cpf; o Pageable define só o tamanho
+    
+    @Query("SELECT u FROM Usuario u WHERE u.cpf > :cursor ORDER BY u.cpf")
+    Slice<Usuario> findAll(@Param("cursor") String cursor, Pageable pageable);
+    
+    @Query("SELECT u FROM Usuario u WHERE u.nome LIKE %:nome% AND u.cpf > :cursor ORDER BY u.cpf")
+    Slice<Usuario> findByNomeContaining(@Param("nome") String nome, @Param("cursor") String cursor, Pageable pageable);
+    
+    @Query("SELECT u FROM Usuario u WHERE u.perfil = :perfil AND u.cpf > :cursor ORDER BY u.cpf")
+    Slice<Usuario> findByPerfil(@Param("perfil") PerfilUsuario perfil, @Param("cursor") String cursor, Pageable pageable);
+    
+    @Query("SELECT u FROM Usuario u WHERE u.nome LIKE %:nome% AND u.perfil = :perfil AND u.cpf > :cursor ORDER BY u.cpf")
+    Slice<Usuario> findByNomeAndPerfil(@Param("nome") String nome, @Param("perfil") PerfilUsuario perfil, @Param("cursor") String cursor, Pageable pageable);
 }
-
-
@@ -0,0 +1,40 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.model.Atendimento;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtros de /api/atendimentos/buscar. Data exata, intervalo (aberto ou fechado),
+ * faixa de valor e descrição combinam livremente com cliente e pet.
+ */
+public record AtendimentoFiltro(Long clienteId,
+                                Long petId,
+                                LocalDate data,
+                                LocalDate dataInicio,
+                                LocalDate dataFim,
+                                BigDecimal valorMin,
+                                BigDecimal valorMax,
+                                String descricao) implements FiltroBusca<Atendimento> {
+
+    @Override
+    public Class<Atendimento> entidade() {
+        return Atendimento.class;
+    }
+
+    @Override
+    public Specification<Atendimento> toSpecification() {
+        return Condicoes.de(Atendimento.class)
+                .igual("cliente.id", clienteId)
+                .igual("pet.id", petId)
+                .igual("data", data)
+                .aPartirDe("data", dataInicio)
+                .ate("data", dataFim)
+                .aPartirDe("valor", valorMin)
+                .ate("valor", valorMax)
+                .contem("descricao", descricao)
+                .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.model.Cliente;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros de /api/clientes/buscar
+ */
+public record ClienteFiltro(String nome,
+                            String cpf,
+                            LocalDate dataInicio,
+                            LocalDate dataFim) implements FiltroBusca<Cliente> {
+
+    @Override
+    public Class<Cliente> entidade() {
+        return Cliente.class;
+    }
+
+    @Override
+    public Specification<Cliente> toSpecification() {
+        return Condicoes.de(Cliente.class)
+                .contem("nome", nome)
+                .igual("cpf", cpf)
+                .aPartirDe("dataCadastro", dataInicio)
+                .ate("dataCadastro", dataFim)
+                .build();
+    }
+}
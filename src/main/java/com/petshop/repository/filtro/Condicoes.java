@@ -0,0 +1,94 @@
+package com.petshop.repository.filtro;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Monta a Specification de um filtro só com as condições cujo valor foi informado.
+ * Cada combinação de filtros vira uma consulta com exatamente os predicados presentes,
+ * em vez de um único "(:x IS NULL OR ...)" genérico que impede o uso de índices.
+ * Atributos aninhados usam ponto ("cliente.cpf").
+ */
+final class Condicoes<T> {
+
+    private interface Condicao {
+        Predicate aplicar(Caminhos caminhos, CriteriaBuilder cb);
+    }
+
+    private final List<Condicao> condicoes = new ArrayList<>();
+
+    private Condicoes() {}
+
+    static <T> Condicoes<T> de(Class<T> entidade) {
+        return new Condicoes<>();
+    }
+
+    Condicoes<T> igual(String atributo, Object valor) {
+        if (valor != null) {
+            condicoes.add((caminhos, cb) -> cb.equal(caminhos.get(atributo), valor));
+        }
+        return this;
+    }
+
+    /**
+     * LIKE '%trecho%' (atendido pelos índices de trigramas); texto em branco é ignorado
+     */
+    Condicoes<T> contem(String atributo, String trecho) {
+        if (trecho != null && !trecho.isBlank()) {
+            condicoes.add((caminhos, cb) -> cb.like(caminhos.<String>get(atributo), "%" + trecho + "%"));
+        }
+        return this;
+    }
+
+    <Y extends Comparable<? super Y>> Condicoes<T> aPartirDe(String atributo, Y valor) {
+        if (valor != null) {
+            condicoes.add((caminhos, cb) -> cb.greaterThanOrEqualTo(caminhos.<Y>get(atributo), valor));
+        }
+        return this;
+    }
+
+    <Y extends Comparable<? super Y>> Condicoes<T> ate(String atributo, Y valor) {
+        if (valor != null) {
+            condicoes.add((caminhos, cb) -> cb.lessThanOrEqualTo(caminhos.<Y>get(atributo), valor));
+        }
+        return this;
+    }
+
+    Specification<T> build() {
+        List<Condicao> presentes = List.copyOf(condicoes);
+        return (root, query, cb) -> {
+            Caminhos caminhos = new Caminhos(root);
+            Predicate[] predicados = presentes.stream()
+                    .map(condicao -> condicao.aplicar(caminhos, cb))
+                    .toArray(Predicate[]::new);
+            return cb.and(predicados);
+        };
+    }
+
+    /**
+     * Resolve "a.b" a partir da raiz (associações viram joins implícitos, reaproveitados pelo Hibernate)
+     */
+    private static final class Caminhos {
+
+        private final From<?, ?> raiz;
+
+        private Caminhos(From<?, ?> raiz) {
+            this.raiz = raiz;
+        }
+
+        @SuppressWarnings("unchecked")
+        <Y> Path<Y> get(String atributo) {
+            Path<?> caminho = raiz;
+            for (String parte : atributo.split("\\.")) {
+                caminho = caminho.get(parte);
+            }
+            return (Path<Y>) caminho;
+        }
+    }
+}
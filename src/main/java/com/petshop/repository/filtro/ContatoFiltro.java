@@ -0,0 +1,31 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.model.Contato;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros de /api/contatos/buscar
+ * @param clienteCpf restringe aos contatos do usuário (não-admin)
+ */
+public record ContatoFiltro(Long clienteId,
+                            String clienteCpf,
+                            Contato.TipoContato tipo,
+                            String valor,
+                            String tag) implements FiltroBusca<Contato> {
+
+    @Override
+    public Class<Contato> entidade() {
+        return Contato.class;
+    }
+
+    @Override
+    public Specification<Contato> toSpecification() {
+        return Condicoes.de(Contato.class)
+                .igual("cliente.id", clienteId)
+                .igual("cliente.cpf", clienteCpf)
+                .igual("tipo", tipo)
+                .contem("valor", valor)
+                .contem("tag", tag)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.model.Endereco;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros de /api/enderecos/buscar. O cliente (EAGER) vem na mesma consulta.
+ * @param clienteCpf restringe aos endereços do usuário (não-admin)
+ */
+public record EnderecoFiltro(Long clienteId,
+                             String clienteCpf,
+                             String cidade,
+                             String bairro,
+                             String logradouro,
+                             String tag) implements FiltroBusca<Endereco> {
+
+    @Override
+    public Class<Endereco> entidade() {
+        return Endereco.class;
+    }
+
+    @Override
+    public Specification<Endereco> toSpecification() {
+        return Condicoes.de(Endereco.class)
+                .igual("cliente.id", clienteId)
+                .igual("cliente.cpf", clienteCpf)
+                .contem("cidade", cidade)
+                .contem("bairro", bairro)
+                .contem("logradouro", logradouro)
+                .contem("tag", tag)
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.petshop.repository.filtro;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Executa os filtros de busca com paginação por chave (WHERE id > :cursor ORDER BY id),
+ * como as consultas paginadas dos repositórios. Busca um registro além do tamanho da
+ * página para saber se há próxima, sem COUNT.
+ * A consulta do filtro seleciona só os ids; o conteúdo da página vem de uma projeção do
+ * repositório, então nenhuma entidade (nem proxy de associação) é carregada.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class ExecutorBusca {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Página do filtro já com o conteúdo
+     * @param carregar lê as linhas dos ids informados, em ordem de id (ex.: PetsRepository::findResponsesByIds)
+     */
+    public <T, R> Slice<R> buscar(FiltroBusca<T> filtro, Long cursor, Pageable pageable, Function<List<Long>, List<R>> carregar) {
+        Slice<Long> ids = buscarIds(filtro, cursor, pageable);
+        List<R> conteudo = ids.hasContent() ? carregar.apply(ids.getContent()) : List.of();
+        return new SliceImpl<>(conteudo, pageable, ids.hasNext());
+    }
+
+    public <T> Slice<Long> buscarIds(FiltroBusca<T> filtro, Long cursor, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(filtro.entidade());
+        query.select(root.get("id"));
+
+        Predicate depoisDoCursor = cb.greaterThan(root.<Long>get("id"), cursor);
+        Predicate condicoes = filtro.toSpecification().toPredicate(root, query, cb);
+        query.where(condicoes == null ? depoisDoCursor : cb.and(condicoes, depoisDoCursor));
+        query.orderBy(cb.asc(root.get("id")));
+
+        int tamanho = pageable.getPageSize();
+        List<Long> linhas = entityManager.createQuery(query)
+                .setMaxResults(tamanho + 1)
+                .getResultList();
+
+        boolean temProxima = linhas.size() > tamanho;
+        List<Long> conteudo = temProxima ? new ArrayList<>(linhas.subList(0, tamanho)) : linhas;
+        return new SliceImpl<>(conteudo, pageable, temProxima);
+    }
+}
@@ -0,0 +1,14 @@
+package com.petshop.repository.filtro;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtro tipado de uma busca: cada campo nulo (ou texto em branco) fica fora da consulta
+ * @param <T> entidade buscada
+ */
+public interface FiltroBusca<T> {
+
+    Class<T> entidade();
+
+    Specification<T> toSpecification();
+}
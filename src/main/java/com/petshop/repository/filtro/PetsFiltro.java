@@ -0,0 +1,35 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.model.Pets;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros de /api/pets/buscar-avancado
+ * @param clienteCpf restringe aos pets do usuário (não-admin)
+ */
+public record PetsFiltro(Long clienteId,
+                         String clienteCpf,
+                         String nome,
+                         Long racaId,
+                         LocalDate dataInicio,
+                         LocalDate dataFim) implements FiltroBusca<Pets> {
+
+    @Override
+    public Class<Pets> entidade() {
+        return Pets.class;
+    }
+
+    @Override
+    public Specification<Pets> toSpecification() {
+        return Condicoes.de(Pets.class)
+                .igual("cliente.id", clienteId)
+                .igual("cliente.cpf", clienteCpf)
+                .contem("nome", nome)
+                .igual("raca.id", racaId)
+                .aPartirDe("dataNascimento", dataInicio)
+                .ate("dataNascimento", dataFim)
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoBuscaResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Busca textual (full-text) na descrição dos atendimentos, ordenada por relevância.
+ * Usa a coluna gerada descricao_tsv e o índice GIN idx_atendimento_descricao_fts (V6/V7).
+ * A paginação é por chave composta (relevância, id): cada página continua depois da
+ * última posição retornada, sem OFFSET.
+ *
+ * O ts_rank lê o tsvector inteiro de cada linha, então só é calculado para os maximoCandidatos
+ * atendimentos mais recentes que casam com a busca (o índice GIN acha as linhas; escolher os mais
+ * recentes pelo id não lê os tsvectors). Com termos muito comuns, um atendimento antigo fora desse
+ * conjunto não aparece, por mais relevante que seja: a busca troca completude por custo limitado.
+ * Um atendimento novo que casa com a busca pode tirar o mais antigo do conjunto entre uma página e outra.
+ */
+@Service
+public class AtendimentoBuscaTextualService {
+
+    /** Marcadores do ts_headline: caracteres de controle que não aparecem em texto digitado */
+    private static final String INICIO_DESTAQUE = "\u0002";
+    private static final String FIM_DESTAQUE = "\u0003";
+
+    private static final String OPCOES_TRECHO = "MaxFragments=2, MaxWords=25, MinWords=8, FragmentDelimiter=\" … \", "
+            + "StartSel=\"" + INICIO_DESTAQUE + "\", StopSel=\"" + FIM_DESTAQUE + "\"";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${atendimentos.busca.maximo-candidatos:2000}")
+    private int maximoCandidatos;
+
+    /**
+     * Atendimentos cuja descrição casa com os termos, do mais para o menos relevante
+     * @param termos busca no formato websearch ("banho tosa", "vacina -raiva", "\"dor na pata\"")
+     * @param clienteCpf restringe aos atendimentos dos clientes do usuário; null para todos (admin)
+     * @param relevancia relevância do último resultado da página anterior; null na primeira página
+     * @param ultimoId id do último resultado da página anterior; null na primeira página
+     * @param limite tamanho da página
+     */
+    public Slice<AtendimentoBuscaResponse> pesquisar(String termos, String clienteCpf, Float relevancia, Long ultimoId, int limite) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("termos", termos)
+                .addValue("opcoes", OPCOES_TRECHO)
+                .addValue("limite", limite + 1)
+                .addValue("candidatos", maximoCandidatos);
+
+        StringBuilder filtro = new StringBuilder("a.descricao_tsv @@ consulta");
+        if (clienteCpf != null) {
+            filtro.append(" AND c.cpf = :cpf");
+            parametros.addValue("cpf", clienteCpf);
+        }
+        String cursor = "";
+        if (relevancia != null && ultimoId != null) {
+            cursor = "WHERE r.relevancia < :relevancia OR (r.relevancia = :relevancia AND a.id > :ultimoId) ";
+            parametros.addValue("relevancia", relevancia);
+            parametros.addValue("ultimoId", ultimoId);
+        }
+
+        // Candidatos: os que casam, dos mais recentes, sem calcular relevância; ts_rank só neles.
+        // ts_headline relê o texto da descrição; fica na consulta externa para rodar só nas linhas da página
+        String sql = "WITH candidatos AS (SELECT a.id, a.id_pet, a.id_cliente, a.data, a.valor, a.descricao, a.descricao_tsv, consulta "
+                + "FROM atendimento a "
+                + (clienteCpf != null ? "JOIN cliente c ON c.id = a.id_cliente " : "")
+                + "CROSS JOIN websearch_to_tsquery('portuguese', :termos) consulta "
+                + "WHERE " + filtro + " "
+                + "ORDER BY a.id DESC "
+                + "LIMIT :candidatos) "
+                + "SELECT p.id, p.id_pet, p.id_cliente, p.data, p.valor, p.relevancia, "
+                + "ts_headline('portuguese', p.descricao, p.consulta, :opcoes) AS trecho "
+                + "FROM (SELECT a.id, a.id_pet, a.id_cliente, a.data, a.valor, a.descricao, a.consulta, r.relevancia "
+                + "FROM candidatos a "
+                + "CROSS JOIN LATERAL (SELECT ts_rank(a.descricao_tsv, a.consulta) AS relevancia) r "
+                + cursor
+                + "ORDER BY r.relevancia DESC, a.id "
+                + "LIMIT :limite) p "
+                + "ORDER BY p.relevancia DESC, p.id";
+
+        List<AtendimentoBuscaResponse> linhas = jdbcTemplate.query(sql, parametros, (rs, rowNum) -> new AtendimentoBuscaResponse(
+                rs.getLong("id"),
+                rs.getLong("id_pet"),
+                rs.getLong("id_cliente"),
+                rs.getObject("data", LocalDate.class),
+                rs.getBigDecimal("valor"),
+                rs.getFloat("relevancia"),
+                destacar(rs.getString("trecho"))));
+
+        boolean temProxima = linhas.size() > limite;
+        List<AtendimentoBuscaResponse> conteudo = temProxima ? new ArrayList<>(linhas.subList(0, limite)) : linhas;
+        return new SliceImpl<>(conteudo, PageRequest.of(0, limite), temProxima);
+    }
+
+    /**
+     * Escapa o HTML da descrição e só então troca os marcadores do ts_headline por &lt;mark&gt;
+     */
+    static String destacar(String trecho) {
+        if (trecho == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(trecho, "UTF-8")
+                .replace(INICIO_DESTAQUE, "<mark>")
+                .replace(FIM_DESTAQUE, "</mark>");
+    }
+}
@@ -0,0 +1,73 @@
+package com.petshop.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.model.Atendimento;
+import com.petshop.repository.AtendimentoRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de atendimentos em streaming: as linhas são lidas do cursor JDBC e
+ * escritas direto na resposta, sem montar a lista inteira em memória.
+ * O contexto de persistência é limpo a cada lote, então o uso de heap não cresce com o volume.
+ */
+@Service
+public class AtendimentoExportService {
+
+    static final int TAMANHO_LOTE = 500;
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Escreve todos os atendimentos no stream informado
+     * @param out destino (corpo da resposta)
+     * @param ndjson true para um objeto JSON por linha; false para um único array JSON
+     */
+    @Transactional(readOnly = true)
+    public void exportarAtendimentos(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<Atendimento> atendimentos = atendimentoRepository.streamAllWithDetails();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setCodec(objectMapper);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+
+            int escritos = 0;
+            Iterator<Atendimento> iterator = atendimentos.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(iterator.next());
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                if (++escritos % TAMANHO_LOTE == 0) {
+                    generator.flush();
+                    entityManager.clear();
+                }
+            }
+
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+    }
+}
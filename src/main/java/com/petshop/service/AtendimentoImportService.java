@@ -0,0 +1,239 @@
+package com.petshop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.AtendimentoCreateRequest;
+import com.petshop.dto.ImportacaoResponse;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Pets;
+import com.petshop.repository.AtendimentoRepository;
+import com.petshop.repository.PetsRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de atendimentos em NDJSON (um AtendimentoCreateRequest por linha) enviados por clínicas parceiras.
+ * O corpo é lido linha a linha e cada linha é interpretada sozinha: uma linha que não é JSON válido é
+ * rejeitada com o seu erro e a importação segue na linha seguinte. Os registros válidos são gravados em
+ * lotes de TAMANHO_LOTE, cada um na sua transação. Enquanto um lote é gravado nada mais é lido da conexão,
+ * então o envio desacelera ao ritmo do banco e a memória fica limitada a um lote, qualquer que seja o arquivo.
+ */
+@Service
+public class AtendimentoImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AtendimentoImportService.class);
+
+    static final int TAMANHO_LOTE = 500;
+    static final int MAXIMO_ERROS_RELATADOS = 1000;
+
+    /** Maior linha aceita; o restante de uma linha maior é descartado até a próxima quebra */
+    static final int MAXIMO_CARACTERES_LINHA = 1 << 20;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PetsRepository petsRepository;
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private Validator validator;
+
+    private record Registro(long linha, AtendimentoCreateRequest pedido) {}
+
+    /**
+     * Importa os atendimentos do stream até o fim; linhas em branco são ignoradas
+     */
+    public ImportacaoResponse importarAtendimentos(InputStream in) throws IOException {
+        Relatorio relatorio = new Relatorio();
+        List<Registro> lote = new ArrayList<>(TAMANHO_LOTE);
+        StringBuilder conteudo = new StringBuilder();
+        long linha = 0;
+
+        try (Reader leitor = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            while (proximaLinha(leitor, conteudo)) {
+                linha++;
+                if (conteudo.toString().isBlank()) {
+                    continue;
+                }
+
+                relatorio.lidos++;
+                if (conteudo.length() > MAXIMO_CARACTERES_LINHA) {
+                    relatorio.rejeitar(linha, List.of("Linha maior que " + MAXIMO_CARACTERES_LINHA + " caracteres"));
+                    continue;
+                }
+
+                JsonNode registro;
+                try {
+                    registro = objectMapper.readTree(conteudo.toString());
+                } catch (JsonProcessingException e) {
+                    relatorio.rejeitar(linha, List.of("JSON malformado: " + e.getOriginalMessage()));
+                    continue;
+                }
+                if (registro == null || !registro.isObject()) {
+                    relatorio.rejeitar(linha, List.of("Cada linha deve ser um objeto JSON"));
+                    continue;
+                }
+
+                AtendimentoCreateRequest pedido;
+                try {
+                    pedido = objectMapper.treeToValue(registro, AtendimentoCreateRequest.class);
+                } catch (JsonProcessingException | IllegalArgumentException e) {
+                    relatorio.rejeitar(linha, List.of("Campo inválido: " + e.getMessage()));
+                    continue;
+                }
+
+                List<String> erros = validar(pedido);
+                if (!erros.isEmpty()) {
+                    relatorio.rejeitar(linha, erros);
+                    continue;
+                }
+
+                lote.add(new Registro(linha, pedido));
+                if (lote.size() == TAMANHO_LOTE) {
+                    gravar(lote, relatorio);
+                    lote.clear();
+                }
+            }
+        }
+
+        gravar(lote, relatorio);
+        logger.info("Importação de atendimentos: {} lidos, {} importados, {} rejeitados",
+                relatorio.lidos, relatorio.importados, relatorio.rejeitados);
+        return relatorio.paraResposta();
+    }
+
+    /**
+     * Lê a próxima linha, sem a quebra, em conteudo; false no fim do stream. Guarda no máximo
+     * MAXIMO_CARACTERES_LINHA + 1 caracteres, o bastante para saber que a linha passou do limite.
+     */
+    private static boolean proximaLinha(Reader leitor, StringBuilder conteudo) throws IOException {
+        conteudo.setLength(0);
+        boolean leu = false;
+        int c;
+        while ((c = leitor.read()) != -1) {
+            leu = true;
+            if (c == '\n') {
+                break;
+            }
+            if (conteudo.length() <= MAXIMO_CARACTERES_LINHA) {
+                conteudo.append((char) c);
+            }
+        }
+        int fim = conteudo.length() - 1;
+        if (fim >= 0 && conteudo.charAt(fim) == '\r') {
+            conteudo.setLength(fim);
+        }
+        return leu;
+    }
+
+    /**
+     * Grava um lote em uma transação: os pets do lote saem de uma consulta (IN) e os INSERTs vão em lotes JDBC.
+     * Se a transação falhar, todas as linhas do lote são rejeitadas com o erro do banco.
+     */
+    private void gravar(List<Registro> lote, Relatorio relatorio) {
+        if (lote.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<String>> rejeitados = new HashMap<>();
+        try {
+            Integer gravados = transactionTemplate.execute(status -> {
+                List<Long> petIds = lote.stream().map(r -> r.pedido().getPet().getId()).distinct().toList();
+                Map<Long, Pets> pets = petsRepository.findAllById(petIds).stream()
+                        .collect(Collectors.toMap(Pets::getId, pet -> pet));
+
+                List<Atendimento> novos = new ArrayList<>(lote.size());
+                for (Registro registro : lote) {
+                    AtendimentoCreateRequest pedido = registro.pedido();
+                    Long petId = pedido.getPet().getId();
+                    Long clienteId = pedido.getCliente().getId();
+                    Pets pet = pets.get(petId);
+                    if (pet == null) {
+                        rejeitados.put(registro.linha(), List.of("Pet não encontrado: " + petId));
+                    } else if (!clienteId.equals(pet.getCliente().getId())) {
+                        rejeitados.put(registro.linha(), List.of("Pet " + petId + " não pertence ao cliente " + clienteId));
+                    } else {
+                        Atendimento atendimento = new Atendimento(pet, pet.getCliente(), pedido.getDescricao(), pedido.getValor());
+                        atendimento.setData(pedido.getData());
+                        novos.add(atendimento);
+                    }
+                }
+                atendimentoRepository.saveAll(novos);
+                resumoDiarioService.incluir(novos);
+                return novos.size();
+            });
+            relatorio.importados += gravados != null ? gravados : 0;
+            lote.stream()
+                    .filter(registro -> rejeitados.containsKey(registro.linha()))
+                    .forEach(registro -> relatorio.rejeitar(registro.linha(), rejeitados.get(registro.linha())));
+        } catch (DataAccessException e) {
+            logger.warn("Lote de {} atendimentos não gravado: {}", lote.size(), e.getMostSpecificCause().getMessage());
+            String erro = "Lote não gravado: " + e.getMostSpecificCause().getMessage();
+            lote.forEach(registro -> relatorio.rejeitar(registro.linha(),
+                    rejeitados.getOrDefault(registro.linha(), List.of(erro))));
+        }
+    }
+
+    private List<String> validar(AtendimentoCreateRequest pedido) {
+        List<String> erros = validator.validate(pedido).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (pedido.getPet() != null && pedido.getPet().getId() == null) {
+            erros.add("ID do pet é obrigatório");
+        }
+        if (pedido.getCliente() != null && pedido.getCliente().getId() == null) {
+            erros.add("ID do cliente é obrigatório");
+        }
+        return erros;
+    }
+
+    /**
+     * Totais da importação; guarda só os primeiros MAXIMO_ERROS_RELATADOS erros
+     */
+    private static class Relatorio {
+        long lidos;
+        long importados;
+        long rejeitados;
+        final List<ImportacaoResponse.ErroLinha> erros = new ArrayList<>();
+
+        void rejeitar(long linha, List<String> mensagens) {
+            rejeitados++;
+            if (erros.size() < MAXIMO_ERROS_RELATADOS) {
+                erros.add(new ImportacaoResponse.ErroLinha(linha, mensagens));
+            }
+        }
+
+        ImportacaoResponse paraResposta() {
+            return new ImportacaoResponse(lidos, importados, rejeitados, erros);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.repository.AtendimentoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cache, por dia, dos atendimentos de um período (todos, de um cliente ou de um pet).
+ * Dias anteriores a hoje praticamente não mudam: cada um fica em cache até uma gravação de
+ * atendimento naquele dia (ResumoDiarioService avisa a cada inclusão, alteração e exclusão),
+ * até a exclusão de um cliente ou pet, ou até passar a validade, que limita o atraso dos nomes
+ * de pet, cliente e raça copiados nas respostas. Hoje e dias futuros são sempre consultados no banco.
+ * Os dias que faltam no cache são buscados juntos, uma consulta por sequência de dias seguidos,
+ * sempre no primário (LeituraNoPrimario).
+ *
+ * As invalidações são só desta instância. Gravações feitas por outra instância (ou por uma
+ * carga COPY de outra instância) só aparecem aqui quando a entrada vence: a validade
+ * (atendimentos.cache-periodo.validade-ms, padrão 5 minutos) é o atraso máximo nesses casos.
+ */
+@Service
+public class AtendimentoPeriodoCache {
+
+    enum Escopo { TODOS, CLIENTE, PET }
+
+    record Dia(Escopo escopo, Long id, LocalDate data) {}
+
+    private record Entrada(List<AtendimentoResponse> atendimentos, long criadaEm) {}
+
+    @FunctionalInterface
+    private interface Consulta {
+        List<AtendimentoResponse> buscar(LocalDate dataInicio, LocalDate dataFim);
+    }
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @Autowired
+    private LeituraNoPrimario leituraNoPrimario;
+
+    /** Limite de atendimentos guardados (cada dia vazio conta como um) */
+    @Value("${atendimentos.cache-periodo.maximo-atendimentos:200000}")
+    private long maximoAtendimentos;
+
+    @Value("${atendimentos.cache-periodo.validade-ms:300000}")
+    private long validadeMs;
+
+    private final Map<Dia, Entrada> dias = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long atendimentosGuardados;
+
+    /**
+     * Incrementado a cada invalidação; impede que uma leitura do banco iniciada
+     * antes de uma escrita grave no cache um dia já desatualizado
+     */
+    private long geracao;
+
+    public List<AtendimentoResponse> porData(LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Escopo.TODOS, null, dataInicio, dataFim, atendimentoRepository::findResponsesByDataBetween);
+    }
+
+    public List<AtendimentoResponse> porCliente(Long clienteId, LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Escopo.CLIENTE, clienteId, dataInicio, dataFim,
+                (inicio, fim) -> atendimentoRepository.findResponsesByClienteIdAndDataBetween(clienteId, inicio, fim));
+    }
+
+    public List<AtendimentoResponse> porPet(Long petId, LocalDate dataInicio, LocalDate dataFim) {
+        return consultar(Escopo.PET, petId, dataInicio, dataFim,
+                (inicio, fim) -> atendimentoRepository.findResponsesByPetIdAndDataBetween(petId, inicio, fim));
+    }
+
+    /**
+     * Descarta os dias afetados pelas gravações (o dia de todos, do cliente e do pet de cada uma).
+     * Descarta já e de novo depois do commit, para que nenhuma leitura concorrente devolva ao
+     * cache o conteúdo anterior.
+     */
+    public void invalidar(Collection<ResumoDiarioService.Lancamento> lancamentos) {
+        List<Dia> afetados = new ArrayList<>(lancamentos.size() * 3);
+        for (ResumoDiarioService.Lancamento lancamento : lancamentos) {
+            afetados.add(new Dia(Escopo.TODOS, null, lancamento.data()));
+            afetados.add(new Dia(Escopo.CLIENTE, lancamento.clienteId(), lancamento.data()));
+            afetados.add(new Dia(Escopo.PET, lancamento.petId(), lancamento.data()));
+        }
+        remover(afetados);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remover(afetados);
+                }
+            });
+        }
+    }
+
+    /**
+     * Descarta tudo (exclusão de cliente ou pet, que leva junto os atendimentos)
+     */
+    public synchronized void invalidarTudo() {
+        geracao++;
+        dias.clear();
+        atendimentosGuardados = 0;
+    }
+
+    synchronized int size() {
+        return dias.size();
+    }
+
+    private List<AtendimentoResponse> consultar(Escopo escopo, Long id, LocalDate dataInicio, LocalDate dataFim, Consulta consulta) {
+        LocalDate hoje = LocalDate.now();
+        LocalDate ultimoFechado = dataFim.isBefore(hoje) ? dataFim : hoje.minusDays(1);
+        List<AtendimentoResponse> resultado = new ArrayList<>();
+
+        if (!dataInicio.isAfter(ultimoFechado)) {
+            Map<LocalDate, List<AtendimentoResponse>> fechados = new HashMap<>();
+            List<LocalDate> faltantes = new ArrayList<>();
+            long geracaoLida;
+            synchronized (this) {
+                geracaoLida = geracao;
+                long limite = System.currentTimeMillis() - validadeMs;
+                for (LocalDate dia = dataInicio; !dia.isAfter(ultimoFechado); dia = dia.plusDays(1)) {
+                    Entrada entrada = dias.get(new Dia(escopo, id, dia));
+                    if (entrada != null && entrada.criadaEm() >= limite) {
+                        fechados.put(dia, entrada.atendimentos());
+                    } else {
+                        faltantes.add(dia);
+                    }
+                }
+            }
+
+            for (int i = 0; i < faltantes.size(); ) {
+                int j = i;
+                while (j + 1 < faltantes.size() && faltantes.get(j + 1).equals(faltantes.get(j).plusDays(1))) {
+                    j++;
+                }
+                LocalDate inicio = faltantes.get(i);
+                LocalDate fim = faltantes.get(j);
+                Map<LocalDate, List<AtendimentoResponse>> buscados = leituraNoPrimario.executar(() -> consulta.buscar(inicio, fim)).stream()
+                        .collect(Collectors.groupingBy(AtendimentoResponse::getData));
+                Map<Dia, List<AtendimentoResponse>> novos = new HashMap<>();
+                for (LocalDate dia : faltantes.subList(i, j + 1)) {
+                    List<AtendimentoResponse> atendimentos = List.copyOf(buscados.getOrDefault(dia, List.of()));
+                    fechados.put(dia, atendimentos);
+                    novos.put(new Dia(escopo, id, dia), atendimentos);
+                }
+                guardarSeAtual(novos, geracaoLida);
+                i = j + 1;
+            }
+
+            for (LocalDate dia = dataInicio; !dia.isAfter(ultimoFechado); dia = dia.plusDays(1)) {
+                resultado.addAll(fechados.get(dia));
+            }
+        }
+
+        LocalDate inicioAberto = dataInicio.isAfter(hoje) ? dataInicio : hoje;
+        if (!inicioAberto.isAfter(dataFim)) {
+            resultado.addAll(consulta.buscar(inicioAberto, dataFim));
+        }
+        return resultado;
+    }
+
+    private synchronized void guardarSeAtual(Map<Dia, List<AtendimentoResponse>> novos, long geracaoLida) {
+        if (geracao != geracaoLida) {
+            return;
+        }
+        long agora = System.currentTimeMillis();
+        novos.forEach((dia, atendimentos) -> {
+            Entrada anterior = dias.put(dia, new Entrada(atendimentos, agora));
+            if (anterior != null) {
+                atendimentosGuardados -= peso(anterior);
+            }
+            atendimentosGuardados += atendimentos.size() + 1;
+        });
+
+        Iterator<Entrada> maisAntigas = dias.values().iterator();
+        while (atendimentosGuardados > maximoAtendimentos && maisAntigas.hasNext()) {
+            atendimentosGuardados -= peso(maisAntigas.next());
+            maisAntigas.remove();
+        }
+    }
+
+    private synchronized void remover(List<Dia> afetados) {
+        geracao++;
+        for (Dia dia : afetados) {
+            Entrada entrada = dias.remove(dia);
+            if (entrada != null) {
+                atendimentosGuardados -= peso(entrada);
+            }
+        }
+    }
+
+    private static long peso(Entrada entrada) {
+        return entrada.atendimentos().size() + 1;
+    }
+}
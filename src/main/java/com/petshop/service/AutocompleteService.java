@@ -0,0 +1,172 @@
+package com.petshop.service;
+
+import com.petshop.dto.SugestaoResponse;
+import com.petshop.model.Cliente;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Autocompletar de nomes de raças, pets e clientes respondido da memória, sem ir ao banco.
+ * Os índices são montados na inicialização e mantidos pelas escritas dos controllers;
+ * uma reconstrução periódica corrige o que outras instâncias alteraram.
+ * A busca ignora maiúsculas e acentos ("joao" encontra "João").
+ */
+@Service
+public class AutocompleteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+
+    static final int LIMITE_PADRAO = 10;
+    static final int LIMITE_MAXIMO = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    record Indices(IndicePrefixos racas, IndicePrefixos pets, IndicePrefixos clientes) {
+        Indices() {
+            this(new IndicePrefixos(), new IndicePrefixos(), new IndicePrefixos());
+        }
+    }
+
+    private volatile Indices indices = new Indices();
+
+    /**
+     * Escritas feitas durante uma reconstrução; são reaplicadas nos índices novos antes da troca
+     */
+    private List<Consumer<Indices>> pendentes;
+
+    public List<SugestaoResponse> sugerirRacas(String termo, Integer limite) {
+        return sugestoes(indices.racas().buscar(termo, null, limite(limite)));
+    }
+
+    /**
+     * @param clienteId restringe aos pets do cliente; null para todos (admin)
+     */
+    public List<SugestaoResponse> sugerirPets(String termo, Long clienteId, Integer limite) {
+        return sugestoes(indices.pets().buscar(termo, clienteId, limite(limite)));
+    }
+
+    /**
+     * @param clienteId restringe ao próprio cliente; null para todos (admin)
+     */
+    public List<SugestaoResponse> sugerirClientes(String termo, Long clienteId, Integer limite) {
+        return sugestoes(indices.clientes().buscar(termo, clienteId, limite(limite)));
+    }
+
+    public void registrarRaca(Raca raca) {
+        long id = raca.getId();
+        String descricao = raca.getDescricao();
+        aplicar(i -> i.racas().colocar(id, descricao, null, null));
+    }
+
+    public void registrarPet(Pets pet) {
+        long id = pet.getId();
+        String nome = pet.getNome();
+        Long clienteId = pet.getCliente() != null ? pet.getCliente().getId() : null;
+        Long racaId = pet.getRaca() != null ? pet.getRaca().getId() : null;
+        aplicar(i -> i.pets().colocar(id, nome, clienteId, racaId));
+    }
+
+    public void registrarCliente(Cliente cliente) {
+        long id = cliente.getId();
+        String nome = cliente.getNome();
+        aplicar(i -> i.clientes().colocar(id, nome, id, null));
+    }
+
+    /**
+     * Remove a raça e os pets dela (excluídos junto com a raça)
+     */
+    public void removerRaca(Long racaId) {
+        aplicar(i -> {
+            i.racas().remover(racaId);
+            i.pets().removerDaRaca(racaId);
+        });
+    }
+
+    public void removerPet(Long petId) {
+        aplicar(i -> i.pets().remover(petId));
+    }
+
+    /**
+     * Remove o cliente e os pets dele (excluídos em cascata)
+     */
+    public void removerCliente(Long clienteId) {
+        aplicar(i -> {
+            i.clientes().remover(clienteId);
+            i.pets().removerDoCliente(clienteId);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    /**
+     * Monta índices novos a partir do banco e troca os atuais por eles.
+     * As linhas são lidas em streaming (RowCallbackHandler), sem carregar as entidades.
+     */
+    @Scheduled(initialDelayString = "${autocomplete.rebuild-interval-ms:900000}",
+               fixedDelayString = "${autocomplete.rebuild-interval-ms:900000}")
+    public void reconstruir() {
+        synchronized (this) {
+            pendentes = new ArrayList<>();
+        }
+
+        Indices novos = new Indices();
+        try {
+            RowCallbackHandler raca = rs -> novos.racas().colocar(rs.getLong("id"), rs.getString("descricao"), null, null);
+            RowCallbackHandler pet = rs -> novos.pets().colocar(rs.getLong("id"), rs.getString("nome"),
+                    rs.getObject("id_cliente", Long.class), rs.getObject("id_raca", Long.class));
+            RowCallbackHandler cliente = rs -> novos.clientes().colocar(rs.getLong("id"), rs.getString("nome"), rs.getLong("id"), null);
+
+            jdbcTemplate.query("SELECT id, descricao FROM raca", raca);
+            jdbcTemplate.query("SELECT id, nome, id_cliente, id_raca FROM pets", pet);
+            jdbcTemplate.query("SELECT id, nome FROM cliente", cliente);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendentes = null;
+            }
+            logger.warn("Falha ao reconstruir os índices de autocompletar: {}", e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            pendentes.forEach(escrita -> escrita.accept(novos));
+            pendentes = null;
+            indices = novos;
+        }
+        logger.info("Índices de autocompletar carregados: {} raças, {} pets, {} clientes",
+                novos.racas().size(), novos.pets().size(), novos.clientes().size());
+    }
+
+    private synchronized void aplicar(Consumer<Indices> escrita) {
+        escrita.accept(indices);
+        if (pendentes != null) {
+            pendentes.add(escrita);
+        }
+    }
+
+    private static int limite(Integer limite) {
+        return limite == null ? LIMITE_PADRAO : Math.min(Math.max(limite, 1), LIMITE_MAXIMO);
+    }
+
+    private static List<SugestaoResponse> sugestoes(List<IndicePrefixos.Entrada> entradas) {
+        return entradas.stream()
+                .map(entrada -> new SugestaoResponse(entrada.id(), entrada.nome()))
+                .toList();
+    }
+}
@@ -0,0 +1,317 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoCreateRequest;
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.dto.ContatoResponse;
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.dto.LoteResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.exception.LoteInvalidoException;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Cliente;
+import com.petshop.model.Contato;
+import com.petshop.model.Endereco;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import com.petshop.repository.AtendimentoRepository;
+import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.ContatoRepository;
+import com.petshop.repository.EnderecoRepository;
+import com.petshop.repository.PetsRepository;
+import com.petshop.repository.RacaRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Cadastro em lote de pets, contatos, endereços e atendimentos (POST .../lote).
+ * Cada item é validado isoladamente, a permissão é verificada uma vez por cliente e as
+ * referências (clientes, raças, pets) são carregadas com um único IN por tipo (os clientes já com o
+ * usuário, ver ClienteRepository.findAllWithUsuarioByIdIn). Os itens válidos
+ * são gravados juntos, na mesma transação, e saem em lotes JDBC (hibernate.jdbc.batch_size).
+ * Um item inválido não impede os demais: o resultado traz o status de cada posição.
+ */
+@Service
+public class CadastroLoteService {
+
+    /**
+     * Máximo de itens por requisição
+     */
+    public static final int TAMANHO_MAXIMO = 1000;
+
+    private static final int INVALIDO = 400;
+    private static final int PROIBIDO = 403;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RacaRepository racaRepository;
+
+    @Autowired
+    private PetsRepository petsRepository;
+
+    @Autowired
+    private ContatoRepository contatoRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private ResumoDiarioService resumoDiarioService;
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+
+    @Autowired
+    private Validator validator;
+
+    @Transactional
+    public LoteResponse<PetResponse> criarPets(List<Pets> pedidos) {
+        verificarTamanho(pedidos);
+        Map<Long, Cliente> clientes = porId(clienteRepository.findAllWithUsuarioByIdIn(ids(pedidos, p -> idDe(p.getCliente()))), Cliente::getId);
+        Map<Long, Raca> racas = porId(racaRepository.findAllById(ids(pedidos, p -> p.getRaca() != null ? p.getRaca().getId() : null)), Raca::getId);
+        LongPredicate permitido = permissaoPorCliente(clienteId -> roleService.canModifyPet(null, clienteId));
+
+        List<LoteResponse.Item<PetResponse>> itens = posicoes(pedidos.size());
+        Map<Integer, Pets> novos = new LinkedHashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pets pedido = pedidos.get(i);
+            Long clienteId = idDe(pedido.getCliente());
+            Long racaId = pedido.getRaca() != null ? pedido.getRaca().getId() : null;
+            List<String> erros = validar(pedido, clienteId);
+            if (!erros.isEmpty()) {
+                itens.set(i, LoteResponse.Item.falha(i, INVALIDO, erros));
+            } else if (!permitido.test(clienteId)) {
+                itens.set(i, semPermissao(i, clienteId));
+            } else if (!clientes.containsKey(clienteId)) {
+                itens.set(i, naoEncontrado(i, "Cliente não encontrado: ", clienteId));
+            } else if (racaId != null && !racas.containsKey(racaId)) {
+                itens.set(i, naoEncontrado(i, "Raça não encontrada: ", racaId));
+            } else {
+                Pets pet = new Pets();
+                pet.setCliente(clientes.get(clienteId));
+                pet.setRaca(racaId != null ? racas.get(racaId) : null);
+                pet.setDataNascimento(pedido.getDataNascimento());
+                pet.setNome(pedido.getNome());
+                pet.setFoto(pedido.getFoto());
+                novos.put(i, pet);
+            }
+        }
+
+        petsRepository.saveAll(novos.values());
+        novos.forEach((i, pet) -> itens.set(i, LoteResponse.Item.criado(i, PetResponse.de(pet))));
+        List<Pets> criados = new ArrayList<>(novos.values());
+        depoisDoCommit(() -> criados.forEach(autocompleteService::registrarPet));
+        return LoteResponse.de(itens);
+    }
+
+    @Transactional
+    public LoteResponse<ContatoResponse> criarContatos(List<Contato> pedidos) {
+        verificarTamanho(pedidos);
+        Map<Long, Cliente> clientes = porId(clienteRepository.findAllWithUsuarioByIdIn(ids(pedidos, c -> idDe(c.getCliente()))), Cliente::getId);
+        LongPredicate permitido = permissaoPorCliente(roleService::canAccessCliente);
+
+        List<LoteResponse.Item<ContatoResponse>> itens = posicoes(pedidos.size());
+        Map<Integer, Contato> novos = new LinkedHashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Contato contato = pedidos.get(i);
+            Long clienteId = idDe(contato.getCliente());
+            List<String> erros = validar(contato, clienteId);
+            if (!erros.isEmpty()) {
+                itens.set(i, LoteResponse.Item.falha(i, INVALIDO, erros));
+            } else if (!permitido.test(clienteId)) {
+                itens.set(i, semPermissao(i, clienteId));
+            } else if (!clientes.containsKey(clienteId)) {
+                itens.set(i, naoEncontrado(i, "Cliente não encontrado: ", clienteId));
+            } else {
+                contato.setId(null);
+                contato.setVersao(null);
+                contato.setCliente(clientes.get(clienteId));
+                novos.put(i, contato);
+            }
+        }
+
+        contatoRepository.saveAll(novos.values());
+        novos.forEach((i, contato) -> itens.set(i, LoteResponse.Item.criado(i, ContatoResponse.de(contato))));
+        return LoteResponse.de(itens);
+    }
+
+    @Transactional
+    public LoteResponse<EnderecoResponse> criarEnderecos(List<Endereco> pedidos) {
+        verificarTamanho(pedidos);
+        Map<Long, Cliente> clientes = porId(clienteRepository.findAllWithUsuarioByIdIn(ids(pedidos, e -> idDe(e.getCliente()))), Cliente::getId);
+        LongPredicate permitido = permissaoPorCliente(roleService::canAccessCliente);
+
+        List<LoteResponse.Item<EnderecoResponse>> itens = posicoes(pedidos.size());
+        Map<Integer, Endereco> novos = new LinkedHashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            Endereco endereco = pedidos.get(i);
+            Long clienteId = idDe(endereco.getCliente());
+            List<String> erros = validar(endereco, clienteId);
+            if (!erros.isEmpty()) {
+                itens.set(i, LoteResponse.Item.falha(i, INVALIDO, erros));
+            } else if (!permitido.test(clienteId)) {
+                itens.set(i, semPermissao(i, clienteId));
+            } else if (!clientes.containsKey(clienteId)) {
+                itens.set(i, naoEncontrado(i, "Cliente não encontrado: ", clienteId));
+            } else {
+                endereco.setId(null);
+                endereco.setVersao(null);
+                endereco.setCliente(clientes.get(clienteId));
+                novos.put(i, endereco);
+            }
+        }
+
+        enderecoRepository.saveAll(novos.values());
+        novos.forEach((i, endereco) -> itens.set(i, LoteResponse.Item.criado(i, EnderecoResponse.de(endereco))));
+        return LoteResponse.de(itens);
+    }
+
+    /**
+     * Além das verificações comuns, o pet precisa ser do cliente informado
+     */
+    @Transactional
+    public LoteResponse<AtendimentoResponse> criarAtendimentos(List<AtendimentoCreateRequest> pedidos) {
+        verificarTamanho(pedidos);
+        Map<Long, Cliente> clientes = porId(clienteRepository.findAllWithUsuarioByIdIn(ids(pedidos, a -> a.getCliente() != null ? a.getCliente().getId() : null)), Cliente::getId);
+        Map<Long, Pets> pets = porId(petsRepository.findAllById(ids(pedidos, a -> a.getPet() != null ? a.getPet().getId() : null)), Pets::getId);
+        LongPredicate permitido = permissaoPorCliente(roleService::canAccessCliente);
+
+        List<LoteResponse.Item<AtendimentoResponse>> itens = posicoes(pedidos.size());
+        Map<Integer, Atendimento> novos = new LinkedHashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            AtendimentoCreateRequest pedido = pedidos.get(i);
+            Long clienteId = pedido.getCliente() != null ? pedido.getCliente().getId() : null;
+            Long petId = pedido.getPet() != null ? pedido.getPet().getId() : null;
+            List<String> erros = validar(pedido, clienteId);
+            if (pedido.getPet() != null && petId == null) {
+                erros.add("ID do pet é obrigatório");
+            }
+            if (!erros.isEmpty()) {
+                itens.set(i, LoteResponse.Item.falha(i, INVALIDO, erros));
+            } else if (!permitido.test(clienteId)) {
+                itens.set(i, semPermissao(i, clienteId));
+            } else if (!clientes.containsKey(clienteId)) {
+                itens.set(i, naoEncontrado(i, "Cliente não encontrado: ", clienteId));
+            } else if (!pets.containsKey(petId)) {
+                itens.set(i, naoEncontrado(i, "Pet não encontrado: ", petId));
+            } else if (!clienteId.equals(pets.get(petId).getCliente().getId())) {
+                itens.set(i, LoteResponse.Item.falha(i, INVALIDO, List.of("Pet " + petId + " não pertence ao cliente " + clienteId)));
+            } else {
+                Atendimento atendimento = new Atendimento();
+                atendimento.setPet(pets.get(petId));
+                atendimento.setCliente(clientes.get(clienteId));
+                atendimento.setDescricao(pedido.getDescricao());
+                atendimento.setValor(pedido.getValor());
+                novos.put(i, atendimento);
+            }
+        }
+
+        atendimentoRepository.saveAll(novos.values());
+        resumoDiarioService.incluir(novos.values());
+        // A projeção faz o flush dos INSERTs e monta todas as respostas em uma consulta
+        Map<Long, AtendimentoResponse> respostas = novos.isEmpty() ? Map.of()
+                : porId(atendimentoRepository.findResponsesByIds(novos.values().stream().map(Atendimento::getId).toList()), AtendimentoResponse::getId);
+        novos.forEach((i, atendimento) -> itens.set(i, LoteResponse.Item.criado(i, respostas.get(atendimento.getId()))));
+        return LoteResponse.de(itens);
+    }
+
+    private static void verificarTamanho(List<?> pedidos) {
+        if (pedidos == null) {
+            throw new LoteInvalidoException("O corpo deve ser uma lista de itens");
+        }
+        if (pedidos.stream().anyMatch(Objects::isNull)) {
+            throw new LoteInvalidoException("O lote não pode ter itens nulos");
+        }
+        if (pedidos.size() > TAMANHO_MAXIMO) {
+            throw new LoteInvalidoException("Lote com " + pedidos.size() + " itens; o máximo é " + TAMANHO_MAXIMO);
+        }
+    }
+
+    /**
+     * Mensagens das anotações de validação do item, mais a do id do cliente (as referências
+     * chegam como objetos aninhados, e o @NotNull só cobre o objeto)
+     */
+    private List<String> validar(Object pedido, Long clienteId) {
+        List<String> erros = validator.validate(pedido).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (clienteId == null && erros.stream().noneMatch(e -> e.startsWith("Cliente"))) {
+            erros.add("ID do cliente é obrigatório");
+        }
+        return erros;
+    }
+
+    /**
+     * Permissão avaliada uma vez por cliente, por mais itens que ele tenha no lote
+     */
+    private static LongPredicate permissaoPorCliente(LongPredicate verificacao) {
+        Map<Long, Boolean> permissoes = new HashMap<>();
+        return clienteId -> permissoes.computeIfAbsent(clienteId, verificacao::test);
+    }
+
+    private static <T> List<Long> ids(List<T> pedidos, Function<T, Long> id) {
+        return pedidos.stream().map(id).filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static <T> Map<Long, T> porId(Iterable<T> registros, Function<T, Long> id) {
+        Map<Long, T> mapa = new HashMap<>();
+        registros.forEach(registro -> mapa.put(id.apply(registro), registro));
+        return mapa;
+    }
+
+    private static Long idDe(Cliente cliente) {
+        return cliente != null ? cliente.getId() : null;
+    }
+
+    private static <T> List<LoteResponse.Item<T>> posicoes(int tamanho) {
+        return new ArrayList<>(Collections.nCopies(tamanho, null));
+    }
+
+    private static <T> LoteResponse.Item<T> semPermissao(int indice, Long clienteId) {
+        return LoteResponse.Item.falha(indice, PROIBIDO, List.of("Sem permissão para o cliente " + clienteId));
+    }
+
+    private static <T> LoteResponse.Item<T> naoEncontrado(int indice, String mensagem, Long id) {
+        return LoteResponse.Item.falha(indice, INVALIDO, List.of(mensagem + id));
+    }
+
+    /**
+     * Os índices do autocompletar só recebem o que foi de fato gravado
+     */
+    private static void depoisDoCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.petshop.service;
+
+import com.petshop.repository.ClienteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache em memória, limitado, do vínculo CPF <-> id do Cliente.
+ * Quase toda checagem de propriedade de um usuário CLIENTE se resume a
+ * "qual cliente pertence a este CPF"; com o cache essa resposta não vai ao banco.
+ * É preenchido no login e invalidado pelas escritas de Cliente e Usuario.
+ * As consultas que preenchem o cache vão sempre ao primário (LeituraNoPrimario).
+ */
+@Service
+public class ClienteOwnershipCache {
+
+    static final int MAX_ENTRIES = 10_000;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private LeituraNoPrimario leituraNoPrimario;
+
+    private final Map<Long, String> cpfPorClienteId = new HashMap<>();
+
+    private final Map<String, Long> clienteIdPorCpf = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            if (size() > MAX_ENTRIES) {
+                cpfPorClienteId.remove(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Incrementado a cada invalidação; impede que uma leitura do banco iniciada
+     * antes de uma escrita grave no cache um valor já desatualizado
+     */
+    private long geracao;
+
+    /**
+     * Obtém o id do cliente vinculado ao CPF, consultando o banco apenas em caso de falta
+     * @param cpf CPF do usuário
+     * @return id do cliente ou null se o CPF não possui cliente
+     */
+    public Long getClienteId(String cpf) {
+        if (cpf == null) {
+            return null;
+        }
+
+        long geracaoLida;
+        synchronized (this) {
+            Long clienteId = clienteIdPorCpf.get(cpf);
+            if (clienteId != null) {
+                return clienteId;
+            }
+            geracaoLida = geracao;
+        }
+
+        Optional<Long> clienteId = leituraNoPrimario.executar(() -> clienteRepository.findIdByCpf(cpf));
+        clienteId.ifPresent(id -> putIfCurrent(cpf, id, geracaoLida));
+        return clienteId.orElse(null);
+    }
+
+    /**
+     * Obtém o CPF vinculado ao id do cliente, consultando o banco apenas em caso de falta
+     * @param clienteId id do cliente
+     * @return CPF do cliente ou null se o cliente não existe ou não possui CPF
+     */
+    public String getCpf(Long clienteId) {
+        if (clienteId == null) {
+            return null;
+        }
+
+        long geracaoLida;
+        synchronized (this) {
+            String cpf = cpfPorClienteId.get(clienteId);
+            if (cpf != null) {
+                clienteIdPorCpf.get(cpf); // marca o acesso para a ordem LRU
+                return cpf;
+            }
+            geracaoLida = geracao;
+        }
+
+        Optional<String> cpf = leituraNoPrimario.executar(() -> clienteRepository.findCpfById(clienteId));
+        cpf.ifPresent(valor -> putIfCurrent(valor, clienteId, geracaoLida));
+        return cpf.orElse(null);
+    }
+
+    /**
+     * Registra o vínculo CPF -> cliente (ex.: após o login)
+     */
+    public synchronized void put(String cpf, Long clienteId) {
+        if (cpf == null || clienteId == null) {
+            return;
+        }
+        removerPar(cpf, clienteId);
+        clienteIdPorCpf.put(cpf, clienteId);
+        cpfPorClienteId.put(clienteId, cpf);
+    }
+
+    /**
+     * Remove o vínculo do CPF informado
+     */
+    public synchronized void invalidateCpf(String cpf) {
+        geracao++;
+        if (cpf == null) {
+            return;
+        }
+        Long clienteId = clienteIdPorCpf.remove(cpf);
+        if (clienteId != null) {
+            cpfPorClienteId.remove(clienteId);
+        }
+    }
+
+    /**
+     * Remove o vínculo do cliente informado
+     */
+    public synchronized void invalidateClienteId(Long clienteId) {
+        geracao++;
+        if (clienteId == null) {
+            return;
+        }
+        String cpf = cpfPorClienteId.remove(clienteId);
+        if (cpf != null) {
+            clienteIdPorCpf.remove(cpf);
+        }
+    }
+
+    synchronized int size() {
+        return clienteIdPorCpf.size();
+    }
+
+    private synchronized void putIfCurrent(String cpf, Long clienteId, long geracaoLida) {
+        if (geracao == geracaoLida) {
+            put(cpf, clienteId);
+        }
+    }
+
+    private void removerPar(String cpf, Long clienteId) {
+        Long clienteIdAnterior = clienteIdPorCpf.remove(cpf);
+        if (clienteIdAnterior != null) {
+            cpfPorClienteId.remove(clienteIdAnterior);
+        }
+        String cpfAnterior = cpfPorClienteId.remove(clienteId);
+        if (cpfAnterior != null) {
+            clienteIdPorCpf.remove(cpfAnterior);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.petshop.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cargas e exportações em massa com COPY (CopyManager do PgJDBC), sem passar pelo JPA.
+ * Um arquivo CSV com cabeçalho por tabela (raca.csv, cliente.csv, ...), nas colunas de TABELAS.
+ *
+ * Exportação: um COPY ... TO STDOUT por tabela, todos na mesma transação REPEATABLE READ,
+ * então os arquivos formam uma cópia consistente mesmo com a aplicação no ar.
+ *
+ * Importação: cada arquivo vai para uma tabela temporária (COPY ... FROM STDIN), onde as chaves
+ * estrangeiras são resolvidas: os ids dos arquivos são os do sistema de origem, cada linha recebe
+ * um id novo da sequência da tabela e os filhos apontam para os ids novos dos pais. Um pai que
+ * não veio nos arquivos é procurado no banco pelo próprio id. Linhas cujo pai não existe (ou
+ * cliente com CPF sem usuário ou já cadastrado) são descartadas e contadas no resultado.
+ * Tudo roda em uma transação: um erro desfaz a carga inteira.
+ */
+@Service
+public class CopiaEmMassaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopiaEmMassaService.class);
+
+    /**
+     * Ids tirados de cada nextval: o incremento das sequências (V9__sequencias_pooled.sql), igual ao
+     * allocationSize das entidades. Cada bloco vai de valor - 49 a valor, como no otimizador pooled.
+     */
+    static final int BLOCO_IDS = 50;
+
+    private static final String FORMATO = "(FORMAT csv, HEADER true)";
+
+    /**
+     * Soma os atendimentos carregados ao resumo diário (ResumoDiarioService), como as gravações da API
+     */
+    private static final String RESUMO_DIARIO = "INSERT INTO atendimento_resumo_diario AS r "
+            + "(data, id_cliente, id_pet, atendimentos, com_valor, total) "
+            + "SELECT a.data, a.id_cliente, a.id_pet, count(*), count(a.valor), COALESCE(sum(a.valor), 0) "
+            + "FROM atendimento a JOIN stg_atendimento s ON s.novo_id = a.id "
+            + "GROUP BY a.data, a.id_cliente, a.id_pet "
+            + "ON CONFLICT (data, id_cliente, id_pet) DO UPDATE SET "
+            + "atendimentos = r.atendimentos + EXCLUDED.atendimentos, "
+            + "com_valor = r.com_valor + EXCLUDED.com_valor, "
+            + "total = r.total + EXCLUDED.total";
+
+    record Referencia(String coluna, String tabelaPai, boolean obrigatoria) {}
+
+    record Tabela(String nome, List<String> colunas, List<Referencia> referencias, List<String> descartes) {
+        String arquivo() {
+            return nome + ".csv";
+        }
+
+        String staging() {
+            return "stg_" + nome;
+        }
+    }
+
+    /**
+     * Tabelas na ordem de carga (pais antes dos filhos)
+     */
+    static final List<Tabela> TABELAS = List.of(
+            new Tabela("raca", List.of("id", "descricao"), List.of(), List.of()),
+            new Tabela("cliente", List.of("id", "nome", "cpf", "data_cadastro", "foto"), List.of(), List.of(
+                    "s.cpf IS NOT NULL AND NOT EXISTS (SELECT 1 FROM usuario u WHERE u.cpf = s.cpf)",
+                    "s.cpf IS NOT NULL AND EXISTS (SELECT 1 FROM cliente c WHERE c.cpf = s.cpf)")),
+            new Tabela("pets", List.of("id", "id_cliente", "id_raca", "data_nascimento", "nome", "foto"), List.of(
+                    new Referencia("id_cliente", "cliente", true),
+                    new Referencia("id_raca", "raca", false)), List.of()),
+            new Tabela("contato", List.of("id", "id_cliente", "tag", "tipo", "valor"), List.of(
+                    new Referencia("id_cliente", "cliente", true)), List.of()),
+            new Tabela("endereco", List.of("id", "id_cliente", "logradouro", "cidade", "bairro", "complemento", "tag"), List.of(
+                    new Referencia("id_cliente", "cliente", true)), List.of()),
+            new Tabela("atendimento", List.of("id", "id_pet", "id_cliente", "descricao", "valor", "data"), List.of(
+                    new Referencia("id_pet", "pets", true),
+                    new Referencia("id_cliente", "cliente", true)), List.of()));
+
+    /**
+     * Linhas copiadas de uma tabela; na importação, descartadas = lidas do arquivo e não inseridas
+     */
+    public record Resultado(String tabela, long linhas, long descartadas, long nanos) {
+        public long linhasPorSegundo() {
+            return nanos > 0 ? linhas * 1_000_000_000L / nanos : linhas;
+        }
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
+    public List<Resultado> exportar(Path diretorio) throws SQLException, IOException {
+        Files.createDirectories(diretorio);
+        List<Resultado> resultados = new ArrayList<>();
+
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            conexao.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conexao.setReadOnly(true);
+            CopyManager copia = conexao.unwrap(PGConnection.class).getCopyAPI();
+
+            for (Tabela tabela : TABELAS) {
+                long inicio = System.nanoTime();
+                long linhas;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(diretorio.resolve(tabela.arquivo())), 1 << 16)) {
+                    linhas = copia.copyOut("COPY (SELECT " + String.join(", ", tabela.colunas()) + " FROM " + tabela.nome()
+                            + ") TO STDOUT " + FORMATO, out);
+                }
+                resultados.add(registrar(new Resultado(tabela.nome(), linhas, 0, System.nanoTime() - inicio)));
+            }
+            conexao.commit();
+        }
+        return resultados;
+    }
+
+    /**
+     * Carrega os arquivos presentes no diretório; tabelas sem arquivo são puladas
+     */
+    public List<Resultado> importar(Path diretorio) throws SQLException, IOException {
+        List<Resultado> resultados = new ArrayList<>();
+
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            try {
+                CopyManager copia = conexao.unwrap(PGConnection.class).getCopyAPI();
+                Set<String> carregadas = new HashSet<>();
+
+                for (Tabela tabela : TABELAS) {
+                    Path arquivo = diretorio.resolve(tabela.arquivo());
+                    if (!Files.isRegularFile(arquivo)) {
+                        continue;
+                    }
+                    verificarSequencia(conexao, tabela);
+
+                    long inicio = System.nanoTime();
+                    String staging = tabela.staging();
+                    executar(conexao, "CREATE TEMP TABLE " + staging + " (LIKE " + tabela.nome() + " INCLUDING DEFAULTS) ON COMMIT DROP");
+                    long lidas;
+                    try (InputStream in = new BufferedInputStream(Files.newInputStream(arquivo), 1 << 16)) {
+                        lidas = copia.copyIn("COPY " + staging + " (" + String.join(", ", tabela.colunas()) + ") FROM STDIN " + FORMATO, in);
+                    }
+                    // A chave primária rejeita ids repetidos no arquivo e indexa as buscas dos filhos
+                    executar(conexao, "ALTER TABLE " + staging + " ADD PRIMARY KEY (id), ADD COLUMN novo_id BIGINT");
+
+                    String descarte = condicoesDeDescarte(tabela, carregadas);
+                    if (!descarte.isEmpty()) {
+                        executar(conexao, "DELETE FROM " + staging + " s WHERE " + descarte);
+                    }
+                    executar(conexao, "ANALYZE " + staging);
+                    executar(conexao, alocacaoIds(tabela));
+                    long inseridas = executar(conexao, insercao(tabela, carregadas));
+                    carregadas.add(tabela.nome());
+                    if (tabela.nome().equals("atendimento")) {
+                        executar(conexao, RESUMO_DIARIO);
+                    }
+
+                    resultados.add(registrar(new Resultado(tabela.nome(), inseridas, lidas - inseridas, System.nanoTime() - inicio)));
+                }
+
+                for (String tabela : carregadas) {
+                    executar(conexao, "ANALYZE " + tabela);
+                }
+                conexao.commit();
+                // A carga não passa pelo ResumoDiarioService: os dias em cache nesta instância são descartados aqui
+                if (carregadas.contains("atendimento")) {
+                    atendimentoPeriodoCache.invalidarTudo();
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                conexao.rollback();
+                throw e;
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Sem o incremento em blocos (banco sem a V9), os ids alocados aqui colidiriam com os do Hibernate
+     */
+    private void verificarSequencia(Connection conexao, Tabela tabela) throws SQLException {
+        try (PreparedStatement consulta = conexao.prepareStatement(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?")) {
+            consulta.setString(1, tabela.nome() + "_id_seq");
+            try (ResultSet resultado = consulta.executeQuery()) {
+                if (!resultado.next() || resultado.getLong(1) != BLOCO_IDS) {
+                    throw new IllegalStateException("Sequência " + tabela.nome() + "_id_seq sem incremento " + BLOCO_IDS
+                            + "; aplique as migrações (V9__sequencias_pooled.sql) antes da carga");
+                }
+            }
+        }
+    }
+
+    /**
+     * Ids novos em blocos: um nextval a cada BLOCO_IDS linhas, como o Hibernate faz. A n-ésima
+     * linha (em ordem de id de origem, a partir de 0) fica com topo - (BLOCO_IDS - 1) + n % BLOCO_IDS,
+     * onde topo é o nextval do bloco n / BLOCO_IDS.
+     */
+    static String alocacaoIds(Tabela tabela) {
+        return """
+                WITH numeradas AS (
+                    SELECT id, row_number() OVER (ORDER BY id) - 1 AS n FROM %1$s
+                ), blocos AS (
+                    SELECT b - 1 AS b, nextval('%2$s_id_seq') AS topo
+                    FROM generate_series(1, (SELECT ceil(count(*) / %3$d.0)::int FROM %1$s)) b
+                )
+                UPDATE %1$s s SET novo_id = blocos.topo - (%3$d - 1) + numeradas.n %% %3$d
+                FROM numeradas JOIN blocos ON blocos.b = numeradas.n / %3$d
+                WHERE s.id = numeradas.id
+                """.formatted(tabela.staging(), tabela.nome(), BLOCO_IDS);
+    }
+
+    /**
+     * Linhas que não podem entrar: pai ausente (nos arquivos ou no banco) e as regras da tabela
+     */
+    static String condicoesDeDescarte(Tabela tabela, Set<String> carregadas) {
+        List<String> condicoes = new ArrayList<>(tabela.descartes());
+        for (Referencia referencia : tabela.referencias()) {
+            String pai = carregadas.contains(referencia.tabelaPai()) ? "stg_" + referencia.tabelaPai() : referencia.tabelaPai();
+            String ausente = "NOT EXISTS (SELECT 1 FROM " + pai + " p WHERE p.id = s." + referencia.coluna() + ")";
+            condicoes.add(referencia.obrigatoria() ? ausente : "s." + referencia.coluna() + " IS NOT NULL AND " + ausente);
+        }
+        return condicoes.stream().map(c -> "(" + c + ")").collect(Collectors.joining(" OR "));
+    }
+
+    /**
+     * INSERT ... SELECT da tabela temporária com os ids novos; referências a pais carregados
+     * trocam o id de origem pelo novo_id do pai
+     */
+    static String insercao(Tabela tabela, Set<String> carregadas) {
+        List<String> valores = new ArrayList<>();
+        StringBuilder juncoes = new StringBuilder();
+        for (String coluna : tabela.colunas()) {
+            Referencia referencia = tabela.referencias().stream()
+                    .filter(r -> r.coluna().equals(coluna))
+                    .findFirst()
+                    .orElse(null);
+            if (coluna.equals("id")) {
+                valores.add("s.novo_id");
+            } else if (referencia != null && carregadas.contains(referencia.tabelaPai())) {
+                String alias = "p_" + coluna;
+                valores.add(alias + ".novo_id");
+                juncoes.append(" LEFT JOIN stg_").append(referencia.tabelaPai()).append(' ').append(alias)
+                        .append(" ON ").append(alias).append(".id = s.").append(coluna);
+            } else {
+                valores.add("s." + coluna);
+            }
+        }
+        return "INSERT INTO " + tabela.nome() + " (" + String.join(", ", tabela.colunas()) + ") SELECT "
+                + String.join(", ", valores) + " FROM " + tabela.staging() + " s" + juncoes;
+    }
+
+    private static long executar(Connection conexao, String sql) throws SQLException {
+        try (Statement comando = conexao.createStatement()) {
+            return comando.executeLargeUpdate(sql);
+        }
+    }
+
+    private static Resultado registrar(Resultado resultado) {
+        logger.info("{}: {} linhas em {} ms ({} linhas/s){}", resultado.tabela(), resultado.linhas(),
+                resultado.nanos() / 1_000_000, resultado.linhasPorSegundo(),
+                resultado.descartadas() > 0 ? ", " + resultado.descartadas() + " descartadas" : "");
+        return resultado;
+    }
+}
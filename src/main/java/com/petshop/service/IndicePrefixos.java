@@ -0,0 +1,170 @@
+package com.petshop.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Índice em memória de prefixos de palavras para o autocompletar.
+ * Cada nome é normalizado (minúsculas, sem acentos) e quebrado em palavras; as palavras são
+ * chaves de um TreeMap, então todas as que começam com um prefixo formam uma faixa contígua.
+ * Também guarda os ids por cliente dono, para responder usuários comuns sem varrer o índice.
+ */
+final class IndicePrefixos {
+
+    private static final Pattern SEPARADOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    record Entrada(long id, String nome, Long clienteId, Long racaId, String[] palavras) {}
+
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final TreeMap<String, Set<Long>> idsPorPalavra = new TreeMap<>();
+    private final Map<Long, Set<Long>> idsPorCliente = new HashMap<>();
+
+    /**
+     * Inclui ou substitui a entrada do id informado
+     * @param clienteId cliente dono (para clientes, o próprio id); null se não houver
+     * @param racaId raça do pet; null se não houver
+     */
+    synchronized void colocar(long id, String nome, Long clienteId, Long racaId) {
+        remover(id);
+        if (nome == null) {
+            return;
+        }
+        Entrada entrada = new Entrada(id, nome, clienteId, racaId, palavras(nome));
+        entradas.put(id, entrada);
+        for (String palavra : entrada.palavras()) {
+            idsPorPalavra.computeIfAbsent(palavra, p -> new TreeSet<>()).add(id);
+        }
+        if (clienteId != null) {
+            idsPorCliente.computeIfAbsent(clienteId, c -> new HashSet<>()).add(id);
+        }
+    }
+
+    synchronized void remover(long id) {
+        Entrada entrada = entradas.remove(id);
+        if (entrada == null) {
+            return;
+        }
+        for (String palavra : entrada.palavras()) {
+            Set<Long> ids = idsPorPalavra.get(palavra);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsPorPalavra.remove(palavra);
+            }
+        }
+        if (entrada.clienteId() != null) {
+            Set<Long> ids = idsPorCliente.get(entrada.clienteId());
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                idsPorCliente.remove(entrada.clienteId());
+            }
+        }
+    }
+
+    /**
+     * Remove todas as entradas do cliente (ex.: pets de um cliente excluído)
+     */
+    synchronized void removerDoCliente(long clienteId) {
+        Set<Long> ids = idsPorCliente.get(clienteId);
+        if (ids != null) {
+            new ArrayList<>(ids).forEach(this::remover);
+        }
+    }
+
+    /**
+     * Remove todas as entradas da raça (ex.: pets de uma raça excluída). Varre o índice; só é
+     * usado na exclusão de raças, que é rara.
+     */
+    synchronized void removerDaRaca(long racaId) {
+        entradas.values().stream()
+                .filter(entrada -> entrada.racaId() != null && entrada.racaId() == racaId)
+                .map(Entrada::id)
+                .toList()
+                .forEach(this::remover);
+    }
+
+    /**
+     * Entradas em que cada palavra do termo é prefixo de alguma palavra do nome
+     * @param clienteId restringe às entradas do cliente; null para todas
+     */
+    synchronized List<Entrada> buscar(String termo, Long clienteId, int limite) {
+        String[] termos = palavras(termo);
+        if (termos.length == 0) {
+            return List.of();
+        }
+
+        if (clienteId != null) {
+            return idsPorCliente.getOrDefault(clienteId, Set.of()).stream()
+                    .map(entradas::get)
+                    .filter(entrada -> casa(entrada, termos))
+                    .sorted(Comparator.comparing((Entrada entrada) -> normalizar(entrada.nome())).thenComparing(Entrada::id))
+                    .limit(limite)
+                    .toList();
+        }
+
+        // A faixa do primeiro termo já vem em ordem alfabética; para no limite sem ler o resto
+        Set<Long> vistos = new HashSet<>();
+        List<Entrada> resultado = new ArrayList<>();
+        NavigableMap<String, Set<Long>> faixa = idsPorPalavra.subMap(termos[0], true, termos[0] + Character.MAX_VALUE, false);
+        for (Set<Long> ids : faixa.values()) {
+            for (Long id : ids) {
+                if (!vistos.add(id)) {
+                    continue;
+                }
+                Entrada entrada = entradas.get(id);
+                if (casa(entrada, termos)) {
+                    resultado.add(entrada);
+                    if (resultado.size() == limite) {
+                        return resultado;
+                    }
+                }
+            }
+        }
+        return resultado;
+    }
+
+    synchronized int size() {
+        return entradas.size();
+    }
+
+    private static boolean casa(Entrada entrada, String[] termos) {
+        for (String termo : termos) {
+            boolean encontrou = false;
+            for (String palavra : entrada.palavras()) {
+                if (palavra.startsWith(termo)) {
+                    encontrou = true;
+                    break;
+                }
+            }
+            if (!encontrou) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalizar(String texto) {
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    static String[] palavras(String texto) {
+        if (texto == null) {
+            return new String[0];
+        }
+        Set<String> palavras = new LinkedHashSet<>(Arrays.asList(SEPARADOR.split(normalizar(texto))));
+        palavras.remove("");
+        return palavras.toArray(String[]::new);
+    }
+}
@@ -1,18 +1,21 @@
 package com.petshop.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.petshop.model.Usuario;
 import com.petshop.model.PerfilUsuario;
 
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.security.MessageDigest;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Service
@@ -22,22 +25,73 @@ public class JwtService {
     private final long EXPIRATION_TIME = 86400000; // 24 horas em millisegundos
     private final String ISSUER = "petshop-api";
     
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    static final int MAX_VERIFIED_TOKENS = 10_000;
     
-    private Algorithm getAlgorithm() {
-        return Algorithm.HMAC256(SECRET_KEY);
+    /** 2^20 bits (128 KB): ~1% de falsos positivos com até ~100 mil tokens revogados */
+    private static final long REVOKED_FILTER_BITS = 1L << 20;
+    
+    private final Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY);
+    
+    private final JWTVerifier verifier = JWT.require(algorithm)
+            .withIssuer(ISSUER)
+            .build();
+    
+    /**
+     * Tokens invalidados (logout): resumo de 64 bits do token -> instante do "exp" em millis.
+     * Depois do "exp" o próprio verificador já rejeita o token, então a entrada é descartada
+     * pela limpeza periódica e o tamanho fica limitado aos logouts de uma janela de EXPIRATION_TIME.
+     */
+    private final Map<Long, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    
+    /**
+     * Filtro de Bloom na frente da blacklist: o caso comum (token não revogado)
+     * é respondido sem tocar no mapa. Reconstruído na limpeza periódica.
+     */
+    private volatile TokenBloomFilter revokedFilter = new TokenBloomFilter(REVOKED_FILTER_BITS);
+    
+    /**
+     * Tokens já verificados, indexados pelo resumo de 64 bits do token.
+     * Evita refazer HMAC e parse das claims a cada requisição com o mesmo token.
+     * Cada entrada guarda o SHA-256 completo do token verificado: um acerto só vale se o
+     * token apresentado tiver o mesmo hash, então uma colisão do resumo não dispensa a assinatura.
+     */
+    private final Map<Long, TokenVerificado> verifiedTokens = new ConcurrentHashMap<>();
+    
+    /**
+     * Principal imutável extraído de um token válido, válido até o "exp" do token
+     */
+    private record TokenVerificado(byte[] hash, String cpf, String nome, PerfilUsuario perfil, long expiresAtMillis) {
+        
+        boolean isToken(byte[] outroHash) {
+            return MessageDigest.isEqual(hash, outroHash);
+        }
+        
+        Usuario toUsuario() {
+            Usuario usuario = new Usuario();
+            usuario.setCpf(cpf);
+            usuario.setNome(nome);
+            usuario.setPerfil(perfil);
+            return usuario;
+        }
     }
     
     public Usuario validateToken(String token) {
-        try {
-            if (blacklistedTokens.contains(token)) {
-                throw new RuntimeException("Token foi invalidado (logout)");
+        byte[] hash = TokenDigest.sha256(token);
+        long digest = TokenDigest.of(hash);
+        if (isRevoked(digest)) {
+            throw new RuntimeException("Token foi invalidado (logout)");
+        }
+        
+        TokenVerificado cached = verifiedTokens.get(digest);
+        if (cached != null && cached.isToken(hash)) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return cached.toUsuario();
             }
-            
-            DecodedJWT decodedJWT = JWT.require(getAlgorithm())
-                        .withIssuer(ISSUER)
-                        .build()
-                        .verify(token);
+            verifiedTokens.remove(digest, cached);
+        }
+        
+        try {
+            DecodedJWT decodedJWT = verifier.verify(token);
             
             String cpf = decodedJWT.getClaim("cpf").asString();
             String nome = decodedJWT.getClaim("nome").asString();
@@ -45,16 +99,48 @@ public class JwtService {
             
             PerfilUsuario perfil = PerfilUsuario.valueOf(perfilStr);
             
-            Usuario usuario = new Usuario();
-            usuario.setCpf(cpf);
-            usuario.setNome(nome);
-            usuario.setPerfil(perfil);
+            Date expiresAt = decodedJWT.getExpiresAt();
+            TokenVerificado verificado = new TokenVerificado(hash, cpf, nome, perfil,
+                    expiresAt != null ? expiresAt.getTime() : Long.MIN_VALUE);
+            if (expiresAt != null) {
+                cacheVerifiedToken(digest, verificado);
+            }
             
-            return usuario;
+            return verificado.toUsuario();
         } catch (JWTVerificationException e) {
             throw new RuntimeException("Erro ao verificar token: " + e.getMessage(), e);
         }
     }
+    
+    private void cacheVerifiedToken(long digest, TokenVerificado verificado) {
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            removeExpiredVerifiedTokens();
+            if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+                return;
+            }
+        }
+        verifiedTokens.put(digest, verificado);
+    }
+    
+    private void removeExpiredVerifiedTokens() {
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(verificado -> verificado.expiresAtMillis() <= now);
+    }
+    
+    /**
+     * Instante de expiração do token; se não puder ser lido, assume o prazo máximo de emissão
+     */
+    long getExpiresAtMillis(String token) {
+        try {
+            Date expiresAt = JWT.decode(token).getExpiresAt();
+            if (expiresAt != null) {
+                return expiresAt.getTime();
+            }
+        } catch (JWTDecodeException e) {
+            // token malformado: mantém na blacklist pelo prazo máximo
+        }
+        return System.currentTimeMillis() + EXPIRATION_TIME;
+    }
 
     /**
      * Cria um JWT com payload customizado
@@ -67,7 +153,7 @@ public class JwtService {
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .withPayload(payload)
-                .sign(getAlgorithm());
+                .sign(algorithm);
     }
     
     /**
@@ -91,7 +177,23 @@ public class JwtService {
      * @param token Token a ser invalidado
      */
     public void invalidateToken(String token) {
-        blacklistedTokens.add(token);
+        revokeLocally(TokenDigest.of(token), getExpiresAtMillis(token));
+    }
+    
+    /**
+     * Registra na blacklist desta instância um token já identificado pelo resumo
+     * (ex.: revogação recebida de outra instância)
+     * @param digest resumo de 64 bits do token
+     * @param expiresAtMillis instante do "exp" do token
+     */
+    void revokeLocally(long digest, long expiresAtMillis) {
+        blacklistedTokens.merge(digest, expiresAtMillis, Math::max);
+        revokedFilter.add(digest);
+        verifiedTokens.remove(digest);
+    }
+    
+    private boolean isRevoked(long digest) {
+        return revokedFilter.mightContain(digest) && blacklistedTokens.containsKey(digest);
     }
     
     /**
@@ -100,14 +202,36 @@ public class JwtService {
      * @return true se o token está invalidado
      */
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        return isRevoked(TokenDigest.of(token));
     }
     
     /**
-     * Remove tokens expirados da blacklist (limpeza periódica)
-     * Em produção, implementar com scheduler ou usar Redis com TTL
+     * Remove tokens expirados da blacklist e do cache de tokens verificados (limpeza periódica)
      */
+    @Scheduled(fixedDelayString = "${jwt.cleanup-interval-ms:300000}")
     public void cleanupExpiredTokens() {
+        removeExpiredBlacklistedTokens(System.currentTimeMillis());
+        removeExpiredVerifiedTokens();
+    }
+    
+    void removeExpiredBlacklistedTokens(long now) {
+        blacklistedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuildRevokedFilter();
+    }
+    
+    /**
+     * Filtros de Bloom não suportam remoção; recria o filtro só com os tokens ainda revogados.
+     * A segunda passada cobre revogações feitas durante a troca do filtro.
+     */
+    private void rebuildRevokedFilter() {
+        TokenBloomFilter filter = new TokenBloomFilter(REVOKED_FILTER_BITS);
+        blacklistedTokens.keySet().forEach(filter::add);
+        revokedFilter = filter;
+        blacklistedTokens.keySet().forEach(filter::add);
+    }
+    
+    int blacklistSize() {
+        return blacklistedTokens.size();
     }
     
 }
@@ -0,0 +1,48 @@
+package com.petshop.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Leituras que preenchem caches em memória (vínculo CPF-cliente, dias do AtendimentoPeriodoCache,
+ * cache de segundo nível das raças). Com réplicas configuradas (RoteamentoDataSource) elas vão para
+ * o primário: uma réplica atrasada devolveria ao cache, logo depois da invalidação, o valor anterior
+ * à escrita, e ele ficaria lá até a validade do cache. Sem réplicas não muda nada.
+ * Roda em uma transação somente leitura nova, para não reaproveitar uma conexão já obtida de uma réplica.
+ */
+@Component
+public class LeituraNoPrimario {
+
+    private static final ThreadLocal<Boolean> ATIVA = new ThreadLocal<>();
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    public <T> T executar(Supplier<T> leitura) {
+        if (ativa()) {
+            return leitura.get();
+        }
+
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transacao.setReadOnly(true);
+        ATIVA.set(Boolean.TRUE);
+        try {
+            return transacao.execute(status -> leitura.get());
+        } finally {
+            ATIVA.remove();
+        }
+    }
+
+    /**
+     * Se a thread está dentro de executar (consultado pelo RoteamentoDataSource)
+     */
+    public static boolean ativa() {
+        return ATIVA.get() != null;
+    }
+}
@@ -0,0 +1,62 @@
+package com.petshop.service;
+
+import com.petshop.dto.RegiaoCacheResponse;
+import com.petshop.model.Raca;
+import com.petshop.repository.RacaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Cache de segundo nível das raças: entidades na região Raca.REGIAO_CACHE e resultados
+ * das consultas do RacaRepository em RacaRepository.REGIAO_CONSULTAS.
+ * O Hibernate já invalida as regiões nas escritas que passam pelo EntityManager; as escritas
+ * do RacaController também descartam as duas regiões, o que cobre alterações feitas por fora
+ * (SQL direto, cargas em lote).
+ */
+@Service
+public class RacaCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Descarta as raças e as consultas em cache. Dentro de uma transação, só depois do commit,
+     * para que nenhuma leitura concorrente devolva ao cache o valor anterior.
+     */
+    public void invalidar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descartar();
+                }
+            });
+        } else {
+            descartar();
+        }
+    }
+
+    public List<RegiaoCacheResponse> estatisticas() {
+        Statistics estatisticas = sessionFactory().getStatistics();
+        return List.of(
+                RegiaoCacheResponse.de(Raca.REGIAO_CACHE, estatisticas.getDomainDataRegionStatistics(Raca.REGIAO_CACHE)),
+                RegiaoCacheResponse.de(RacaRepository.REGIAO_CONSULTAS, estatisticas.getQueryRegionStatistics(RacaRepository.REGIAO_CONSULTAS)));
+    }
+
+    private void descartar() {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(Raca.class);
+        cache.evictQueryRegion(RacaRepository.REGIAO_CONSULTAS);
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,173 @@
+package com.petshop.service;
+
+import com.petshop.dto.FaturamentoResponse;
+import com.petshop.dto.RankingResponse;
+import com.petshop.dto.ResumoAtendimentosResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Relatórios de faturamento e atendimentos calculados no PostgreSQL (GROUP BY, date_trunc e
+ * funções de janela): só as linhas agregadas saem do banco. Os dias anteriores a hoje vêm do
+ * resumo diário (ResumoDiarioService), uma linha por dia, cliente e pet; de hoje em diante,
+ * dos próprios atendimentos, agregados no mesmo formato.
+ */
+@Service
+public class RelatorioAtendimentoService {
+
+    public enum Periodo {
+        DIA("day"), MES("month");
+
+        private final String unidade;
+
+        Periodo(String unidade) {
+            this.unidade = unidade;
+        }
+
+        /**
+         * Período pelo nome ("dia", "mes"), sem diferenciar maiúsculas; null se não existir
+         */
+        public static Periodo de(String nome) {
+            for (Periodo periodo : values()) {
+                if (periodo.name().equals(nome.toUpperCase(Locale.ROOT))) {
+                    return periodo;
+                }
+            }
+            return null;
+        }
+    }
+
+    public enum Agrupamento {
+        TOTAL("NULL::bigint", "NULL::varchar", ""),
+        CLIENTE("c.id", "c.nome", "JOIN cliente c ON c.id = b.id_cliente "),
+        RACA("r.id", "r.descricao", "JOIN pets p ON p.id = b.id_pet LEFT JOIN raca r ON r.id = p.id_raca ");
+
+        private final String id;
+        private final String nome;
+        private final String juncao;
+
+        Agrupamento(String id, String nome, String juncao) {
+            this.id = id;
+            this.nome = nome;
+            this.juncao = juncao;
+        }
+
+        /**
+         * Agrupamento pelo nome ("total", "cliente", "raca"), sem diferenciar maiúsculas; null se não existir
+         */
+        public static Agrupamento de(String nome) {
+            for (Agrupamento agrupamento : values()) {
+                if (agrupamento.name().equals(nome.toUpperCase(Locale.ROOT))) {
+                    return agrupamento;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Linhas no formato do resumo diário para o intervalo: fechadas (antes de :hoje) do resumo,
+     * abertas dos atendimentos. As consultas agregam sobre "base b".
+     */
+    private static final String BASE = "WITH base AS ("
+            + "SELECT data, id_cliente, id_pet, atendimentos, com_valor, total FROM atendimento_resumo_diario "
+            + "WHERE data BETWEEN :dataInicio AND :dataFim AND data < :hoje "
+            + "UNION ALL "
+            + "SELECT data, id_cliente, id_pet, count(*), count(valor), COALESCE(sum(valor), 0) FROM atendimento "
+            + "WHERE data BETWEEN :dataInicio AND :dataFim AND data >= :hoje "
+            + "GROUP BY data, id_cliente, id_pet) ";
+
+    private static final String MEDIA = "round(sum(b.total) / NULLIF(sum(b.com_valor), 0), 2)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Faturamento por dia ou mês no intervalo (datas inclusivas), em ordem de período e,
+     * dentro dele, do maior para o menor total
+     */
+    public List<FaturamentoResponse> faturamento(LocalDate dataInicio, LocalDate dataFim, Periodo periodo, Agrupamento agrupamento) {
+        String sql = BASE + "SELECT date_trunc('" + periodo.unidade + "', b.data)::date AS periodo, "
+                + agrupamento.id + " AS id, " + agrupamento.nome + " AS nome, "
+                + "sum(b.atendimentos) AS atendimentos, sum(b.total) AS total, " + MEDIA + " AS media "
+                + "FROM base b " + agrupamento.juncao
+                + "GROUP BY 1, 2, 3 "
+                + "ORDER BY 1, total DESC, 2";
+
+        return jdbcTemplate.query(sql, intervalo(dataInicio, dataFim), (rs, rowNum) -> new FaturamentoResponse(
+                rs.getObject("periodo", LocalDate.class),
+                rs.getObject("id", Long.class),
+                rs.getString("nome"),
+                rs.getLong("atendimentos"),
+                rs.getBigDecimal("total"),
+                rs.getBigDecimal("media")));
+    }
+
+    public ResumoAtendimentosResponse resumo(LocalDate dataInicio, LocalDate dataFim) {
+        String sql = BASE + "SELECT COALESCE(sum(b.atendimentos), 0) AS atendimentos, COALESCE(sum(b.total), 0) AS total, "
+                + MEDIA + " AS media, count(DISTINCT b.id_cliente) AS clientes, count(DISTINCT b.id_pet) AS pets "
+                + "FROM base b";
+
+        return jdbcTemplate.queryForObject(sql, intervalo(dataInicio, dataFim), (rs, rowNum) -> new ResumoAtendimentosResponse(
+                dataInicio,
+                dataFim,
+                rs.getLong("atendimentos"),
+                rs.getBigDecimal("total"),
+                rs.getBigDecimal("media"),
+                rs.getLong("clientes"),
+                rs.getLong("pets")));
+    }
+
+    /**
+     * Os limite clientes com maior faturamento no intervalo
+     */
+    public List<RankingResponse> rankingClientes(LocalDate dataInicio, LocalDate dataFim, int limite) {
+        return ranking("id_cliente", "cliente", dataInicio, dataFim, limite);
+    }
+
+    /**
+     * Os limite pets com maior faturamento no intervalo
+     */
+    public List<RankingResponse> rankingPets(LocalDate dataInicio, LocalDate dataFim, int limite) {
+        return ranking("id_pet", "pets", dataInicio, dataFim, limite);
+    }
+
+    /**
+     * Agrupa pela coluna, ordena e corta no banco; a participação usa a soma de todos os grupos
+     * (janela sobre o resultado agrupado, antes do LIMIT) e só as linhas da página buscam o nome
+     */
+    private List<RankingResponse> ranking(String coluna, String tabela, LocalDate dataInicio, LocalDate dataFim, int limite) {
+        String sql = BASE + "SELECT r.posicao, r.id, t.nome, r.atendimentos, r.total, r.participacao "
+                + "FROM (SELECT b." + coluna + " AS id, sum(b.atendimentos) AS atendimentos, sum(b.total) AS total, "
+                + "rank() OVER (ORDER BY sum(b.total) DESC) AS posicao, "
+                + "round(100 * sum(b.total) / NULLIF(sum(sum(b.total)) OVER (), 0), 2) AS participacao "
+                + "FROM base b "
+                + "GROUP BY b." + coluna + " "
+                + "ORDER BY total DESC, id "
+                + "LIMIT :limite) r "
+                + "JOIN " + tabela + " t ON t.id = r.id "
+                + "ORDER BY r.posicao, r.id";
+
+        MapSqlParameterSource parametros = intervalo(dataInicio, dataFim).addValue("limite", limite);
+        return jdbcTemplate.query(sql, parametros, (rs, rowNum) -> new RankingResponse(
+                rs.getLong("posicao"),
+                rs.getLong("id"),
+                rs.getString("nome"),
+                rs.getLong("atendimentos"),
+                rs.getBigDecimal("total"),
+                rs.getBigDecimal("participacao")));
+    }
+
+    private static MapSqlParameterSource intervalo(LocalDate dataInicio, LocalDate dataFim) {
+        return new MapSqlParameterSource()
+                .addValue("dataInicio", dataInicio)
+                .addValue("dataFim", dataFim)
+                .addValue("hoje", LocalDate.now());
+    }
+}
@@ -0,0 +1,253 @@
+package com.petshop.service;
+
+import com.petshop.dto.DivergenciaResumoResponse;
+import com.petshop.model.Atendimento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Manutenção do resumo diário dos atendimentos (tabela atendimento_resumo_diario, V10):
+ * uma linha por dia, cliente e pet com quantidade, quantidade com valor e soma dos valores.
+ * Cada gravação de atendimento soma ou subtrai a sua parte na mesma transação da gravação
+ * (INSERT ... ON CONFLICT DO UPDATE, atômico por linha), então o resumo acompanha os dados
+ * sem recalcular nada. reconstruir refaz um intervalo a partir dos atendimentos e a verificação
+ * agendada compara os dois nos últimos dias, reconstruindo os dias divergentes.
+ * Como toda gravação de atendimento passa por aqui, os dias afetados também são descartados
+ * do AtendimentoPeriodoCache.
+ */
+@Service
+public class ResumoDiarioService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumoDiarioService.class);
+
+    static final int MAXIMO_DIVERGENCIAS = 1000;
+
+    private static final String SOMAR = "INSERT INTO atendimento_resumo_diario AS r "
+            + "(data, id_cliente, id_pet, atendimentos, com_valor, total) "
+            + "VALUES (:data, :clienteId, :petId, :atendimentos, :comValor, :total) "
+            + "ON CONFLICT (data, id_cliente, id_pet) DO UPDATE SET "
+            + "atendimentos = r.atendimentos + EXCLUDED.atendimentos, "
+            + "com_valor = r.com_valor + EXCLUDED.com_valor, "
+            + "total = r.total + EXCLUDED.total";
+
+    /**
+     * Agregação dos atendimentos no formato do resumo
+     */
+    private static final String AGREGAR = "SELECT data, id_cliente, id_pet, count(*) AS atendimentos, "
+            + "count(valor) AS com_valor, COALESCE(sum(valor), 0) AS total "
+            + "FROM atendimento WHERE data BETWEEN :dataInicio AND :dataFim "
+            + "GROUP BY data, id_cliente, id_pet";
+
+    /**
+     * Dados de um atendimento que entram no resumo; guardados antes de uma alteração ou exclusão
+     */
+    public record Lancamento(LocalDate data, Long clienteId, Long petId, BigDecimal valor) {
+        public static Lancamento de(Atendimento atendimento) {
+            return new Lancamento(atendimento.getData(), atendimento.getCliente().getId(),
+                    atendimento.getPet().getId(), atendimento.getValor());
+        }
+    }
+
+    /**
+     * Trava (advisory lock) da verificação agendada, liberada no fim da transação: com várias
+     * instâncias, só a que conseguir a trava verifica e reconstrói; as outras pulam a execução
+     */
+    static final String TRAVA_VERIFICACAO = "SELECT pg_try_advisory_xact_lock(hashtext('atendimento_resumo_diario.verificacao'))";
+
+    private record Chave(LocalDate data, Long clienteId, Long petId) {}
+
+    private static final Comparator<Chave> ORDEM = Comparator.comparing(Chave::data)
+            .thenComparing(Chave::clienteId)
+            .thenComparing(Chave::petId);
+
+    /**
+     * Variação acumulada de uma linha do resumo
+     */
+    private static class Delta {
+        long atendimentos;
+        long comValor;
+        BigDecimal total = BigDecimal.ZERO;
+
+        void aplicar(Lancamento lancamento, int sinal) {
+            atendimentos += sinal;
+            if (lancamento.valor() != null) {
+                comValor += sinal;
+                total = total.add(sinal > 0 ? lancamento.valor() : lancamento.valor().negate());
+            }
+        }
+
+        boolean nulo() {
+            return atendimentos == 0 && comValor == 0 && total.signum() == 0;
+        }
+    }
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
+    @Value("${relatorios.resumo-diario.dias-verificados:35}")
+    private int diasVerificados;
+
+    /**
+     * Soma atendimentos recém-gravados (já com data, isto é, depois do save)
+     */
+    public void incluir(Collection<Atendimento> atendimentos) {
+        List<Lancamento> lancamentos = atendimentos.stream().map(Lancamento::de).toList();
+        atendimentoPeriodoCache.invalidar(lancamentos);
+        Map<Chave, Delta> deltas = new TreeMap<>(ORDEM);
+        lancamentos.forEach(lancamento -> acumular(deltas, lancamento, 1));
+        gravar(deltas);
+    }
+
+    public void excluir(Lancamento lancamento) {
+        atendimentoPeriodoCache.invalidar(List.of(lancamento));
+        Map<Chave, Delta> deltas = new TreeMap<>(ORDEM);
+        acumular(deltas, lancamento, -1);
+        gravar(deltas);
+    }
+
+    /**
+     * Troca a parte de um atendimento alterado: subtrai a anterior e soma a nova
+     */
+    public void alterar(Lancamento anterior, Atendimento atual) {
+        Lancamento novo = Lancamento.de(atual);
+        // Mesmo sem mudar o resumo (só a descrição, por exemplo), o dia em cache mudou
+        atendimentoPeriodoCache.invalidar(List.of(anterior, novo));
+        Map<Chave, Delta> deltas = new TreeMap<>(ORDEM);
+        acumular(deltas, anterior, -1);
+        acumular(deltas, novo, 1);
+        gravar(deltas);
+    }
+
+    private static void acumular(Map<Chave, Delta> deltas, Lancamento lancamento, int sinal) {
+        deltas.computeIfAbsent(new Chave(lancamento.data(), lancamento.clienteId(), lancamento.petId()), chave -> new Delta())
+                .aplicar(lancamento, sinal);
+    }
+
+    /**
+     * Um UPSERT por linha afetada, em lote JDBC e em ordem de chave (transações concorrentes
+     * travam as linhas na mesma ordem); linhas que chegam a zero atendimentos são apagadas
+     */
+    private void gravar(Map<Chave, Delta> deltas) {
+        deltas.values().removeIf(Delta::nulo);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        SqlParameterSource[] linhas = deltas.entrySet().stream()
+                .map(entrada -> new MapSqlParameterSource()
+                        .addValue("data", entrada.getKey().data())
+                        .addValue("clienteId", entrada.getKey().clienteId())
+                        .addValue("petId", entrada.getKey().petId())
+                        .addValue("atendimentos", entrada.getValue().atendimentos)
+                        .addValue("comValor", entrada.getValue().comValor)
+                        .addValue("total", entrada.getValue().total))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(SOMAR, linhas);
+
+        if (deltas.values().stream().anyMatch(delta -> delta.atendimentos < 0)) {
+            List<LocalDate> datas = deltas.keySet().stream().map(Chave::data).distinct().toList();
+            jdbcTemplate.update("DELETE FROM atendimento_resumo_diario WHERE data IN (:datas) AND atendimentos = 0",
+                    new MapSqlParameterSource("datas", datas));
+        }
+    }
+
+    /**
+     * Refaz o resumo do intervalo a partir dos atendimentos, em uma transação
+     * @return linhas do resumo gravadas
+     */
+    public int reconstruir(LocalDate dataInicio, LocalDate dataFim) {
+        MapSqlParameterSource intervalo = intervalo(dataInicio, dataFim);
+        Integer linhas = transactionTemplate.execute(status -> {
+            jdbcTemplate.update("DELETE FROM atendimento_resumo_diario WHERE data BETWEEN :dataInicio AND :dataFim", intervalo);
+            return jdbcTemplate.update("INSERT INTO atendimento_resumo_diario "
+                    + "(data, id_cliente, id_pet, atendimentos, com_valor, total) " + AGREGAR, intervalo);
+        });
+        logger.info("Resumo diário reconstruído de {} a {}: {} linhas", dataInicio, dataFim, linhas);
+        return linhas != null ? linhas : 0;
+    }
+
+    /**
+     * Linhas em que o resumo difere dos atendimentos (no máximo MAXIMO_DIVERGENCIAS)
+     */
+    public List<DivergenciaResumoResponse> verificar(LocalDate dataInicio, LocalDate dataFim) {
+        String sql = "SELECT COALESCE(e.data, r.data) AS data, COALESCE(e.id_cliente, r.id_cliente) AS id_cliente, "
+                + "COALESCE(e.id_pet, r.id_pet) AS id_pet, "
+                + "COALESCE(e.atendimentos, 0) AS atendimentos_esperados, COALESCE(r.atendimentos, 0) AS atendimentos_registrados, "
+                + "COALESCE(e.total, 0) AS total_esperado, COALESCE(r.total, 0) AS total_registrado "
+                + "FROM (" + AGREGAR + ") e "
+                + "FULL JOIN (SELECT * FROM atendimento_resumo_diario WHERE data BETWEEN :dataInicio AND :dataFim) r "
+                + "ON r.data = e.data AND r.id_cliente = e.id_cliente AND r.id_pet = e.id_pet "
+                + "WHERE (e.atendimentos, e.com_valor, e.total) IS DISTINCT FROM (r.atendimentos, r.com_valor, r.total) "
+                + "ORDER BY 1, 2, 3 "
+                + "LIMIT :maximo";
+
+        MapSqlParameterSource parametros = intervalo(dataInicio, dataFim).addValue("maximo", MAXIMO_DIVERGENCIAS);
+        return jdbcTemplate.query(sql, parametros, (rs, rowNum) -> new DivergenciaResumoResponse(
+                rs.getObject("data", LocalDate.class),
+                rs.getLong("id_cliente"),
+                rs.getLong("id_pet"),
+                rs.getLong("atendimentos_esperados"),
+                rs.getLong("atendimentos_registrados"),
+                rs.getBigDecimal("total_esperado"),
+                rs.getBigDecimal("total_registrado")));
+    }
+
+    /**
+     * Verificação diária dos últimos dias (gravações fora da aplicação, falhas antigas):
+     * os dias com divergência são reconstruídos. Roda em uma transação com TRAVA_VERIFICACAO, da
+     * qual as reconstruções participam; uma instância que agende depois de a primeira terminar
+     * não encontra divergências.
+     */
+    @Scheduled(cron = "${relatorios.resumo-diario.verificacao-cron:0 30 3 * * *}")
+    public void verificarRecentes() {
+        transactionTemplate.execute(status -> {
+            Boolean travou = jdbcTemplate.queryForObject(TRAVA_VERIFICACAO, new MapSqlParameterSource(), Boolean.class);
+            if (!Boolean.TRUE.equals(travou)) {
+                logger.info("Verificação do resumo diário em andamento em outra instância; pulando");
+                return null;
+            }
+
+            LocalDate hoje = LocalDate.now();
+            List<DivergenciaResumoResponse> divergencias = verificar(hoje.minusDays(diasVerificados), hoje);
+            if (divergencias.isEmpty()) {
+                return null;
+            }
+
+            TreeSet<LocalDate> dias = new TreeSet<>();
+            divergencias.stream().map(DivergenciaResumoResponse::getData).filter(Objects::nonNull).forEach(dias::add);
+            logger.warn("Resumo diário divergente em {} linhas ({} dias); reconstruindo", divergencias.size(), dias.size());
+            dias.forEach(dia -> reconstruir(dia, dia));
+            return null;
+        });
+    }
+
+    private static MapSqlParameterSource intervalo(LocalDate dataInicio, LocalDate dataFim) {
+        return new MapSqlParameterSource()
+                .addValue("dataInicio", dataInicio)
+                .addValue("dataFim", dataFim);
+    }
+}
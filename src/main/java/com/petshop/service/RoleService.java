@@ -1,11 +1,7 @@
 package com.petshop.service;
 
-import com.petshop.model.Atendimento;
-import com.petshop.model.Cliente;
-import com.petshop.model.Pets;
 import com.petshop.model.Usuario;
 import com.petshop.repository.AtendimentoRepository;
-import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
@@ -15,15 +11,15 @@ import org.springframework.stereotype.Service;
 @Service
 public class RoleService {
     
-    @Autowired
-    private ClienteRepository clienteRepository;
-    
     @Autowired
     private PetsRepository petsRepository;
     
     @Autowired
     private AtendimentoRepository atendimentoRepository;
     
+    @Autowired
+    private ClienteOwnershipCache clienteOwnershipCache;
+    
     /**
      * Verifica se o usuário atual é Admin
      */
@@ -62,10 +58,18 @@ public class RoleService {
         return currentUser != null ? currentUser.getCpf() : null;
     }
     
+    /**
+     * Obtém o id do cliente vinculado ao usuário atual (null se não houver)
+     */
+    public Long getCurrentClienteId() {
+        return clienteOwnershipCache.getClienteId(getCurrentUserCpf());
+    }
+    
     /**
      * Verifica se o usuário pode acessar um cliente específico
      * Admin pode acessar qualquer cliente
      * Cliente só pode acessar seus próprios dados
+     * (resolvido pelo ClienteOwnershipCache, normalmente sem ir ao banco)
      */
     public boolean canAccessCliente(Long clienteId) {
         if (isAdmin()) {
@@ -77,12 +81,8 @@ public class RoleService {
             return false;
         }
         
-        Cliente cliente = clienteRepository.findById(clienteId).orElse(null);
-        if (cliente == null) {
-            return false;
-        }
-        
-        return cliente.getCpf().equals(currentUserCpf);
+        Long currentClienteId = clienteOwnershipCache.getClienteId(currentUserCpf);
+        return currentClienteId != null && currentClienteId.equals(clienteId);
     }
     
     /**
@@ -100,12 +100,7 @@ public class RoleService {
             return false;
         }
         
-        Pets pet = petsRepository.findById(petId).orElse(null);
-        if (pet == null) {
-            return false;
-        }
-        
-        return pet.getCliente().getCpf().equals(currentUserCpf);
+        return petsRepository.existsByIdAndClienteCpf(petId, currentUserCpf);
     }
     
     /**
@@ -141,8 +136,8 @@ public class RoleService {
         }
         
         if (petId == null && clienteId != null) {
-            Cliente cliente = clienteRepository.findByCpf(currentUserCpf).orElse(null);
-            return cliente != null && cliente.getId().equals(clienteId);
+            Long currentClienteId = clienteOwnershipCache.getClienteId(currentUserCpf);
+            return currentClienteId != null && currentClienteId.equals(clienteId);
         }
         
         if (petId != null) {
@@ -177,6 +172,7 @@ public class RoleService {
      * Verifica se o usuário pode acessar um atendimento específico
      * Admin pode acessar qualquer atendimento
      * Cliente só pode acessar atendimentos de seus próprios pets
+     * (uma única consulta de existência, sem carregar atendimento, pet ou cliente)
      */
     public boolean canAccessAtendimento(Long atendimentoId) {
         if (isAdmin()) {
@@ -188,12 +184,7 @@ public class RoleService {
             return false;
         }
         
-        Atendimento atendimento = atendimentoRepository.findById(atendimentoId).orElse(null);
-        if (atendimento == null) {
-            return false;
-        }
-        
-        return atendimento.getPet().getCliente().getCpf().equals(currentUserCpf);
+        return atendimentoRepository.existsByIdAndPetClienteCpf(atendimentoId, currentUserCpf);
     }
     
     /**
@@ -212,8 +203,7 @@ public class RoleService {
         }
         
         if (atendimentoId == null && petId != null) {
-            Pets pet = petsRepository.findById(petId).orElse(null);
-            return pet != null && pet.getCliente().getCpf().equals(currentUserCpf);
+            return petsRepository.existsByIdAndClienteCpf(petId, currentUserCpf);
         }
         
         if (atendimentoId != null) {
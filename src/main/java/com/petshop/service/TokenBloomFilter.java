@@ -0,0 +1,51 @@
+package com.petshop.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre resumos de 64 bits de tokens.
+ * Responde "certamente ausente" sem consultar o conjunto exato; falsos positivos
+ * apenas levam à consulta do conjunto exato. Seguro para uso concorrente.
+ */
+final class TokenBloomFilter {
+    
+    private static final int HASHES = 5;
+    
+    private final AtomicLongArray bits;
+    private final long numBits;
+    
+    /**
+     * @param numBits quantidade de bits, arredondada para múltiplo de 64
+     */
+    TokenBloomFilter(long numBits) {
+        int words = (int) Math.max(1, (numBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.numBits = (long) words * 64;
+    }
+    
+    void add(long digest) {
+        long h1 = digest;
+        long h2 = Long.rotateLeft(digest, 32) * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+    
+    boolean mightContain(long digest) {
+        long h1 = digest;
+        long h2 = Long.rotateLeft(digest, 32) * 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
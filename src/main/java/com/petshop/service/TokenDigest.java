@@ -0,0 +1,46 @@
+package com.petshop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Resumo compacto de 64 bits de um token (primeiros 8 bytes do SHA-256).
+ * Usado como chave dos caches de tokens para não guardar a string inteira.
+ * Colisões de 64 bits são possíveis: a chave basta para a blacklist (no pior caso um falso
+ * "revogado"), mas uma decisão de aceitar o token precisa comparar o hash completo.
+ */
+final class TokenDigest {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    });
+
+    private TokenDigest() {}
+
+    static long of(String token) {
+        return of(sha256(token));
+    }
+
+    /**
+     * SHA-256 completo (32 bytes) do token
+     */
+    static byte[] sha256(String token) {
+        return SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Resumo de 64 bits a partir de um hash já calculado por sha256
+     */
+    static long of(byte[] hash) {
+        long digest = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            digest = (digest << 8) | (hash[i] & 0xFF);
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,156 @@
+package com.petshop.service;
+
+import com.petshop.model.TokenRevogado;
+import com.petshop.repository.TokenRevogadoRepository;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+
+/**
+ * Revogação de tokens compartilhada entre as instâncias da API.
+ * O logout grava o token na tabela token_revogado e avisa as demais instâncias
+ * via NOTIFY; cada instância mantém a blacklist local do JwtService (filtro de
+ * Bloom + conjunto exato) atualizada escutando o canal com LISTEN.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    static final String CANAL = "token_revogado";
+    private static final int ESPERA_NOTIFICACAO_MS = 5000;
+    private static final long ESPERA_RECONEXAO_MS = 5000;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private TokenRevogadoRepository tokenRevogadoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private volatile boolean executando;
+    private Thread listener;
+
+    /**
+     * Revoga o token nesta instância, persiste a revogação e notifica as demais.
+     * O NOTIFY só é entregue no commit, junto com a linha gravada.
+     * @param token Token a ser revogado
+     */
+    @Transactional
+    public void revogar(String token) {
+        long digest = TokenDigest.of(token);
+        long expiraEm = jwtService.getExpiresAtMillis(token);
+
+        jwtService.revokeLocally(digest, expiraEm);
+        tokenRevogadoRepository.save(new TokenRevogado(digest, Instant.ofEpochMilli(expiraEm)));
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CANAL, digest + ":" + expiraEm);
+    }
+
+    /**
+     * Carrega as revogações ainda válidas do banco para a blacklist local
+     */
+    public void carregarRevogacoes() {
+        for (TokenRevogado revogado : tokenRevogadoRepository.findByExpiraEmAfter(Instant.now())) {
+            jwtService.revokeLocally(revogado.getDigest(), revogado.getExpiraEm().toEpochMilli());
+        }
+    }
+
+    /**
+     * Remove do banco as revogações de tokens já expirados (limpeza periódica)
+     */
+    @Scheduled(fixedDelayString = "${jwt.cleanup-interval-ms:300000}")
+    @Transactional
+    public void removerExpirados() {
+        tokenRevogadoRepository.deleteExpirados(Instant.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciarListener() {
+        executando = true;
+        listener = new Thread(this::escutar, "token-revocation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void pararListener() {
+        executando = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Mantém uma conexão dedicada em LISTEN. A cada (re)conexão recarrega as revogações
+     * do banco, cobrindo notificações perdidas enquanto a conexão esteve fora.
+     */
+    private void escutar() {
+        while (executando) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CANAL);
+                }
+                carregarRevogacoes();
+
+                while (executando) {
+                    PGNotification[] notificacoes = pgConnection.getNotifications(ESPERA_NOTIFICACAO_MS);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            processarNotificacao(notificacao.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!executando) {
+                    return;
+                }
+                logger.warn("Conexão de revogação de tokens perdida, reconectando: {}", e.getMessage());
+                try {
+                    Thread.sleep(ESPERA_RECONEXAO_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica uma notificação no formato "digest:expiraEmMillis"
+     */
+    void processarNotificacao(String payload) {
+        int separador = payload.indexOf(':');
+        if (separador <= 0) {
+            logger.warn("Notificação de revogação inválida: {}", payload);
+            return;
+        }
+        try {
+            long digest = Long.parseLong(payload.substring(0, separador));
+            long expiraEm = Long.parseLong(payload.substring(separador + 1));
+            jwtService.revokeLocally(digest, expiraEm);
+        } catch (NumberFormatException e) {
+            logger.warn("Notificação de revogação inválida: {}", payload);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- Resumo diário dos atendimentos por cliente e pet (ResumoDiarioService), lido pelos relatórios.
+-- Mantido pela aplicação a cada gravação de atendimento; a raça sai do pet na consulta, então trocar
+-- a raça de um pet não deixa o resumo desatualizado. com_valor conta os atendimentos com valor
+-- (a média é total / com_valor). Clientes e pets excluídos levam junto as linhas do resumo.
+
+CREATE TABLE atendimento_resumo_diario (
+    data         DATE           NOT NULL,
+    id_cliente   BIGINT         NOT NULL,
+    id_pet       BIGINT         NOT NULL,
+    atendimentos BIGINT         NOT NULL,
+    com_valor    BIGINT         NOT NULL,
+    total        NUMERIC(14,2)  NOT NULL,
+    CONSTRAINT atendimento_resumo_diario_pkey PRIMARY KEY (data, id_cliente, id_pet),
+    CONSTRAINT fk_resumo_diario_cliente FOREIGN KEY (id_cliente) REFERENCES cliente (id) ON DELETE CASCADE,
+    CONSTRAINT fk_resumo_diario_pet FOREIGN KEY (id_pet) REFERENCES pets (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_resumo_diario_cliente ON atendimento_resumo_diario (id_cliente, data);
+CREATE INDEX idx_resumo_diario_pet ON atendimento_resumo_diario (id_pet, data);
+
+-- Carga inicial com os atendimentos existentes
+INSERT INTO atendimento_resumo_diario (data, id_cliente, id_pet, atendimentos, com_valor, total)
+SELECT data, id_cliente, id_pet, count(*), count(valor), COALESCE(sum(valor), 0)
+FROM atendimento
+GROUP BY data, id_cliente, id_pet;
@@ -0,0 +1,88 @@
+-- Esquema inicial, idêntico ao estrutura.sql (tipos, nulidade, sequências e nomes das restrições),
+-- para que um banco criado pelas migrações e um banco existente marcado nesta versão por
+-- spring.flyway.baseline-on-migrate recebam as migrações seguintes a partir do mesmo esquema.
+-- Diferenças com as entidades (descricao TEXT, valor opcional) ficam como no banco existente.
+
+CREATE TABLE usuario (
+    cpf    VARCHAR(14)  NOT NULL,
+    nome   VARCHAR(100) NOT NULL,
+    perfil VARCHAR(20)  NOT NULL,
+    senha  VARCHAR(255) NOT NULL,
+    CONSTRAINT usuario_pkey PRIMARY KEY (cpf),
+    CONSTRAINT usuario_perfil_check CHECK (perfil IN ('CLIENTE', 'ADMIN'))
+);
+
+CREATE SEQUENCE cliente_id_seq AS INTEGER;
+CREATE TABLE cliente (
+    id            BIGINT       NOT NULL DEFAULT nextval('cliente_id_seq'),
+    nome          VARCHAR(100) NOT NULL,
+    cpf           VARCHAR(14),
+    data_cadastro DATE         NOT NULL,
+    foto          VARCHAR(255),
+    CONSTRAINT cliente_pkey PRIMARY KEY (id),
+    CONSTRAINT fkqi38g2f9b2vsu5325necixv54 FOREIGN KEY (cpf) REFERENCES usuario (cpf)
+);
+ALTER SEQUENCE cliente_id_seq OWNED BY cliente.id;
+
+CREATE SEQUENCE raca_id_seq AS INTEGER;
+CREATE TABLE raca (
+    id        BIGINT       NOT NULL DEFAULT nextval('raca_id_seq'),
+    descricao VARCHAR(100) NOT NULL,
+    CONSTRAINT raca_pkey PRIMARY KEY (id)
+);
+ALTER SEQUENCE raca_id_seq OWNED BY raca.id;
+
+CREATE SEQUENCE pets_id_seq AS INTEGER;
+CREATE TABLE pets (
+    id              BIGINT       NOT NULL DEFAULT nextval('pets_id_seq'),
+    id_cliente      BIGINT       NOT NULL,
+    id_raca         BIGINT,
+    data_nascimento DATE,
+    nome            VARCHAR(100) NOT NULL,
+    foto            VARCHAR(255),
+    CONSTRAINT pets_pkey PRIMARY KEY (id),
+    CONSTRAINT fkdjbyrp6ck5iopndcmvmglr2ul FOREIGN KEY (id_cliente) REFERENCES cliente (id),
+    CONSTRAINT pets_id_raca_fkey FOREIGN KEY (id_raca) REFERENCES raca (id) ON DELETE SET NULL
+);
+ALTER SEQUENCE pets_id_seq OWNED BY pets.id;
+
+CREATE SEQUENCE atendimento_id_seq AS INTEGER;
+CREATE TABLE atendimento (
+    id         BIGINT        NOT NULL DEFAULT nextval('atendimento_id_seq'),
+    id_pet     BIGINT        NOT NULL,
+    id_cliente BIGINT        NOT NULL,
+    descricao  VARCHAR(255)  NOT NULL,
+    valor      NUMERIC(10,2) NOT NULL,
+    data       DATE          NOT NULL,
+    CONSTRAINT atendimento_pkey PRIMARY KEY (id),
+    CONSTRAINT fk62jakbs7n4b62qbkobfbruytq FOREIGN KEY (id_pet) REFERENCES pets (id),
+    CONSTRAINT fk_cliente FOREIGN KEY (id_cliente) REFERENCES cliente (id) ON UPDATE CASCADE ON DELETE CASCADE
+);
+ALTER SEQUENCE atendimento_id_seq OWNED BY atendimento.id;
+
+CREATE SEQUENCE contato_id_seq AS INTEGER;
+CREATE TABLE contato (
+    id         BIGINT       NOT NULL DEFAULT nextval('contato_id_seq'),
+    id_cliente BIGINT       NOT NULL,
+    tag        VARCHAR(50),
+    tipo       VARCHAR(20)  NOT NULL,
+    valor      VARCHAR(100) NOT NULL,
+    CONSTRAINT contato_pkey PRIMARY KEY (id),
+    CONSTRAINT contato_tipo_check CHECK (tipo IN ('email', 'telefone')),
+    CONSTRAINT fk9g5kqiu1sb4yxs81ifvx4bgwp FOREIGN KEY (id_cliente) REFERENCES cliente (id)
+);
+ALTER SEQUENCE contato_id_seq OWNED BY contato.id;
+
+CREATE SEQUENCE endereco_id_seq AS INTEGER;
+CREATE TABLE endereco (
+    id          BIGINT       NOT NULL DEFAULT nextval('endereco_id_seq'),
+    id_cliente  BIGINT       NOT NULL,
+    logradouro  VARCHAR(150) NOT NULL,
+    cidade      VARCHAR(100) NOT NULL,
+    bairro      VARCHAR(100),
+    complemento VARCHAR(100),
+    tag         VARCHAR(50),
+    CONSTRAINT endereco_pkey PRIMARY KEY (id),
+    CONSTRAINT fke4y3uftwnlua4wuwisldhnjl4 FOREIGN KEY (id_cliente) REFERENCES cliente (id)
+);
+ALTER SEQUENCE endereco_id_seq OWNED BY endereco.id;
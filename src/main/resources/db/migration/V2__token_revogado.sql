@@ -0,0 +1,10 @@
+-- Revogações de token compartilhadas entre instâncias (TokenRevocationService).
+-- IF NOT EXISTS: em bancos antigos a tabela pode ter sido criada pelo ddl-auto.
+
+CREATE TABLE IF NOT EXISTS token_revogado (
+    digest    BIGINT                   NOT NULL,
+    expira_em TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT token_revogado_pkey PRIMARY KEY (digest)
+);
+
+CREATE INDEX IF NOT EXISTS idx_token_revogado_expira_em ON token_revogado (expira_em);
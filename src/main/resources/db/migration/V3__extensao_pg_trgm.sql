@@ -0,0 +1,2 @@
+-- Trigramas para buscas por substring (LIKE/ILIKE '%x%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
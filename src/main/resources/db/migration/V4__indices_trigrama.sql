@@ -0,0 +1,23 @@
+-- Índices GIN de trigramas para todas as buscas por substring.
+-- gin_trgm_ops atende LIKE e ILIKE com curinga no início; padrões com menos
+-- de 3 caracteres ainda caem em varredura.
+-- CONCURRENTLY evita bloquear escritas em tabelas grandes; o Flyway executa
+-- esta migração fora de transação.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cliente_nome_trgm ON cliente USING gin (nome gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pets_nome_trgm ON pets USING gin (nome gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_contato_valor_trgm ON contato USING gin (valor gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_contato_tag_trgm ON contato USING gin (tag gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endereco_cidade_trgm ON endereco USING gin (cidade gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endereco_bairro_trgm ON endereco USING gin (bairro gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endereco_logradouro_trgm ON endereco USING gin (logradouro gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endereco_tag_trgm ON endereco USING gin (tag gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_raca_descricao_trgm ON raca USING gin (descricao gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_atendimento_descricao_trgm ON atendimento USING gin (descricao gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_usuario_nome_trgm ON usuario USING gin (nome gin_trgm_ops);
@@ -0,0 +1,20 @@
+-- Índices das chaves estrangeiras e da data do atendimento.
+-- O PostgreSQL não indexa FKs automaticamente; sem estes índices cada busca por
+-- cliente, pet ou período (e cada DELETE em cascata de cliente) varre a tabela inteira.
+--
+-- atendimento: (id_cliente, data) e (id_pet, data) atendem o filtro por dono/pet
+-- sozinho e combinado com data exata ou intervalo; (data) atende o filtro só por período.
+-- pets/contato/endereco: (id_cliente, id) atende o filtro por cliente já na ordem
+-- da paginação por chave (WHERE id_cliente = ? AND id > ? ORDER BY id).
+-- CONCURRENTLY evita bloquear escritas; o Flyway executa esta migração fora de transação.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_atendimento_cliente_data ON atendimento (id_cliente, data);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_atendimento_pet_data ON atendimento (id_pet, data);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_atendimento_data ON atendimento (data);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pets_cliente ON pets (id_cliente, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_pets_raca ON pets (id_raca);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_contato_cliente ON contato (id_cliente, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_endereco_cliente ON endereco (id_cliente, id);
@@ -0,0 +1,8 @@
+-- Busca textual (full-text) sobre a descrição dos atendimentos.
+-- Coluna tsvector gerada com o dicionário 'portuguese' (stemming e stopwords), mantida
+-- pelo próprio PostgreSQL a cada INSERT/UPDATE; a aplicação não a mapeia.
+-- Adicionar coluna STORED reescreve a tabela: em bases grandes, rodar em janela de manutenção.
+
+ALTER TABLE atendimento
+    ADD COLUMN IF NOT EXISTS descricao_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('portuguese', descricao)) STORED;
@@ -0,0 +1,4 @@
+-- Índice GIN da busca textual. Em migração separada porque CONCURRENTLY
+-- não pode rodar na mesma transação do ALTER TABLE da V6.
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_atendimento_descricao_fts ON atendimento USING gin (descricao_tsv);
@@ -0,0 +1,11 @@
+-- Versão de cada registro para controle de concorrência otimista (@Version) e ETags.
+-- O Hibernate incrementa a versão a cada UPDATE e inclui "AND versao = ?" no WHERE:
+-- uma escrita baseada em uma leitura antiga não sobrescreve a alteração de outro cliente.
+-- ADD COLUMN com DEFAULT constante não reescreve a tabela (PostgreSQL 11+).
+
+ALTER TABLE cliente ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE raca ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE pets ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE atendimento ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE contato ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE endereco ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,24 @@
+-- Ids por sequência com o otimizador "pooled" do Hibernate (@SequenceGenerator, allocationSize = 50).
+-- As sequências são as do esquema inicial (V1): cada nextval reserva um bloco de 50 ids,
+-- e o Hibernate atribui os ids sem ir ao banco a cada INSERT, o que permite agrupá-los em lotes JDBC.
+-- Com o pooled, o valor devolvido é o fim do bloco (ids de valor - 49 até valor): o próximo nextval
+-- precisa ser pelo menos o maior id + 50. O DEFAULT das colunas continua valendo para INSERTs
+-- feitos fora da aplicação; cada um consome um bloco inteiro, sem colidir com os do Hibernate.
+
+ALTER SEQUENCE cliente_id_seq INCREMENT BY 50;
+SELECT setval('cliente_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM cliente;
+
+ALTER SEQUENCE raca_id_seq INCREMENT BY 50;
+SELECT setval('raca_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM raca;
+
+ALTER SEQUENCE pets_id_seq INCREMENT BY 50;
+SELECT setval('pets_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM pets;
+
+ALTER SEQUENCE atendimento_id_seq INCREMENT BY 50;
+SELECT setval('atendimento_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM atendimento;
+
+ALTER SEQUENCE contato_id_seq INCREMENT BY 50;
+SELECT setval('contato_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM contato;
+
+ALTER SEQUENCE endereco_id_seq INCREMENT BY 50;
+SELECT setval('endereco_id_seq', COALESCE(MAX(id), 0) + 50, false) FROM endereco;
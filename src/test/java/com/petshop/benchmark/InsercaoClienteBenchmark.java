@@ -0,0 +1,118 @@
+package com.petshop.benchmark;
+
+import com.petshop.PetshopApiApplication;
+import com.petshop.model.Cliente;
+import com.petshop.model.Contato;
+import com.petshop.model.Pets;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção de um cliente com muitos pets e contatos (cascade a partir de Cliente), com e sem
+ * lotes JDBC. Os ids vêm das sequências em blocos (allocationSize = 50): com IDENTITY cada
+ * INSERT precisava ir sozinho ao banco para devolver o id, o mesmo que tamanhoLote = 1.
+ *
+ * Usa o perfil de teste (esquema criado e descartado pelo Hibernate) no banco de
+ * application-test.properties, ou no informado em SPRING_DATASOURCE_URL; nunca no de produção.
+ *
+ * Execução:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.petshop.benchmark.InsercaoClienteBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsercaoClienteBenchmark {
+
+    private static final int PETS_POR_CLIENTE = 50;
+    private static final int CONTATOS_POR_CLIENTE = 20;
+
+    @Param({"1", "50"})
+    public int tamanhoLote;
+
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transacao;
+    private EntityManager entityManager;
+
+    @Setup
+    public void setUp() {
+        contexto = new SpringApplicationBuilder(PetshopApiApplication.class)
+                .profiles("test")
+                .run("--spring.jpa.properties.hibernate.jdbc.batch_size=" + tamanhoLote,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.petshop=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.hibernate.orm.jdbc.bind=WARN",
+                        "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                        "--spring.jpa.show-sql=false");
+        transacao = contexto.getBean(TransactionTemplate.class);
+        // EntityManager compartilhado do Spring Data, vinculado à transação corrente
+        entityManager = contexto.getBean(EntityManager.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    /**
+     * Um cliente, PETS_POR_CLIENTE pets e CONTATOS_POR_CLIENTE contatos em uma transação
+     */
+    @Benchmark
+    public Long inserirCliente() {
+        return transacao.execute(status -> {
+            Cliente cliente = new Cliente("Cliente Benchmark", null, null);
+
+            List<Pets> pets = new ArrayList<>(PETS_POR_CLIENTE);
+            for (int i = 0; i < PETS_POR_CLIENTE; i++) {
+                pets.add(new Pets(cliente, null, LocalDate.of(2020, 1, 1), "Pet " + i, null));
+            }
+            cliente.setPets(pets);
+
+            List<Contato> contatos = new ArrayList<>(CONTATOS_POR_CLIENTE);
+            for (int i = 0; i < CONTATOS_POR_CLIENTE; i++) {
+                contatos.add(new Contato(cliente, "tag" + i, Contato.TipoContato.telefone, "(11) 90000-" + i));
+            }
+            cliente.setContatos(contatos);
+
+            entityManager.persist(cliente);
+            entityManager.flush();
+            entityManager.clear();
+            return cliente.getId();
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InsercaoClienteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
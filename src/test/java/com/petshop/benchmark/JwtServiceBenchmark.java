@@ -0,0 +1,97 @@
+package com.petshop.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.petshop.model.PerfilUsuario;
+import com.petshop.model.Usuario;
+import com.petshop.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de autenticação por requisição no SecurityFilter, antes e depois do
+ * cache de tokens verificados do JwtService.
+ *
+ * Execução:
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.petshop.benchmark.JwtServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String secretKey;
+    private String issuer;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        // Mesma chave e emissor do serviço, sem cópia da chave no benchmark
+        secretKey = (String) ReflectionTestUtils.getField(jwtService, "SECRET_KEY");
+        issuer = (String) ReflectionTestUtils.getField(jwtService, "ISSUER");
+
+        Usuario usuario = new Usuario();
+        usuario.setCpf("123.456.789-01");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.CLIENTE);
+        token = jwtService.generateToken(usuario);
+        jwtService.validateToken(token);
+    }
+
+    /**
+     * Caminho anterior: recria Algorithm e JWTVerifier, verifica a assinatura
+     * e faz o parse das claims a cada requisição
+     */
+    @Benchmark
+    public UsernamePasswordAuthenticationToken semCache() {
+        DecodedJWT decodedJWT = JWT.require(Algorithm.HMAC256(secretKey))
+                .withIssuer(issuer)
+                .build()
+                .verify(token);
+
+        Usuario usuario = new Usuario();
+        usuario.setCpf(decodedJWT.getClaim("cpf").asString());
+        usuario.setNome(decodedJWT.getClaim("nome").asString());
+        usuario.setPerfil(PerfilUsuario.valueOf(decodedJWT.getClaim("perfil").asString()));
+        return new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+
+    /**
+     * Caminho atual: token repetido resolvido pelo cache de tokens verificados
+     */
+    @Benchmark
+    public UsernamePasswordAuthenticationToken comCache() {
+        Usuario usuario = jwtService.validateToken(token);
+        return new UsernamePasswordAuthenticationToken(usuario, null, usuario.getAuthorities());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,13 @@
+package com.petshop.config;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * Ativa o @PreAuthorize nos testes @WebMvcTest: o SecurityConfig não entra no recorte web,
+ * e sem esta configuração as verificações de perfil dos controllers não rodam
+ */
+@TestConfiguration
+@EnableMethodSecurity(prePostEnabled = true)
+public class MetodoSecurityTestConfig {
+}
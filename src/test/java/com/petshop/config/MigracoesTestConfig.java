@@ -0,0 +1,23 @@
+package com.petshop.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Testes com o perfil "migracoes" (application-migracoes.properties): cada contexto começa de um
+ * esquema vazio com todas as migrações aplicadas
+ */
+@TestConfiguration
+@Profile("migracoes")
+public class MigracoesTestConfig {
+
+    @Bean
+    public FlywayMigrationStrategy limparEMigrar() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.petshop.config;
+
+import com.petshop.service.LeituraNoPrimario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RoteamentoDataSourceTest {
+
+    @Mock
+    private DataSource primario;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection conexaoPrimario;
+
+    @Mock
+    private Connection conexaoReplica;
+
+    private RoteamentoDataSource roteamentoDataSource;
+
+    @BeforeEach
+    void setUp() {
+        roteamentoDataSource = new RoteamentoDataSource(primario, Map.of("replica-1", replica), 5000, 10000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void getConnection_InReadOnlyTransaction_ShouldUseReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        transacao(true);
+
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoReplica);
+        verifyNoInteractions(primario);
+    }
+
+    @Test
+    void getConnection_InWriteTransaction_ShouldUsePrimary() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        transacao(false);
+
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoPrimario);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void getConnection_AfterOwnWrite_ShouldReadFromPrimaryOnlyForThatUser() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        usuario("98765432100");
+        transacao(false);
+        roteamentoDataSource.getConnection();
+
+        transacao(true);
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoPrimario);
+
+        usuario("12345678901");
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoReplica);
+    }
+
+    @Test
+    void getConnection_InReadOnlyTransactionOfPostRequest_ShouldUsePrimary() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("POST", "/api/pets")));
+        transacao(true);
+
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoPrimario);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void getConnection_InsideLeituraNoPrimario_ShouldUsePrimaryWithoutStickiness() throws SQLException {
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        LeituraNoPrimario leituraNoPrimario = new LeituraNoPrimario();
+        ReflectionTestUtils.setField(leituraNoPrimario, "transactionManager", mock(PlatformTransactionManager.class));
+        usuario("98765432100");
+        transacao(true);
+
+        Connection conexao = leituraNoPrimario.executar(() -> {
+            try {
+                return roteamentoDataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(conexao).isSameAs(conexaoPrimario);
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoReplica);
+    }
+
+    @Test
+    void getConnection_WhenReplicaFails_ShouldFallBackToPrimaryAndStopUsingReplica() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primario.getConnection()).thenReturn(conexaoPrimario);
+        transacao(true);
+
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoPrimario);
+        assertThat(roteamentoDataSource.getConnection()).isSameAs(conexaoPrimario);
+
+        assertThat(roteamentoDataSource.replicasDisponiveis()).isZero();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void verificarReplicas_ShouldRemoveLaggingReplicaAndRestoreItWhenCaughtUp() throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(conexaoReplica);
+        when(conexaoReplica.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(RoteamentoDataSource.ATRASO_REPLICACAO)).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getLong(1)).thenReturn(30000L, 200L);
+
+        roteamentoDataSource.verificarReplicas();
+        assertThat(roteamentoDataSource.replicasDisponiveis()).isZero();
+
+        roteamentoDataSource.verificarReplicas();
+        assertThat(roteamentoDataSource.replicasDisponiveis()).isEqualTo(1);
+    }
+
+    private static void transacao(boolean somenteLeitura) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(somenteLeitura);
+    }
+
+    private static void usuario(String cpf) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(cpf, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+}
@@ -1,22 +1,41 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.config.MetodoSecurityTestConfig;
+import com.petshop.dto.AtendimentoBuscaResponse;
 import com.petshop.dto.AtendimentoCreateRequest;
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.dto.ImportacaoResponse;
 import com.petshop.model.Atendimento;
 import com.petshop.model.Pets;
 import com.petshop.model.Cliente;
 import com.petshop.repository.AtendimentoRepository;
 import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
+import com.petshop.repository.filtro.AtendimentoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.AtendimentoBuscaTextualService;
+import com.petshop.service.AtendimentoExportService;
+import com.petshop.service.AtendimentoImportService;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.JwtService;
+import com.petshop.service.ResumoDiarioService;
+import com.petshop.service.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -25,12 +44,15 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(AtendimentoController.class)
+@Import(MetodoSecurityTestConfig.class)
 class AtendimentoControllerTest {
 
     @Autowired
@@ -48,10 +70,35 @@ class AtendimentoControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private AtendimentoExportService atendimentoExportService;
+
+    @MockBean
+    private AtendimentoImportService atendimentoImportService;
+
+    @MockBean
+    private ExecutorBusca executorBusca;
+
+    @MockBean
+    private AtendimentoBuscaTextualService atendimentoBuscaTextualService;
+
+    @MockBean
+    private RoleService roleService;
+
+    @MockBean
+    private CadastroLoteService cadastroLoteService;
+
+    @MockBean
+    private ResumoDiarioService resumoDiarioService;
+
+    @MockBean
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Atendimento atendimento;
+    private AtendimentoResponse atendimentoResponse;
     private Pets pet;
     private Cliente cliente;
 
@@ -70,25 +117,33 @@ class AtendimentoControllerTest {
         atendimento = new Atendimento();
         atendimento.setId(1L);
         atendimento.setPet(pet);
+        atendimento.setCliente(cliente);
         atendimento.setData(LocalDate.now());
         atendimento.setDescricao("Consulta veterinária");
         atendimento.setValor(new BigDecimal("100.00"));
+
+        atendimentoResponse = new AtendimentoResponse(1L, "Consulta veterinária", new BigDecimal("100.00"), LocalDate.now(),
+                1L, "Rex", null, null, null, null,
+                1L, "João Silva", "12345678901", null, null);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllAtendimentos_WithAdminRole_ShouldReturnOk() throws Exception {
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findAll()).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        when(atendimentoRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(atendimentos));
 
         mockMvc.perform(get("/api/atendimentos"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].descricao").value("Consulta veterinária"));
+                .andExpect(jsonPath("$[0].descricao").value("Consulta veterinária"))
+                .andExpect(jsonPath("$[0].pet.nome").value("Rex"))
+                .andExpect(jsonPath("$[0].pet.raca").isEmpty())
+                .andExpect(jsonPath("$[0].cliente.nome").value("João Silva"));
 
-        verify(atendimentoRepository).findAll();
+        verify(atendimentoRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -97,39 +152,54 @@ class AtendimentoControllerTest {
         mockMvc.perform(get("/api/atendimentos"))
                 .andExpect(status().isForbidden());
 
-        verify(atendimentoRepository, never()).findAll();
+        verify(atendimentoRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentoById_WithValidId_ShouldReturnOk() throws Exception {
-        when(atendimentoRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(atendimento));
+        when(atendimentoRepository.findVersaoById(1L)).thenReturn(Optional.of("0.0.0.0"));
+        when(atendimentoRepository.findResponseById(1L)).thenReturn(Optional.of(atendimentoResponse));
 
         mockMvc.perform(get("/api/atendimentos/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0.0.0.0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.descricao").value("Consulta veterinária"));
 
-        verify(atendimentoRepository).findByIdWithDetails(1L);
+        verify(atendimentoRepository).findResponseById(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentoById_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(atendimentoRepository.findByIdWithDetails(999L)).thenReturn(Optional.empty());
+        when(atendimentoRepository.findVersaoById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/atendimentos/999"))
                 .andExpect(status().isNotFound());
 
-        verify(atendimentoRepository).findByIdWithDetails(999L);
+        verify(atendimentoRepository).findVersaoById(999L);
+        verify(atendimentoRepository, never()).findResponseById(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAtendimentoById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(atendimentoRepository.findVersaoById(1L)).thenReturn(Optional.of("0.0.0.0"));
+
+        mockMvc.perform(get("/api/atendimentos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0.0.0.0\""))
+                .andExpect(status().isNotModified());
+
+        verify(atendimentoRepository, never()).findResponseById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentosByPet_ShouldReturnOk() throws Exception {
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByPetId(1L)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        when(atendimentoRepository.findByPetId(1L, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(atendimentos));
 
         mockMvc.perform(get("/api/atendimentos/pet/1"))
                 .andExpect(status().isOk())
@@ -137,15 +207,15 @@ class AtendimentoControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(atendimentoRepository).findByPetId(1L);
+        verify(atendimentoRepository).findByPetId(1L, 0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentosByData_ShouldReturnOk() throws Exception {
         LocalDate data = LocalDate.now();
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByData(data)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        when(atendimentoRepository.findByData(data, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(atendimentos));
 
         mockMvc.perform(get("/api/atendimentos/data/{data}", data))
                 .andExpect(status().isOk())
@@ -153,15 +223,15 @@ class AtendimentoControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(atendimentoRepository).findByData(data);
+        verify(atendimentoRepository).findByData(data, 0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentos_WithPetIdAndData_ShouldReturnOk() throws Exception {
         LocalDate data = LocalDate.now();
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByPetIdAndData(1L, data)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        doReturn(new SliceImpl<>(atendimentos)).when(executorBusca).buscar(eq(new AtendimentoFiltro(null, 1L, data, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/atendimentos/buscar")
                 .param("petId", "1")
@@ -170,7 +240,7 @@ class AtendimentoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(atendimentoRepository).findByPetIdAndData(1L, data);
+        verify(executorBusca).buscar(eq(new AtendimentoFiltro(null, 1L, data, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -178,8 +248,8 @@ class AtendimentoControllerTest {
     void getAtendimentos_WithDataRange_ShouldReturnOk() throws Exception {
         LocalDate dataInicio = LocalDate.now().minusDays(7);
         LocalDate dataFim = LocalDate.now();
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByDataBetween(dataInicio, dataFim)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        doReturn(new SliceImpl<>(atendimentos)).when(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, dataInicio, dataFim, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/atendimentos/buscar")
                 .param("dataInicio", dataInicio.toString())
@@ -188,7 +258,7 @@ class AtendimentoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(atendimentoRepository).findByDataBetween(dataInicio, dataFim);
+        verify(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, dataInicio, dataFim, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -196,8 +266,8 @@ class AtendimentoControllerTest {
     void getAtendimentos_WithValorRange_ShouldReturnOk() throws Exception {
         BigDecimal valorMin = new BigDecimal("50.00");
         BigDecimal valorMax = new BigDecimal("200.00");
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByValorBetween(valorMin, valorMax)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        doReturn(new SliceImpl<>(atendimentos)).when(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, null, null, valorMin, valorMax, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/atendimentos/buscar")
                 .param("valorMin", "50.00")
@@ -206,15 +276,15 @@ class AtendimentoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(atendimentoRepository).findByValorBetween(valorMin, valorMax);
+        verify(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, null, null, valorMin, valorMax, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getAtendimentos_WithDescricao_ShouldReturnOk() throws Exception {
         String descricao = "consulta";
-        List<Atendimento> atendimentos = Arrays.asList(atendimento);
-        when(atendimentoRepository.findByDescricaoContaining(descricao)).thenReturn(atendimentos);
+        List<AtendimentoResponse> atendimentos = Arrays.asList(atendimentoResponse);
+        doReturn(new SliceImpl<>(atendimentos)).when(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, null, null, null, null, descricao)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/atendimentos/buscar")
                 .param("descricao", descricao))
@@ -222,7 +292,171 @@ class AtendimentoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(atendimentoRepository).findByDescricaoContaining(descricao);
+        verify(executorBusca).buscar(eq(new AtendimentoFiltro(null, null, null, null, null, null, null, descricao)), eq(0L), eq(PageRequest.of(0, 100)), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAtendimentos_WithClientePetAndDataRange_ShouldApplyAllFilters() throws Exception {
+        LocalDate dataInicio = LocalDate.now().minusDays(30);
+        LocalDate dataFim = LocalDate.now();
+        BigDecimal valorMin = new BigDecimal("50.00");
+        AtendimentoFiltro filtro = new AtendimentoFiltro(1L, 1L, null, dataInicio, dataFim, valorMin, null, "consulta");
+        doReturn(new SliceImpl<>(Arrays.asList(atendimentoResponse))).when(executorBusca).buscar(eq(filtro), eq(0L), eq(PageRequest.of(0, 100)), any());
+
+        mockMvc.perform(get("/api/atendimentos/buscar")
+                .param("clienteId", "1")
+                .param("petId", "1")
+                .param("dataInicio", dataInicio.toString())
+                .param("dataFim", dataFim.toString())
+                .param("valorMin", "50.00")
+                .param("descricao", "consulta"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(executorBusca).buscar(eq(filtro), eq(0L), eq(PageRequest.of(0, 100)), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pesquisarAtendimentos_AsAdmin_ShouldSearchAllAtendimentos() throws Exception {
+        AtendimentoBuscaResponse resultado = new AtendimentoBuscaResponse(1L, 1L, 1L, LocalDate.now(), new BigDecimal("100.00"),
+                0.5f, "<mark>Consulta</mark> de rotina");
+        when(roleService.isAdmin()).thenReturn(true);
+        when(atendimentoBuscaTextualService.pesquisar("consulta", null, null, null, 100)).thenReturn(new SliceImpl<>(List.of(resultado)));
+
+        mockMvc.perform(get("/api/atendimentos/pesquisar")
+                .param("q", "consulta"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].trecho").value("<mark>Consulta</mark> de rotina"))
+                .andExpect(header().doesNotExist(Paginacao.HEADER_PROXIMO_CURSOR));
+
+        verify(atendimentoBuscaTextualService).pesquisar("consulta", null, null, null, 100);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void pesquisarAtendimentos_AsUser_ShouldRestrictToOwnClientes() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        when(atendimentoBuscaTextualService.pesquisar("vacina", "12345678901", null, null, 100)).thenReturn(new SliceImpl<>(List.of()));
+
+        mockMvc.perform(get("/api/atendimentos/pesquisar")
+                .param("q", "vacina"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(atendimentoBuscaTextualService).pesquisar("vacina", "12345678901", null, null, 100);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pesquisarAtendimentos_WithCursor_ShouldContinueFromLastPosition() throws Exception {
+        AtendimentoBuscaResponse resultado = new AtendimentoBuscaResponse(7L, 1L, 1L, LocalDate.now(), null, 0.25f, "trecho");
+        when(roleService.isAdmin()).thenReturn(true);
+        when(atendimentoBuscaTextualService.pesquisar("consulta", null, 0.5f, 3L, 1))
+                .thenReturn(new SliceImpl<>(List.of(resultado), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/atendimentos/pesquisar")
+                .param("q", "consulta")
+                .param("limite", "1")
+                .param("cursor", Paginacao.codificar("0.5/3")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(header().string(Paginacao.HEADER_PROXIMO_CURSOR, Paginacao.codificar("0.25/7")));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pesquisarAtendimentos_WithBlankTerms_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/atendimentos/pesquisar")
+                .param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Busca inválida"));
+
+        verify(atendimentoBuscaTextualService, never()).pesquisar(any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void pesquisarAtendimentos_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(roleService.isAdmin()).thenReturn(true);
+
+        mockMvc.perform(get("/api/atendimentos/pesquisar")
+                .param("q", "consulta")
+                .param("cursor", Paginacao.codificar("42")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAtendimentosByPeriodo_ForOwnCliente_ShouldUseCache() throws Exception {
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fim = LocalDate.of(2024, 3, 31);
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(atendimentoPeriodoCache.porCliente(1L, inicio, fim)).thenReturn(List.of(atendimentoResponse));
+
+        mockMvc.perform(get("/api/atendimentos/periodo")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("clienteId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(atendimentoPeriodoCache).porCliente(1L, inicio, fim);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAtendimentosByPeriodo_AllAtendimentosAsUser_ShouldReturnForbidden() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+
+        mockMvc.perform(get("/api/atendimentos/periodo")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-01-31"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(atendimentoPeriodoCache);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAtendimentosByPeriodo_WithTooLongRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/atendimentos/periodo")
+                .param("dataInicio", "2022-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("clienteId", "1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(atendimentoPeriodoCache);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAtendimentosByPeriodo_AllAtendimentosAboveMonth_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/atendimentos/periodo")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-02-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Sem clienteId ou petId o período é limitado a 31 dias"));
+
+        verifyNoInteractions(atendimentoPeriodoCache);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAtendimentosByPeriodo_AllAtendimentosWithinMonthAsAdmin_ShouldUseCache() throws Exception {
+        LocalDate inicio = LocalDate.of(2024, 1, 1);
+        LocalDate fim = LocalDate.of(2024, 1, 31);
+        when(roleService.isAdmin()).thenReturn(true);
+        when(atendimentoPeriodoCache.porData(inicio, fim)).thenReturn(List.of(atendimentoResponse));
+
+        mockMvc.perform(get("/api/atendimentos/periodo")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
     }
 
     @Test
@@ -233,11 +467,12 @@ class AtendimentoControllerTest {
         request.setCliente(new AtendimentoCreateRequest.ClienteReference(1L));
         request.setDescricao("Consulta veterinária");
         request.setValor(new BigDecimal("100.00"));
+        request.setData(LocalDate.of(2024, 1, 15));
         
         when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
         when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
         when(atendimentoRepository.save(any(Atendimento.class))).thenReturn(atendimento);
-        when(atendimentoRepository.findByIdWithDetails(1L)).thenReturn(Optional.of(atendimento));
+        when(atendimentoRepository.findResponseById(1L)).thenReturn(Optional.of(atendimentoResponse));
 
         mockMvc.perform(post("/api/atendimentos")
                 .with(csrf())
@@ -251,7 +486,8 @@ class AtendimentoControllerTest {
         verify(clienteRepository).findById(1L);
         verify(petsRepository).findById(1L);
         verify(atendimentoRepository).save(any(Atendimento.class));
-        verify(atendimentoRepository).findByIdWithDetails(1L);
+        verify(atendimentoRepository).findResponseById(1L);
+        verify(resumoDiarioService).incluir(List.of(atendimento));
     }
 
     @Test
@@ -262,6 +498,7 @@ class AtendimentoControllerTest {
         request.setCliente(new AtendimentoCreateRequest.ClienteReference(1L));
         request.setDescricao("Consulta veterinária");
         request.setValor(new BigDecimal("100.00"));
+        request.setData(LocalDate.of(2024, 1, 15));
         
         mockMvc.perform(post("/api/atendimentos")
                 .with(csrf())
@@ -272,11 +509,29 @@ class AtendimentoControllerTest {
         verify(atendimentoRepository, never()).save(any(Atendimento.class));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void createAtendimentos_WithUserRole_ShouldReturnForbidden() throws Exception {
+        AtendimentoCreateRequest request = new AtendimentoCreateRequest();
+        request.setPet(new AtendimentoCreateRequest.PetReference(1L));
+        request.setCliente(new AtendimentoCreateRequest.ClienteReference(1L));
+        request.setDescricao("Consulta veterinária");
+
+        mockMvc.perform(post("/api/atendimentos/lote")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(request))))
+                .andExpect(status().isForbidden());
+
+        verify(cadastroLoteService, never()).criarAtendimentos(any());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateAtendimento_WithValidId_ShouldReturnOk() throws Exception {
-        when(atendimentoRepository.existsById(1L)).thenReturn(true);
+        when(atendimentoRepository.findById(1L)).thenReturn(Optional.of(atendimento));
         when(atendimentoRepository.save(any(Atendimento.class))).thenReturn(atendimento);
+        when(atendimentoRepository.findResponseById(1L)).thenReturn(Optional.of(atendimentoResponse));
 
         mockMvc.perform(put("/api/atendimentos/1")
                 .with(csrf())
@@ -286,14 +541,31 @@ class AtendimentoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1));
 
-        verify(atendimentoRepository).existsById(1L);
+        verify(atendimentoRepository).findById(1L);
         verify(atendimentoRepository).save(any(Atendimento.class));
+        verify(resumoDiarioService).alterar(new ResumoDiarioService.Lancamento(LocalDate.now(), 1L, 1L, new BigDecimal("100.00")), atendimento);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateAtendimento_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(atendimentoRepository.findById(1L)).thenReturn(Optional.of(atendimento));
+        when(atendimentoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0.0.0"));
+
+        mockMvc.perform(put("/api/atendimentos/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"0.0.0.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(atendimento)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(atendimentoRepository, never()).save(any(Atendimento.class));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateAtendimento_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(atendimentoRepository.existsById(999L)).thenReturn(false);
+        when(atendimentoRepository.findById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/atendimentos/999")
                 .with(csrf())
@@ -301,34 +573,35 @@ class AtendimentoControllerTest {
                 .content(objectMapper.writeValueAsString(atendimento)))
                 .andExpect(status().isNotFound());
 
-        verify(atendimentoRepository).existsById(999L);
+        verify(atendimentoRepository).findById(999L);
         verify(atendimentoRepository, never()).save(any(Atendimento.class));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void deleteAtendimento_WithValidId_ShouldReturnNoContent() throws Exception {
-        when(atendimentoRepository.existsById(1L)).thenReturn(true);
+        when(atendimentoRepository.findById(1L)).thenReturn(Optional.of(atendimento));
 
         mockMvc.perform(delete("/api/atendimentos/1")
                 .with(csrf()))
                 .andExpect(status().isNoContent());
 
-        verify(atendimentoRepository).existsById(1L);
-        verify(atendimentoRepository).deleteById(1L);
+        verify(atendimentoRepository).delete(atendimento);
+        verify(resumoDiarioService).excluir(new ResumoDiarioService.Lancamento(LocalDate.now(), 1L, 1L, new BigDecimal("100.00")));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void deleteAtendimento_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(atendimentoRepository.existsById(999L)).thenReturn(false);
+        when(atendimentoRepository.findById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/api/atendimentos/999")
                 .with(csrf()))
                 .andExpect(status().isNotFound());
 
-        verify(atendimentoRepository).existsById(999L);
-        verify(atendimentoRepository, never()).deleteById(any());
+        verify(atendimentoRepository).findById(999L);
+        verify(atendimentoRepository, never()).delete(any(Atendimento.class));
+        verifyNoInteractions(resumoDiarioService);
     }
 
     @Test
@@ -338,8 +611,70 @@ class AtendimentoControllerTest {
                 .with(csrf()))
                 .andExpect(status().isForbidden());
 
-        verify(atendimentoRepository, never()).existsById(any());
-        verify(atendimentoRepository, never()).deleteById(any());
+        verify(atendimentoRepository, never()).findById(any());
+        verify(atendimentoRepository, never()).delete(any(Atendimento.class));
     }
-}
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportarAtendimentos_WithNdjson_ShouldStreamFromService() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/atendimentos/exportar").param("formato", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+        verify(atendimentoExportService).exportarAtendimentos(any(), eq(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportarAtendimentos_WithInvalidFormato_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/atendimentos/exportar").param("formato", "csv"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(atendimentoExportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void exportarAtendimentos_WithUserRole_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/api/atendimentos/exportar"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(atendimentoExportService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importarAtendimentos_WithNdjson_ShouldReturnReport() throws Exception {
+        when(atendimentoImportService.importarAtendimentos(any())).thenReturn(new ImportacaoResponse(2, 1, 1,
+                List.of(new ImportacaoResponse.ErroLinha(2, List.of("Descrição é obrigatória")))));
+
+        mockMvc.perform(post("/api/atendimentos/importar")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"pet\":{\"id\":1},\"cliente\":{\"id\":1},\"descricao\":\"Banho\",\"data\":\"2024-05-10\"}\n"
+                        + "{\"pet\":{\"id\":1},\"cliente\":{\"id\":1},\"data\":\"2024-05-11\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados").value(1))
+                .andExpect(jsonPath("$.rejeitados").value(1))
+                .andExpect(jsonPath("$.erros[0].linha").value(2));
+
+        verify(atendimentoImportService).importarAtendimentos(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void importarAtendimentos_WithUserRole_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(post("/api/atendimentos/importar")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}\n"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(atendimentoImportService);
+    }
+}
@@ -5,7 +5,9 @@ import com.petshop.dto.LoginRequest;
 import com.petshop.model.PerfilUsuario;
 import com.petshop.model.Usuario;
 import com.petshop.repository.UsuarioRepository;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.JwtService;
+import com.petshop.service.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,6 +36,12 @@ class AuthControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private ClienteOwnershipCache clienteOwnershipCache;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -1,14 +1,25 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.ClienteResponse;
+import com.petshop.dto.SugestaoResponse;
 import com.petshop.model.Cliente;
 import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.filtro.ClienteFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,10 +47,23 @@ class ClienteControllerTest {
     @MockBean
     private RoleService roleService;
 
+    @MockBean
+    private ClienteOwnershipCache clienteOwnershipCache;
+
+    @MockBean
+    private ExecutorBusca executorBusca;
+
+    @MockBean
+    private AutocompleteService autocompleteService;
+
+    @MockBean
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Cliente cliente;
+    private ClienteResponse clienteResponse;
 
     @BeforeEach
     void setUp() {
@@ -49,13 +73,15 @@ class ClienteControllerTest {
         cliente.setCpf("12345678901");
         cliente.setDataCadastro(LocalDate.now());
         cliente.setFoto("foto.jpg");
+
+        clienteResponse = ClienteResponse.de(cliente);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllClientes_WithAdminRole_ShouldReturnOk() throws Exception {
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findAll()).thenReturn(clientes);
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        when(clienteRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(clientes));
 
         mockMvc.perform(get("/api/clientes"))
                 .andExpect(status().isOk())
@@ -65,7 +91,36 @@ class ClienteControllerTest {
                 .andExpect(jsonPath("$[0].nome").value("João Silva"))
                 .andExpect(jsonPath("$[0].cpf").value("12345678901"));
 
-        verify(clienteRepository).findAll();
+        verify(clienteRepository).findAll(0L, PageRequest.of(0, 100));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAllClientes_WithMorePages_ShouldReturnNextCursor() throws Exception {
+        String cursor = Paginacao.codificar("1");
+        when(clienteRepository.findAll(0L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(clienteResponse), PageRequest.of(0, 1), true));
+        when(clienteRepository.findAll(1L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 1), false));
+
+        mockMvc.perform(get("/api/clientes").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Paginacao.HEADER_PROXIMO_CURSOR, cursor))
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        mockMvc.perform(get("/api/clientes").param("limite", "1").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Paginacao.HEADER_PROXIMO_CURSOR))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAllClientes_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/clientes").param("cursor", "nao-e-um-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verify(clienteRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -74,23 +129,54 @@ class ClienteControllerTest {
         mockMvc.perform(get("/api/clientes"))
                 .andExpect(status().isForbidden());
 
-        verify(clienteRepository, never()).findAll();
+        verify(clienteRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClienteById_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.findVersaoById(1L)).thenReturn(Optional.of("3"));
+        when(clienteRepository.findResponseById(1L)).thenReturn(Optional.of(clienteResponse));
 
         mockMvc.perform(get("/api/clientes/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.nome").value("João Silva"));
 
         verify(roleService).canAccessCliente(1L);
-        verify(clienteRepository).findById(1L);
+        verify(clienteRepository).findResponseById(1L);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getClienteById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(clienteRepository.findVersaoById(1L)).thenReturn(Optional.of("3"));
+
+        mockMvc.perform(get("/api/clientes/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(clienteRepository, never()).findResponseById(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getClienteById_WithOldEtag_ShouldReturnOk() throws Exception {
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(clienteRepository.findVersaoById(1L)).thenReturn(Optional.of("4"));
+        when(clienteRepository.findResponseById(1L)).thenReturn(Optional.of(clienteResponse));
+
+        mockMvc.perform(get("/api/clientes/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.id").value(1));
     }
 
     @Test
@@ -102,26 +188,27 @@ class ClienteControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(clienteRepository, never()).findById(any());
+        verify(clienteRepository, never()).findResponseById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClienteById_WithInvalidId_ShouldReturnNotFound() throws Exception {
         when(roleService.canAccessCliente(999L)).thenReturn(true);
-        when(clienteRepository.findById(999L)).thenReturn(Optional.empty());
+        when(clienteRepository.findVersaoById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/clientes/999"))
                 .andExpect(status().isNotFound());
 
         verify(roleService).canAccessCliente(999L);
-        verify(clienteRepository).findById(999L);
+        verify(clienteRepository).findVersaoById(999L);
+        verify(clienteRepository, never()).findResponseById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClienteByCpf_WithValidCpfAndPermission_ShouldReturnOk() throws Exception {
-        when(clienteRepository.findByCpf("12345678901")).thenReturn(Optional.of(cliente));
+        when(clienteRepository.findResponseByCpf("12345678901")).thenReturn(Optional.of(clienteResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(true);
 
         mockMvc.perform(get("/api/clientes/cpf/12345678901"))
@@ -130,40 +217,40 @@ class ClienteControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.cpf").value("12345678901"));
 
-        verify(clienteRepository).findByCpf("12345678901");
+        verify(clienteRepository).findResponseByCpf("12345678901");
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClienteByCpf_WithValidCpfButNoPermission_ShouldReturnForbidden() throws Exception {
-        when(clienteRepository.findByCpf("12345678901")).thenReturn(Optional.of(cliente));
+        when(clienteRepository.findResponseByCpf("12345678901")).thenReturn(Optional.of(clienteResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(false);
 
         mockMvc.perform(get("/api/clientes/cpf/12345678901"))
                 .andExpect(status().isForbidden());
 
-        verify(clienteRepository).findByCpf("12345678901");
+        verify(clienteRepository).findResponseByCpf("12345678901");
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClienteByCpf_WithInvalidCpf_ShouldReturnNotFound() throws Exception {
-        when(clienteRepository.findByCpf("99999999999")).thenReturn(Optional.empty());
+        when(clienteRepository.findResponseByCpf("99999999999")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/clientes/cpf/99999999999"))
                 .andExpect(status().isNotFound());
 
-        verify(clienteRepository).findByCpf("99999999999");
+        verify(clienteRepository).findResponseByCpf("99999999999");
         verify(roleService, never()).canAccessCliente(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getClientesByNome_WithAdminRole_ShouldReturnAllClientes() throws Exception {
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findByNomeContaining("João")).thenReturn(clientes);
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        doReturn(new SliceImpl<>(clientes)).when(executorBusca).buscar(eq(new ClienteFiltro("João", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/clientes/buscar")
@@ -172,36 +259,52 @@ class ClienteControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(clienteRepository).findByNomeContaining("João");
+        verify(executorBusca).buscar(eq(new ClienteFiltro("João", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClientesByNome_WithUserRole_ShouldReturnFilteredClientes() throws Exception {
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findByNomeContaining("João")).thenReturn(clientes);
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        doReturn(new SliceImpl<>(clientes)).when(executorBusca).buscar(eq(new ClienteFiltro("João", "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(false);
-        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
 
         mockMvc.perform(get("/api/clientes/buscar")
                 .param("nome", "João"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(clienteRepository).findByNomeContaining("João");
+        verify(executorBusca).buscar(eq(new ClienteFiltro("João", "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
-        verify(roleService).canAccessCliente(1L);
+        verify(roleService, never()).canAccessCliente(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getClientesByNome_WithUserRoleAndOtherCpf_ShouldReturnEmpty() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+
+        mockMvc.perform(get("/api/clientes/buscar")
+                .param("nome", "João")
+                .param("cpf", "98765432100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(executorBusca, never()).buscar(any(), anyLong(), any(Pageable.class), any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getClientesByNomeAndCpf_ShouldReturnOk() throws Exception {
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findByNomeAndCpf("João", "12345678901")).thenReturn(clientes);
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        doReturn(new SliceImpl<>(clientes)).when(executorBusca).buscar(eq(new ClienteFiltro("João", "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(false);
-        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
 
         mockMvc.perform(get("/api/clientes/buscar")
                 .param("nome", "João")
@@ -210,7 +313,7 @@ class ClienteControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(clienteRepository).findByNomeAndCpf("João", "12345678901");
+        verify(executorBusca).buscar(eq(new ClienteFiltro("João", "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -218,10 +321,10 @@ class ClienteControllerTest {
     void getClientesByDataRange_ShouldReturnOk() throws Exception {
         LocalDate dataInicio = LocalDate.now().minusDays(7);
         LocalDate dataFim = LocalDate.now();
-        List<Cliente> clientes = Arrays.asList(cliente);
-        when(clienteRepository.findByDataCadastroBetween(dataInicio, dataFim)).thenReturn(clientes);
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        doReturn(new SliceImpl<>(clientes)).when(executorBusca).buscar(eq(new ClienteFiltro(null, "12345678901", dataInicio, dataFim)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(false);
-        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
 
         mockMvc.perform(get("/api/clientes/buscar")
                 .param("dataInicio", dataInicio.toString())
@@ -230,7 +333,22 @@ class ClienteControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(clienteRepository).findByDataCadastroBetween(dataInicio, dataFim);
+        verify(executorBusca).buscar(eq(new ClienteFiltro(null, "12345678901", dataInicio, dataFim)), eq(0L), eq(PageRequest.of(0, 100)), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getClientes_WithCpfOnlyAsAdmin_ShouldFilterByCpf() throws Exception {
+        List<ClienteResponse> clientes = Arrays.asList(clienteResponse);
+        when(roleService.isAdmin()).thenReturn(true);
+        doReturn(new SliceImpl<>(clientes)).when(executorBusca).buscar(eq(new ClienteFiltro(null, "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+
+        mockMvc.perform(get("/api/clientes/buscar")
+                .param("cpf", "12345678901"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(executorBusca).buscar(eq(new ClienteFiltro(null, "12345678901", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -301,6 +419,43 @@ class ClienteControllerTest {
         verify(clienteRepository).save(any(Cliente.class));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void updateCliente_WithCurrentIfMatch_ShouldReturnNewEtag() throws Exception {
+        when(roleService.canModifyCliente(1L)).thenReturn(true);
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.findVersaoById(1L)).thenReturn(Optional.of("3"), Optional.of("4"));
+        when(clienteRepository.save(any(Cliente.class))).thenReturn(cliente);
+
+        mockMvc.perform(put("/api/clientes/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cliente)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(clienteRepository).save(any(Cliente.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void updateCliente_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(roleService.canModifyCliente(1L)).thenReturn(true);
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.findVersaoById(1L)).thenReturn(Optional.of("4"));
+
+        mockMvc.perform(put("/api/clientes/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(cliente)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(clienteRepository, never()).save(any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void updateCliente_WithNoPermission_ShouldReturnForbidden() throws Exception {
@@ -347,6 +502,7 @@ class ClienteControllerTest {
         verify(roleService).canDeleteCliente();
         verify(clienteRepository).existsById(1L);
         verify(clienteRepository).deleteById(1L);
+        verify(atendimentoPeriodoCache).invalidarTudo();
     }
 
     @Test
@@ -389,5 +545,19 @@ class ClienteControllerTest {
         verify(clienteRepository, never()).existsById(any());
         verify(clienteRepository, never()).deleteById(any());
     }
-}
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void autocompletarClientes_AsUser_ShouldRestrictToOwnCliente() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentClienteId()).thenReturn(1L);
+        when(autocompleteService.sugerirClientes("joao", 1L, null)).thenReturn(List.of(new SugestaoResponse(1L, "João Silva")));
+
+        mockMvc.perform(get("/api/clientes/autocompletar")
+                .param("q", "joao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nome").value("João Silva"));
+
+        verify(autocompleteService).sugerirClientes("joao", 1L, null);
+    }
+}
@@ -1,15 +1,24 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.ContatoResponse;
+import com.petshop.dto.LoteResponse;
 import com.petshop.model.Contato;
 import com.petshop.model.Cliente;
 import com.petshop.repository.ContatoRepository;
+import com.petshop.repository.filtro.ContatoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,10 +45,17 @@ class ContatoControllerTest {
     @MockBean
     private RoleService roleService;
 
+    @MockBean
+    private ExecutorBusca executorBusca;
+
+    @MockBean
+    private CadastroLoteService cadastroLoteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Contato contato;
+    private ContatoResponse contatoResponse;
     private Cliente cliente;
 
     @BeforeEach
@@ -55,13 +71,15 @@ class ContatoControllerTest {
         contato.setTipo(Contato.TipoContato.email);
         contato.setValor("joao@email.com");
         contato.setTag("Principal");
+
+        contatoResponse = ContatoResponse.de(contato);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllContatos_WithAdminRole_ShouldReturnOk() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findAll()).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        when(contatoRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(contatos));
 
         mockMvc.perform(get("/api/contatos"))
                 .andExpect(status().isOk())
@@ -69,9 +87,10 @@ class ContatoControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].valor").value("joao@email.com"))
-                .andExpect(jsonPath("$[0].tipo").value("email"));
+                .andExpect(jsonPath("$[0].tipo").value("email"))
+                .andExpect(jsonPath("$[0].cliente.nome").value("João Silva"));
 
-        verify(contatoRepository).findAll();
+        verify(contatoRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -80,56 +99,74 @@ class ContatoControllerTest {
         mockMvc.perform(get("/api/contatos"))
                 .andExpect(status().isForbidden());
 
-        verify(contatoRepository, never()).findAll();
+        verify(contatoRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatoById_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
-        when(contatoRepository.findById(1L)).thenReturn(Optional.of(contato));
+        when(contatoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(contatoRepository.findResponseById(1L)).thenReturn(Optional.of(contatoResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(true);
 
         mockMvc.perform(get("/api/contatos/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.valor").value("joao@email.com"));
 
-        verify(contatoRepository).findById(1L);
+        verify(contatoRepository).findResponseById(1L);
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatoById_WithValidIdButNoPermission_ShouldReturnForbidden() throws Exception {
-        when(contatoRepository.findById(1L)).thenReturn(Optional.of(contato));
+        when(contatoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(contatoRepository.findResponseById(1L)).thenReturn(Optional.of(contatoResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(false);
 
-        mockMvc.perform(get("/api/contatos/1"))
+        mockMvc.perform(get("/api/contatos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
                 .andExpect(status().isForbidden());
 
-        verify(contatoRepository).findById(1L);
+        verify(contatoRepository).findResponseById(1L);
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatoById_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(contatoRepository.findById(999L)).thenReturn(Optional.empty());
+        when(contatoRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/contatos/999"))
                 .andExpect(status().isNotFound());
 
-        verify(contatoRepository).findById(999L);
+        verify(contatoRepository).findResponseById(999L);
         verify(roleService, never()).canAccessCliente(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getContatoById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(contatoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(contatoRepository.findResponseById(1L)).thenReturn(Optional.of(contatoResponse));
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+
+        mockMvc.perform(get("/api/contatos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void getContatosByCliente_WithValidClienteAndPermission_ShouldReturnOk() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(contatoRepository.findByClienteId(1L)).thenReturn(contatos);
+        when(contatoRepository.findByClienteId(1L, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(contatos));
 
         mockMvc.perform(get("/api/contatos/cliente/1"))
                 .andExpect(status().isOk())
@@ -138,7 +175,7 @@ class ContatoControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1));
 
         verify(roleService).canAccessCliente(1L);
-        verify(contatoRepository).findByClienteId(1L);
+        verify(contatoRepository).findByClienteId(1L, 0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -150,14 +187,14 @@ class ContatoControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(contatoRepository, never()).findByClienteId(any());
+        verify(contatoRepository, never()).findByClienteId(any(), anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getContatosByTipo_WithAdminRole_ShouldReturnAllContatos() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findByTipo(Contato.TipoContato.email)).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        when(contatoRepository.findByTipo(Contato.TipoContato.email, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(contatos));
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/contatos/tipo/email"))
@@ -165,34 +202,35 @@ class ContatoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(contatoRepository).findByTipo(Contato.TipoContato.email);
+        verify(contatoRepository).findByTipo(Contato.TipoContato.email, 0L, PageRequest.of(0, 100));
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatosByTipo_WithUserRole_ShouldReturnFilteredContatos() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findByTipo(Contato.TipoContato.email)).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
         when(roleService.isAdmin()).thenReturn(false);
-        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        when(contatoRepository.findByTipoAndClienteCpf(Contato.TipoContato.email, "12345678901", 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(contatos));
 
         mockMvc.perform(get("/api/contatos/tipo/email"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(contatoRepository).findByTipo(Contato.TipoContato.email);
+        verify(contatoRepository).findByTipoAndClienteCpf(Contato.TipoContato.email, "12345678901", 0L, PageRequest.of(0, 100));
+        verify(contatoRepository, never()).findByTipo(any(), anyLong(), any(Pageable.class));
         verify(roleService).isAdmin();
-        verify(roleService).canAccessCliente(1L);
+        verify(roleService, never()).canAccessCliente(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatos_WithClienteIdAndTipo_ShouldReturnOk() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(contatoRepository.findByClienteIdAndTipo(1L, Contato.TipoContato.email)).thenReturn(contatos);
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(1L, null, Contato.TipoContato.email, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/contatos/buscar")
                 .param("clienteId", "1")
@@ -202,7 +240,7 @@ class ContatoControllerTest {
                 .andExpect(jsonPath("$").isArray());
 
         verify(roleService).canAccessCliente(1L);
-        verify(contatoRepository).findByClienteIdAndTipo(1L, Contato.TipoContato.email);
+        verify(executorBusca).buscar(eq(new ContatoFiltro(1L, null, Contato.TipoContato.email, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -215,15 +253,15 @@ class ContatoControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(contatoRepository, never()).findByClienteId(any());
+        verify(executorBusca, never()).buscar(any(), anyLong(), any(Pageable.class), any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getContatos_WithClienteIdAndValor_ShouldReturnOk() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(contatoRepository.findByClienteIdAndValorContaining(1L, "joao")).thenReturn(contatos);
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(1L, null, null, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/contatos/buscar")
                 .param("clienteId", "1")
@@ -233,14 +271,14 @@ class ContatoControllerTest {
                 .andExpect(jsonPath("$").isArray());
 
         verify(roleService).canAccessCliente(1L);
-        verify(contatoRepository).findByClienteIdAndValorContaining(1L, "joao");
+        verify(executorBusca).buscar(eq(new ContatoFiltro(1L, null, null, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getContatos_WithTipoOnly_ShouldReturnAllContatos() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findByTipo(Contato.TipoContato.email)).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(null, null, Contato.TipoContato.email, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/contatos/buscar")
@@ -249,15 +287,15 @@ class ContatoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(contatoRepository).findByTipo(Contato.TipoContato.email);
+        verify(executorBusca).buscar(eq(new ContatoFiltro(null, null, Contato.TipoContato.email, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getContatos_WithValorOnly_ShouldReturnAllContatos() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findByValorContaining("joao")).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(null, null, null, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/contatos/buscar")
@@ -266,15 +304,15 @@ class ContatoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(contatoRepository).findByValorContaining("joao");
+        verify(executorBusca).buscar(eq(new ContatoFiltro(null, null, null, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getContatos_WithTagOnly_ShouldReturnAllContatos() throws Exception {
-        List<Contato> contatos = Arrays.asList(contato);
-        when(contatoRepository.findByTagContaining("Principal")).thenReturn(contatos);
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(null, null, null, null, "Principal")), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/contatos/buscar")
@@ -283,10 +321,27 @@ class ContatoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(contatoRepository).findByTagContaining("Principal");
+        verify(executorBusca).buscar(eq(new ContatoFiltro(null, null, null, null, "Principal")), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getContatos_WithoutClienteIdAsUser_ShouldRestrictToOwnContatos() throws Exception {
+        List<ContatoResponse> contatos = Arrays.asList(contatoResponse);
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        doReturn(new SliceImpl<>(contatos)).when(executorBusca).buscar(eq(new ContatoFiltro(null, "12345678901", Contato.TipoContato.email, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+
+        mockMvc.perform(get("/api/contatos/buscar")
+                .param("tipo", "email")
+                .param("valor", "joao"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+
+        verify(executorBusca).buscar(eq(new ContatoFiltro(null, "12345678901", Contato.TipoContato.email, "joao", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void createContato_WithValidDataAndPermission_ShouldReturnCreated() throws Exception {
@@ -321,6 +376,22 @@ class ContatoControllerTest {
         verify(contatoRepository, never()).save(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void createContatos_WithInvalidItem_ShouldReturnMultiStatus() throws Exception {
+        when(cadastroLoteService.criarContatos(anyList())).thenReturn(LoteResponse.de(List.of(
+                LoteResponse.Item.criado(0, contatoResponse),
+                LoteResponse.Item.<ContatoResponse>falha(1, 400, List.of("Valor é obrigatório")))));
+
+        mockMvc.perform(post("/api/contatos/lote")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(contato, contato))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.itens[0].registro.valor").value("joao@email.com"))
+                .andExpect(jsonPath("$.itens[1].erros[0]").value("Valor é obrigatório"));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void updateContato_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
@@ -374,6 +445,24 @@ class ContatoControllerTest {
         verify(contatoRepository, never()).save(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void updateContato_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(contatoRepository.findById(1L)).thenReturn(Optional.of(contato));
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(contatoRepository.findVersaoById(1L)).thenReturn(Optional.of("2.0"));
+
+        mockMvc.perform(put("/api/contatos/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"1.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(contato)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(contatoRepository, never()).save(any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void deleteContato_WithValidIdAndPermission_ShouldReturnNoContent() throws Exception {
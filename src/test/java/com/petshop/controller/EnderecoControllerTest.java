@@ -1,15 +1,24 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.exception.LoteInvalidoException;
 import com.petshop.model.Endereco;
 import com.petshop.model.Cliente;
 import com.petshop.repository.EnderecoRepository;
+import com.petshop.repository.filtro.EnderecoFiltro;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,10 +45,17 @@ class EnderecoControllerTest {
     @MockBean
     private RoleService roleService;
 
+    @MockBean
+    private ExecutorBusca executorBusca;
+
+    @MockBean
+    private CadastroLoteService cadastroLoteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Endereco endereco;
+    private EnderecoResponse enderecoResponse;
     private Cliente cliente;
 
     @BeforeEach
@@ -56,13 +72,15 @@ class EnderecoControllerTest {
         endereco.setBairro("Centro");
         endereco.setCidade("São Paulo");
         endereco.setTag("Residencial");
+
+        enderecoResponse = EnderecoResponse.de(endereco);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllEnderecos_WithAdminRole_ShouldReturnOk() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findAll()).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        when(enderecoRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(enderecos));
 
         mockMvc.perform(get("/api/enderecos"))
                 .andExpect(status().isOk())
@@ -72,7 +90,7 @@ class EnderecoControllerTest {
                 .andExpect(jsonPath("$[0].logradouro").value("Rua das Flores"))
                 .andExpect(jsonPath("$[0].cidade").value("São Paulo"));
 
-        verify(enderecoRepository).findAll();
+        verify(enderecoRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -81,56 +99,74 @@ class EnderecoControllerTest {
         mockMvc.perform(get("/api/enderecos"))
                 .andExpect(status().isForbidden());
 
-        verify(enderecoRepository, never()).findAll();
+        verify(enderecoRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getEnderecoById_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
-        when(enderecoRepository.findById(1L)).thenReturn(Optional.of(endereco));
+        when(enderecoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(enderecoRepository.findResponseById(1L)).thenReturn(Optional.of(enderecoResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.logradouro").value("Rua das Flores"));
 
-        verify(enderecoRepository).findById(1L);
+        verify(enderecoRepository).findResponseById(1L);
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getEnderecoById_WithValidIdButNoPermission_ShouldReturnForbidden() throws Exception {
-        when(enderecoRepository.findById(1L)).thenReturn(Optional.of(endereco));
+        when(enderecoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(enderecoRepository.findResponseById(1L)).thenReturn(Optional.of(enderecoResponse));
         when(roleService.canAccessCliente(1L)).thenReturn(false);
 
-        mockMvc.perform(get("/api/enderecos/1"))
+        mockMvc.perform(get("/api/enderecos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
                 .andExpect(status().isForbidden());
 
-        verify(enderecoRepository).findById(1L);
+        verify(enderecoRepository).findResponseById(1L);
         verify(roleService).canAccessCliente(1L);
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getEnderecoById_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(enderecoRepository.findById(999L)).thenReturn(Optional.empty());
+        when(enderecoRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/enderecos/999"))
                 .andExpect(status().isNotFound());
 
-        verify(enderecoRepository).findById(999L);
+        verify(enderecoRepository).findResponseById(999L);
         verify(roleService, never()).canAccessCliente(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getEnderecoById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(enderecoRepository.findVersaoById(1L)).thenReturn(Optional.of("1.0"));
+        when(enderecoRepository.findResponseById(1L)).thenReturn(Optional.of(enderecoResponse));
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+
+        mockMvc.perform(get("/api/enderecos/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.0\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void getEnderecosByCliente_WithValidClienteAndPermission_ShouldReturnOk() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(enderecoRepository.findByClienteId(1L)).thenReturn(enderecos);
+        when(enderecoRepository.findByClienteId(1L, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(enderecos));
 
         mockMvc.perform(get("/api/enderecos/cliente/1"))
                 .andExpect(status().isOk())
@@ -139,7 +175,7 @@ class EnderecoControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1));
 
         verify(roleService).canAccessCliente(1L);
-        verify(enderecoRepository).findByClienteId(1L);
+        verify(enderecoRepository).findByClienteId(1L, 0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -151,15 +187,15 @@ class EnderecoControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(enderecoRepository, never()).findByClienteId(any());
+        verify(enderecoRepository, never()).findByClienteId(any(), anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getEnderecos_WithClienteIdAndPermission_ShouldReturnOk() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(enderecoRepository.findByAllFilters(1L, null, null, null, null)).thenReturn(enderecos);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(1L, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
 
         mockMvc.perform(get("/api/enderecos/buscar")
                 .param("clienteId", "1"))
@@ -168,7 +204,7 @@ class EnderecoControllerTest {
                 .andExpect(jsonPath("$").isArray());
 
         verify(roleService).canAccessCliente(1L);
-        verify(enderecoRepository).findByAllFilters(1L, null, null, null, null);
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(1L, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -181,14 +217,14 @@ class EnderecoControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(enderecoRepository, never()).findByAllFilters(any(), any(), any(), any(), any());
+        verify(executorBusca, never()).buscar(any(), anyLong(), any(Pageable.class), any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getEnderecos_WithCidadeOnly_ShouldReturnAllEnderecos() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findByAllFilters(null, "São Paulo", null, null, null)).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(null, null, "São Paulo", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/buscar")
@@ -197,15 +233,15 @@ class EnderecoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(enderecoRepository).findByAllFilters(null, "São Paulo", null, null, null);
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(null, null, "São Paulo", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getEnderecos_WithBairroOnly_ShouldReturnAllEnderecos() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findByAllFilters(null, null, "Centro", null, null)).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, "Centro", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/buscar")
@@ -214,15 +250,15 @@ class EnderecoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(enderecoRepository).findByAllFilters(null, null, "Centro", null, null);
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, "Centro", null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getEnderecos_WithLogradouroOnly_ShouldReturnAllEnderecos() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findByAllFilters(null, null, null, "Rua das Flores", null)).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, null, "Rua das Flores", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/buscar")
@@ -231,15 +267,15 @@ class EnderecoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(enderecoRepository).findByAllFilters(null, null, null, "Rua das Flores", null);
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, null, "Rua das Flores", null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getEnderecos_WithTagOnly_ShouldReturnAllEnderecos() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findByAllFilters(null, null, null, null, "Residencial")).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, null, null, "Residencial")), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/buscar")
@@ -248,15 +284,15 @@ class EnderecoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(enderecoRepository).findByAllFilters(null, null, null, null, "Residencial");
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(null, null, null, null, null, "Residencial")), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getEnderecos_WithMultipleFilters_ShouldReturnAllEnderecos() throws Exception {
-        List<Endereco> enderecos = Arrays.asList(endereco);
-        when(enderecoRepository.findByAllFilters(1L, "São Paulo", "Centro", "Rua das Flores", "Residencial")).thenReturn(enderecos);
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(1L, null, "São Paulo", "Centro", "Rua das Flores", "Residencial")), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(true);
 
         mockMvc.perform(get("/api/enderecos/buscar")
@@ -269,10 +305,26 @@ class EnderecoControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray());
 
-        verify(enderecoRepository).findByAllFilters(1L, "São Paulo", "Centro", "Rua das Flores", "Residencial");
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(1L, null, "São Paulo", "Centro", "Rua das Flores", "Residencial")), eq(0L), eq(PageRequest.of(0, 100)), any());
         verify(roleService).isAdmin();
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getEnderecos_WithoutClienteIdAsUser_ShouldRestrictToOwnEnderecos() throws Exception {
+        List<EnderecoResponse> enderecos = Arrays.asList(enderecoResponse);
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        doReturn(new SliceImpl<>(enderecos)).when(executorBusca).buscar(eq(new EnderecoFiltro(null, "12345678901", "São Paulo", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+
+        mockMvc.perform(get("/api/enderecos/buscar")
+                .param("cidade", "São Paulo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+
+        verify(executorBusca).buscar(eq(new EnderecoFiltro(null, "12345678901", "São Paulo", null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void createEndereco_WithValidDataAndPermission_ShouldReturnCreated() throws Exception {
@@ -307,6 +359,20 @@ class EnderecoControllerTest {
         verify(enderecoRepository, never()).save(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void createEnderecos_WithOversizedBatch_ShouldReturnBadRequest() throws Exception {
+        when(cadastroLoteService.criarEnderecos(anyList()))
+                .thenThrow(new LoteInvalidoException("Lote com 1001 itens; o máximo é 1000"));
+
+        mockMvc.perform(post("/api/enderecos/lote")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(endereco))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Lote Inválido"));
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void updateEndereco_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
@@ -360,6 +426,24 @@ class EnderecoControllerTest {
         verify(enderecoRepository, never()).save(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void updateEndereco_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(enderecoRepository.findById(1L)).thenReturn(Optional.of(endereco));
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(enderecoRepository.findVersaoById(1L)).thenReturn(Optional.of("2.0"));
+
+        mockMvc.perform(put("/api/enderecos/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"1.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(endereco)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(enderecoRepository, never()).save(any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void deleteEndereco_WithValidIdAndPermission_ShouldReturnNoContent() throws Exception {
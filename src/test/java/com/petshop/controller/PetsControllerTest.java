@@ -1,12 +1,20 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.LoteResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.dto.SugestaoResponse;
 import com.petshop.model.Cliente;
 import com.petshop.model.Pets;
 import com.petshop.model.Raca;
 import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
 import com.petshop.repository.RacaRepository;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.repository.filtro.PetsFiltro;
+import com.petshop.service.AtendimentoPeriodoCache;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.CadastroLoteService;
 import com.petshop.service.RoleService;
 import com.petshop.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,7 +22,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -52,10 +65,23 @@ class PetsControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private ExecutorBusca executorBusca;
+
+    @MockBean
+    private AutocompleteService autocompleteService;
+
+    @MockBean
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
+    @MockBean
+    private CadastroLoteService cadastroLoteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
     private Pets pet;
+    private PetResponse petResponse;
     private Cliente cliente;
     private Raca raca;
 
@@ -76,22 +102,26 @@ class PetsControllerTest {
         pet.setDataNascimento(LocalDate.of(2020, 5, 15));
         pet.setCliente(cliente);
         pet.setRaca(raca);
+
+        petResponse = PetResponse.de(pet);
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllPets_WithAdminRole_ShouldReturnOk() throws Exception {
-        List<Pets> pets = Arrays.asList(pet);
-        when(petsRepository.findAll()).thenReturn(pets);
+        List<PetResponse> pets = Arrays.asList(petResponse);
+        when(petsRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(pets));
 
         mockMvc.perform(get("/api/pets"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].nome").value("Rex"));
+                .andExpect(jsonPath("$[0].nome").value("Rex"))
+                .andExpect(jsonPath("$[0].cliente.nome").value("João Silva"))
+                .andExpect(jsonPath("$[0].raca.descricao").value("Golden Retriever"));
 
-        verify(petsRepository).findAll();
+        verify(petsRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -100,23 +130,39 @@ class PetsControllerTest {
         mockMvc.perform(get("/api/pets"))
                 .andExpect(status().isForbidden());
 
-        verify(petsRepository, never()).findAll();
+        verify(petsRepository, never()).findAll(anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPetById_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
         when(roleService.canAccessPet(1L)).thenReturn(true);
-        when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.findVersaoById(1L)).thenReturn(Optional.of("2.0.1"));
+        when(petsRepository.findResponseById(1L)).thenReturn(Optional.of(petResponse));
 
         mockMvc.perform(get("/api/pets/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2.0.1\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.nome").value("Rex"));
 
         verify(roleService).canAccessPet(1L);
-        verify(petsRepository).findById(1L);
+        verify(petsRepository).findResponseById(1L);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getPetById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(roleService.canAccessPet(1L)).thenReturn(true);
+        when(petsRepository.findVersaoById(1L)).thenReturn(Optional.of("2.0.1"));
+
+        mockMvc.perform(get("/api/pets/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2.0.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2.0.1\""));
+
+        verify(petsRepository, never()).findResponseById(any());
     }
 
     @Test
@@ -128,37 +174,54 @@ class PetsControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessPet(1L);
-        verify(petsRepository, never()).findById(any());
+        verify(petsRepository, never()).findResponseById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPetById_WithInvalidId_ShouldReturnNotFound() throws Exception {
         when(roleService.canAccessPet(999L)).thenReturn(true);
-        when(petsRepository.findById(999L)).thenReturn(Optional.empty());
+        when(petsRepository.findVersaoById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/pets/999"))
                 .andExpect(status().isNotFound());
 
         verify(roleService).canAccessPet(999L);
-        verify(petsRepository).findById(999L);
+        verify(petsRepository, never()).findResponseById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPetsByCliente_WithValidClienteAndPermission_ShouldReturnOk() throws Exception {
-        List<Pets> pets = Arrays.asList(pet);
+        List<PetResponse> pets = Arrays.asList(petResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(petsRepository.findByClienteId(1L)).thenReturn(pets);
+        when(petsRepository.findVersaoByClienteId(1L, 0L)).thenReturn("1.1.2.0.1");
+        when(petsRepository.findByClienteId(1L, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(pets));
 
         mockMvc.perform(get("/api/pets/cliente/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.2.0.1\""))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
         verify(roleService).canAccessCliente(1L);
-        verify(petsRepository).findByClienteId(1L);
+        verify(petsRepository).findByClienteId(1L, 0L, PageRequest.of(0, 100));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getPetsByCliente_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+        when(petsRepository.findVersaoByClienteId(1L, 0L)).thenReturn("1.1.2.0.1");
+
+        mockMvc.perform(get("/api/pets/cliente/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0.0.0.0.0\", \"1.1.2.0.1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.2.0.1\""))
+                .andExpect(content().string(""));
+
+        verify(petsRepository, never()).findByClienteId(any(), anyLong(), any(Pageable.class));
     }
 
     @Test
@@ -170,15 +233,15 @@ class PetsControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(petsRepository, never()).findByClienteId(any());
+        verify(petsRepository, never()).findByClienteId(any(), anyLong(), any(Pageable.class));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPetsByRaca_WithAdminRole_ShouldReturnAllPets() throws Exception {
-        List<Pets> pets = Arrays.asList(pet);
+        List<PetResponse> pets = Arrays.asList(petResponse);
         when(roleService.isAdmin()).thenReturn(true);
-        when(petsRepository.findByRacaId(1L)).thenReturn(pets);
+        when(petsRepository.findByRacaId(1L, 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(pets));
 
         mockMvc.perform(get("/api/pets/raca/1"))
                 .andExpect(status().isOk())
@@ -186,32 +249,35 @@ class PetsControllerTest {
                 .andExpect(jsonPath("$").isArray());
 
         verify(roleService).isAdmin();
-        verify(petsRepository).findByRacaId(1L);
+        verify(petsRepository).findByRacaId(1L, 0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPetsByRaca_WithUserRole_ShouldReturnFilteredPets() throws Exception {
-        List<Pets> pets = Arrays.asList(pet);
+        List<PetResponse> pets = Arrays.asList(petResponse);
         when(roleService.isAdmin()).thenReturn(false);
-        when(petsRepository.findByRacaId(1L)).thenReturn(pets);
-        when(roleService.canAccessPet(1L)).thenReturn(true);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        when(petsRepository.findByRacaIdAndClienteCpf(1L, "12345678901", 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(pets));
 
         mockMvc.perform(get("/api/pets/raca/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].id").value(1));
 
         verify(roleService).isAdmin();
-        verify(petsRepository).findByRacaId(1L);
+        verify(petsRepository).findByRacaIdAndClienteCpf(1L, "12345678901", 0L, PageRequest.of(0, 100));
+        verify(petsRepository, never()).findByRacaId(any(), anyLong(), any(Pageable.class));
+        verify(roleService, never()).canAccessPet(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getPets_WithClienteIdAndPermission_ShouldReturnOk() throws Exception {
-        List<Pets> pets = Arrays.asList(pet);
+        List<PetResponse> pets = Arrays.asList(petResponse);
         when(roleService.canAccessCliente(1L)).thenReturn(true);
-        when(petsRepository.findByClienteId(1L)).thenReturn(pets);
+        doReturn(new SliceImpl<>(pets)).when(executorBusca).buscar(eq(new PetsFiltro(1L, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
         when(roleService.isAdmin()).thenReturn(false);
         when(roleService.canAccessPet(1L)).thenReturn(true);
 
@@ -222,7 +288,7 @@ class PetsControllerTest {
                 .andExpect(jsonPath("$").isArray());
 
         verify(roleService).canAccessCliente(1L);
-        verify(petsRepository).findByClienteId(1L);
+        verify(executorBusca).buscar(eq(new PetsFiltro(1L, null, null, null, null, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -235,7 +301,26 @@ class PetsControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canAccessCliente(1L);
-        verify(petsRepository, never()).findByClienteId(any());
+        verify(executorBusca, never()).buscar(any(), anyLong(), any(Pageable.class), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getPets_WithoutClienteIdAsUser_ShouldRestrictToOwnPets() throws Exception {
+        List<PetResponse> pets = Arrays.asList(petResponse);
+        LocalDate dataInicio = LocalDate.of(2020, 1, 1);
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentUserCpf()).thenReturn("12345678901");
+        doReturn(new SliceImpl<>(pets)).when(executorBusca).buscar(eq(new PetsFiltro(null, "12345678901", "Rex", 1L, dataInicio, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
+
+        mockMvc.perform(get("/api/pets/buscar-avancado")
+                .param("nome", "Rex")
+                .param("racaId", "1")
+                .param("dataInicio", dataInicio.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(executorBusca).buscar(eq(new PetsFiltro(null, "12345678901", "Rex", 1L, dataInicio, null)), eq(0L), eq(PageRequest.of(0, 100)), any());
     }
 
     @Test
@@ -295,11 +380,48 @@ class PetsControllerTest {
         verify(petsRepository, never()).save(any());
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPets_WithAllItemsCreated_ShouldReturnCreated() throws Exception {
+        when(cadastroLoteService.criarPets(anyList()))
+                .thenReturn(LoteResponse.de(List.of(LoteResponse.Item.criado(0, petResponse))));
+
+        mockMvc.perform(post("/api/pets/lote")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(pet))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.criados").value(1))
+                .andExpect(jsonPath("$.falhas").value(0))
+                .andExpect(jsonPath("$.itens[0].status").value(201))
+                .andExpect(jsonPath("$.itens[0].registro.nome").value("Rex"));
+
+        verify(cadastroLoteService).criarPets(anyList());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void createPets_WithFailedItem_ShouldReturnMultiStatus() throws Exception {
+        when(cadastroLoteService.criarPets(anyList())).thenReturn(LoteResponse.de(List.of(
+                LoteResponse.Item.criado(0, petResponse),
+                LoteResponse.Item.<PetResponse>falha(1, 403, List.of("Sem permissão para o cliente 2")))));
+
+        mockMvc.perform(post("/api/pets/lote")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(pet, pet))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.criados").value(1))
+                .andExpect(jsonPath("$.falhas").value(1))
+                .andExpect(jsonPath("$.itens[1].status").value(403))
+                .andExpect(jsonPath("$.itens[1].registro").doesNotExist());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void updatePet_WithValidIdAndPermission_ShouldReturnOk() throws Exception {
         when(roleService.canModifyPet(1L, null)).thenReturn(true);
-        when(petsRepository.existsById(1L)).thenReturn(true);
+        when(petsRepository.findWithClienteRacaById(1L)).thenReturn(Optional.of(pet));
         when(petsRepository.save(any(Pets.class))).thenReturn(pet);
 
         mockMvc.perform(put("/api/pets/1")
@@ -311,10 +433,46 @@ class PetsControllerTest {
                 .andExpect(jsonPath("$.id").value(1));
 
         verify(roleService).canModifyPet(1L, null);
-        verify(petsRepository).existsById(1L);
+        verify(petsRepository).findWithClienteRacaById(1L);
         verify(petsRepository).save(any(Pets.class));
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void updatePet_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(roleService.canModifyPet(1L, null)).thenReturn(true);
+        when(petsRepository.findWithClienteRacaById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.findVersaoById(1L)).thenReturn(Optional.of("3.0.1"));
+
+        mockMvc.perform(put("/api/pets/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"2.0.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pet)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(petsRepository, never()).save(any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void updatePet_WithConcurrentUpdate_ShouldReturnPreconditionFailed() throws Exception {
+        when(roleService.canModifyPet(1L, null)).thenReturn(true);
+        when(petsRepository.findWithClienteRacaById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.findVersaoById(1L)).thenReturn(Optional.of("2.0.1"));
+        when(petsRepository.save(any(Pets.class))).thenThrow(new ObjectOptimisticLockingFailureException(Pets.class, 1L));
+
+        mockMvc.perform(put("/api/pets/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"2.0.1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(pet)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(autocompleteService, never()).registrarPet(any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void updatePet_WithNoPermission_ShouldReturnForbidden() throws Exception {
@@ -327,7 +485,7 @@ class PetsControllerTest {
                 .andExpect(status().isForbidden());
 
         verify(roleService).canModifyPet(1L, null);
-        verify(petsRepository, never()).existsById(any());
+        verify(petsRepository, never()).findWithClienteRacaById(any());
         verify(petsRepository, never()).save(any());
     }
 
@@ -335,7 +493,7 @@ class PetsControllerTest {
     @WithMockUser(roles = "USER")
     void updatePet_WithInvalidId_ShouldReturnNotFound() throws Exception {
         when(roleService.canModifyPet(999L, null)).thenReturn(true);
-        when(petsRepository.existsById(999L)).thenReturn(false);
+        when(petsRepository.findWithClienteRacaById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/pets/999")
                 .with(csrf())
@@ -344,7 +502,7 @@ class PetsControllerTest {
                 .andExpect(status().isNotFound());
 
         verify(roleService).canModifyPet(999L, null);
-        verify(petsRepository).existsById(999L);
+        verify(petsRepository).findWithClienteRacaById(999L);
         verify(petsRepository, never()).save(any());
     }
 
@@ -361,6 +519,7 @@ class PetsControllerTest {
         verify(roleService).canDeletePet(1L);
         verify(petsRepository).existsById(1L);
         verify(petsRepository).deleteById(1L);
+        verify(atendimentoPeriodoCache).invalidarTudo();
     }
 
     @Test
@@ -391,5 +550,48 @@ class PetsControllerTest {
         verify(petsRepository).existsById(999L);
         verify(petsRepository, never()).deleteById(any());
     }
-}
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void autocompletarPets_AsAdmin_ShouldSearchAllPets() throws Exception {
+        when(roleService.isAdmin()).thenReturn(true);
+        when(autocompleteService.sugerirPets("re", null, 5)).thenReturn(List.of(new SugestaoResponse(1L, "Rex")));
+
+        mockMvc.perform(get("/api/pets/autocompletar")
+                .param("q", "re")
+                .param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nome").value("Rex"));
+
+        verifyNoInteractions(petsRepository);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void autocompletarPets_AsUser_ShouldRestrictToOwnCliente() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentClienteId()).thenReturn(7L);
+        when(autocompleteService.sugerirPets("re", 7L, null)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/pets/autocompletar")
+                .param("q", "re"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verify(autocompleteService).sugerirPets("re", 7L, null);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void autocompletarPets_AsUserWithoutCliente_ShouldReturnEmptyList() throws Exception {
+        when(roleService.isAdmin()).thenReturn(false);
+        when(roleService.getCurrentClienteId()).thenReturn(null);
+
+        mockMvc.perform(get("/api/pets/autocompletar")
+                .param("q", "re"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+        verifyNoInteractions(autocompleteService);
+    }
+}
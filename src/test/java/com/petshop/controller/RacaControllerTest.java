@@ -1,17 +1,29 @@
 package com.petshop.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petshop.dto.RegiaoCacheResponse;
+import com.petshop.dto.SugestaoResponse;
 import com.petshop.model.Raca;
 import com.petshop.repository.RacaRepository;
 import com.petshop.repository.PetsRepository;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.LeituraNoPrimario;
+import com.petshop.service.RacaCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,6 +36,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(RacaController.class)
+@Import(LeituraNoPrimario.class)
 class RacaControllerTest {
 
     @Autowired
@@ -35,6 +48,15 @@ class RacaControllerTest {
     @MockBean
     private PetsRepository petsRepository;
 
+    @MockBean
+    private AutocompleteService autocompleteService;
+
+    @MockBean
+    private RacaCache racaCache;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -51,23 +73,25 @@ class RacaControllerTest {
     @WithMockUser(roles = "USER")
     void getAllRacas_WithUserRole_ShouldReturnOk() throws Exception {
         List<Raca> racas = Arrays.asList(raca);
-        when(racaRepository.findAll()).thenReturn(racas);
+        when(racaRepository.findVersaoColecao(0L)).thenReturn("1.1.0");
+        when(racaRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(racas));
 
         mockMvc.perform(get("/api/racas"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.0\""))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].descricao").value("Golden Retriever"));
 
-        verify(racaRepository).findAll();
+        verify(racaRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getAllRacas_WithAdminRole_ShouldReturnOk() throws Exception {
         List<Raca> racas = Arrays.asList(raca);
-        when(racaRepository.findAll()).thenReturn(racas);
+        when(racaRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(racas));
 
         mockMvc.perform(get("/api/racas"))
                 .andExpect(status().isOk())
@@ -76,39 +100,81 @@ class RacaControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].descricao").value("Golden Retriever"));
 
-        verify(racaRepository).findAll();
+        verify(racaRepository).findAll(0L, PageRequest.of(0, 100));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllRacas_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(racaRepository.findVersaoColecao(0L)).thenReturn("1.1.0");
+
+        mockMvc.perform(get("/api/racas")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"1.1.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.0\""))
+                .andExpect(content().string(""));
+
+        verify(racaRepository, never()).findAll(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getAllRacas_AfterChange_ShouldReturnNewEtag() throws Exception {
+        when(racaRepository.findVersaoColecao(0L)).thenReturn("1.1.1");
+        when(racaRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(List.of(raca)));
+
+        mockMvc.perform(get("/api/racas")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"1.1.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1.1\""))
+                .andExpect(jsonPath("$[0].id").value(1));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getRacaById_WithValidId_ShouldReturnOk() throws Exception {
+        when(racaRepository.findVersaoById(1L)).thenReturn(Optional.of("0"));
         when(racaRepository.findById(1L)).thenReturn(Optional.of(raca));
 
         mockMvc.perform(get("/api/racas/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.descricao").value("Golden Retriever"));
 
         verify(racaRepository).findById(1L);
     }
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void getRacaById_WithCurrentEtag_ShouldReturnNotModified() throws Exception {
+        when(racaRepository.findVersaoById(1L)).thenReturn(Optional.of("0"));
+
+        mockMvc.perform(get("/api/racas/1")
+                .header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isNotModified());
+
+        verify(racaRepository, never()).findById(any());
+    }
+
     @Test
     @WithMockUser(roles = "USER")
     void getRacaById_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(racaRepository.findById(999L)).thenReturn(Optional.empty());
+        when(racaRepository.findVersaoById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/racas/999"))
                 .andExpect(status().isNotFound());
 
-        verify(racaRepository).findById(999L);
+        verify(racaRepository).findVersaoById(999L);
+        verify(racaRepository, never()).findById(any());
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getRacas_WithDescricao_ShouldReturnOk() throws Exception {
         List<Raca> racas = Arrays.asList(raca);
-        when(racaRepository.findByDescricaoContaining("Golden")).thenReturn(racas);
+        when(racaRepository.findByDescricaoContaining("Golden", 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(racas));
 
         mockMvc.perform(get("/api/racas/buscar")
                 .param("descricao", "Golden"))
@@ -117,14 +183,14 @@ class RacaControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(racaRepository).findByDescricaoContaining("Golden");
+        verify(racaRepository).findByDescricaoContaining("Golden", 0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getRacas_WithDescricaoCaseInsensitive_ShouldReturnOk() throws Exception {
         List<Raca> racas = Arrays.asList(raca);
-        when(racaRepository.findByDescricaoContainingIgnoreCase("golden")).thenReturn(racas);
+        when(racaRepository.findByDescricaoContainingIgnoreCase("golden", 0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(racas));
 
         mockMvc.perform(get("/api/racas/buscar")
                 .param("descricao", "golden")
@@ -134,14 +200,14 @@ class RacaControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(racaRepository).findByDescricaoContainingIgnoreCase("golden");
+        verify(racaRepository).findByDescricaoContainingIgnoreCase("golden", 0L, PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "USER")
     void getRacas_WithoutFilters_ShouldReturnAllRacas() throws Exception {
         List<Raca> racas = Arrays.asList(raca);
-        when(racaRepository.findAll()).thenReturn(racas);
+        when(racaRepository.findAll(0L, PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(racas));
 
         mockMvc.perform(get("/api/racas/buscar"))
                 .andExpect(status().isOk())
@@ -149,7 +215,7 @@ class RacaControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1));
 
-        verify(racaRepository).findAll();
+        verify(racaRepository).findAll(0L, PageRequest.of(0, 100));
     }
 
     @Test
@@ -169,6 +235,7 @@ class RacaControllerTest {
 
         verify(racaRepository).findByDescricao("Golden Retriever");
         verify(racaRepository).save(any(Raca.class));
+        verify(racaCache).invalidar();
     }
 
     @Test
@@ -186,6 +253,7 @@ class RacaControllerTest {
 
         verify(racaRepository).findByDescricao("Golden Retriever");
         verify(racaRepository, never()).save(any());
+        verify(racaCache, never()).invalidar();
     }
 
     @Test
@@ -204,7 +272,7 @@ class RacaControllerTest {
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateRaca_WithValidId_ShouldReturnOk() throws Exception {
-        when(racaRepository.existsById(1L)).thenReturn(true);
+        when(racaRepository.findById(1L)).thenReturn(Optional.of(raca));
         when(racaRepository.save(any(Raca.class))).thenReturn(raca);
 
         mockMvc.perform(put("/api/racas/1")
@@ -215,14 +283,49 @@ class RacaControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1));
 
-        verify(racaRepository).existsById(1L);
+        verify(racaRepository).findById(1L);
         verify(racaRepository).save(any(Raca.class));
+        verify(racaCache).invalidar();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateRaca_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(racaRepository.findById(1L)).thenReturn(Optional.of(raca));
+        when(racaRepository.findVersaoById(1L)).thenReturn(Optional.of("2"));
+
+        mockMvc.perform(put("/api/racas/1")
+                .with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(raca)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        verify(racaRepository, never()).save(any());
+        verify(racaCache, never()).invalidar();
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateRaca_WithConcurrentUpdate_ShouldEvictCacheAndReturnPreconditionFailed() throws Exception {
+        when(racaRepository.findById(1L)).thenReturn(Optional.of(raca));
+        when(racaRepository.save(any(Raca.class))).thenThrow(new ObjectOptimisticLockingFailureException(Raca.class, 1L));
+
+        mockMvc.perform(put("/api/racas/1")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(raca)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(racaCache).invalidar();
+        verify(autocompleteService, never()).registrarRaca(any());
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void updateRaca_WithInvalidId_ShouldReturnNotFound() throws Exception {
-        when(racaRepository.existsById(999L)).thenReturn(false);
+        when(racaRepository.findById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/racas/999")
                 .with(csrf())
@@ -230,8 +333,9 @@ class RacaControllerTest {
                 .content(objectMapper.writeValueAsString(raca)))
                 .andExpect(status().isNotFound());
 
-        verify(racaRepository).existsById(999L);
+        verify(racaRepository).findById(999L);
         verify(racaRepository, never()).save(any());
+        verify(racaCache, never()).invalidar();
     }
 
     @Test
@@ -243,7 +347,7 @@ class RacaControllerTest {
                 .content(objectMapper.writeValueAsString(raca)))
                 .andExpect(status().isForbidden());
 
-        verify(racaRepository, never()).existsById(any());
+        verify(racaRepository, never()).findById(any());
         verify(racaRepository, never()).save(any());
     }
 
@@ -259,6 +363,7 @@ class RacaControllerTest {
         verify(racaRepository).existsById(1L);
         verify(petsRepository).deleteByRacaId(1L);
         verify(racaRepository).deleteById(1L);
+        verify(racaCache).invalidar();
     }
 
     @Test
@@ -273,6 +378,7 @@ class RacaControllerTest {
         verify(racaRepository).existsById(999L);
         verify(petsRepository, never()).deleteByRacaId(any());
         verify(racaRepository, never()).deleteById(any());
+        verify(racaCache, never()).invalidar();
     }
 
     @Test
@@ -300,5 +406,41 @@ class RacaControllerTest {
         verify(petsRepository).deleteByRacaId(1L);
         verify(racaRepository).deleteById(1L);
     }
-}
 
+    @Test
+    @WithMockUser(roles = "USER")
+    void autocompletarRacas_ShouldReturnSuggestions() throws Exception {
+        when(autocompleteService.sugerirRacas("gol", null)).thenReturn(List.of(new SugestaoResponse(1L, "Golden Retriever")));
+
+        mockMvc.perform(get("/api/racas/autocompletar")
+                .param("q", "gol"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].nome").value("Golden Retriever"));
+
+        verifyNoInteractions(racaRepository);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getEstatisticasCache_WithAdminRole_ShouldReturnOk() throws Exception {
+        when(racaCache.estatisticas()).thenReturn(List.of(
+                new RegiaoCacheResponse("racas", 10, 2, 2),
+                new RegiaoCacheResponse("racas-consultas", 5, 1, 1)));
+
+        mockMvc.perform(get("/api/racas/cache/estatisticas"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].regiao").value("racas"))
+                .andExpect(jsonPath("$[0].acertos").value(10))
+                .andExpect(jsonPath("$[1].regiao").value("racas-consultas"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getEstatisticasCache_WithUserRole_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/api/racas/cache/estatisticas"))
+                .andExpect(status().isForbidden());
+
+        verify(racaCache, never()).estatisticas();
+    }
+}
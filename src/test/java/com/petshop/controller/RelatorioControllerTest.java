@@ -0,0 +1,179 @@
+package com.petshop.controller;
+
+import com.petshop.config.MetodoSecurityTestConfig;
+import com.petshop.dto.DivergenciaResumoResponse;
+import com.petshop.dto.FaturamentoResponse;
+import com.petshop.dto.RankingResponse;
+import com.petshop.dto.ResumoAtendimentosResponse;
+import com.petshop.service.JwtService;
+import com.petshop.service.RelatorioAtendimentoService;
+import com.petshop.service.RelatorioAtendimentoService.Agrupamento;
+import com.petshop.service.RelatorioAtendimentoService.Periodo;
+import com.petshop.service.ResumoDiarioService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RelatorioController.class)
+@Import(MetodoSecurityTestConfig.class)
+class RelatorioControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RelatorioAtendimentoService relatorioAtendimentoService;
+
+    @MockBean
+    private ResumoDiarioService resumoDiarioService;
+
+    @MockBean
+    private JwtService jwtService;
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2024, 3, 31);
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getFaturamento_PerMonthAndCliente_ShouldReturnAggregatedRows() throws Exception {
+        FaturamentoResponse linha = new FaturamentoResponse(INICIO, 1L, "João Silva", 3, new BigDecimal("240.00"), new BigDecimal("80.00"));
+        when(relatorioAtendimentoService.faturamento(INICIO, FIM, Periodo.MES, Agrupamento.CLIENTE)).thenReturn(List.of(linha));
+
+        mockMvc.perform(get("/api/relatorios/faturamento")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("agrupamento", "cliente"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].periodo").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].nome").value("João Silva"))
+                .andExpect(jsonPath("$[0].total").value(240.00));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getFaturamento_WithInvalidPeriodo_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/relatorios/faturamento")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("periodo", "semana"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Período inválido: semana. Use dia ou mes"));
+
+        verifyNoInteractions(relatorioAtendimentoService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getFaturamento_PerDayOverTooLongRange_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/relatorios/faturamento")
+                .param("dataInicio", "2022-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("periodo", "dia"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(relatorioAtendimentoService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getResumo_WithInvertedDates_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/relatorios/resumo")
+                .param("dataInicio", "2024-03-31")
+                .param("dataFim", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(relatorioAtendimentoService, never()).resumo(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getResumo_ShouldReturnTotals() throws Exception {
+        when(relatorioAtendimentoService.resumo(INICIO, FIM)).thenReturn(new ResumoAtendimentosResponse(
+                INICIO, FIM, 10, new BigDecimal("900.00"), new BigDecimal("90.00"), 4, 6));
+
+        mockMvc.perform(get("/api/relatorios/resumo")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.atendimentos").value(10))
+                .andExpect(jsonPath("$.clientes").value(4));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getRankingPets_ShouldUseDefaultLimit() throws Exception {
+        when(relatorioAtendimentoService.rankingPets(INICIO, FIM, RelatorioController.LIMITE_PADRAO_RANKING)).thenReturn(List.of(
+                new RankingResponse(1, 5L, "Rex", 4, new BigDecimal("400.00"), new BigDecimal("44.44"))));
+
+        mockMvc.perform(get("/api/relatorios/ranking/pets")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].posicao").value(1))
+                .andExpect(jsonPath("$[0].participacao").value(44.44));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getRankingClientes_WithLimitAboveMaximum_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/relatorios/ranking/clientes")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31")
+                .param("limite", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(relatorioAtendimentoService);
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getRankingClientes_AsUser_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(get("/api/relatorios/ranking/clientes")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(relatorioAtendimentoService);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getDivergenciasResumoDiario_ShouldReturnCheckerRows() throws Exception {
+        when(resumoDiarioService.verificar(INICIO, FIM)).thenReturn(List.of(new DivergenciaResumoResponse(
+                LocalDate.of(2024, 2, 10), 1L, 5L, 2, 1, new BigDecimal("160.00"), new BigDecimal("80.00"))));
+
+        mockMvc.perform(get("/api/relatorios/resumo-diario/divergencias")
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].atendimentosEsperados").value(2))
+                .andExpect(jsonPath("$[0].atendimentosRegistrados").value(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void reconstruirResumoDiario_ShouldRebuildRange() throws Exception {
+        mockMvc.perform(post("/api/relatorios/resumo-diario/reconstruir")
+                .with(csrf())
+                .param("dataInicio", "2024-01-01")
+                .param("dataFim", "2024-03-31"))
+                .andExpect(status().isNoContent());
+
+        verify(resumoDiarioService).reconstruir(INICIO, FIM);
+    }
+}
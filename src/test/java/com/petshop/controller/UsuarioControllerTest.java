@@ -7,6 +7,8 @@ import com.petshop.model.Cliente;
 import com.petshop.model.PerfilUsuario;
 import com.petshop.repository.UsuarioRepository;
 import com.petshop.repository.ClienteRepository;
+import com.petshop.service.AutocompleteService;
+import com.petshop.service.ClienteOwnershipCache;
 import com.petshop.service.JwtService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -44,6 +49,12 @@ class UsuarioControllerTest {
     @MockBean
     private JwtService jwtService;
 
+    @MockBean
+    private ClienteOwnershipCache clienteOwnershipCache;
+
+    @MockBean
+    private AutocompleteService autocompleteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -68,7 +79,7 @@ class UsuarioControllerTest {
     @WithMockUser(roles = "ADMIN")
     void getAllUsuarios_WithAdminRole_ShouldReturnOk() throws Exception {
         List<Usuario> usuarios = Arrays.asList(usuario);
-        when(usuarioRepository.findAll()).thenReturn(usuarios);
+        when(usuarioRepository.findAll("", PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(usuarios));
 
         mockMvc.perform(get("/api/usuarios"))
                 .andExpect(status().isOk())
@@ -77,7 +88,7 @@ class UsuarioControllerTest {
                 .andExpect(jsonPath("$[0].cpf").value("123.456.789-01"))
                 .andExpect(jsonPath("$[0].nome").value("João Silva"));
 
-        verify(usuarioRepository).findAll();
+        verify(usuarioRepository).findAll("", PageRequest.of(0, 100));
     }
 
     @Test
@@ -86,7 +97,7 @@ class UsuarioControllerTest {
         mockMvc.perform(get("/api/usuarios"))
                 .andExpect(status().isForbidden());
 
-        verify(usuarioRepository, never()).findAll();
+        verify(usuarioRepository, never()).findAll(anyString(), any(Pageable.class));
     }
 
     @Test
@@ -122,7 +133,7 @@ class UsuarioControllerTest {
     @WithMockUser(roles = "ADMIN")
     void getUsuariosByNome_WithAdminRole_ShouldReturnOk() throws Exception {
         List<Usuario> usuarios = Arrays.asList(usuario);
-        when(usuarioRepository.findByNomeContaining("João")).thenReturn(usuarios);
+        when(usuarioRepository.findByNomeContaining("João", "", PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(usuarios));
 
         mockMvc.perform(get("/api/usuarios/buscar")
                 .param("nome", "João"))
@@ -131,14 +142,14 @@ class UsuarioControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].cpf").value("123.456.789-01"));
 
-        verify(usuarioRepository).findByNomeContaining("João");
+        verify(usuarioRepository).findByNomeContaining("João", "", PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getUsuariosByPerfil_WithAdminRole_ShouldReturnOk() throws Exception {
         List<Usuario> usuarios = Arrays.asList(usuario);
-        when(usuarioRepository.findByPerfil(PerfilUsuario.ADMIN)).thenReturn(usuarios);
+        when(usuarioRepository.findByPerfil(PerfilUsuario.ADMIN, "", PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(usuarios));
 
         mockMvc.perform(get("/api/usuarios/buscar")
                 .param("perfil", "ADMIN"))
@@ -147,14 +158,14 @@ class UsuarioControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].cpf").value("123.456.789-01"));
 
-        verify(usuarioRepository).findByPerfil(PerfilUsuario.ADMIN);
+        verify(usuarioRepository).findByPerfil(PerfilUsuario.ADMIN, "", PageRequest.of(0, 100));
     }
 
     @Test
     @WithMockUser(roles = "ADMIN")
     void getUsuariosByNomeAndPerfil_WithAdminRole_ShouldReturnOk() throws Exception {
         List<Usuario> usuarios = Arrays.asList(usuario);
-        when(usuarioRepository.findByNomeAndPerfil("João", PerfilUsuario.ADMIN)).thenReturn(usuarios);
+        when(usuarioRepository.findByNomeAndPerfil("João", PerfilUsuario.ADMIN, "", PageRequest.of(0, 100))).thenReturn(new SliceImpl<>(usuarios));
 
         mockMvc.perform(get("/api/usuarios/buscar")
                 .param("nome", "João")
@@ -164,7 +175,7 @@ class UsuarioControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].cpf").value("123.456.789-01"));
 
-        verify(usuarioRepository).findByNomeAndPerfil("João", PerfilUsuario.ADMIN);
+        verify(usuarioRepository).findByNomeAndPerfil("João", PerfilUsuario.ADMIN, "", PageRequest.of(0, 100));
     }
 
     @Test
@@ -174,7 +185,7 @@ class UsuarioControllerTest {
                 .param("nome", "João"))
                 .andExpect(status().isForbidden());
 
-        verify(usuarioRepository, never()).findByNomeContaining(any());
+        verify(usuarioRepository, never()).findByNomeContaining(any(), anyString(), any(Pageable.class));
     }
 
     @Test
@@ -0,0 +1,90 @@
+package com.petshop.integration;
+
+import com.petshop.config.MigracoesTestConfig;
+import com.petshop.dto.AtendimentoBuscaResponse;
+import com.petshop.service.AtendimentoBuscaTextualService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Busca textual no banco de teste (coluna descricao_tsv e índice GIN das migrações), com o
+ * conjunto de candidatos reduzido a 3 para que o limite apareça com poucas linhas
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "atendimentos.busca.maximo-candidatos=3")
+@ActiveProfiles({"test", "migracoes"})
+@Import(MigracoesTestConfig.class)
+class AtendimentoBuscaTextualIntegrationTest {
+
+    @Autowired
+    private AtendimentoBuscaTextualService atendimentoBuscaTextualService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long maisRelevanteEAntigo;
+    private Long semBanho;
+    private final List<Long> recentes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE atendimento_resumo_diario, atendimento, pets, cliente CASCADE");
+        Long cliente = jdbcTemplate.queryForObject(
+                "INSERT INTO cliente (nome, data_cadastro) VALUES ('João Silva', DATE '2024-01-05') RETURNING id", Long.class);
+        Long pet = jdbcTemplate.queryForObject(
+                "INSERT INTO pets (id_cliente, nome) VALUES (?, 'Rex') RETURNING id", Long.class, cliente);
+
+        recentes.clear();
+        maisRelevanteEAntigo = atendimento(cliente, pet, "Banho, banho de ofurô e banho a seco");
+        semBanho = atendimento(cliente, pet, "Consulta de rotina");
+        recentes.add(atendimento(cliente, pet, "Banho simples"));
+        recentes.add(atendimento(cliente, pet, "Tosa higiênica e banho"));
+        recentes.add(atendimento(cliente, pet, "Banho"));
+    }
+
+    @Test
+    void pesquisar_ShouldRankOnlyTheMostRecentCandidates() {
+        Slice<AtendimentoBuscaResponse> resultado = atendimentoBuscaTextualService.pesquisar("banho", null, null, null, 10);
+
+        assertThat(resultado.getContent()).extracting(AtendimentoBuscaResponse::getId)
+                .containsExactlyInAnyOrderElementsOf(recentes)
+                .doesNotContain(maisRelevanteEAntigo, semBanho);
+        assertThat(resultado.getContent()).extracting(AtendimentoBuscaResponse::getRelevancia)
+                .isSortedAccordingTo((a, b) -> Float.compare(b, a));
+        assertThat(resultado.getContent().get(0).getTrecho()).containsIgnoringCase("<mark>banho</mark>");
+        assertThat(resultado.hasNext()).isFalse();
+    }
+
+    @Test
+    void pesquisar_WithCursor_ShouldContinueWithinTheCandidates() {
+        Slice<AtendimentoBuscaResponse> primeira = atendimentoBuscaTextualService.pesquisar("banho", null, null, null, 2);
+        AtendimentoBuscaResponse ultimo = primeira.getContent().get(1);
+        Slice<AtendimentoBuscaResponse> segunda = atendimentoBuscaTextualService.pesquisar("banho", null,
+                ultimo.getRelevancia(), ultimo.getId(), 2);
+
+        assertThat(primeira.hasNext()).isTrue();
+        List<Long> ids = new ArrayList<>();
+        primeira.forEach(atendimento -> ids.add(atendimento.getId()));
+        segunda.forEach(atendimento -> ids.add(atendimento.getId()));
+        assertThat(ids).containsExactlyInAnyOrderElementsOf(recentes);
+        assertThat(segunda.hasNext()).isFalse();
+    }
+
+    private Long atendimento(Long cliente, Long pet, String descricao) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO atendimento (id_pet, id_cliente, descricao, valor, data) VALUES (?, ?, ?, ?, ?) RETURNING id",
+                Long.class, pet, cliente, descricao, new BigDecimal("80.00"), LocalDate.of(2024, 2, 10));
+    }
+}
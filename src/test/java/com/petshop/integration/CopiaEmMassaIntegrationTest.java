@@ -0,0 +1,133 @@
+package com.petshop.integration;
+
+import com.petshop.config.MigracoesTestConfig;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Cliente;
+import com.petshop.model.PerfilUsuario;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import com.petshop.model.Usuario;
+import com.petshop.repository.AtendimentoRepository;
+import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.PetsRepository;
+import com.petshop.repository.RacaRepository;
+import com.petshop.repository.UsuarioRepository;
+import com.petshop.service.CopiaEmMassaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Exportação e importação com COPY no banco de teste, como no modo de linha de comando:
+ * sem servidor web (e, portanto, sem a segurança HTTP e as tarefas agendadas)
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "migracoes"})
+@Import(MigracoesTestConfig.class)
+class CopiaEmMassaIntegrationTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Autowired
+    private CopiaEmMassaService copiaEmMassaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RacaRepository racaRepository;
+
+    @Autowired
+    private PetsRepository petsRepository;
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE atendimento_resumo_diario, atendimento, contato, endereco, pets, cliente, raca, usuario CASCADE");
+    }
+
+    @Test
+    void exportarEImportar_ShouldCopyRowsWithNewIdsAndKeepRelationships() throws Exception {
+        usuarioRepository.save(new Usuario("11122233344", "João Silva", PerfilUsuario.CLIENTE, "hash"));
+        Raca raca = racaRepository.save(new Raca("Golden Retriever"));
+        Cliente cliente = new Cliente("João Silva", "11122233344", null);
+        cliente.setDataCadastro(LocalDate.of(2024, 1, 5));
+        cliente = clienteRepository.save(cliente);
+        Pets pet = petsRepository.save(new Pets(cliente, raca, LocalDate.of(2020, 5, 15), "Rex", null));
+        Atendimento atendimento = new Atendimento(pet, cliente, "Banho", new BigDecimal("80.00"));
+        atendimento.setData(LocalDate.of(2024, 2, 10));
+        atendimentoRepository.save(atendimento);
+
+        List<CopiaEmMassaService.Resultado> exportados = copiaEmMassaService.exportar(diretorio);
+
+        assertThat(exportados).extracting(CopiaEmMassaService.Resultado::tabela, CopiaEmMassaService.Resultado::linhas)
+                .containsExactly(tuple("raca", 1L), tuple("cliente", 1L), tuple("pets", 1L),
+                        tuple("contato", 0L), tuple("endereco", 0L), tuple("atendimento", 1L));
+
+        jdbcTemplate.execute("TRUNCATE atendimento_resumo_diario, atendimento, contato, endereco, pets, cliente, raca CASCADE");
+        List<CopiaEmMassaService.Resultado> importados = copiaEmMassaService.importar(diretorio);
+
+        assertThat(importados).extracting(CopiaEmMassaService.Resultado::linhas).containsOnly(1L, 0L);
+        assertThat(importados).extracting(CopiaEmMassaService.Resultado::descartadas).containsOnly(0L);
+
+        Map<String, Object> copiado = jdbcTemplate.queryForMap("""
+                SELECT p.id AS id_pet, p.nome AS pet, r.descricao AS raca, c.nome AS cliente, a.descricao, a.valor, a.data
+                FROM atendimento a
+                JOIN pets p ON p.id = a.id_pet
+                JOIN cliente c ON c.id = a.id_cliente AND c.id = p.id_cliente
+                JOIN raca r ON r.id = p.id_raca
+                """);
+        assertThat(copiado.get("id_pet")).isNotEqualTo(pet.getId());
+        assertThat(copiado).containsEntry("pet", "Rex")
+                .containsEntry("raca", "Golden Retriever")
+                .containsEntry("cliente", "João Silva")
+                .containsEntry("descricao", "Banho")
+                .containsEntry("valor", new BigDecimal("80.00"));
+
+        Map<String, Object> resumo = jdbcTemplate.queryForMap("SELECT data, atendimentos, total FROM atendimento_resumo_diario");
+        assertThat(resumo.get("data").toString()).isEqualTo("2024-02-10");
+        assertThat(((Number) resumo.get("atendimentos")).longValue()).isEqualTo(1L);
+        assertThat(resumo).containsEntry("total", new BigDecimal("80.00"));
+    }
+
+    @Test
+    void importar_ShouldAssignContiguousIdsFromOneSequenceBlockPer50Rows() throws Exception {
+        StringBuilder csv = new StringBuilder("id,descricao\n");
+        for (int i = 1; i <= 120; i++) {
+            csv.append(5000 + i).append(",Raça ").append(String.format("%03d", i)).append('\n');
+        }
+        Files.writeString(diretorio.resolve("raca.csv"), csv);
+        jdbcTemplate.queryForObject("SELECT setval('raca_id_seq', 1000, false)", Long.class);
+
+        copiaEmMassaService.importar(diretorio);
+
+        // nextval devolve 1000, 1050 e 1100: blocos 951-1000, 1001-1050 e 1051-1100, com 120 linhas
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM raca ORDER BY descricao", Long.class);
+        assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(951, 1070).boxed().toList());
+        assertThat(jdbcTemplate.queryForObject("SELECT last_value FROM raca_id_seq", Long.class)).isEqualTo(1100L);
+    }
+}
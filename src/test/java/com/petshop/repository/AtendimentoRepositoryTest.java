@@ -1,5 +1,6 @@
 package com.petshop.repository;
 
+import com.petshop.dto.AtendimentoResponse;
 import com.petshop.model.Atendimento;
 import com.petshop.model.Cliente;
 import com.petshop.model.Pets;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -78,15 +80,15 @@ class AtendimentoRepositoryTest {
 
     @Test
     void findByPetId_ShouldReturnAtendimentosForPet() {
-        List<Atendimento> result = atendimentoRepository.findByPetId(pet.getId());
+        List<AtendimentoResponse> result = atendimentoRepository.findByPetId(pet.getId(), 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).hasSize(2);
-        assertThat(result).extracting(Atendimento::getPet).allMatch(p -> p.getId().equals(pet.getId()));
+        assertThat(result).extracting(a -> a.getPet().getId()).containsOnly(pet.getId());
     }
 
     @Test
     void findByPetId_WithNonExistentPet_ShouldReturnEmptyList() {
-        List<Atendimento> result = atendimentoRepository.findByPetId(999L);
+        List<AtendimentoResponse> result = atendimentoRepository.findByPetId(999L, 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).isEmpty();
     }
@@ -95,7 +97,7 @@ class AtendimentoRepositoryTest {
     void findByData_ShouldReturnAtendimentosForDate() {
         LocalDate data = LocalDate.of(2024, 1, 15);
 
-        List<Atendimento> result = atendimentoRepository.findByData(data);
+        List<AtendimentoResponse> result = atendimentoRepository.findByData(data, 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getData()).isEqualTo(data);
@@ -106,120 +108,38 @@ class AtendimentoRepositoryTest {
     void findByData_WithNonExistentDate_ShouldReturnEmptyList() {
         LocalDate data = LocalDate.of(2025, 1, 1);
 
-        List<Atendimento> result = atendimentoRepository.findByData(data);
+        List<AtendimentoResponse> result = atendimentoRepository.findByData(data, 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).isEmpty();
     }
 
     @Test
-    void findByDataBetween_ShouldReturnAtendimentosInRange() {
+    void findResponsesByDataBetween_ShouldReturnAtendimentosInRange() {
         LocalDate dataInicio = LocalDate.of(2024, 1, 1);
         LocalDate dataFim = LocalDate.of(2024, 1, 31);
 
-        List<Atendimento> result = atendimentoRepository.findByDataBetween(dataInicio, dataFim);
+        List<AtendimentoResponse> result = atendimentoRepository.findResponsesByDataBetween(dataInicio, dataFim);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getData()).isEqualTo(LocalDate.of(2024, 1, 15));
     }
 
     @Test
-    void findByDataBetween_WithWideRange_ShouldReturnAllAtendimentos() {
+    void findResponsesByDataBetween_WithWideRange_ShouldReturnAllAtendimentos() {
         LocalDate dataInicio = LocalDate.of(2024, 1, 1);
         LocalDate dataFim = LocalDate.of(2024, 12, 31);
 
-        List<Atendimento> result = atendimentoRepository.findByDataBetween(dataInicio, dataFim);
+        List<AtendimentoResponse> result = atendimentoRepository.findResponsesByDataBetween(dataInicio, dataFim);
 
         assertThat(result).hasSize(2);
     }
 
     @Test
-    void findByValor_ShouldReturnAtendimentosWithExactValue() {
-        BigDecimal valor = new BigDecimal("100.00");
-
-        List<Atendimento> result = atendimentoRepository.findByValor(valor);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getValor()).isEqualTo(valor);
-    }
-
-    @Test
-    void findByValorBetween_ShouldReturnAtendimentosInValueRange() {
-        BigDecimal valorMin = new BigDecimal("50.00");
-        BigDecimal valorMax = new BigDecimal("150.00");
-
-        List<Atendimento> result = atendimentoRepository.findByValorBetween(valorMin, valorMax);
-
-        assertThat(result).hasSize(2);
-        assertThat(result).extracting(Atendimento::getValor)
-                .allMatch(valor -> valor.compareTo(valorMin) >= 0 && valor.compareTo(valorMax) <= 0);
-    }
-
-    @Test
-    void findByValorBetween_WithNarrowRange_ShouldReturnFilteredAtendimentos() {
-        BigDecimal valorMin = new BigDecimal("90.00");
-        BigDecimal valorMax = new BigDecimal("110.00");
-
-        List<Atendimento> result = atendimentoRepository.findByValorBetween(valorMin, valorMax);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getValor()).isEqualTo(new BigDecimal("100.00"));
-    }
-
-    @Test
-    void findByDescricaoContaining_ShouldReturnAtendimentosWithMatchingDescription() {
-        String descricao = "consulta";
-
-        List<Atendimento> result = atendimentoRepository.findByDescricaoContaining(descricao);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getDescricao()).containsIgnoringCase("consulta");
-    }
-
-    @Test
-    void findByDescricaoContaining_WithCaseInsensitive_ShouldReturnMatchingAtendimentos() {
-        String descricao = "VACINAÇÃO";
-
-        List<Atendimento> result = atendimentoRepository.findByDescricaoContaining(descricao);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getDescricao()).containsIgnoringCase("vacinação");
-    }
-
-    @Test
-    void findByDescricaoContaining_WithNonExistentDescription_ShouldReturnEmptyList() {
-        String descricao = "cirurgia";
-
-        List<Atendimento> result = atendimentoRepository.findByDescricaoContaining(descricao);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByPetIdAndData_ShouldReturnAtendimentoForPetAndDate() {
-        LocalDate data = LocalDate.of(2024, 1, 15);
-
-        List<Atendimento> result = atendimentoRepository.findByPetIdAndData(pet.getId(), data);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getPet().getId()).isEqualTo(pet.getId());
-        assertThat(result.get(0).getData()).isEqualTo(data);
-    }
-
-    @Test
-    void findByPetIdAndData_WithNonExistentCombination_ShouldReturnEmptyList() {
-        LocalDate data = LocalDate.of(2025, 1, 1);
-
-        List<Atendimento> result = atendimentoRepository.findByPetIdAndData(pet.getId(), data);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByPetIdAndDataBetween_ShouldReturnAtendimentosForPetInDateRange() {
+    void findResponsesByPetIdAndDataBetween_ShouldReturnAtendimentosForPetInDateRange() {
         LocalDate dataInicio = LocalDate.of(2024, 1, 1);
         LocalDate dataFim = LocalDate.of(2024, 1, 31);
 
-        List<Atendimento> result = atendimentoRepository.findByPetIdAndDataBetween(pet.getId(), dataInicio, dataFim);
+        List<AtendimentoResponse> result = atendimentoRepository.findResponsesByPetIdAndDataBetween(pet.getId(), dataInicio, dataFim);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getPet().getId()).isEqualTo(pet.getId());
@@ -227,14 +147,14 @@ class AtendimentoRepositoryTest {
     }
 
     @Test
-    void findByPetIdAndDataBetween_WithWideRange_ShouldReturnAllAtendimentosForPet() {
+    void findResponsesByPetIdAndDataBetween_WithWideRange_ShouldReturnAllAtendimentosForPet() {
         LocalDate dataInicio = LocalDate.of(2024, 1, 1);
         LocalDate dataFim = LocalDate.of(2024, 12, 31);
 
-        List<Atendimento> result = atendimentoRepository.findByPetIdAndDataBetween(pet.getId(), dataInicio, dataFim);
+        List<AtendimentoResponse> result = atendimentoRepository.findResponsesByPetIdAndDataBetween(pet.getId(), dataInicio, dataFim);
 
         assertThat(result).hasSize(2);
-        assertThat(result).extracting(Atendimento::getPet).allMatch(p -> p.getId().equals(pet.getId()));
+        assertThat(result).extracting(a -> a.getPet().getId()).containsOnly(pet.getId());
     }
 
     @Test
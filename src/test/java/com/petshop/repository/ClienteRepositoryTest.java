@@ -0,0 +1,59 @@
+package com.petshop.repository;
+
+import com.petshop.model.Cliente;
+import com.petshop.model.Contato;
+import com.petshop.model.Pets;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class ClienteRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void save_ClienteWithManyPetsAndContatos_ShouldInsertInBatches() {
+        Cliente cliente = new Cliente("João Silva", "12345678901", null);
+        List<Pets> pets = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            pets.add(new Pets(cliente, null, null, "Pet " + i, null));
+        }
+        cliente.setPets(pets);
+        List<Contato> contatos = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            contatos.add(new Contato(cliente, null, Contato.TipoContato.email, "joao" + i + "@email.com"));
+        }
+        cliente.setContatos(contatos);
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+
+        clienteRepository.save(cliente);
+        entityManager.flush();
+
+        // 91 linhas: poucos nextval (blocos de 50 ids) e um INSERT preparado por lote
+        assertThat(estatisticas.getEntityInsertCount()).isEqualTo(91);
+        assertThat(estatisticas.getPrepareStatementCount()).isLessThan(15);
+        assertThat(cliente.getId()).isNotNull();
+        assertThat(pets).extracting(Pets::getId).doesNotContainNull().doesNotHaveDuplicates();
+    }
+}
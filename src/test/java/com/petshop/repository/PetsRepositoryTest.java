@@ -1,5 +1,6 @@
 package com.petshop.repository;
 
+import com.petshop.dto.PetResponse;
 import com.petshop.model.Cliente;
 import com.petshop.model.Pets;
 import com.petshop.model.Raca;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
@@ -83,160 +85,32 @@ class PetsRepositoryTest {
 
     @Test
     void findByClienteId_ShouldReturnPetsForClient() {
-        List<Pets> result = petsRepository.findByClienteId(cliente1.getId());
+        List<PetResponse> result = petsRepository.findByClienteId(cliente1.getId(), 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).hasSize(2);
-        assertThat(result).extracting(Pets::getCliente).allMatch(c -> c.getId().equals(cliente1.getId()));
-        assertThat(result).extracting(Pets::getNome).containsExactlyInAnyOrder("Rex", "Max");
+        assertThat(result).extracting(p -> p.getCliente().getId()).containsOnly(cliente1.getId());
+        assertThat(result).extracting(PetResponse::getNome).containsExactlyInAnyOrder("Rex", "Max");
     }
 
     @Test
     void findByClienteId_WithNonExistentClient_ShouldReturnEmptyList() {
-        List<Pets> result = petsRepository.findByClienteId(999L);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByNomeContaining_ShouldReturnPetsWithMatchingName() {
-        String nome = "ex";
-
-        List<Pets> result = petsRepository.findByNomeContaining(nome);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getNome()).containsIgnoringCase("ex");
-    }
-
-    @Test
-    void findByNomeContaining_WithCaseInsensitive_ShouldReturnMatchingPets() {
-        String nome = "MAX";
-
-        List<Pets> result = petsRepository.findByNomeContaining(nome);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getNome()).containsIgnoringCase("max");
-    }
-
-    @Test
-    void findByNomeContaining_WithNonExistentName_ShouldReturnEmptyList() {
-        String nome = "Buddy";
-
-        List<Pets> result = petsRepository.findByNomeContaining(nome);
+        List<PetResponse> result = petsRepository.findByClienteId(999L, 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).isEmpty();
     }
 
     @Test
     void findByRacaId_ShouldReturnPetsForRace() {
-        List<Pets> result = petsRepository.findByRacaId(raca1.getId());
+        List<PetResponse> result = petsRepository.findByRacaId(raca1.getId(), 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).hasSize(2);
-        assertThat(result).extracting(Pets::getRaca).allMatch(r -> r.getId().equals(raca1.getId()));
-        assertThat(result).extracting(Pets::getNome).containsExactlyInAnyOrder("Rex", "Luna");
+        assertThat(result).extracting(p -> p.getRaca().getId()).containsOnly(raca1.getId());
+        assertThat(result).extracting(PetResponse::getNome).containsExactlyInAnyOrder("Rex", "Luna");
     }
 
     @Test
     void findByRacaId_WithNonExistentRace_ShouldReturnEmptyList() {
-        List<Pets> result = petsRepository.findByRacaId(999L);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByDataNascimento_ShouldReturnPetsWithExactBirthDate() {
-        LocalDate dataNascimento = LocalDate.of(2020, 5, 15);
-
-        List<Pets> result = petsRepository.findByDataNascimento(dataNascimento);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getDataNascimento()).isEqualTo(dataNascimento);
-        assertThat(result.get(0).getNome()).isEqualTo("Rex");
-    }
-
-    @Test
-    void findByDataNascimento_WithNonExistentDate_ShouldReturnEmptyList() {
-        LocalDate dataNascimento = LocalDate.of(2025, 1, 1);
-
-        List<Pets> result = petsRepository.findByDataNascimento(dataNascimento);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByDataNascimentoBetween_ShouldReturnPetsInBirthDateRange() {
-        LocalDate dataInicio = LocalDate.of(2020, 1, 1);
-        LocalDate dataFim = LocalDate.of(2020, 12, 31);
-
-        List<Pets> result = petsRepository.findByDataNascimentoBetween(dataInicio, dataFim);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getNome()).isEqualTo("Rex");
-        assertThat(result.get(0).getDataNascimento()).isEqualTo(LocalDate.of(2020, 5, 15));
-    }
-
-    @Test
-    void findByDataNascimentoBetween_WithWideRange_ShouldReturnAllPets() {
-        LocalDate dataInicio = LocalDate.of(2019, 1, 1);
-        LocalDate dataFim = LocalDate.of(2021, 12, 31);
-
-        List<Pets> result = petsRepository.findByDataNascimentoBetween(dataInicio, dataFim);
-
-        assertThat(result).hasSize(3);
-    }
-
-    @Test
-    void findByClienteIdAndNomeContaining_ShouldReturnPetsForClientWithMatchingName() {
-        String nome = "ex";
-
-        List<Pets> result = petsRepository.findByClienteIdAndNomeContaining(cliente1.getId(), nome);
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getCliente().getId()).isEqualTo(cliente1.getId());
-        assertThat(result.get(0).getNome()).containsIgnoringCase("ex");
-    }
-
-    @Test
-    void findByClienteIdAndNomeContaining_WithNonExistentClient_ShouldReturnEmptyList() {
-        String nome = "Rex";
-
-        List<Pets> result = petsRepository.findByClienteIdAndNomeContaining(999L, nome);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByClienteIdAndRacaId_ShouldReturnPetsForClientAndRace() {
-        List<Pets> result = petsRepository.findByClienteIdAndRacaId(cliente1.getId(), raca1.getId());
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getCliente().getId()).isEqualTo(cliente1.getId());
-        assertThat(result.get(0).getRaca().getId()).isEqualTo(raca1.getId());
-        assertThat(result.get(0).getNome()).isEqualTo("Rex");
-    }
-
-    @Test
-    void findByClienteIdAndRacaId_WithNonExistentCombination_ShouldReturnEmptyList() {
-        List<Pets> result = petsRepository.findByClienteIdAndRacaId(999L, 999L);
-
-        assertThat(result).isEmpty();
-    }
-
-    @Test
-    void findByNomeContainingAndRacaId_ShouldReturnPetsWithMatchingNameAndRace() {
-        String nome = "ex";
-
-        List<Pets> result = petsRepository.findByNomeContainingAndRacaId(nome, raca1.getId());
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getNome()).containsIgnoringCase("ex");
-        assertThat(result.get(0).getRaca().getId()).isEqualTo(raca1.getId());
-    }
-
-    @Test
-    void findByNomeContainingAndRacaId_WithNonExistentRace_ShouldReturnEmptyList() {
-        String nome = "Rex";
-
-        List<Pets> result = petsRepository.findByNomeContainingAndRacaId(nome, 999L);
+        List<PetResponse> result = petsRepository.findByRacaId(999L, 0L, PageRequest.of(0, 100)).getContent();
 
         assertThat(result).isEmpty();
     }
@@ -275,8 +149,7 @@ class PetsRepositoryTest {
         petsRepository.deleteByRacaId(racaId);
         entityManager.flush();
 
-        assertThat(petsRepository.findByRacaId(racaId)).isEmpty();
-        assertThat(petsRepository.findByRacaId(raca2.getId())).hasSize(1);
+        assertThat(petsRepository.findAll()).extracting(p -> p.getRaca().getId()).containsExactly(raca2.getId());
     }
 
     @Test
@@ -302,5 +175,28 @@ class PetsRepositoryTest {
 
         assertThat(result).isEmpty();
     }
-}
 
+    @Test
+    void findVersaoById_ShouldChangeWhenRacaChanges() {
+        String antes = petsRepository.findVersaoById(pet1.getId()).orElseThrow();
+
+        raca1.setDescricao("Golden");
+        entityManager.flush();
+
+        assertThat(antes).isEqualTo("0.0.0");
+        assertThat(petsRepository.findVersaoById(pet1.getId())).contains("0.0.1");
+    }
+
+    @Test
+    void findVersaoByClienteId_ShouldChangeWhenAnyPetChanges() {
+        String antes = petsRepository.findVersaoByClienteId(cliente1.getId(), 0L);
+
+        pet2.setNome("Max Atualizado");
+        entityManager.flush();
+        String depois = petsRepository.findVersaoByClienteId(cliente1.getId(), 0L);
+
+        assertThat(antes).startsWith("2." + pet2.getId() + ".");
+        assertThat(depois).isNotEqualTo(antes);
+        assertThat(petsRepository.findVersaoByClienteId(999L, 0L)).isEqualTo("0.0.0.0.0");
+    }
+}
@@ -0,0 +1,224 @@
+package com.petshop.repository;
+
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.dto.ClienteResponse;
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Cliente;
+import com.petshop.model.Endereco;
+import com.petshop.model.PerfilUsuario;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import com.petshop.model.Usuario;
+import com.petshop.repository.filtro.ExecutorBusca;
+import com.petshop.repository.filtro.PetsFiltro;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Quantidade de comandos SQL por leitura: cada página de listagem é uma única consulta,
+ * independente de quantos clientes/raças aparecem nela, e nenhuma entidade é carregada.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(ExecutorBusca.class)
+class ProjecaoConsultasTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExecutorBusca executorBusca;
+
+    @Autowired
+    private PetsRepository petsRepository;
+
+    @Autowired
+    private AtendimentoRepository atendimentoRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    private Statistics estatisticas;
+    private Pets primeiroPet;
+    private Endereco primeiroEndereco;
+
+    @BeforeEach
+    void setUp() {
+        Raca golden = new Raca();
+        golden.setDescricao("Golden Retriever");
+        entityManager.persist(golden);
+
+        for (int i = 1; i <= 3; i++) {
+            entityManager.persist(new Usuario("0000000000" + i, "Usuário " + i, PerfilUsuario.CLIENTE, "hash"));
+
+            Cliente cliente = new Cliente();
+            cliente.setNome("Cliente " + i);
+            cliente.setCpf("0000000000" + i);
+            entityManager.persist(cliente);
+
+            Pets pet = new Pets();
+            pet.setNome("Pet " + i);
+            pet.setDataNascimento(LocalDate.of(2020, 1, i));
+            pet.setCliente(cliente);
+            pet.setRaca(i == 3 ? null : golden);
+            entityManager.persist(pet);
+            if (primeiroPet == null) {
+                primeiroPet = pet;
+            }
+
+            Atendimento atendimento = new Atendimento();
+            atendimento.setPet(pet);
+            atendimento.setCliente(cliente);
+            atendimento.setData(LocalDate.of(2024, 1, i));
+            atendimento.setDescricao("Consulta " + i);
+            atendimento.setValor(new BigDecimal("100.00"));
+            entityManager.persist(atendimento);
+
+            Endereco endereco = new Endereco();
+            endereco.setCliente(cliente);
+            endereco.setLogradouro("Rua " + i);
+            endereco.setCidade("São Paulo");
+            endereco.setBairro("Centro");
+            entityManager.persist(endereco);
+            if (primeiroEndereco == null) {
+                primeiroEndereco = endereco;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void petsPage_ShouldUseSingleQuery() {
+        Slice<PetResponse> pets = medir(() -> petsRepository.findAll(0L, PageRequest.of(0, 100)));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(pets.getContent()).hasSize(3);
+        assertThat(pets.getContent()).extracting(pet -> pet.getCliente().getNome())
+                .containsExactly("Cliente 1", "Cliente 2", "Cliente 3");
+        assertThat(pets.getContent().get(0).getRaca().getDescricao()).isEqualTo("Golden Retriever");
+        assertThat(pets.getContent().get(2).getRaca()).isNull();
+    }
+
+    @Test
+    void atendimentosPage_ShouldUseSingleQuery() {
+        Slice<AtendimentoResponse> atendimentos = medir(() -> atendimentoRepository.findAll(0L, PageRequest.of(0, 100)));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(atendimentos.getContent()).hasSize(3);
+        assertThat(atendimentos.getContent().get(0).getPet().getNome()).isEqualTo("Pet 1");
+        assertThat(atendimentos.getContent().get(0).getPet().getRaca().getDescricao()).isEqualTo("Golden Retriever");
+        assertThat(atendimentos.getContent().get(1).getCliente().getNome()).isEqualTo("Cliente 2");
+    }
+
+    @Test
+    void clientesPage_ShouldNotLoadUsuario() {
+        Slice<ClienteResponse> clientes = medir(() -> clienteRepository.findAll(0L, PageRequest.of(0, 100)));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(clientes.getContent()).extracting(ClienteResponse::getCpf)
+                .containsExactly("00000000001", "00000000002", "00000000003");
+    }
+
+    @Test
+    void clientesWithUsuarioByIds_ShouldUseSingleQuery() {
+        List<Long> ids = clienteRepository.findAll(0L, PageRequest.of(0, 100)).map(ClienteResponse::getId).getContent();
+
+        List<Cliente> clientes = medir(() -> clienteRepository.findAllWithUsuarioByIdIn(ids));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(clientes).extracting(Cliente::getNome).containsExactlyInAnyOrder("Cliente 1", "Cliente 2", "Cliente 3");
+        assertThat(clientes).extracting(cliente -> cliente.getUsuario().getNome())
+                .containsExactlyInAnyOrder("Usuário 1", "Usuário 2", "Usuário 3");
+    }
+
+    @Test
+    void enderecoById_ShouldUseSingleQuery() {
+        Optional<EnderecoResponse> endereco = medir(() -> enderecoRepository.findResponseById(primeiroEndereco.getId()));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(endereco).isPresent();
+        assertThat(endereco.get().getCliente().getNome()).isEqualTo("Cliente 1");
+    }
+
+    @Test
+    void buscar_ShouldUseIdQueryPlusProjection() {
+        Slice<PetResponse> pets = medir(() -> executorBusca.buscar(new PetsFiltro(null, null, "Pet", null, null, null),
+                0L, PageRequest.of(0, 100), petsRepository::findResponsesByIds));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(estatisticas.getEntityLoadCount()).isZero();
+        assertThat(pets.getContent()).extracting(PetResponse::getId).startsWith(primeiroPet.getId());
+        assertThat(pets.getContent()).extracting(pet -> pet.getCliente().getCpf())
+                .containsExactly("00000000001", "00000000002", "00000000003");
+    }
+
+    @Test
+    void petWithClienteRacaById_ShouldLoadAssociationsInSingleQuery() {
+        PetResponse pet = medir(() -> PetResponse.de(petsRepository.findWithClienteRacaById(primeiroPet.getId()).orElseThrow()));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(pet.getCliente().getNome()).isEqualTo("Cliente 1");
+        assertThat(pet.getRaca().getDescricao()).isEqualTo("Golden Retriever");
+    }
+
+    @Test
+    void petById_WithoutGraph_ShouldLoadAssociationsLazily() {
+        medir(() -> PetResponse.de(petsRepository.findById(primeiroPet.getId()).orElseThrow()));
+
+        // pet, cliente (e o usuário pelo cpf) e raça em comandos separados
+        assertThat(estatisticas.getPrepareStatementCount()).isGreaterThan(1);
+    }
+
+    @Test
+    void atendimentosStream_ShouldLoadDetailsInSingleQuery() {
+        List<String> racas = medir(() -> {
+            try (Stream<Atendimento> atendimentos = atendimentoRepository.streamAllWithDetails()) {
+                return atendimentos.map(a -> a.getCliente().getNome() + "/" + (a.getPet().getRaca() != null ? a.getPet().getRaca().getDescricao() : "-")).toList();
+            }
+        });
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(racas).containsExactly("Cliente 1/Golden Retriever", "Cliente 2/Golden Retriever", "Cliente 3/-");
+    }
+
+    /**
+     * Executa a leitura com as estatísticas zeradas
+     */
+    private <R> R medir(Supplier<R> leitura) {
+        estatisticas.clear();
+        return leitura.get();
+    }
+}
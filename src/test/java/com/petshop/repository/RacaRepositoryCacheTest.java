@@ -0,0 +1,105 @@
+package com.petshop.repository;
+
+import com.petshop.model.Raca;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Cache de segundo nível das raças. Roda sem a transação de teste: dentro de uma transação
+ * só o cache de primeiro nível aparece, e os dados precisam estar commitados para irem ao cache.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RacaRepositoryCacheTest {
+
+    @Autowired
+    private RacaRepository racaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private Statistics estatisticas;
+    private Raca golden;
+
+    @BeforeEach
+    void setUp() {
+        golden = new Raca();
+        golden.setDescricao("Golden Retriever");
+        golden = racaRepository.save(golden);
+
+        Raca poodle = new Raca();
+        poodle.setDescricao("Poodle");
+        racaRepository.save(poodle);
+
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        estatisticas = sessionFactory.getStatistics();
+        estatisticas.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        racaRepository.deleteAll();
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Test
+    void findById_SecondRead_ShouldComeFromCache() {
+        racaRepository.findById(golden.getId());
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        estatisticas.clear();
+        Optional<Raca> raca = racaRepository.findById(golden.getId());
+
+        assertThat(estatisticas.getPrepareStatementCount()).isZero();
+        assertThat(estatisticas.getDomainDataRegionStatistics(Raca.REGIAO_CACHE).getHitCount()).isEqualTo(1);
+        assertThat(raca).isPresent();
+        assertThat(raca.get().getDescricao()).isEqualTo("Golden Retriever");
+    }
+
+    @Test
+    void findAll_SecondPage_ShouldComeFromQueryCache() {
+        racaRepository.findAll(0L, PageRequest.of(0, 100));
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+
+        estatisticas.clear();
+        Slice<Raca> racas = racaRepository.findAll(0L, PageRequest.of(0, 100));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isZero();
+        assertThat(estatisticas.getQueryRegionStatistics(RacaRepository.REGIAO_CONSULTAS).getHitCount()).isPositive();
+        assertThat(racas.getContent()).extracting(Raca::getDescricao)
+                .containsExactly("Golden Retriever", "Poodle");
+    }
+
+    @Test
+    void findAll_AfterUpdate_ShouldNotReturnStaleResult() {
+        racaRepository.findAll(0L, PageRequest.of(0, 100));
+
+        golden.setDescricao("Golden");
+        racaRepository.save(golden);
+
+        estatisticas.clear();
+        Slice<Raca> racas = racaRepository.findAll(0L, PageRequest.of(0, 100));
+
+        assertThat(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(racas.getContent()).extracting(Raca::getDescricao)
+                .containsExactly("Golden", "Poodle");
+    }
+}
@@ -0,0 +1,170 @@
+package com.petshop.repository.filtro;
+
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.model.Cliente;
+import com.petshop.model.Endereco;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.EnderecoRepository;
+import com.petshop.repository.PetsRepository;
+import com.petshop.repository.RacaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(ExecutorBusca.class)
+class ExecutorBuscaTest {
+
+    @Autowired
+    private ExecutorBusca executorBusca;
+
+    @Autowired
+    private PetsRepository petsRepository;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private RacaRepository racaRepository;
+
+    @Autowired
+    private EnderecoRepository enderecoRepository;
+
+    private Cliente cliente1;
+    private Raca raca1;
+    private Pets pet1;
+    private Pets pet2;
+    private Pets pet3;
+
+    @BeforeEach
+    void setUp() {
+        cliente1 = new Cliente();
+        cliente1.setNome("João Silva");
+        cliente1.setCpf("12345678901");
+        cliente1 = clienteRepository.save(cliente1);
+
+        Cliente cliente2 = new Cliente();
+        cliente2.setNome("Maria Santos");
+        cliente2.setCpf("98765432100");
+        cliente2 = clienteRepository.save(cliente2);
+
+        raca1 = new Raca();
+        raca1.setDescricao("Golden Retriever");
+        raca1 = racaRepository.save(raca1);
+
+        Raca raca2 = new Raca();
+        raca2.setDescricao("Labrador");
+        raca2 = racaRepository.save(raca2);
+
+        pet1 = new Pets();
+        pet1.setNome("Rex");
+        pet1.setDataNascimento(LocalDate.of(2020, 5, 15));
+        pet1.setCliente(cliente1);
+        pet1.setRaca(raca1);
+
+        pet2 = new Pets();
+        pet2.setNome("Rexona");
+        pet2.setDataNascimento(LocalDate.of(2021, 3, 10));
+        pet2.setCliente(cliente1);
+        pet2.setRaca(raca2);
+
+        pet3 = new Pets();
+        pet3.setNome("Rex Junior");
+        pet3.setDataNascimento(LocalDate.of(2019, 8, 20));
+        pet3.setCliente(cliente2);
+        pet3.setRaca(raca1);
+
+        petsRepository.saveAll(List.of(pet1, pet2, pet3));
+
+        Endereco endereco = new Endereco();
+        endereco.setCliente(cliente1);
+        endereco.setLogradouro("Rua das Flores, 123");
+        endereco.setCidade("São Paulo");
+        endereco.setBairro("Centro");
+        enderecoRepository.save(endereco);
+    }
+
+    @Test
+    void buscar_WithoutFilters_ShouldReturnAllInIdOrder() {
+        Slice<PetResponse> pets = executorBusca.buscar(new PetsFiltro(null, null, null, null, null, null), 0L, PageRequest.of(0, 100), petsRepository::findResponsesByIds);
+
+        assertThat(pets.getContent()).extracting(PetResponse::getId)
+                .containsExactly(pet1.getId(), pet2.getId(), pet3.getId());
+        assertThat(pets.hasNext()).isFalse();
+    }
+
+    @Test
+    void buscar_WithAllFilters_ShouldCombineEveryPredicate() {
+        PetsFiltro filtro = new PetsFiltro(null, "12345678901", "Rex", raca1.getId(), LocalDate.of(2020, 1, 1), LocalDate.of(2020, 12, 31));
+
+        Slice<PetResponse> pets = executorBusca.buscar(filtro, 0L, PageRequest.of(0, 100), petsRepository::findResponsesByIds);
+
+        assertThat(pets.getContent()).extracting(PetResponse::getNome).containsExactly("Rex");
+    }
+
+    @Test
+    void buscar_WithOnlyDataInicio_ShouldApplyOpenRange() {
+        Slice<PetResponse> pets = executorBusca.buscar(new PetsFiltro(null, null, null, null, LocalDate.of(2020, 1, 1), null), 0L, PageRequest.of(0, 100), petsRepository::findResponsesByIds);
+
+        assertThat(pets.getContent()).extracting(PetResponse::getNome).containsExactlyInAnyOrder("Rex", "Rexona");
+    }
+
+    @Test
+    void buscar_WithBlankText_ShouldIgnoreFilter() {
+        Slice<PetResponse> pets = executorBusca.buscar(new PetsFiltro(cliente1.getId(), null, " ", null, null, null), 0L, PageRequest.of(0, 100), petsRepository::findResponsesByIds);
+
+        assertThat(pets.getContent()).hasSize(2);
+    }
+
+    @Test
+    void buscar_ShouldPageByCursor() {
+        PetsFiltro filtro = new PetsFiltro(null, null, "Rex", null, null, null);
+
+        Slice<PetResponse> primeira = executorBusca.buscar(filtro, 0L, PageRequest.of(0, 2), petsRepository::findResponsesByIds);
+        assertThat(primeira.getContent()).extracting(PetResponse::getId).containsExactly(pet1.getId(), pet2.getId());
+        assertThat(primeira.hasNext()).isTrue();
+
+        Slice<PetResponse> segunda = executorBusca.buscar(filtro, pet2.getId(), PageRequest.of(0, 2), petsRepository::findResponsesByIds);
+        assertThat(segunda.getContent()).extracting(PetResponse::getId).containsExactly(pet3.getId());
+        assertThat(segunda.hasNext()).isFalse();
+    }
+
+    @Test
+    void buscar_EnderecoByClienteCpf_ShouldProjectCliente() {
+        Slice<EnderecoResponse> enderecos = executorBusca.buscar(new EnderecoFiltro(null, "12345678901", "Paulo", null, null, null), 0L, PageRequest.of(0, 100),
+                enderecoRepository::findResponsesByIds);
+
+        assertThat(enderecos.getContent()).hasSize(1);
+        assertThat(enderecos.getContent().get(0).getCliente().getNome()).isEqualTo("João Silva");
+    }
+
+    @Test
+    void buscarIds_ShouldReturnOnlyMatchingIds() {
+        Slice<Long> ids = executorBusca.buscarIds(new PetsFiltro(null, "98765432100", null, null, null, null), 0L, PageRequest.of(0, 100));
+
+        assertThat(ids.getContent()).containsExactly(pet3.getId());
+    }
+
+    @Test
+    void buscar_WithoutMatches_ShouldNotLoadContent() {
+        Slice<PetResponse> pets = executorBusca.buscar(new PetsFiltro(null, null, "Inexistente", null, null, null), 0L, PageRequest.of(0, 100),
+                ids -> { throw new AssertionError("não deveria carregar"); });
+
+        assertThat(pets.getContent()).isEmpty();
+        assertThat(pets.hasNext()).isFalse();
+    }
+}
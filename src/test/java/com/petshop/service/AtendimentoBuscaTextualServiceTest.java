@@ -0,0 +1,97 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoBuscaResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtendimentoBuscaTextualServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AtendimentoBuscaTextualService atendimentoBuscaTextualService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(atendimentoBuscaTextualService, "maximoCandidatos", 2000);
+    }
+
+    @Test
+    void destacar_ShouldEscapeHtmlAndMarkTerms() {
+        String trecho = "Paciente <script>\u0002vacinado\u0003 & liberado";
+
+        assertThat(AtendimentoBuscaTextualService.destacar(trecho))
+                .isEqualTo("Paciente &lt;script&gt;<mark>vacinado</mark> &amp; liberado");
+    }
+
+    @Test
+    void destacar_ShouldKeepAccents() {
+        assertThat(AtendimentoBuscaTextualService.destacar("\u0002Vacinação\u0003 antirrábica"))
+                .isEqualTo("<mark>Vacinação</mark> antirrábica");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pesquisar_FirstPageAsAdmin_ShouldNotFilterByCpfOrCursor() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        atendimentoBuscaTextualService.pesquisar("consulta", null, null, null, 20);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> parametros = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).query(sql.capture(), parametros.capture(), any(RowMapper.class));
+        assertThat(sql.getValue()).doesNotContain("c.cpf").doesNotContain(":relevancia");
+        assertThat(sql.getValue()).containsSubsequence("ORDER BY a.id DESC LIMIT :candidatos", "ts_rank");
+        assertThat(parametros.getValue().getValue("limite")).isEqualTo(21);
+        assertThat(parametros.getValue().getValue("candidatos")).isEqualTo(2000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pesquisar_NextPageAsUser_ShouldFilterByCpfAndContinueAfterCursor() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        atendimentoBuscaTextualService.pesquisar("consulta", "12345678901", 0.5f, 3L, 20);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> parametros = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).query(sql.capture(), parametros.capture(), any(RowMapper.class));
+        assertThat(sql.getValue()).contains("c.cpf = :cpf").contains("r.relevancia < :relevancia");
+        assertThat(parametros.getValue().getValue("cpf")).isEqualTo("12345678901");
+        assertThat(parametros.getValue().getValue("ultimoId")).isEqualTo(3L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pesquisar_WithExtraRow_ShouldReportNextPage() {
+        List<AtendimentoBuscaResponse> linhas = List.of(
+                new AtendimentoBuscaResponse(1L, 1L, 1L, LocalDate.now(), null, 0.9f, "a"),
+                new AtendimentoBuscaResponse(2L, 1L, 1L, LocalDate.now(), null, 0.8f, "b"),
+                new AtendimentoBuscaResponse(3L, 1L, 1L, LocalDate.now(), null, 0.7f, "c"));
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn((List) linhas);
+
+        Slice<AtendimentoBuscaResponse> resultado = atendimentoBuscaTextualService.pesquisar("consulta", null, null, null, 2);
+
+        assertThat(resultado.getContent()).extracting(AtendimentoBuscaResponse::getId).containsExactly(1L, 2L);
+        assertThat(resultado.hasNext()).isTrue();
+    }
+}
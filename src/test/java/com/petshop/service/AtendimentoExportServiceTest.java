@@ -0,0 +1,106 @@
+package com.petshop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.petshop.model.Atendimento;
+import com.petshop.repository.AtendimentoRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtendimentoExportServiceTest {
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private AtendimentoExportService atendimentoExportService;
+
+    private ByteArrayOutputStream out;
+
+    @BeforeEach
+    void setUp() {
+        out = new ByteArrayOutputStream();
+    }
+
+    @Test
+    void exportarAtendimentos_AsJson_ShouldWriteArray() throws Exception {
+        when(atendimentoRepository.streamAllWithDetails()).thenReturn(atendimentos(3));
+
+        atendimentoExportService.exportarAtendimentos(out, false);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.isArray()).isTrue();
+        assertThat(json).hasSize(3);
+        assertThat(json.get(2).get("id").asLong()).isEqualTo(3L);
+    }
+
+    @Test
+    void exportarAtendimentos_AsNdjson_ShouldWriteOneObjectPerLine() throws Exception {
+        when(atendimentoRepository.streamAllWithDetails()).thenReturn(atendimentos(2));
+
+        atendimentoExportService.exportarAtendimentos(out, true);
+
+        String[] linhas = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(linhas).hasSize(2);
+        assertThat(objectMapper.readTree(linhas[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(linhas[1]).get("descricao").asText()).isEqualTo("Consulta 2");
+    }
+
+    @Test
+    void exportarAtendimentos_WithEmptyStream_ShouldWriteEmptyArray() throws Exception {
+        when(atendimentoRepository.streamAllWithDetails()).thenReturn(Stream.empty());
+
+        atendimentoExportService.exportarAtendimentos(out, false);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+    }
+
+    @Test
+    void exportarAtendimentos_ShouldClearPersistenceContextPerBatchAndCloseStream() throws Exception {
+        AtomicBoolean fechado = new AtomicBoolean();
+        int total = AtendimentoExportService.TAMANHO_LOTE * 2 + 1;
+        when(atendimentoRepository.streamAllWithDetails())
+                .thenReturn(atendimentos(total).onClose(() -> fechado.set(true)));
+
+        atendimentoExportService.exportarAtendimentos(out, true);
+
+        verify(entityManager, times(2)).clear();
+        assertThat(fechado).isTrue();
+    }
+
+    private Stream<Atendimento> atendimentos(int quantidade) {
+        return LongStream.rangeClosed(1, quantidade).mapToObj(id -> {
+            Atendimento atendimento = new Atendimento();
+            atendimento.setId(id);
+            atendimento.setDescricao("Consulta " + id);
+            atendimento.setValor(new BigDecimal("100.00"));
+            atendimento.setData(LocalDate.of(2024, 1, 1));
+            return atendimento;
+        });
+    }
+}
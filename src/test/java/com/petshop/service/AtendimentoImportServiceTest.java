@@ -0,0 +1,179 @@
+package com.petshop.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.petshop.dto.ImportacaoResponse;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Cliente;
+import com.petshop.model.Pets;
+import com.petshop.repository.AtendimentoRepository;
+import com.petshop.repository.PetsRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtendimentoImportServiceTest {
+
+    @Mock
+    private PetsRepository petsRepository;
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private AtendimentoImportService atendimentoImportService;
+
+    private Pets pet;
+
+    @BeforeEach
+    void setUp() {
+        Cliente cliente = new Cliente("João Silva", "12345678901", null);
+        cliente.setId(1L);
+        pet = new Pets(cliente, null, null, "Rex", null);
+        pet.setId(1L);
+    }
+
+    @Test
+    void importarAtendimentos_ShouldImportValidLinesAndReportOthers() throws Exception {
+        executarTransacoes();
+        when(petsRepository.findAllById(List.of(1L, 9L))).thenReturn(List.of(pet));
+
+        String ndjson = linha(1L, 1L, "Banho e tosa", "2023-03-01") + "\n"
+                + "{\"pet\":{\"id\":1},\"cliente\":{\"id\":1},\"data\":\"2023-03-02\"}\n"
+                + "{\"pet\":{\"id\":1},\"cliente\":{\"id\":1},\"descricao\":\"Vacina\",\"valor\":\"abc\",\"data\":\"2023-03-03\"}\n"
+                + linha(9L, 1L, "Consulta", "2023-03-04") + "\n"
+                + linha(1L, 1L, "Consulta", "2023-03-05") + "\n";
+
+        ImportacaoResponse relatorio = atendimentoImportService.importarAtendimentos(stream(ndjson));
+
+        assertThat(relatorio.getLidos()).isEqualTo(5);
+        assertThat(relatorio.getImportados()).isEqualTo(2);
+        assertThat(relatorio.getRejeitados()).isEqualTo(3);
+        assertThat(relatorio.getErros()).extracting(ImportacaoResponse.ErroLinha::getLinha).containsExactly(2L, 3L, 4L);
+        assertThat(relatorio.getErros().get(0).getErros()).containsExactly("Descrição é obrigatória");
+        assertThat(relatorio.getErros().get(2).getErros()).containsExactly("Pet não encontrado: 9");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Atendimento>> gravados = ArgumentCaptor.forClass(List.class);
+        verify(atendimentoRepository).saveAll(gravados.capture());
+        assertThat(gravados.getValue()).extracting(Atendimento::getData)
+                .containsExactly(LocalDate.of(2023, 3, 1), LocalDate.of(2023, 3, 5));
+        verify(resumoDiarioService).incluir(gravados.getValue());
+    }
+
+    @Test
+    void importarAtendimentos_ShouldWriteInBoundedBatches() throws Exception {
+        executarTransacoes();
+        when(petsRepository.findAllById(List.of(1L))).thenReturn(List.of(pet));
+
+        String ndjson = IntStream.range(0, 2 * AtendimentoImportService.TAMANHO_LOTE + 1)
+                .mapToObj(i -> linha(1L, 1L, "Atendimento " + i, "2023-03-01"))
+                .collect(Collectors.joining("\n"));
+
+        ImportacaoResponse relatorio = atendimentoImportService.importarAtendimentos(stream(ndjson));
+
+        assertThat(relatorio.getImportados()).isEqualTo(2L * AtendimentoImportService.TAMANHO_LOTE + 1);
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(atendimentoRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void importarAtendimentos_WithMalformedLineInTheMiddle_ShouldRejectItAndContinue() throws Exception {
+        executarTransacoes();
+        when(petsRepository.findAllById(List.of(1L))).thenReturn(List.of(pet));
+
+        String ndjson = linha(1L, 1L, "Banho", "2023-03-01") + "\n"
+                + "{\"pet\": {\"id\": 1,,\n"
+                + "\r\n"
+                + "{\"pet\": {\"id\": 1}, \"descricao\": \"sem fechar\"\r\n"
+                + linha(1L, 1L, "Tosa", "2023-03-02") + "\r\n"
+                + "[1, 2]\n"
+                + linha(1L, 1L, "Vacina", "2023-03-03");
+
+        ImportacaoResponse relatorio = atendimentoImportService.importarAtendimentos(stream(ndjson));
+
+        assertThat(relatorio.getLidos()).isEqualTo(6);
+        assertThat(relatorio.getImportados()).isEqualTo(3);
+        assertThat(relatorio.getRejeitados()).isEqualTo(3);
+        assertThat(relatorio.getErros()).extracting(ImportacaoResponse.ErroLinha::getLinha).containsExactly(2L, 4L, 6L);
+        assertThat(relatorio.getErros().get(0).getErros().get(0)).startsWith("JSON malformado");
+        assertThat(relatorio.getErros().get(2).getErros()).containsExactly("Cada linha deve ser um objeto JSON");
+    }
+
+    @Test
+    void importarAtendimentos_WithLineAboveLimit_ShouldRejectOnlyThatLine() throws Exception {
+        executarTransacoes();
+        when(petsRepository.findAllById(List.of(1L))).thenReturn(List.of(pet));
+
+        String ndjson = linha(1L, 1L, "x".repeat(AtendimentoImportService.MAXIMO_CARACTERES_LINHA), "2023-03-01") + "\n"
+                + linha(1L, 1L, "Tosa", "2023-03-02");
+
+        ImportacaoResponse relatorio = atendimentoImportService.importarAtendimentos(stream(ndjson));
+
+        assertThat(relatorio.getImportados()).isEqualTo(1);
+        assertThat(relatorio.getErros()).extracting(ImportacaoResponse.ErroLinha::getLinha).containsExactly(1L);
+    }
+
+    @Test
+    void importarAtendimentos_WhenBatchFails_ShouldRejectItsLines() throws Exception {
+        when(transactionTemplate.execute(any())).thenThrow(new DataIntegrityViolationException("violação de chave estrangeira"));
+
+        ImportacaoResponse relatorio = atendimentoImportService.importarAtendimentos(
+                stream(linha(1L, 1L, "Banho", "2023-03-01") + "\n" + linha(1L, 1L, "Tosa", "2023-03-02")));
+
+        assertThat(relatorio.getImportados()).isZero();
+        assertThat(relatorio.getRejeitados()).isEqualTo(2);
+        assertThat(relatorio.getErros().get(0).getErros().get(0)).startsWith("Lote não gravado");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executarTransacoes() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static String linha(Long petId, Long clienteId, String descricao, String data) {
+        return "{\"pet\":{\"id\":" + petId + "},\"cliente\":{\"id\":" + clienteId + "},\"descricao\":\"" + descricao
+                + "\",\"valor\":50.00,\"data\":\"" + data + "\"}";
+    }
+
+    private static InputStream stream(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
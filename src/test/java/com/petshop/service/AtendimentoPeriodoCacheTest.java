@@ -0,0 +1,114 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.repository.AtendimentoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AtendimentoPeriodoCacheTest {
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
+    private final LocalDate hoje = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(atendimentoPeriodoCache, "maximoAtendimentos", 1000L);
+        ReflectionTestUtils.setField(atendimentoPeriodoCache, "validadeMs", 3600000L);
+        LeituraNoPrimario leituraNoPrimario = new LeituraNoPrimario();
+        ReflectionTestUtils.setField(leituraNoPrimario, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(atendimentoPeriodoCache, "leituraNoPrimario", leituraNoPrimario);
+    }
+
+    @Test
+    void porCliente_ClosedDays_ShouldQueryDatabaseOnlyOnce() {
+        LocalDate inicio = hoje.minusDays(10);
+        LocalDate fim = hoje.minusDays(1);
+        when(atendimentoRepository.findResponsesByClienteIdAndDataBetween(1L, inicio, fim))
+                .thenReturn(List.of(atendimento(1L, inicio), atendimento(2L, hoje.minusDays(3))));
+
+        List<AtendimentoResponse> primeira = atendimentoPeriodoCache.porCliente(1L, inicio, fim);
+        List<AtendimentoResponse> segunda = atendimentoPeriodoCache.porCliente(1L, inicio, fim);
+
+        assertThat(primeira).extracting(AtendimentoResponse::getId).containsExactly(1L, 2L);
+        assertThat(segunda).extracting(AtendimentoResponse::getId).containsExactly(1L, 2L);
+        verify(atendimentoRepository, times(1)).findResponsesByClienteIdAndDataBetween(any(), any(), any());
+        assertThat(atendimentoPeriodoCache.size()).isEqualTo(10);
+    }
+
+    @Test
+    void porData_IncludingToday_ShouldAlwaysQueryOpenDays() {
+        LocalDate ontem = hoje.minusDays(1);
+        when(atendimentoRepository.findResponsesByDataBetween(ontem, ontem)).thenReturn(List.of(atendimento(1L, ontem)));
+        when(atendimentoRepository.findResponsesByDataBetween(hoje, hoje)).thenReturn(List.of(atendimento(2L, hoje)));
+
+        atendimentoPeriodoCache.porData(ontem, hoje);
+        List<AtendimentoResponse> segunda = atendimentoPeriodoCache.porData(ontem, hoje);
+
+        assertThat(segunda).extracting(AtendimentoResponse::getId).containsExactly(1L, 2L);
+        verify(atendimentoRepository, times(1)).findResponsesByDataBetween(ontem, ontem);
+        verify(atendimentoRepository, times(2)).findResponsesByDataBetween(hoje, hoje);
+    }
+
+    @Test
+    void invalidar_ShouldQueryAgainOnlyTheAffectedDay() {
+        LocalDate inicio = hoje.minusDays(10);
+        LocalDate fim = hoje.minusDays(1);
+        LocalDate alterado = hoje.minusDays(5);
+        atendimentoPeriodoCache.porPet(7L, inicio, fim);
+
+        atendimentoPeriodoCache.invalidar(List.of(new ResumoDiarioService.Lancamento(alterado, 1L, 7L, new BigDecimal("80.00"))));
+        atendimentoPeriodoCache.porPet(7L, inicio, fim);
+
+        verify(atendimentoRepository).findResponsesByPetIdAndDataBetween(7L, inicio, fim);
+        verify(atendimentoRepository).findResponsesByPetIdAndDataBetween(7L, alterado, alterado);
+        verifyNoMoreInteractions(atendimentoRepository);
+    }
+
+    @Test
+    void porData_WithGapsInCache_ShouldQueryEachRunOfMissingDaysOnce() {
+        atendimentoPeriodoCache.porData(hoje.minusDays(6), hoje.minusDays(5));
+        atendimentoPeriodoCache.porData(hoje.minusDays(2), hoje.minusDays(2));
+
+        atendimentoPeriodoCache.porData(hoje.minusDays(8), hoje.minusDays(1));
+
+        verify(atendimentoRepository).findResponsesByDataBetween(hoje.minusDays(8), hoje.minusDays(7));
+        verify(atendimentoRepository).findResponsesByDataBetween(hoje.minusDays(4), hoje.minusDays(3));
+        verify(atendimentoRepository).findResponsesByDataBetween(hoje.minusDays(1), hoje.minusDays(1));
+    }
+
+    @Test
+    void invalidarTudo_ShouldEmptyCache() {
+        atendimentoPeriodoCache.porData(hoje.minusDays(3), hoje.minusDays(1));
+
+        atendimentoPeriodoCache.invalidarTudo();
+
+        assertThat(atendimentoPeriodoCache.size()).isZero();
+    }
+
+    private AtendimentoResponse atendimento(Long id, LocalDate data) {
+        return new AtendimentoResponse(id, null, null, "Banho", new BigDecimal("80.00"), data);
+    }
+}
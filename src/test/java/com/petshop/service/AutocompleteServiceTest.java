@@ -0,0 +1,157 @@
+package com.petshop.service;
+
+import com.petshop.dto.SugestaoResponse;
+import com.petshop.model.Cliente;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private AutocompleteService autocompleteService;
+
+    @Test
+    void sugerirRacas_ShouldIgnoreCaseAndAccents() {
+        autocompleteService.registrarRaca(raca(1L, "Pastor Alemão"));
+        autocompleteService.registrarRaca(raca(2L, "Poodle"));
+
+        assertThat(autocompleteService.sugerirRacas("ALEMAO", null))
+                .extracting(SugestaoResponse::getNome)
+                .containsExactly("Pastor Alemão");
+        assertThat(autocompleteService.sugerirRacas("p", null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactlyInAnyOrder(1L, 2L);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void sugerirClientes_WithSeveralWords_ShouldMatchPrefixOfEachWord() {
+        autocompleteService.registrarCliente(cliente(1L, "João da Silva"));
+        autocompleteService.registrarCliente(cliente(2L, "João Souza"));
+
+        assertThat(autocompleteService.sugerirClientes("jo sil", null, null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactly(1L);
+        assertThat(autocompleteService.sugerirClientes("  ", null, null)).isEmpty();
+    }
+
+    @Test
+    void sugerirPets_WithClienteId_ShouldReturnOnlyPetsOfCliente() {
+        autocompleteService.registrarPet(pet(1L, "Rex", 10L, null));
+        autocompleteService.registrarPet(pet(2L, "Rex Junior", 20L, null));
+
+        assertThat(autocompleteService.sugerirPets("rex", 10L, null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactly(1L);
+        assertThat(autocompleteService.sugerirPets("rex", null, null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void sugerirPets_ShouldRespectLimite() {
+        IntStream.rangeClosed(1, 30).forEach(i -> autocompleteService.registrarPet(pet((long) i, "Bidu " + i, 1L, null)));
+
+        assertThat(autocompleteService.sugerirPets("bidu", null, null)).hasSize(AutocompleteService.LIMITE_PADRAO);
+        assertThat(autocompleteService.sugerirPets("bidu", null, 3)).hasSize(3);
+    }
+
+    @Test
+    void registrarPet_WhenRenamed_ShouldReplaceOldName() {
+        autocompleteService.registrarPet(pet(1L, "Rex", 10L, null));
+        autocompleteService.registrarPet(pet(1L, "Thor", 10L, null));
+
+        assertThat(autocompleteService.sugerirPets("rex", null, null)).isEmpty();
+        assertThat(autocompleteService.sugerirPets("tho", null, null))
+                .extracting(SugestaoResponse::getNome)
+                .containsExactly("Thor");
+    }
+
+    @Test
+    void removerCliente_ShouldAlsoRemovePetsOfCliente() {
+        autocompleteService.registrarCliente(cliente(10L, "Maria"));
+        autocompleteService.registrarPet(pet(1L, "Rex", 10L, null));
+        autocompleteService.registrarPet(pet(2L, "Rex", 20L, null));
+
+        autocompleteService.removerCliente(10L);
+
+        assertThat(autocompleteService.sugerirClientes("maria", null, null)).isEmpty();
+        assertThat(autocompleteService.sugerirPets("rex", null, null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void removerRaca_ShouldAlsoRemovePetsOfRaca() {
+        autocompleteService.registrarRaca(raca(5L, "Beagle"));
+        autocompleteService.registrarPet(pet(1L, "Snoopy", 10L, 5L));
+        autocompleteService.registrarPet(pet(2L, "Snow", 10L, 6L));
+
+        autocompleteService.removerRaca(5L);
+
+        assertThat(autocompleteService.sugerirRacas("bea", null)).isEmpty();
+        assertThat(autocompleteService.sugerirPets("sno", null, null))
+                .extracting(SugestaoResponse::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void reconstruir_ShouldReplaceIndexesWithDatabaseContent() {
+        autocompleteService.registrarRaca(raca(1L, "Poodle"));
+
+        autocompleteService.reconstruir();
+
+        assertThat(autocompleteService.sugerirRacas("poo", null)).isEmpty();
+        verify(jdbcTemplate, times(3)).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void reconstruir_WhenDatabaseFails_ShouldKeepCurrentIndexes() {
+        autocompleteService.registrarRaca(raca(1L, "Poodle"));
+        doThrow(new IllegalStateException("conexão recusada")).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        autocompleteService.reconstruir();
+
+        assertThat(autocompleteService.sugerirRacas("poo", null)).hasSize(1);
+    }
+
+    private static Raca raca(Long id, String descricao) {
+        Raca raca = new Raca(descricao);
+        raca.setId(id);
+        return raca;
+    }
+
+    private static Cliente cliente(Long id, String nome) {
+        Cliente cliente = new Cliente(nome, null, null);
+        cliente.setId(id);
+        return cliente;
+    }
+
+    private static Pets pet(Long id, String nome, Long clienteId, Long racaId) {
+        Pets pet = new Pets();
+        pet.setId(id);
+        pet.setNome(nome);
+        pet.setCliente(cliente(clienteId, "Cliente " + clienteId));
+        if (racaId != null) {
+            pet.setRaca(raca(racaId, "Raça " + racaId));
+        }
+        return pet;
+    }
+}
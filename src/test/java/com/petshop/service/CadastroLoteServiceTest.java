@@ -0,0 +1,201 @@
+package com.petshop.service;
+
+import com.petshop.dto.AtendimentoCreateRequest;
+import com.petshop.dto.AtendimentoResponse;
+import com.petshop.dto.ContatoResponse;
+import com.petshop.dto.EnderecoResponse;
+import com.petshop.dto.LoteResponse;
+import com.petshop.dto.PetResponse;
+import com.petshop.exception.LoteInvalidoException;
+import com.petshop.model.Cliente;
+import com.petshop.model.Contato;
+import com.petshop.model.Endereco;
+import com.petshop.model.Pets;
+import com.petshop.model.Raca;
+import com.petshop.repository.AtendimentoRepository;
+import com.petshop.repository.ClienteRepository;
+import com.petshop.repository.ContatoRepository;
+import com.petshop.repository.EnderecoRepository;
+import com.petshop.repository.PetsRepository;
+import com.petshop.repository.RacaRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CadastroLoteServiceTest {
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private RacaRepository racaRepository;
+
+    @Mock
+    private PetsRepository petsRepository;
+
+    @Mock
+    private ContatoRepository contatoRepository;
+
+    @Mock
+    private EnderecoRepository enderecoRepository;
+
+    @Mock
+    private AtendimentoRepository atendimentoRepository;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private AutocompleteService autocompleteService;
+
+    @Mock
+    private ResumoDiarioService resumoDiarioService;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private CadastroLoteService cadastroLoteService;
+
+    private Cliente cliente1;
+    private Cliente cliente2;
+    private Raca raca;
+
+    @BeforeEach
+    void setUp() {
+        cliente1 = new Cliente("João Silva", "12345678901", null);
+        cliente1.setId(1L);
+        cliente2 = new Cliente("Maria Santos", "98765432100", null);
+        cliente2.setId(2L);
+
+        raca = new Raca();
+        raca.setId(1L);
+        raca.setDescricao("Golden Retriever");
+    }
+
+    @Test
+    void criarPets_ShouldAuthorizeOncePerClienteAndLoadReferencesOnce() {
+        when(clienteRepository.findAllWithUsuarioByIdIn(List.of(1L))).thenReturn(List.of(cliente1));
+        when(racaRepository.findAllById(List.of(1L))).thenReturn(List.of(raca));
+        when(roleService.canModifyPet(null, 1L)).thenReturn(true);
+
+        List<Pets> pedidos = List.of(
+                pedidoPet(1L, 1L, "Rex"),
+                pedidoPet(1L, 1L, "Luna"),
+                pedidoPet(1L, null, "Thor"),
+                pedidoPet(1L, 1L, ""));
+
+        LoteResponse<PetResponse> resultado = cadastroLoteService.criarPets(pedidos);
+
+        assertThat(resultado.getCriados()).isEqualTo(3);
+        assertThat(resultado.getFalhas()).isEqualTo(1);
+        assertThat(resultado.getItens()).extracting(LoteResponse.Item::getStatus).containsExactly(201, 201, 201, 400);
+        assertThat(resultado.getItens().get(0).getRegistro().getRaca().getDescricao()).isEqualTo("Golden Retriever");
+        assertThat(resultado.getItens().get(2).getRegistro().getRaca()).isNull();
+        assertThat(resultado.getItens().get(3).getErros()).containsExactly("Nome é obrigatório");
+        verify(roleService, times(1)).canModifyPet(null, 1L);
+        verify(clienteRepository, times(1)).findAllWithUsuarioByIdIn(any());
+        verify(petsRepository).saveAll(any());
+        verify(autocompleteService, times(3)).registrarPet(any(Pets.class));
+    }
+
+    @Test
+    void criarPets_WithClienteOfAnotherUser_ShouldRejectOnlyItsItems() {
+        when(clienteRepository.findAllWithUsuarioByIdIn(List.of(1L, 2L))).thenReturn(List.of(cliente1, cliente2));
+        when(racaRepository.findAllById(List.of())).thenReturn(List.of());
+        when(roleService.canModifyPet(null, 1L)).thenReturn(true);
+        when(roleService.canModifyPet(null, 2L)).thenReturn(false);
+
+        LoteResponse<PetResponse> resultado = cadastroLoteService.criarPets(List.of(
+                pedidoPet(1L, null, "Rex"),
+                pedidoPet(2L, null, "Luna"),
+                pedidoPet(2L, null, "Thor")));
+
+        assertThat(resultado.getItens()).extracting(LoteResponse.Item::getStatus).containsExactly(201, 403, 403);
+        assertThat(resultado.getItens().get(1).getErros()).containsExactly("Sem permissão para o cliente 2");
+        verify(roleService, times(1)).canModifyPet(null, 2L);
+    }
+
+    @Test
+    void criarEnderecos_WithUnknownCliente_ShouldReportItem() {
+        when(clienteRepository.findAllWithUsuarioByIdIn(List.of(9L))).thenReturn(List.of());
+        when(roleService.canAccessCliente(9L)).thenReturn(true);
+
+        Cliente referencia = new Cliente();
+        referencia.setId(9L);
+        Endereco endereco = new Endereco(referencia, "Rua das Flores, 10", "São Paulo", "Centro", null, "casa");
+
+        LoteResponse<EnderecoResponse> resultado = cadastroLoteService.criarEnderecos(List.of(endereco));
+
+        assertThat(resultado.getFalhas()).isEqualTo(1);
+        assertThat(resultado.getItens().get(0).getStatus()).isEqualTo(400);
+        assertThat(resultado.getItens().get(0).getErros()).containsExactly("Cliente não encontrado: 9");
+    }
+
+    @Test
+    void criarContatos_WithTooManyItems_ShouldThrow() {
+        List<Contato> pedidos = Collections.nCopies(CadastroLoteService.TAMANHO_MAXIMO + 1,
+                new Contato(cliente1, null, Contato.TipoContato.email, "joao@email.com"));
+
+        assertThatThrownBy(() -> cadastroLoteService.criarContatos(pedidos))
+                .isInstanceOf(LoteInvalidoException.class);
+        verifyNoInteractions(clienteRepository, contatoRepository);
+    }
+
+    @Test
+    void criarContatos_WithoutClienteId_ShouldReportItem() {
+        when(clienteRepository.findAllWithUsuarioByIdIn(List.of())).thenReturn(List.of());
+
+        Contato contato = new Contato(new Cliente(), null, Contato.TipoContato.telefone, "(11) 99999-0000");
+
+        LoteResponse<ContatoResponse> resultado = cadastroLoteService.criarContatos(List.of(contato));
+
+        assertThat(resultado.getItens().get(0).getStatus()).isEqualTo(400);
+        assertThat(resultado.getItens().get(0).getErros()).containsExactly("ID do cliente é obrigatório");
+        verifyNoInteractions(roleService);
+    }
+
+    @Test
+    void criarAtendimentos_WithPetOfAnotherCliente_ShouldReportItem() {
+        Pets pet = new Pets(cliente2, null, null, "Luna", null);
+        pet.setId(5L);
+        when(clienteRepository.findAllWithUsuarioByIdIn(List.of(1L))).thenReturn(List.of(cliente1));
+        when(petsRepository.findAllById(List.of(5L))).thenReturn(List.of(pet));
+        when(roleService.canAccessCliente(1L)).thenReturn(true);
+
+        AtendimentoCreateRequest pedido = new AtendimentoCreateRequest(new AtendimentoCreateRequest.PetReference(5L),
+                new AtendimentoCreateRequest.ClienteReference(1L), "Banho e tosa", new BigDecimal("80.00"), LocalDate.now());
+
+        LoteResponse<AtendimentoResponse> resultado = cadastroLoteService.criarAtendimentos(List.of(pedido));
+
+        assertThat(resultado.getItens().get(0).getStatus()).isEqualTo(400);
+        assertThat(resultado.getItens().get(0).getErros()).containsExactly("Pet 5 não pertence ao cliente 1");
+        verify(atendimentoRepository, never()).findResponsesByIds(any());
+    }
+
+    private Pets pedidoPet(Long clienteId, Long racaId, String nome) {
+        Cliente cliente = new Cliente();
+        cliente.setId(clienteId);
+        Raca referencia = null;
+        if (racaId != null) {
+            referencia = new Raca();
+            referencia.setId(racaId);
+        }
+        return new Pets(cliente, referencia, LocalDate.of(2020, 1, 1), nome, null);
+    }
+}
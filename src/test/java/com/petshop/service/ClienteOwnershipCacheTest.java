@@ -0,0 +1,117 @@
+package com.petshop.service;
+
+import com.petshop.repository.ClienteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClienteOwnershipCacheTest {
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ClienteOwnershipCache clienteOwnershipCache;
+
+    @BeforeEach
+    void setUp() {
+        LeituraNoPrimario leituraNoPrimario = new LeituraNoPrimario();
+        ReflectionTestUtils.setField(leituraNoPrimario, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(clienteOwnershipCache, "leituraNoPrimario", leituraNoPrimario);
+    }
+
+    @Test
+    void getClienteId_ShouldLoadFromPrimary() {
+        // Com réplicas, uma leitura atrasada logo após a troca de CPF guardaria o vínculo antigo
+        when(clienteRepository.findIdByCpf("98765432100")).thenAnswer(invocation -> {
+            assertThat(LeituraNoPrimario.ativa()).isTrue();
+            return Optional.of(1L);
+        });
+        when(clienteRepository.findCpfById(2L)).thenAnswer(invocation -> {
+            assertThat(LeituraNoPrimario.ativa()).isTrue();
+            return Optional.of("12345678901");
+        });
+
+        assertThat(clienteOwnershipCache.getClienteId("98765432100")).isEqualTo(1L);
+        assertThat(clienteOwnershipCache.getCpf(2L)).isEqualTo("12345678901");
+        assertThat(LeituraNoPrimario.ativa()).isFalse();
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void getClienteId_ShouldQueryDatabaseOnlyOnce() {
+        when(clienteRepository.findIdByCpf("98765432100")).thenReturn(Optional.of(1L));
+
+        Long primeiro = clienteOwnershipCache.getClienteId("98765432100");
+        Long segundo = clienteOwnershipCache.getClienteId("98765432100");
+
+        assertThat(primeiro).isEqualTo(1L);
+        assertThat(segundo).isEqualTo(1L);
+        verify(clienteRepository, times(1)).findIdByCpf("98765432100");
+    }
+
+    @Test
+    void getCpf_AfterPut_ShouldNotQueryDatabase() {
+        clienteOwnershipCache.put("98765432100", 1L);
+
+        assertThat(clienteOwnershipCache.getCpf(1L)).isEqualTo("98765432100");
+        assertThat(clienteOwnershipCache.getClienteId("98765432100")).isEqualTo(1L);
+        verifyNoInteractions(clienteRepository);
+    }
+
+    @Test
+    void getClienteId_WithUnknownCpf_ShouldReturnNullAndNotCache() {
+        when(clienteRepository.findIdByCpf("11122233344")).thenReturn(Optional.empty());
+
+        assertThat(clienteOwnershipCache.getClienteId("11122233344")).isNull();
+        assertThat(clienteOwnershipCache.getClienteId("11122233344")).isNull();
+        verify(clienteRepository, times(2)).findIdByCpf("11122233344");
+    }
+
+    @Test
+    void invalidateClienteId_ShouldRemoveBothDirections() {
+        clienteOwnershipCache.put("98765432100", 1L);
+        when(clienteRepository.findIdByCpf("98765432100")).thenReturn(Optional.of(2L));
+
+        clienteOwnershipCache.invalidateClienteId(1L);
+
+        assertThat(clienteOwnershipCache.getClienteId("98765432100")).isEqualTo(2L);
+        verify(clienteRepository).findIdByCpf("98765432100");
+    }
+
+    @Test
+    void put_WithNewCpfForSameCliente_ShouldReplaceOldPair() {
+        clienteOwnershipCache.put("98765432100", 1L);
+        clienteOwnershipCache.put("11122233344", 1L);
+        when(clienteRepository.findIdByCpf("98765432100")).thenReturn(Optional.empty());
+
+        assertThat(clienteOwnershipCache.getCpf(1L)).isEqualTo("11122233344");
+        assertThat(clienteOwnershipCache.getClienteId("98765432100")).isNull();
+    }
+
+    @Test
+    void put_BeyondMaxEntries_ShouldEvictLeastRecentlyUsed() {
+        for (long i = 0; i <= ClienteOwnershipCache.MAX_ENTRIES; i++) {
+            clienteOwnershipCache.put("cpf-" + i, i);
+        }
+
+        assertThat(clienteOwnershipCache.size()).isEqualTo(ClienteOwnershipCache.MAX_ENTRIES);
+        when(clienteRepository.findCpfById(0L)).thenReturn(Optional.empty());
+        assertThat(clienteOwnershipCache.getCpf(0L)).isNull();
+    }
+}
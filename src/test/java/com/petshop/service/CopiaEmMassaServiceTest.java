@@ -0,0 +1,68 @@
+package com.petshop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CopiaEmMassaServiceTest {
+
+    @Test
+    void condicoesDeDescarte_WithoutReferencesOrRules_ShouldBeEmpty() {
+        assertThat(CopiaEmMassaService.condicoesDeDescarte(tabela("raca"), Set.of())).isEmpty();
+    }
+
+    @Test
+    void condicoesDeDescarte_ShouldLookForLoadedParentsInStagingAndOthersInTable() {
+        String descarte = CopiaEmMassaService.condicoesDeDescarte(tabela("pets"), Set.of("cliente"));
+
+        assertThat(descarte).isEqualTo(
+                "(NOT EXISTS (SELECT 1 FROM stg_cliente p WHERE p.id = s.id_cliente))"
+                + " OR (s.id_raca IS NOT NULL AND NOT EXISTS (SELECT 1 FROM raca p WHERE p.id = s.id_raca))");
+    }
+
+    @Test
+    void condicoesDeDescarte_ShouldIncludeTableRules() {
+        String descarte = CopiaEmMassaService.condicoesDeDescarte(tabela("cliente"), Set.of());
+
+        assertThat(descarte).isEqualTo(
+                "(s.cpf IS NOT NULL AND NOT EXISTS (SELECT 1 FROM usuario u WHERE u.cpf = s.cpf))"
+                + " OR (s.cpf IS NOT NULL AND EXISTS (SELECT 1 FROM cliente c WHERE c.cpf = s.cpf))");
+    }
+
+    @Test
+    void insercao_ShouldUseNewIdsOfLoadedParentsOnly() {
+        String insercao = CopiaEmMassaService.insercao(tabela("atendimento"), Set.of("pets"));
+
+        assertThat(insercao).isEqualTo(
+                "INSERT INTO atendimento (id, id_pet, id_cliente, descricao, valor, data)"
+                + " SELECT s.novo_id, p_id_pet.novo_id, s.id_cliente, s.descricao, s.valor, s.data"
+                + " FROM stg_atendimento s LEFT JOIN stg_pets p_id_pet ON p_id_pet.id = s.id_pet");
+    }
+
+    @Test
+    void insercao_WithoutReferences_ShouldCopyColumnsWithNewId() {
+        assertThat(CopiaEmMassaService.insercao(tabela("raca"), Set.of()))
+                .isEqualTo("INSERT INTO raca (id, descricao) SELECT s.novo_id, s.descricao FROM stg_raca s");
+    }
+
+    @Test
+    void alocacaoIds_ShouldTakeOneValuePerBlockFromTheTableSequence() {
+        String alocacao = CopiaEmMassaService.alocacaoIds(tabela("pets"));
+
+        assertThat(alocacao)
+                .contains("nextval('pets_id_seq')")
+                .contains("generate_series(1, (SELECT ceil(count(*) / 50.0)::int FROM stg_pets))")
+                .contains("novo_id = blocos.topo - (50 - 1) + numeradas.n % 50")
+                .contains("blocos.b = numeradas.n / 50")
+                .doesNotContain("%1$s");
+    }
+
+    private static CopiaEmMassaService.Tabela tabela(String nome) {
+        return CopiaEmMassaService.TABELAS.stream()
+                .filter(tabela -> tabela.nome().equals(nome))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -114,5 +115,122 @@ class JwtServiceTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Erro ao verificar token");
     }
-}
 
+    @Test
+    void validateToken_CalledTwice_ShouldReturnSameData() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.ADMIN);
+
+        String token = jwtService.generateToken(usuario);
+
+        Usuario primeiro = jwtService.validateToken(token);
+        Usuario segundo = jwtService.validateToken(token);
+
+        assertThat(segundo).isNotSameAs(primeiro);
+        assertThat(segundo.getCpf()).isEqualTo(primeiro.getCpf());
+        assertThat(segundo.getNome()).isEqualTo(primeiro.getNome());
+        assertThat(segundo.getPerfil()).isEqualTo(primeiro.getPerfil());
+    }
+
+    @Test
+    void validateToken_WhenReturnedUsuarioIsModified_ShouldNotAffectCache() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.CLIENTE);
+
+        String token = jwtService.generateToken(usuario);
+
+        Usuario primeiro = jwtService.validateToken(token);
+        primeiro.setPerfil(PerfilUsuario.ADMIN);
+        primeiro.setCpf("00000000000");
+
+        Usuario segundo = jwtService.validateToken(token);
+
+        assertThat(segundo.getPerfil()).isEqualTo(PerfilUsuario.CLIENTE);
+        assertThat(segundo.getCpf()).isEqualTo("12345678901");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void validateToken_WithDigestCollidingWithCachedToken_ShouldVerifySignature() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.ADMIN);
+
+        String token = jwtService.generateToken(usuario);
+        jwtService.validateToken(token);
+
+        // Simula uma colisão do resumo de 64 bits: a entrada do token verificado passa a
+        // ficar sob o resumo de outra string
+        String forjado = "forjado.sem.assinatura";
+        Map<Long, Object> verifiedTokens = (Map<Long, Object>) ReflectionTestUtils.getField(jwtService, "verifiedTokens");
+        verifiedTokens.put(TokenDigest.of(forjado), verifiedTokens.get(TokenDigest.of(token)));
+
+        assertThatThrownBy(() -> jwtService.validateToken(forjado))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Erro ao verificar token");
+    }
+
+    @Test
+    void validateToken_AfterInvalidateToken_ShouldThrowException() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.ADMIN);
+
+        String token = jwtService.generateToken(usuario);
+        jwtService.validateToken(token);
+
+        jwtService.invalidateToken(token);
+
+        assertThat(jwtService.isTokenBlacklisted(token)).isTrue();
+        assertThatThrownBy(() -> jwtService.validateToken(token))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("invalidado");
+    }
+
+    @Test
+    void cleanupExpiredTokens_ShouldKeepTokensNotYetExpired() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.ADMIN);
+
+        String token = jwtService.generateToken(usuario);
+        jwtService.invalidateToken(token);
+
+        jwtService.cleanupExpiredTokens();
+
+        assertThat(jwtService.isTokenBlacklisted(token)).isTrue();
+        assertThat(jwtService.blacklistSize()).isEqualTo(1);
+    }
+
+    @Test
+    void removeExpiredBlacklistedTokens_AfterTokenExpiration_ShouldDropEntry() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.ADMIN);
+
+        String token = jwtService.generateToken(usuario);
+        jwtService.invalidateToken(token);
+
+        jwtService.removeExpiredBlacklistedTokens(System.currentTimeMillis() + 2 * 86400000L);
+
+        assertThat(jwtService.isTokenBlacklisted(token)).isFalse();
+        assertThat(jwtService.blacklistSize()).isZero();
+    }
+
+    @Test
+    void invalidateToken_WithMalformedToken_ShouldStillBlacklist() {
+        String malformedToken = "not.a.valid.jwt.token";
+
+        jwtService.invalidateToken(malformedToken);
+
+        assertThat(jwtService.isTokenBlacklisted(malformedToken)).isTrue();
+    }
+}
@@ -0,0 +1,104 @@
+package com.petshop.service;
+
+import com.petshop.service.RelatorioAtendimentoService.Agrupamento;
+import com.petshop.service.RelatorioAtendimentoService.Periodo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelatorioAtendimentoServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RelatorioAtendimentoService relatorioAtendimentoService;
+
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2024, 3, 31);
+
+    @Test
+    void periodoEAgrupamento_ShouldParseNamesIgnoringCase() {
+        assertThat(Periodo.de("Mes")).isEqualTo(Periodo.MES);
+        assertThat(Periodo.de("semana")).isNull();
+        assertThat(Agrupamento.de("RACA")).isEqualTo(Agrupamento.RACA);
+        assertThat(Agrupamento.de("pet")).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void faturamento_PerDayAndRaca_ShouldGroupInDatabase() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        relatorioAtendimentoService.faturamento(INICIO, FIM, Periodo.DIA, Agrupamento.RACA);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> parametros = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).query(sql.capture(), parametros.capture(), any(RowMapper.class));
+        assertThat(sql.getValue())
+                .contains("date_trunc('day', b.data)")
+                .contains("LEFT JOIN raca r")
+                .contains("GROUP BY 1, 2, 3");
+        assertThat(parametros.getValue().getValue("dataInicio")).isEqualTo(INICIO);
+        assertThat(parametros.getValue().getValue("dataFim")).isEqualTo(FIM);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void faturamento_Total_ShouldNotJoinOtherTables() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        relatorioAtendimentoService.faturamento(INICIO, FIM, Periodo.MES, Agrupamento.TOTAL);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(MapSqlParameterSource.class), any(RowMapper.class));
+        assertThat(sql.getValue()).contains("date_trunc('month', b.data)").doesNotContain("JOIN");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rankingPets_ShouldLimitInDatabaseAndComputeShareWithWindow() {
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of());
+
+        relatorioAtendimentoService.rankingPets(INICIO, FIM, 5);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> parametros = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).query(sql.capture(), parametros.capture(), any(RowMapper.class));
+        assertThat(sql.getValue())
+                .contains("GROUP BY b.id_pet")
+                .contains("sum(sum(b.total)) OVER ()")
+                .contains("JOIN pets t");
+        assertThat(parametros.getValue().getValue("limite")).isEqualTo(5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumo_ShouldReadClosedDaysFromRollupAndTodayFromAtendimentos() {
+        when(jdbcTemplate.queryForObject(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(null);
+
+        relatorioAtendimentoService.resumo(INICIO, FIM);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> parametros = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).queryForObject(sql.capture(), parametros.capture(), any(RowMapper.class));
+        assertThat(sql.getValue())
+                .contains("FROM atendimento_resumo_diario WHERE data BETWEEN :dataInicio AND :dataFim AND data < :hoje")
+                .contains("FROM atendimento WHERE data BETWEEN :dataInicio AND :dataFim AND data >= :hoje");
+        assertThat(parametros.getValue().getValue("hoje")).isEqualTo(LocalDate.now());
+    }
+}
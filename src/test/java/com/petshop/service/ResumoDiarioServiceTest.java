@@ -0,0 +1,149 @@
+package com.petshop.service;
+
+import com.petshop.dto.DivergenciaResumoResponse;
+import com.petshop.model.Atendimento;
+import com.petshop.model.Cliente;
+import com.petshop.model.Pets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResumoDiarioServiceTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private AtendimentoPeriodoCache atendimentoPeriodoCache;
+
+    @InjectMocks
+    private ResumoDiarioService resumoDiarioService;
+
+    private static final LocalDate DIA = LocalDate.of(2024, 2, 10);
+
+    private Cliente cliente;
+    private Pets rex;
+    private Pets luna;
+
+    @BeforeEach
+    void setUp() {
+        cliente = new Cliente("João Silva", "12345678901", null);
+        cliente.setId(1L);
+        rex = new Pets(cliente, null, null, "Rex", null);
+        rex.setId(1L);
+        luna = new Pets(cliente, null, null, "Luna", null);
+        luna.setId(2L);
+    }
+
+    @Test
+    void incluir_ShouldSumAtendimentosOfSameDayClienteAndPetIntoOneRow() {
+        resumoDiarioService.incluir(List.of(
+                atendimento(rex, DIA, "80.00"),
+                atendimento(rex, DIA, null),
+                atendimento(luna, DIA, "50.00")));
+
+        ArgumentCaptor<SqlParameterSource[]> linhas = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(contains("ON CONFLICT (data, id_cliente, id_pet) DO UPDATE"), linhas.capture());
+        assertThat(linhas.getValue()).hasSize(2);
+        assertThat(linhas.getValue()[0].getValue("petId")).isEqualTo(1L);
+        assertThat(linhas.getValue()[0].getValue("atendimentos")).isEqualTo(2L);
+        assertThat(linhas.getValue()[0].getValue("comValor")).isEqualTo(1L);
+        assertThat(linhas.getValue()[0].getValue("total")).isEqualTo(new BigDecimal("80.00"));
+        verify(jdbcTemplate, never()).update(anyString(), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    void excluir_ShouldSubtractAndDropEmptyRows() {
+        resumoDiarioService.excluir(new ResumoDiarioService.Lancamento(DIA, 1L, 1L, new BigDecimal("80.00")));
+
+        ArgumentCaptor<SqlParameterSource[]> linhas = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), linhas.capture());
+        assertThat(linhas.getValue()[0].getValue("atendimentos")).isEqualTo(-1L);
+        assertThat(linhas.getValue()[0].getValue("total")).isEqualTo(new BigDecimal("-80.00"));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM atendimento_resumo_diario"), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    void alterar_WithSameKeyAndValor_ShouldNotWrite() {
+        Atendimento atual = atendimento(rex, DIA, "80.00");
+
+        resumoDiarioService.alterar(ResumoDiarioService.Lancamento.de(atual), atual);
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(atendimentoPeriodoCache).invalidar(List.of(ResumoDiarioService.Lancamento.de(atual), ResumoDiarioService.Lancamento.de(atual)));
+    }
+
+    @Test
+    void alterar_WithNewDate_ShouldMoveAtendimentoBetweenDays() {
+        ResumoDiarioService.Lancamento anterior = new ResumoDiarioService.Lancamento(DIA, 1L, 1L, new BigDecimal("80.00"));
+
+        resumoDiarioService.alterar(anterior, atendimento(rex, DIA.plusDays(1), "90.00"));
+
+        ArgumentCaptor<SqlParameterSource[]> linhas = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbcTemplate).batchUpdate(anyString(), linhas.capture());
+        assertThat(linhas.getValue()).extracting(linha -> linha.getValue("data")).containsExactly(DIA, DIA.plusDays(1));
+        assertThat(linhas.getValue()).extracting(linha -> linha.getValue("atendimentos")).containsExactly(-1L, 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void verificarRecentes_WithDivergence_ShouldRebuildOnlyAffectedDays() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(eq(ResumoDiarioService.TRAVA_VERIFICACAO), any(MapSqlParameterSource.class), eq(Boolean.class)))
+                .thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class))).thenReturn(List.of(
+                new DivergenciaResumoResponse(DIA, 1L, 1L, 2, 1, new BigDecimal("160.00"), new BigDecimal("80.00")),
+                new DivergenciaResumoResponse(DIA, 1L, 2L, 0, 1, BigDecimal.ZERO, new BigDecimal("50.00"))));
+
+        resumoDiarioService.verificarRecentes();
+
+        ArgumentCaptor<MapSqlParameterSource> intervalo = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM atendimento_resumo_diario WHERE data BETWEEN"), intervalo.capture());
+        assertThat(intervalo.getValue().getValue("dataInicio")).isEqualTo(DIA);
+        assertThat(intervalo.getValue().getValue("dataFim")).isEqualTo(DIA);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO atendimento_resumo_diario"), any(MapSqlParameterSource.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void verificarRecentes_WhenAnotherInstanceHoldsLock_ShouldSkip() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(jdbcTemplate.queryForObject(eq(ResumoDiarioService.TRAVA_VERIFICACAO), any(MapSqlParameterSource.class), eq(Boolean.class)))
+                .thenReturn(false);
+
+        resumoDiarioService.verificarRecentes();
+
+        verify(jdbcTemplate, never()).query(anyString(), any(MapSqlParameterSource.class), any(RowMapper.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    private Atendimento atendimento(Pets pet, LocalDate data, String valor) {
+        Atendimento atendimento = new Atendimento(pet, cliente, "Banho", valor != null ? new BigDecimal(valor) : null);
+        atendimento.setData(data);
+        return atendimento;
+    }
+}
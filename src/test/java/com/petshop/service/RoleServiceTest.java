@@ -6,7 +6,6 @@ import com.petshop.model.Pets;
 import com.petshop.model.Usuario;
 import com.petshop.model.PerfilUsuario;
 import com.petshop.repository.AtendimentoRepository;
-import com.petshop.repository.ClienteRepository;
 import com.petshop.repository.PetsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,7 +21,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,7 +30,7 @@ import static org.mockito.Mockito.*;
 class RoleServiceTest {
 
     @Mock
-    private ClienteRepository clienteRepository;
+    private ClienteOwnershipCache clienteOwnershipCache;
 
     @Mock
     private PetsRepository petsRepository;
@@ -167,7 +165,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteOwnershipCache.getClienteId("98765432100")).thenReturn(1L);
 
         boolean result = roleService.canAccessCliente(1L);
 
@@ -181,17 +179,27 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        
-        Cliente differentCliente = new Cliente();
-        differentCliente.setId(2L);
-        differentCliente.setCpf("11122233344");
-        when(clienteRepository.findById(2L)).thenReturn(Optional.of(differentCliente));
+        when(clienteOwnershipCache.getClienteId("98765432100")).thenReturn(1L);
 
         boolean result = roleService.canAccessCliente(2L);
 
         assertThat(result).isFalse();
     }
 
+    @Test
+    @SuppressWarnings("rawtypes")
+    void canAccessCliente_WithoutClienteForCpf_ShouldReturnFalse() {
+        Collection<GrantedAuthority> authorities = Arrays.asList(new SimpleGrantedAuthority("ROLE_USER"));
+        when(authentication.getAuthorities()).thenReturn((Collection) authorities);
+        when(authentication.getPrincipal()).thenReturn(regularUser);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(clienteOwnershipCache.getClienteId("98765432100")).thenReturn(null);
+
+        boolean result = roleService.canAccessCliente(1L);
+
+        assertThat(result).isFalse();
+    }
+
     @Test
      @SuppressWarnings("rawtypes")
     void canAccessPet_WithAdminUser_ShouldReturnTrue() {
@@ -211,11 +219,12 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.existsByIdAndClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canAccessPet(1L);
 
         assertThat(result).isTrue();
+        verify(petsRepository, never()).findById(any());
     }
 
     @Test
@@ -285,11 +294,12 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(atendimentoRepository.findById(1L)).thenReturn(Optional.of(atendimento));
+        when(atendimentoRepository.existsByIdAndPetClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canAccessAtendimento(1L);
 
         assertThat(result).isTrue();
+        verify(atendimentoRepository, never()).findById(any());
     }
 
     @Test
@@ -311,7 +321,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.existsByIdAndClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canModifyAtendimento(null, 1L);
 
@@ -370,7 +380,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.existsByIdAndClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canModifyPet(1L, null);
 
@@ -384,7 +394,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(clienteRepository.findByCpf("98765432100")).thenReturn(Optional.of(cliente));
+        when(clienteOwnershipCache.getClienteId("98765432100")).thenReturn(1L);
 
         boolean result = roleService.canModifyPet(null, 1L);
 
@@ -398,7 +408,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(clienteRepository.findByCpf("98765432100")).thenReturn(Optional.of(cliente));
+        when(clienteOwnershipCache.getClienteId("98765432100")).thenReturn(1L);
 
         boolean result = roleService.canModifyPet(null, 2L);
 
@@ -424,7 +434,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(petsRepository.findById(1L)).thenReturn(Optional.of(pet));
+        when(petsRepository.existsByIdAndClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canDeletePet(1L);
 
@@ -450,7 +460,7 @@ class RoleServiceTest {
         when(authentication.getAuthorities()).thenReturn((Collection) authorities);
         when(authentication.getPrincipal()).thenReturn(regularUser);
         when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(atendimentoRepository.findById(1L)).thenReturn(Optional.of(atendimento));
+        when(atendimentoRepository.existsByIdAndPetClienteCpf(1L, "98765432100")).thenReturn(true);
 
         boolean result = roleService.canDeleteAtendimento(1L);
 
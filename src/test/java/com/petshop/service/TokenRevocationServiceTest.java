@@ -0,0 +1,94 @@
+package com.petshop.service;
+
+import com.petshop.model.PerfilUsuario;
+import com.petshop.model.TokenRevogado;
+import com.petshop.model.Usuario;
+import com.petshop.repository.TokenRevogadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    @Spy
+    private JwtService jwtService = new JwtService();
+
+    @Mock
+    private TokenRevogadoRepository tokenRevogadoRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        Usuario usuario = new Usuario();
+        usuario.setCpf("12345678901");
+        usuario.setNome("João Silva");
+        usuario.setPerfil(PerfilUsuario.CLIENTE);
+        token = jwtService.generateToken(usuario);
+    }
+
+    @Test
+    void revogar_ShouldPersistNotifyAndRevokeLocally() {
+        tokenRevocationService.revogar(token);
+
+        ArgumentCaptor<TokenRevogado> captor = ArgumentCaptor.forClass(TokenRevogado.class);
+        verify(tokenRevogadoRepository).save(captor.capture());
+        assertThat(captor.getValue().getDigest()).isEqualTo(TokenDigest.of(token));
+        assertThat(captor.getValue().getExpiraEm()).isAfter(Instant.now());
+        verify(jdbcTemplate).queryForList(eq("SELECT pg_notify(?, ?)"), eq(TokenRevocationService.CANAL), anyString());
+        assertThat(jwtService.isTokenBlacklisted(token)).isTrue();
+    }
+
+    @Test
+    void processarNotificacao_ShouldRevokeTokenFromOtherNode() {
+        jwtService.validateToken(token);
+        long expiraEm = System.currentTimeMillis() + 60_000;
+
+        tokenRevocationService.processarNotificacao(TokenDigest.of(token) + ":" + expiraEm);
+
+        assertThatThrownBy(() -> jwtService.validateToken(token))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("invalidado");
+    }
+
+    @Test
+    void processarNotificacao_WithInvalidPayload_ShouldBeIgnored() {
+        tokenRevocationService.processarNotificacao("payload-invalido");
+        tokenRevocationService.processarNotificacao("abc:def");
+
+        verify(jwtService, never()).revokeLocally(anyLong(), anyLong());
+    }
+
+    @Test
+    void carregarRevogacoes_ShouldLoadValidRevocations() {
+        Instant expiraEm = Instant.now().plusSeconds(60);
+        when(tokenRevogadoRepository.findByExpiraEmAfter(any(Instant.class)))
+                .thenReturn(List.of(new TokenRevogado(TokenDigest.of(token), expiraEm)));
+
+        tokenRevocationService.carregarRevogacoes();
+
+        assertThat(jwtService.isTokenBlacklisted(token)).isTrue();
+    }
+}